@@ -96,6 +96,25 @@ public interface IHttpClient {
      */
     HttpClientResponse<JsonObject> postJson(String url, JsonObject json) throws HttpClientException;
 
+    /**
+     * Issue an HTTP POST to the provided URL, sending the provided
+     * {@link JSONObject} and receiving a {@link JSONObject} in the response. The
+     * headers are only added to this request, the default implementation
+     * throws {@link UnsupportedOperationException} if there are any headers.
+     * 
+     * @param url
+     * @param json
+     * @param headers
+     * @return - {@link HttpClientResponse} with a {@link JSONObject} content type
+     * @throws HttpClientException
+     */
+    default HttpClientResponse<JsonObject> postJson(String url, JsonObject json, Map<String, String> headers) throws HttpClientException {
+        if (headers != null && !headers.isEmpty()) {
+            throw new UnsupportedOperationException("Request headers are not supported by this client");
+        }
+        return postJson(url, json);
+    }
+
      /**
      * Issue an HTTP PUT to the provided URL, sending the provided
      * {@link JSONObject} and receiving a {@link JSONObject} in the response.
@@ -107,6 +126,25 @@ public interface IHttpClient {
      */
     HttpClientResponse<JsonObject> putJson(String url, JsonObject json) throws HttpClientException;
 
+    /**
+     * Issue an HTTP PUT to the provided URL, sending the provided
+     * {@link JSONObject} and receiving a {@link JSONObject} in the response. The
+     * headers are only added to this request, the default implementation
+     * throws {@link UnsupportedOperationException} if there are any headers.
+     * 
+     * @param url
+     * @param json
+     * @param headers
+     * @return - {@link HttpClientResponse} with a {@link JSONObject} content type
+     * @throws HttpClientException
+     */
+    default HttpClientResponse<JsonObject> putJson(String url, JsonObject json, Map<String, String> headers) throws HttpClientException {
+        if (headers != null && !headers.isEmpty()) {
+            throw new UnsupportedOperationException("Request headers are not supported by this client");
+        }
+        return putJson(url, json);
+    }
+
     /**
      * Issue an HTTP DELETE to the provided URL, receiving a {@link JSONObject} in
      * the response.
@@ -117,6 +155,24 @@ public interface IHttpClient {
      */
     HttpClientResponse<JsonObject> deleteJson(String url) throws HttpClientException;
 
+    /**
+     * Issue an HTTP DELETE to the provided URL, receiving a {@link JSONObject} in
+     * the response. The headers are only added to this request, the default
+     * implementation throws {@link UnsupportedOperationException} if there are
+     * any headers.
+     * 
+     * @param url
+     * @param headers
+     * @return - {@link HttpClientResponse} with a {@link JSONObject} content type
+     * @throws HttpClientException
+     */
+    default HttpClientResponse<JsonObject> deleteJson(String url, Map<String, String> headers) throws HttpClientException {
+        if (headers != null && !headers.isEmpty()) {
+            throw new UnsupportedOperationException("Request headers are not supported by this client");
+        }
+        return deleteJson(url);
+    }
+
     /**
      * Issue an HTTP GET to the provided URL, receiving a {@link String} in the
      * response.
@@ -127,6 +183,24 @@ public interface IHttpClient {
      */
     HttpClientResponse<String> getText(String url) throws HttpClientException;
 
+    /**
+     * Issue an HTTP GET to the provided URL, receiving a {@link String} in the
+     * response. The headers are only added to this request, the default
+     * implementation throws {@link UnsupportedOperationException} if there are
+     * any headers.
+     * 
+     * @param url
+     * @param headers
+     * @return - {@link HttpClientResponse} with a {@link String} content type
+     * @throws HttpClientException
+     */
+    default HttpClientResponse<String> getText(String url, Map<String, String> headers) throws HttpClientException {
+        if (headers != null && !headers.isEmpty()) {
+            throw new UnsupportedOperationException("Request headers are not supported by this client");
+        }
+        return getText(url);
+    }
+
     /**
      * Issue an HTTP POST to the provided URL, sending the provided {@link String}
      * and receiving a {@link String} in the response.
@@ -149,6 +223,25 @@ public interface IHttpClient {
      */
     HttpClientResponse<String> putText(String url, String text) throws HttpClientException;
 
+    /**
+     * Issue an HTTP PUT to the provided URL, sending the provided {@link String}
+     * and receiving a {@link String} in the response. The headers are only added
+     * to this request, the default implementation throws
+     * {@link UnsupportedOperationException} if there are any headers.
+     * 
+     * @param url
+     * @param text
+     * @param headers
+     * @return - {@link HttpClientResponse} with a {@link String} content type
+     * @throws HttpClientException
+     */
+    default HttpClientResponse<String> putText(String url, String text, Map<String, String> headers) throws HttpClientException {
+        if (headers != null && !headers.isEmpty()) {
+            throw new UnsupportedOperationException("Request headers are not supported by this client");
+        }
+        return putText(url, text);
+    }
+
     /**
      * Issue an HTTP DELETE to the provided URL, receiving a {@link String} in the
      * response.
@@ -170,6 +263,25 @@ public interface IHttpClient {
      */
     HttpClientResponse<byte[]> putBinary(String url, byte[] binary) throws HttpClientException;
 
+    /**
+     * Issue an HTTP PUT to the provided URL, sending the provided
+     * {@link byte[]} and receiving a {@link byte[]} in the response. The headers
+     * are only added to this request, the default implementation throws
+     * {@link UnsupportedOperationException} if there are any headers.
+     * 
+     * @param url
+     * @param binary
+     * @param headers
+     * @return - {@link HttpClientResponse} with a {@link byte[]} content type
+     * @throws HttpClientException
+     */
+    default HttpClientResponse<byte[]> putBinary(String url, byte[] binary, Map<String, String> headers) throws HttpClientException {
+        if (headers != null && !headers.isEmpty()) {
+            throw new UnsupportedOperationException("Request headers are not supported by this client");
+        }
+        return putBinary(url, binary);
+    }
+
     /**
      * Issue an HTTP GET to the provided URL, sending the provided
      * {@link byte[]} and receiving a {@link byte[]} in the response.
@@ -220,6 +332,23 @@ public interface IHttpClient {
      */
     CloseableHttpResponse getFile(String path, ContentType... acceptTypes) throws HttpClientException;
 
+    /**
+     * Download a file from a specified location, the headers are only added to
+     * this request, the default implementation throws
+     * {@link UnsupportedOperationException} if there are any headers. The
+     * response must be closed to return the connection to the pool.
+     * 
+     * @param path
+     * @param headers
+     * @param acceptTypes
+     */
+    default CloseableHttpResponse getFile(String path, Map<String, String> headers, ContentType... acceptTypes) throws HttpClientException {
+        if (headers != null && !headers.isEmpty()) {
+            throw new UnsupportedOperationException("Request headers are not supported by this client");
+        }
+        return getFile(path, acceptTypes);
+    }
+
     /**
      * Send a compressed (tar) file from a local location to a specified destination on a host.
      * 
@@ -282,6 +411,19 @@ public interface IHttpClient {
      */
     void clearCommonHeaders();
 
+    /**
+     * Set the maximum number of connections the client keeps open to a host,
+     * connections are kept alive and reused by later requests. Requests wait
+     * for a free connection when they are all in use. The default
+     * implementation ignores the setting.
+     * 
+     * @param maxConnections
+     * @return the updated client
+     */
+    default IHttpClient setMaxConnections(int maxConnections) {
+        return this;
+    }
+
     /**
      * Add a response code for the execute to ignore and treat as OK
      * 
@@ -24,6 +24,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Map.Entry;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -82,10 +85,13 @@ public class HttpClientImpl implements IHttpClient {
 
     private static final String JAVA_VENDOR_PROPERTY = "java.vendor";
 
-    private CloseableHttpClient httpClient;
+    private static final int    DEFAULT_MAX_TOTAL_CONNECTIONS = 20;
+
+    private volatile PooledClient httpClient;
+    private volatile boolean    rebuildRequired      = true;
     protected URI               host                 = null;
 
-    private final List<Header>  commonHeaders        = new ArrayList<>();
+    private final List<Header>  commonHeaders        = new CopyOnWriteArrayList<>();
 
     private final int           timeout;
 
@@ -93,7 +99,8 @@ public class HttpClientImpl implements IHttpClient {
     private SSLContext          sslContext;
     private HostnameVerifier    hostnameVerifier     = NoopHostnameVerifier.INSTANCE;
     private CredentialsProvider credentialsProvider  = new BasicCredentialsProvider();
-    private HttpClientContext   httpContext          = null;
+    private AuthCache           authCache            = null;
+    private int                 maxConnections       = 0;
     private Set<Integer>        okResponseCodes      = new HashSet<>();
 
     private Log                 logger;
@@ -159,29 +166,49 @@ public class HttpClientImpl implements IHttpClient {
 
     @Override
     public HttpClientResponse<JsonObject> putJson(String url, JsonObject json) throws HttpClientException {
+        return putJson(url, json, null);
+    }
+
+    @Override
+    public HttpClientResponse<JsonObject> putJson(String url, JsonObject json, Map<String, String> headers)
+            throws HttpClientException {
 
         HttpClientRequest request = HttpClientRequest.newPutRequest(buildUri(url, null).toString(),
                 new ContentType[] { ContentType.APPLICATION_JSON }, ContentType.APPLICATION_JSON);
         request.setJSONBody(json);
+        addRequestHeaders(request, headers);
 
         return executeJsonRequest(request);
     }
 
     @Override
     public HttpClientResponse<JsonObject> postJson(String url, JsonObject json) throws HttpClientException {
+        return postJson(url, json, null);
+    }
+
+    @Override
+    public HttpClientResponse<JsonObject> postJson(String url, JsonObject json, Map<String, String> headers)
+            throws HttpClientException {
 
         HttpClientRequest request = HttpClientRequest.newPostRequest(buildUri(url, null).toString(),
                 new ContentType[] { ContentType.APPLICATION_JSON }, ContentType.APPLICATION_JSON);
         request.setJSONBody(json);
+        addRequestHeaders(request, headers);
 
         return executeJsonRequest(request);
     }
 
     @Override
     public HttpClientResponse<JsonObject> deleteJson(String url) throws HttpClientException {
+        return deleteJson(url, null);
+    }
+
+    @Override
+    public HttpClientResponse<JsonObject> deleteJson(String url, Map<String, String> headers) throws HttpClientException {
 
         HttpClientRequest request = HttpClientRequest.newDeleteRequest(buildUri(url, null).toString(),
                 new ContentType[] { ContentType.APPLICATION_JSON });
+        addRequestHeaders(request, headers);
 
         return executeJsonRequest(request);
     }
@@ -194,19 +221,32 @@ public class HttpClientImpl implements IHttpClient {
 
     @Override
     public HttpClientResponse<String> getText(String url) throws HttpClientException {
+        return getText(url, null);
+    }
+
+    @Override
+    public HttpClientResponse<String> getText(String url, Map<String, String> headers) throws HttpClientException {
 
         HttpClientRequest request = HttpClientRequest.newGetRequest(buildUri(url, null).toString(),
                 new ContentType[] { ContentType.TEXT_PLAIN });
+        addRequestHeaders(request, headers);
 
         return executeTextRequest(request);
     }
 
     @Override
     public HttpClientResponse<String> putText(String url, String text) throws HttpClientException {
+        return putText(url, text, null);
+    }
+
+    @Override
+    public HttpClientResponse<String> putText(String url, String text, Map<String, String> headers)
+            throws HttpClientException {
 
         HttpClientRequest request = HttpClientRequest.newPutRequest(buildUri(url, null).toString(),
                 new ContentType[] { ContentType.TEXT_PLAIN }, ContentType.TEXT_PLAIN);
         request.setBody(text);
+        addRequestHeaders(request, headers);
 
         return executeTextRequest(request);
     }
@@ -238,9 +278,16 @@ public class HttpClientImpl implements IHttpClient {
         
     @Override
     public HttpClientResponse<byte[]> putBinary(String url, byte[] binary) throws HttpClientException {       
+        return putBinary(url, binary, null);
+    }
+
+    @Override
+    public HttpClientResponse<byte[]> putBinary(String url, byte[] binary, Map<String, String> headers)
+            throws HttpClientException {
         HttpClientRequest request = HttpClientRequest.newPutRequest(buildUri(url, null).toString(),
         new ContentType[] { ContentType.TEXT_PLAIN }, ContentType.TEXT_PLAIN);
         request.setBody(binary);
+        addRequestHeaders(request, headers);
         return executeByteRequest(request);
     }
 
@@ -282,15 +329,29 @@ public class HttpClientImpl implements IHttpClient {
 
     public void enableAuthCache() {
         // Create AuthCache instance
-        AuthCache authCache = new BasicAuthCache();
+        AuthCache newAuthCache = new BasicAuthCache();
         // Generate BASIC scheme object and add it to the local auth cache
         BasicScheme basicAuth = new BasicScheme();
-        authCache.put(new HttpHost(host.getHost(), host.getPort(), host.getScheme()), basicAuth);
+        newAuthCache.put(new HttpHost(host.getHost(), host.getPort(), host.getScheme()), basicAuth);
+
+        // Added to the execution context of each request
+        this.authCache = newAuthCache;
+    }
 
-        // Add AuthCache to the execution context
-        httpContext = HttpClientContext.create();
-        httpContext.setCredentialsProvider(credentialsProvider);
-        httpContext.setAuthCache(authCache);
+    /**
+     * Each request has its own execution context so the client can be used by
+     * many threads at once
+     * 
+     * @return a new context for one request
+     */
+    private HttpClientContext newHttpContext() {
+        HttpClientContext context = HttpClientContext.create();
+        AuthCache currentAuthCache = this.authCache;
+        if (currentAuthCache != null) {
+            context.setCredentialsProvider(credentialsProvider);
+            context.setAuthCache(currentAuthCache);
+        }
+        return context;
     }
 
     /**
@@ -382,6 +443,7 @@ public class HttpClientImpl implements IHttpClient {
     public IHttpClient setSSLContext(SSLContext sslContext) {
 
         this.sslContext = sslContext;
+        this.rebuildRequired = true;
 
         return this;
     }
@@ -396,6 +458,7 @@ public class HttpClientImpl implements IHttpClient {
     public IHttpClient setHostnameVerifier(HostnameVerifier hostnameVerifier) {
 
         this.hostnameVerifier = hostnameVerifier;
+        this.rebuildRequired = true;
 
         return this;
     }
@@ -408,6 +471,7 @@ public class HttpClientImpl implements IHttpClient {
     public IHttpClient setNoopHostnameVerifier() {
 
         this.hostnameVerifier = NoopHostnameVerifier.INSTANCE;
+        this.rebuildRequired = true;
 
         return this;
     }
@@ -461,12 +525,20 @@ public class HttpClientImpl implements IHttpClient {
         return this;
     }
 
+    @Override
+    public IHttpClient setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+        this.rebuildRequired = true;
+
+        return this;
+    }
+
     /**
-     * Build the client
+     * Build the client, connections are pooled and kept alive between requests
      * 
      * @return the built client
      */
-    public IHttpClient build() {
+    public synchronized IHttpClient build() {
 
         HttpClientBuilder builder = HttpClients.custom().setDefaultCookieStore(cookieStore);
         builder.setDefaultCredentialsProvider(credentialsProvider);
@@ -483,11 +555,63 @@ public class HttpClientImpl implements IHttpClient {
             builder.setSSLSocketFactory(csf);
         }
 
-        httpClient = builder.build();
+        if (maxConnections > 0) {
+            builder.setMaxConnPerRoute(maxConnections);
+            builder.setMaxConnTotal(Math.max(maxConnections, DEFAULT_MAX_TOTAL_CONNECTIONS));
+        }
+
+        PooledClient oldHttpClient = httpClient;
+        httpClient = new PooledClient(builder.build());
+        rebuildRequired = false;
+
+        // *** Requests still using the previous client finish before it is closed
+        if (oldHttpClient != null) {
+            oldHttpClient.retire();
+        }
 
         return this;
     }
 
+    /**
+     * Lease the built client for one request, only building it again if the SSL
+     * or connection settings have changed, so the pooled connections are reused.
+     * The lease must be released when the request is complete.
+     * 
+     * @return the leased client
+     */
+    private synchronized PooledClient leaseHttpClient() {
+        if (rebuildRequired || httpClient == null) {
+            build();
+        }
+        httpClient.leases.incrementAndGet();
+        return httpClient;
+    }
+
+    /**
+     * Execute a request whose response is returned to the caller, the lease on
+     * the client is released when the caller closes the response
+     */
+    private CloseableHttpResponse executeLeased(HttpUriRequest request, HttpClientContext context) throws IOException {
+        PooledClient client = leaseHttpClient();
+        CloseableHttpResponse response;
+        try {
+            response = client.client.execute(request, context);
+        } catch (IOException | RuntimeException e) {
+            client.release();
+            throw e;
+        }
+        return new LeasedHttpResponse(response, client::release);
+    }
+
+    private void addRequestHeaders(HttpClientRequest request, Map<String, String> headers) {
+        if (headers == null) {
+            return;
+        }
+        for (Entry<String, String> header : headers.entrySet()) {
+            request.addHeader(header.getKey(), header.getValue());
+        }
+    }
+
     private void addHeaders(AbstractHttpMessage message, ContentType contentType, ContentType[] acceptTypes) {
 
         if (contentType != null) {
@@ -521,9 +645,9 @@ public class HttpClientImpl implements IHttpClient {
 
         while (true) {
             CloseableHttpResponse response = null;
+            PooledClient client = leaseHttpClient();
             try {
-                this.build();
-                response = httpClient.execute(request, httpContext);
+                response = client.client.execute(request, newHttpContext());
                 StatusLine status = response.getStatusLine();
                 if (status.getStatusCode() != HttpStatus.SC_OK
                         && status.getStatusCode() != HttpStatus.SC_CREATED
@@ -561,6 +685,7 @@ public class HttpClientImpl implements IHttpClient {
                                 + request.getURI().toASCIIString(), e);
                     }
                 }
+                client.release();
             }
         }
     }
@@ -730,9 +855,16 @@ public class HttpClientImpl implements IHttpClient {
     }
 
     public CloseableHttpResponse getFile(String path, ContentType... contentTypes) throws HttpClientException {
+        return getFile(path, null, contentTypes);
+    }
+
+    @Override
+    public CloseableHttpResponse getFile(String path, Map<String, String> headers, ContentType... contentTypes)
+            throws HttpClientException {
         try{
             HttpClientRequest request = HttpClientRequest.newGetRequest(buildUri(path, null).toString(),
                 contentTypes);
+            addRequestHeaders(request, headers);
 
             return execute(request.buildRequest());
         } catch (HttpClientException e) {
@@ -769,7 +901,7 @@ public class HttpClientImpl implements IHttpClient {
                 entity = new InputStreamEntity((InputStream) data);
                 put.setEntity(entity);
                 addHeaders(put, contentType, acceptTypes);
-                return httpClient.execute(put, context);
+                return executeLeased(put, context);
             } catch (IOException e) {
                logger.error("IO error with input stream", e);
                throw new HttpClientException(e);
@@ -780,14 +912,8 @@ public class HttpClientImpl implements IHttpClient {
     }
 
     @Override
-    public void addCommonHeader(String name, String value) {
-        List<Header> toRemove = new ArrayList<>();
-        commonHeaders.forEach(header -> {
-            if (header.getName().equals(name)) {
-                toRemove.add(header);
-            }
-        });
-        commonHeaders.removeAll(toRemove);
+    public synchronized void addCommonHeader(String name, String value) {
+        commonHeaders.removeIf(header -> header.getName().equals(name));
         commonHeaders.add(new BasicHeader(name, value));
     }
 
@@ -807,12 +933,14 @@ public class HttpClientImpl implements IHttpClient {
     }
 
     private CloseableHttpResponse execute(HttpUriRequest request) throws HttpClientException {
+        // *** Headers set on the request take precedence over the common headers
         for (Header header : commonHeaders) {
-            request.addHeader(header);
+            if (!request.containsHeader(header.getName())) {
+                request.addHeader(header);
+            }
         }
-        this.build();
         try {
-            return httpClient.execute(request, httpContext);
+            return executeLeased(request, newHttpContext());
         } catch (IOException e) {
             throw new HttpClientException("Error executing http request", e);
         }
@@ -824,11 +952,46 @@ public class HttpClientImpl implements IHttpClient {
             return;
         }
 
-        try {
-            httpClient.close();
-        } catch (IOException e) {
+        httpClient.close();
+    }
+
+    /**
+     * A built client and the number of requests using it. A client replaced by
+     * a rebuild is only closed once the requests using it have completed.
+     */
+    private class PooledClient {
+        private final CloseableHttpClient client;
+        private final AtomicInteger       leases  = new AtomicInteger();
+        private final AtomicBoolean       closed  = new AtomicBoolean();
+        private volatile boolean          retired = false;
+
+        private PooledClient(CloseableHttpClient client) {
+            this.client = client;
         }
 
+        private void release() {
+            if (leases.decrementAndGet() == 0 && retired) {
+                close();
+            }
+        }
+
+        private void retire() {
+            retired = true;
+            if (leases.get() == 0) {
+                close();
+            }
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                client.close();
+            } catch (IOException e) {
+                logger.warn("Problem closing the previous http client", e);
+            }
+        }
     }
 
 }
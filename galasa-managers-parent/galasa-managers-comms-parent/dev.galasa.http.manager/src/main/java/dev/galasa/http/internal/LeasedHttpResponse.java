@@ -0,0 +1,183 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.http.internal;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.http.Header;
+import org.apache.http.HeaderIterator;
+import org.apache.http.HttpEntity;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.params.HttpParams;
+
+/**
+ * A response returned to the caller of {@link HttpClientImpl}, which releases
+ * the lease on the client when it is closed
+ */
+class LeasedHttpResponse implements CloseableHttpResponse {
+
+    private final CloseableHttpResponse response;
+    private final Runnable              release;
+    private final AtomicBoolean         released = new AtomicBoolean();
+
+    LeasedHttpResponse(CloseableHttpResponse response, Runnable release) {
+        this.response = response;
+        this.release = release;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.response.close();
+        } finally {
+            if (this.released.compareAndSet(false, true)) {
+                this.release.run();
+            }
+        }
+    }
+
+    @Override
+    public StatusLine getStatusLine() {
+        return this.response.getStatusLine();
+    }
+
+    @Override
+    public void setStatusLine(StatusLine statusline) {
+        this.response.setStatusLine(statusline);
+    }
+
+    @Override
+    public void setStatusLine(ProtocolVersion ver, int code) {
+        this.response.setStatusLine(ver, code);
+    }
+
+    @Override
+    public void setStatusLine(ProtocolVersion ver, int code, String reason) {
+        this.response.setStatusLine(ver, code, reason);
+    }
+
+    @Override
+    public void setStatusCode(int code) {
+        this.response.setStatusCode(code);
+    }
+
+    @Override
+    public void setReasonPhrase(String reason) {
+        this.response.setReasonPhrase(reason);
+    }
+
+    @Override
+    public HttpEntity getEntity() {
+        return this.response.getEntity();
+    }
+
+    @Override
+    public void setEntity(HttpEntity entity) {
+        this.response.setEntity(entity);
+    }
+
+    @Override
+    public Locale getLocale() {
+        return this.response.getLocale();
+    }
+
+    @Override
+    public void setLocale(Locale loc) {
+        this.response.setLocale(loc);
+    }
+
+    @Override
+    public ProtocolVersion getProtocolVersion() {
+        return this.response.getProtocolVersion();
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return this.response.containsHeader(name);
+    }
+
+    @Override
+    public Header[] getHeaders(String name) {
+        return this.response.getHeaders(name);
+    }
+
+    @Override
+    public Header getFirstHeader(String name) {
+        return this.response.getFirstHeader(name);
+    }
+
+    @Override
+    public Header getLastHeader(String name) {
+        return this.response.getLastHeader(name);
+    }
+
+    @Override
+    public Header[] getAllHeaders() {
+        return this.response.getAllHeaders();
+    }
+
+    @Override
+    public void addHeader(Header header) {
+        this.response.addHeader(header);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        this.response.addHeader(name, value);
+    }
+
+    @Override
+    public void setHeader(Header header) {
+        this.response.setHeader(header);
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        this.response.setHeader(name, value);
+    }
+
+    @Override
+    public void setHeaders(Header[] headers) {
+        this.response.setHeaders(headers);
+    }
+
+    @Override
+    public void removeHeader(Header header) {
+        this.response.removeHeader(header);
+    }
+
+    @Override
+    public void removeHeaders(String name) {
+        this.response.removeHeaders(name);
+    }
+
+    @Override
+    public HeaderIterator headerIterator() {
+        return this.response.headerIterator();
+    }
+
+    @Override
+    public HeaderIterator headerIterator(String name) {
+        return this.response.headerIterator(name);
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams() {
+        return this.response.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public void setParams(HttpParams params) {
+        this.response.setParams(params);
+    }
+
+}
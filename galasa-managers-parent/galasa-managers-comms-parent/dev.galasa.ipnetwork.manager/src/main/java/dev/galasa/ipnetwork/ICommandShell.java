@@ -5,6 +5,9 @@
  */
 package dev.galasa.ipnetwork;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 public interface ICommandShell {
 
     public String issueCommand(String command) throws IpNetworkManagerException;
@@ -44,6 +47,93 @@ public interface ICommandShell {
      */
     public String issueCommand(String command, boolean newShell, long timeout) throws IpNetworkManagerException;
 
+    /**
+     * Issue a command using SSH, passing the output to a listener as it is
+     * received, e.g. to follow the progress of a long running command. The
+     * default implementation, for shells that cannot stream the output, passes all
+     * of the output to the listener once the command completes
+     * 
+     * @param command        - command to issue
+     * @param timeout        - time (in milliseconds) to wait with no new output
+     *                       appearing before timing out
+     * @param outputListener - called with each block of output, in the order it
+     *                       was received
+     * @return the output of the command (stdout and stderr)
+     * @throws IpNetworkManagerException
+     */
+    public default String issueCommand(String command, long timeout, Consumer<String> outputListener) throws IpNetworkManagerException {
+        String response = issueCommand(command, timeout);
+        if (outputListener != null && response != null && !response.isEmpty()) {
+            outputListener.accept(response);
+        }
+        return response;
+    }
+
+    /**
+     * Issue a command using SSH, passing the output to a listener as it is
+     * received. When the output is not kept it is only passed to the listener, so
+     * a long running command does not hold all of its output in memory. The
+     * default implementation, for shells that cannot stream the output, keeps the
+     * output until the command completes
+     * 
+     * @param command        - command to issue
+     * @param timeout        - time (in milliseconds) to wait with no new output
+     *                       appearing before timing out
+     * @param outputListener - called with each block of output, in the order it
+     *                       was received
+     * @param keepOutput     - false to only pass the output to the listener
+     * @return the output of the command (stdout and stderr), or an empty string if
+     *         the output is not kept
+     * @throws IpNetworkManagerException
+     */
+    public default String issueCommand(String command, long timeout, Consumer<String> outputListener, boolean keepOutput) throws IpNetworkManagerException {
+        String response = issueCommand(command, timeout, outputListener);
+        return keepOutput ? response : "";
+    }
+
+    /**
+     * Issue a command using SSH without blocking the caller. Equivalent to
+     * {@link #issueCommandAsync(String, long)} with the default timeout. The
+     * default implementation issues the command with {@link #issueCommand(String)}
+     * before returning
+     * 
+     * @param command - command to issue
+     * @return a future for the output of the command (stdout and stderr)
+     * @throws IpNetworkManagerException
+     */
+    public default CompletableFuture<String> issueCommandAsync(String command) throws IpNetworkManagerException {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            future.complete(issueCommand(command));
+        } catch (IpNetworkManagerException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Issue a command using SSH without blocking the caller. Each command runs on its own channel, so many
+     * commands can run on the host at once. The returned future completes with the value that
+     * {@link #issueCommand(String, long)} would return, or exceptionally with an
+     * {@link IpNetworkManagerException}. The default implementation, for shells
+     * that cannot run commands concurrently, issues the command before returning
+     * 
+     * @param command - command to issue
+     * @param timeout - time (in milliseconds) to wait with no new output appearing
+     *                before timing out
+     * @return a future for the output of the command (stdout and stderr)
+     * @throws IpNetworkManagerException
+     */
+    public default CompletableFuture<String> issueCommandAsync(String command, long timeout) throws IpNetworkManagerException {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            future.complete(issueCommand(command, timeout));
+        } catch (IpNetworkManagerException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
 //	public void changeUser(String userid, String password);
 
     public void connect() throws IpNetworkManagerException;
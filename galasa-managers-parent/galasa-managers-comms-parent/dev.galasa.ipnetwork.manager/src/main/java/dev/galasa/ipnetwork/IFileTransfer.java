@@ -0,0 +1,58 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.ipnetwork;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * <p>
+ * Bulk file operations on a host's file system, e.g. shipping test tools to a
+ * host or collecting log directories from it.
+ * </p>
+ *
+ * <p>
+ * Files are transferred in parallel and directories are listed in parallel, so
+ * a tree of many small files does not take a round trip to the host per file.
+ * Remote paths are paths of an SSH {@link java.nio.file.FileSystem} for the same
+ * host.
+ * </p>
+ */
+public interface IFileTransfer {
+
+    /**
+     * Copy a local file, or a directory and everything in it, to the host.
+     * Existing files are replaced and the permissions of local files are copied
+     * where the local file system supports POSIX permissions
+     *
+     * @param source - the local file or directory
+     * @param target - the remote file or directory to create
+     * @throws IpNetworkManagerException
+     */
+    void upload(Path source, Path target) throws IpNetworkManagerException;
+
+    /**
+     * Copy a remote file, or a directory and everything in it, from the host.
+     * Existing files are replaced
+     *
+     * @param source - the remote file or directory
+     * @param target - the local file or directory to create
+     * @throws IpNetworkManagerException
+     */
+    void download(Path source, Path target) throws IpNetworkManagerException;
+
+    /**
+     * List a remote directory and everything in it. Symbolic links are listed
+     * but not followed
+     *
+     * @param directory - the remote directory
+     * @return the paths of the directory and everything in it, sorted so
+     *         directories are listed before their contents
+     * @throws IpNetworkManagerException
+     */
+    List<Path> walk(Path directory) throws IpNetworkManagerException;
+
+}
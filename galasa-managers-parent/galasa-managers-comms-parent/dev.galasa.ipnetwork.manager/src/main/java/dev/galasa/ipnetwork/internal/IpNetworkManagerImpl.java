@@ -5,8 +5,11 @@
  */
 package dev.galasa.ipnetwork.internal;
 
+import java.io.IOException;
 import java.nio.file.FileSystem;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.validation.constraints.NotNull;
 
@@ -24,9 +27,13 @@ import dev.galasa.framework.spi.IManager;
 import dev.galasa.framework.spi.IResourcePoolingService;
 import dev.galasa.framework.spi.language.GalasaTest;
 import dev.galasa.ipnetwork.ICommandShell;
+import dev.galasa.ipnetwork.IFileTransfer;
 import dev.galasa.ipnetwork.IIpHost;
 import dev.galasa.ipnetwork.IpNetworkManagerException;
+import dev.galasa.ipnetwork.internal.properties.SshIdleTimeout;
+import dev.galasa.ipnetwork.internal.properties.SshMaxSessions;
 import dev.galasa.ipnetwork.internal.ssh.SSHClient;
+import dev.galasa.ipnetwork.internal.ssh.SSHSessionPool;
 import dev.galasa.ipnetwork.internal.ssh.filesystem.SSHFileSystem;
 import dev.galasa.ipnetwork.spi.IIpNetworkManagerSpi;
 
@@ -34,13 +41,20 @@ import dev.galasa.ipnetwork.spi.IIpNetworkManagerSpi;
 public class IpNetworkManagerImpl extends AbstractManager implements IIpNetworkManagerSpi {
     protected final static String              NAMESPACE = "ipnetwork";
 
-    @SuppressWarnings("unused")
     private final static Log                   logger    = LogFactory.getLog(IpNetworkManagerImpl.class);
 
     private IFramework                         framework;
     private IConfigurationPropertyStoreService cps;
     private IDynamicStatusStoreService         dss;
 
+    private SSHSessionPool                     sshSessionPool;
+
+    /**
+     * The file system of each host, by hostname and port, closed at shutdown so
+     * their SFTP channels do not hold sessions of the pool
+     */
+    private final Map<String, SSHFileSystem>   fileSystems = new HashMap<>();
+
     @Override
     public void initialise(@NotNull IFramework framework, @NotNull List<IManager> allManagers,
             @NotNull List<IManager> activeManagers, @NotNull GalasaTest galasaTest) throws ManagerException {
@@ -53,6 +67,8 @@ public class IpNetworkManagerImpl extends AbstractManager implements IIpNetworkM
         } catch (Exception e) {
             throw new IpNetworkManagerException("Unable to initialise the IP Network Manager", e);
         }
+
+        this.sshSessionPool = new SSHSessionPool(SshIdleTimeout.get(this.cps) * 1000L, 60000);
     }
 
     @Override
@@ -80,12 +96,56 @@ public class IpNetworkManagerImpl extends AbstractManager implements IIpNetworkM
     @Override
     public @NotNull ICommandShell getCommandShell(IIpHost ipHost, ICredentials credentials)
             throws IpNetworkManagerException {
-        return new SSHClient(ipHost.getHostname(), ipHost.getSshPort(), credentials, 60000);
+        setSshMaxSessions(ipHost);
+        return new SSHClient(ipHost.getHostname(), ipHost.getSshPort(), credentials, 60000, this.sshSessionPool);
     }
 
     @Override
     public @NotNull FileSystem getFileSystem(IIpHost ipHost) throws IpNetworkManagerException {
-        return new SSHFileSystem(ipHost.getHostname(), ipHost.getSshPort(), ipHost.getDefaultCredentials());
+        return getSshFileSystem(ipHost);
+    }
+
+    @Override
+    public @NotNull IFileTransfer getFileTransfer(IIpHost ipHost) throws IpNetworkManagerException {
+        return getSshFileSystem(ipHost);
+    }
+
+    private synchronized SSHFileSystem getSshFileSystem(IIpHost ipHost) throws IpNetworkManagerException {
+        String key = ipHost.getHostname() + ":" + ipHost.getSshPort();
+        SSHFileSystem fileSystem = this.fileSystems.get(key);
+        if (fileSystem == null) {
+            setSshMaxSessions(ipHost);
+            fileSystem = new SSHFileSystem(ipHost.getHostname(), ipHost.getSshPort(), ipHost.getDefaultCredentials(), this.sshSessionPool);
+            this.fileSystems.put(key, fileSystem);
+        }
+        return fileSystem;
+    }
+
+    private void setSshMaxSessions(IIpHost ipHost) throws IpNetworkManagerException {
+        this.sshSessionPool.setMaxSessions(ipHost.getHostname(), ipHost.getSshPort(), SshMaxSessions.get(this.cps, ipHost.getHostname()));
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see dev.galasa.framework.spi.AbstractManager#shutdown()
+     */
+    @Override
+    public void shutdown() {
+        synchronized (this) {
+            for (SSHFileSystem fileSystem : this.fileSystems.values()) {
+                try {
+                    fileSystem.close();
+                } catch (IOException e) {
+                    logger.warn("Problem closing the SSH file system", e);
+                }
+            }
+            this.fileSystems.clear();
+        }
+        if (this.sshSessionPool != null) {
+            this.sshSessionPool.close();
+        }
+        super.shutdown();
     }
 
 }
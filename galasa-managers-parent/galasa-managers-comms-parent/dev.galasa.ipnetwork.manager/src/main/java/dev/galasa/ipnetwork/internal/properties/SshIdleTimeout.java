@@ -0,0 +1,54 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.ipnetwork.internal.properties;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.ipnetwork.IpNetworkManagerException;
+
+/**
+ * SSH session idle timeout
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name ipnetwork.ssh.idle.timeout
+ * 
+ * @galasa.description The value in seconds a pooled SSH session can be unused before it is disconnected
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 60
+ * 
+ * @galasa.valid_values 0 to {@link Integer#MAX_VALUE}
+ * 
+ * @galasa.examples 
+ * <code>ipnetwork.ssh.idle.timeout=60</code>
+ *
+ */
+public class SshIdleTimeout extends CpsProperties {
+
+    private static final int DEFAULT_IDLE_TIMEOUT = 60;
+
+    public static int get(IConfigurationPropertyStoreService cps) throws IpNetworkManagerException {
+        try {
+            String timeoutString = getStringNulled(cps, "ssh", "idle.timeout");
+
+            if (timeoutString == null) {
+                return DEFAULT_IDLE_TIMEOUT;
+            } else {
+                int timeout = Integer.parseInt(timeoutString);
+                if (timeout < 0) {
+                    throw new IpNetworkManagerException("SSH idle timeout property must be a positive integer");
+                }
+                return timeout;
+            }
+        } catch (ConfigurationPropertyStoreException | NumberFormatException e) {
+            throw new IpNetworkManagerException("Problem asking the CPS for the SSH idle timeout property", e);
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.ipnetwork.internal.properties;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.ipnetwork.IpNetworkManagerException;
+
+/**
+ * Maximum SSH sessions to a host
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name ipnetwork.ssh.[hostname].max.sessions
+ * 
+ * @galasa.description The maximum number of pooled SSH sessions a test run will open to a host. Each session
+ * carries several command and SFTP channels at a time
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 4
+ * 
+ * @galasa.valid_values 1 to {@link Integer#MAX_VALUE}
+ * 
+ * @galasa.examples 
+ * <code>ipnetwork.ssh.max.sessions=4</code><br>
+ * <code>ipnetwork.ssh.mvsa.example.com.max.sessions=2</code>
+ *
+ */
+public class SshMaxSessions extends CpsProperties {
+
+    private static final int DEFAULT_MAX_SESSIONS = 4;
+
+    public static int get(IConfigurationPropertyStoreService cps, String hostname) throws IpNetworkManagerException {
+        try {
+            String maxSessionsString = getStringNulled(cps, "ssh", "max.sessions", hostname);
+
+            if (maxSessionsString == null) {
+                return DEFAULT_MAX_SESSIONS;
+            } else {
+                int maxSessions = Integer.parseInt(maxSessionsString);
+                if (maxSessions < 1) {
+                    throw new IpNetworkManagerException("SSH max sessions property must be greater than 0");
+                }
+                return maxSessions;
+            }
+        } catch (ConfigurationPropertyStoreException | NumberFormatException e) {
+            throw new IpNetworkManagerException("Problem asking the CPS for the SSH max sessions property for host " + hostname, e);
+        }
+    }
+
+}
@@ -0,0 +1,10 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2020.
+ */
+/**
+ * IP Network Manager - CPS Properties
+ * 
+ */
+package dev.galasa.ipnetwork.internal.properties;
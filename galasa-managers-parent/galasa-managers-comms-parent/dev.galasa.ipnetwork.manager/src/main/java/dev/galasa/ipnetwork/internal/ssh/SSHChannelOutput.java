@@ -0,0 +1,296 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.ipnetwork.internal.ssh;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Collects the output of an SSH channel. JSch writes the output to this stream from the session thread as it
+ * arrives, and closes it when the remote end sends EOF, so callers can wait for the output without polling the
+ * channel.
+ * <p>
+ * The session thread reads the output of every channel on the session, so the output listener is not called on
+ * it. Each block is queued for the listener and passed to it in order on a listener thread, so a slow listener only
+ * holds up its own command.
+ * </p>
+ */
+public class SSHChannelOutput extends OutputStream {
+
+    private static final Log            logger           = LogFactory.getLog(SSHChannelOutput.class);
+
+    /**
+     * Threads calling output listeners, each output is passed to its listener by one thread at a time
+     */
+    protected static final int          LISTENER_THREADS = 32;
+
+    private static final ThreadPoolExecutor listenerExecutor = new ThreadPoolExecutor(LISTENER_THREADS, LISTENER_THREADS,
+            60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+        Thread thread = new Thread(runnable, "GalasaSSHChannelOutput listener thread");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        listenerExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final Charset               charset;
+    private final Consumer<String>      outputListener;
+    private final boolean               keepOutput;
+
+    /**
+     * Decodes the output for the listener, keeping a character split between blocks until the rest arrives
+     */
+    private final CharsetDecoder        listenerDecoder;
+    private ByteBuffer                  listenerPending;
+
+    /**
+     * Blocks waiting for the listener, guarded by the queue itself
+     */
+    private final Queue<String>         listenerBlocks   = new ArrayDeque<>();
+    private boolean                     listenerRunning;
+    private boolean                     listenerEof;
+
+    private boolean                     closed;
+    private boolean                     listenerComplete;
+    private long                        received;
+    private long                        lastOutputTimestamp;
+
+    /**
+     * @param outputListener - called with each block of output as it is received,
+     *                       or null
+     */
+    public SSHChannelOutput(Consumer<String> outputListener) {
+        this(outputListener, Charset.defaultCharset());
+    }
+
+    /**
+     * @param outputListener - called with each block of output as it is received,
+     *                       or null
+     * @param charset        - the encoding of the output
+     */
+    public SSHChannelOutput(Consumer<String> outputListener, Charset charset) {
+        this(outputListener, charset, true);
+    }
+
+    /**
+     * @param outputListener - called with each block of output as it is received,
+     *                       or null
+     * @param charset        - the encoding of the output
+     * @param keepOutput     - false to only pass the output to the listener, so a
+     *                       long running command does not hold all of its output
+     *                       in memory. {@link #getOutput()} then returns an empty
+     *                       string
+     */
+    public SSHChannelOutput(Consumer<String> outputListener, Charset charset, boolean keepOutput) {
+        this.outputListener = outputListener;
+        this.charset = charset;
+        this.keepOutput = keepOutput;
+        this.listenerComplete = outputListener == null;
+        if (outputListener != null) {
+            this.listenerDecoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.listenerPending = ByteBuffer.allocate(0);
+        } else {
+            this.listenerDecoder = null;
+        }
+    }
+
+    @Override
+    public void write(int b) {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        synchronized (this) {
+            if (this.keepOutput) {
+                this.output.write(b, off, len);
+            }
+            this.received += len;
+            this.lastOutputTimestamp = System.currentTimeMillis();
+            notifyAll();
+        }
+        if (this.outputListener != null) {
+            notifyListener(b, off, len, false);
+        }
+    }
+
+    /**
+     * Called by JSch when the remote end has sent EOF or the channel is
+     * disconnected
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            notifyAll();
+        }
+        if (this.outputListener != null) {
+            notifyListener(new byte[0], 0, 0, true);
+        }
+    }
+
+    /**
+     * Discard the output received so far
+     */
+    public synchronized void reset() {
+        this.output.reset();
+    }
+
+    public synchronized String getOutput() {
+        return new String(this.output.toByteArray(), this.charset);
+    }
+
+    /**
+     * Wait until the channel has sent EOF, and the listener has been passed all of
+     * the output, or the output received so far is complete
+     *
+     * @param complete - tests whether the output so far is complete, or null to
+     *                 wait for EOF. Only used when the output is kept
+     * @param timeout  - time (in milliseconds) to wait with no new output
+     *                 appearing before timing out
+     * @return the output received so far
+     * @throws InterruptedException
+     * @throws TimeoutException     if no new output appeared within the timeout
+     */
+    public synchronized String waitFor(Predicate<String> complete, long timeout) throws InterruptedException, TimeoutException {
+        this.lastOutputTimestamp = System.currentTimeMillis();
+        long tested = -1;
+        while (true) {
+            if (this.closed) {
+                // *** The remote end has finished, so only wait for the listener to catch up
+                while (!this.listenerComplete) {
+                    wait();
+                }
+                return getOutput();
+            }
+            // *** Only decode the output to test it when more has arrived
+            if (complete != null && this.keepOutput && this.received != tested) {
+                tested = this.received;
+                String current = getOutput();
+                if (complete.test(current)) {
+                    return current;
+                }
+            }
+
+            long wait = this.lastOutputTimestamp + timeout - System.currentTimeMillis();
+            if (wait <= 0) {
+                throw new TimeoutException("No output received for " + timeout + " milliseconds");
+            }
+            wait(wait);
+        }
+    }
+
+    /**
+     * Wait until some output has been received and no more has appeared for a
+     * period, e.g. for a shell to display its banner and first prompt
+     *
+     * @param quiet   - time (in milliseconds) with no new output appearing
+     * @param timeout - maximum time (in milliseconds) to wait
+     * @throws InterruptedException
+     */
+    public synchronized void waitForQuiet(long quiet, long timeout) throws InterruptedException {
+        long whenTimeout = System.currentTimeMillis() + timeout;
+        while (!this.closed) {
+            long now = System.currentTimeMillis();
+            long wait = whenTimeout - now;
+            if (this.received > 0) {
+                wait = Math.min(wait, this.lastOutputTimestamp + quiet - now);
+            }
+            if (wait <= 0) {
+                return;
+            }
+            wait(wait);
+        }
+    }
+
+    /**
+     * Decode the newly received output and queue it for the listener, in the order it was received
+     */
+    private void notifyListener(byte[] b, int off, int len, boolean endOfInput) {
+        String block;
+        boolean start;
+        synchronized (this.listenerDecoder) {
+            ByteBuffer in = ByteBuffer.allocate(this.listenerPending.remaining() + len);
+            in.put(this.listenerPending).put(b, off, len).flip();
+            CharBuffer out = CharBuffer.allocate((int) Math.ceil(in.remaining() * (double) this.listenerDecoder.maxCharsPerByte()) + 2);
+            this.listenerDecoder.decode(in, out, endOfInput);
+            if (endOfInput) {
+                this.listenerDecoder.flush(out);
+            }
+            this.listenerPending = in.slice();
+            block = out.flip().toString();
+            // *** Queue while holding the decoder lock, so blocks are queued in the order they were decoded
+            synchronized (this.listenerBlocks) {
+                if (!block.isEmpty()) {
+                    this.listenerBlocks.add(block);
+                }
+                this.listenerEof |= endOfInput;
+                start = !this.listenerRunning;
+                this.listenerRunning = true;
+            }
+        }
+        if (start) {
+            listenerExecutor.execute(this::deliverBlocks);
+        }
+    }
+
+    /**
+     * Pass the queued blocks to the listener until the queue is empty. Only one thread runs this at a time for
+     * each output
+     */
+    private void deliverBlocks() {
+        while (true) {
+            String block;
+            boolean complete = false;
+            synchronized (this.listenerBlocks) {
+                block = this.listenerBlocks.poll();
+                if (block == null) {
+                    this.listenerRunning = false;
+                    complete = this.listenerEof;
+                }
+            }
+            if (block == null) {
+                if (complete) {
+                    synchronized (this) {
+                        this.listenerComplete = true;
+                        notifyAll();
+                    }
+                }
+                return;
+            }
+            try {
+                this.outputListener.accept(block);
+            } catch (RuntimeException e) {
+                logger.warn("SSH output listener failed", e);
+            }
+        }
+    }
+
+}
@@ -6,16 +6,17 @@
 package dev.galasa.ipnetwork.internal.ssh;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Calendar;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.nio.charset.Charset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -25,15 +26,11 @@ import org.apache.commons.logging.LogFactory;
 import com.jcraft.jsch.Channel;
 import com.jcraft.jsch.ChannelExec;
 import com.jcraft.jsch.ChannelShell;
-import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
 
 import dev.galasa.ICredentials;
-import dev.galasa.ICredentialsUsernamePassword;
-import dev.galasa.ICredentialsUsernameToken;
 import dev.galasa.ipnetwork.ICommandShell;
-import dev.galasa.ipnetwork.SSHAuthFailException;
 import dev.galasa.ipnetwork.SSHException;
 
 /**
@@ -52,50 +49,69 @@ public class SSHClient implements ICommandShell {
 
     private final String        hostname;
     private final int           port;
-    private final String        userid;
-    private final String        password;
+    private final ICredentials  credentials;
+    private final SSHConnector  connector;
 
-    private JSch                sshClient;
-    private Session             session;
+    private final SSHSessionPool sessionPool;
+
+    private volatile Session    session;
     private Channel             channel       = null;
+    private SSHChannelOutput    shellOutput;
+
+    private volatile long       lastCommandTimestamp;
 
-    private long                lastCommandTimestamp;
+    private final AtomicInteger activeCommands = new AtomicInteger();
+    private final Semaphore     execChannels  = new Semaphore(SSHSessionPool.MAX_CHANNELS_PER_SESSION);
 
     private boolean             logShellResults;
 
     private final static String specialPrompt = "[GalasaPrompt]";
 
+    /**
+     * Threads running async commands. Commands beyond this are queued rather than each waiting on its own thread for
+     * a session, so queued commands do not use up the session pool borrow timeout
+     */
+    protected final static int  COMMAND_THREADS = 32;
+    protected final static int  COMMAND_QUEUE   = 1024;
+
+    private final static ThreadPoolExecutor commandExecutor = new ThreadPoolExecutor(COMMAND_THREADS, COMMAND_THREADS,
+            60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(COMMAND_QUEUE), runnable -> {
+        Thread thread = new Thread(runnable, "GalasaSSHClient command thread");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        commandExecutor.allowCoreThreadTimeOut(true);
+    }
+
     // Default value: Linux command
     private String changePromptCommand = "PS1=" + specialPrompt;
 
     public SSHClient(String hostname, int port, ICredentials credentials, long defaultTimeout) throws SSHException {
+        this(hostname, port, credentials, defaultTimeout, null);
+    }
+
+    /**
+     * An SSH client that issues commands on sessions borrowed from a pool, the shell still uses its own session
+     * 
+     * @param hostname       - the host
+     * @param port           - the SSH port
+     * @param credentials    - the credentials to authenticate with
+     * @param defaultTimeout - default time (in milliseconds) to wait for output
+     * @param sessionPool    - the session pool, or null to connect a session for this client
+     * @throws SSHException
+     */
+    public SSHClient(String hostname, int port, ICredentials credentials, long defaultTimeout, SSHSessionPool sessionPool) throws SSHException {
 
         this.hostname = hostname;
         this.port = port;
         this.defaultTimeout = defaultTimeout;
+        this.credentials = credentials;
+        this.sessionPool = sessionPool;
+        this.connector = new SSHConnector(hostname, port, credentials);
 
-        this.sshClient = new JSch();
         this.session = null;
-
-        try {
-            if (credentials instanceof ICredentialsUsernamePassword) {
-                ICredentialsUsernamePassword creds = (ICredentialsUsernamePassword) credentials;
-                this.userid = creds.getUsername();
-                this.password = creds.getPassword();
-            } else if (credentials instanceof ICredentialsUsernameToken) {
-                ICredentialsUsernameToken creds = (ICredentialsUsernameToken) credentials;
-                this.userid = creds.getUsername();
-                this.password = null;
-                this.sshClient.addIdentity(this.userid, creds.getToken(), null, null);
-            } else {
-                throw new SSHException("Unsupported credentials type - " + credentials.getClass().getName());
-            }
-        } catch (SSHException e) {
-            throw e;
-        } catch (JSchException e) {
-            throw new SSHException("Problem adding credentials to SSH", e);
-        }
-
     }
 
     /**
@@ -152,45 +168,104 @@ public class SSHClient implements ICommandShell {
      * @throws SSHException
      */
     @Override
-    public synchronized String issueCommand(String command, boolean newShell, long timeout) throws SSHException {
+    public String issueCommand(String command, boolean newShell, long timeout) throws SSHException {
+        return issueCommand(command, timeout, null);
+    }
 
-        // Connect if we are not already connected
-        connect();
-        try {
-            synchronized (sshClient) {
-                // SessionChannelClient session = null;
-                // if (session == null || session.)
-                try {
+    /**
+     * Issue a command using SSH, passing the output to a listener as it is
+     * received, e.g. to follow the progress of a long running command
+     * 
+     * @param command        - command to issue
+     * @param timeout        - time (in milliseconds) to wait with no new output
+     *                       appearing before timing out
+     * @param outputListener - called with each block of output as it is received
+     * @return the output of the command (stdout and stderr)
+     * @throws SSHException
+     */
+    @Override
+    public String issueCommand(String command, long timeout, Consumer<String> outputListener) throws SSHException {
+        return issueCommand(command, timeout, outputListener, true);
+    }
 
-                    logger.trace("Issuing '" + command + "'");
-                    lastCommandTimestamp = System.currentTimeMillis();
+    /**
+     * Issue a command using SSH, passing the output to a listener as it is
+     * received, and optionally only to the listener
+     * 
+     * @param command        - command to issue
+     * @param timeout        - time (in milliseconds) to wait with no new output
+     *                       appearing before timing out
+     * @param outputListener - called with each block of output as it is received
+     * @param keepOutput     - false to only pass the output to the listener
+     * @return the output of the command (stdout and stderr), or an empty string if
+     *         the output is not kept
+     * @throws SSHException
+     */
+    @Override
+    public String issueCommand(String command, long timeout, Consumer<String> outputListener, boolean keepOutput) throws SSHException {
 
-                    // Issue the desired command and retrieve the response to a
-                    // string
-                    String response = retrieveOutput(command, timeout);
+        // Each command has its own exec channel, so commands are not serialised, the
+        // session pool or execChannels limit how many run on a session at once
+        Session execSession = execSession();
+        this.activeCommands.incrementAndGet();
+        try {
 
-                    if (logShellResults) {
-                        logger.trace("Received '" + response);
-                    }
-                    lastCommandTimestamp = System.currentTimeMillis();
+            logger.trace("Issuing '" + command + "'");
+            lastCommandTimestamp = System.currentTimeMillis();
 
-                    return response;
-                } catch (SSHException e) {
-                    throw e;
-                } catch (IOException e) {
-                    throw new SSHException("Error whilst issuing command to ssh '" + command + "'", e);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new SSHException("Interrupted while trying to retrieve output", e);
-                } catch (ExecutionException e) {
-                    throw new SSHException("Execution error while trying to retrieve output", e);
-                }
+            // Issue the desired command and retrieve the response to a
+            // string
+            String response = retrieveOutput(execSession, command, true, timeout, outputListener, keepOutput);
+
+            if (logShellResults) {
+                logger.trace("Received '" + response);
             }
+            lastCommandTimestamp = System.currentTimeMillis();
+
+            return response;
         } finally {
-            // disconnect();
+            this.activeCommands.decrementAndGet();
+            releaseExecSession(execSession);
         }
     }
 
+    /**
+     * Issue a command using SSH without blocking the caller. Equivalent to
+     * {@link #issueCommandAsync(String, long)} with the default timeout
+     * 
+     * @param command - command to issue
+     * @return a future for the output of the command (stdout and stderr)
+     */
+    @Override
+    public CompletableFuture<String> issueCommandAsync(String command) {
+        return issueCommandAsync(command, defaultTimeout);
+    }
+
+    /**
+     * Issue a command using SSH without blocking the caller
+     * 
+     * @param command - command to issue
+     * @param timeout - time (in milliseconds) to wait with no new output appearing
+     *                before timing out
+     * @return a future for the output of the command (stdout and stderr)
+     */
+    @Override
+    public CompletableFuture<String> issueCommandAsync(String command, long timeout) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            commandExecutor.execute(() -> {
+                try {
+                    future.complete(issueCommand(command, false, timeout));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new SSHException("Too many SSH commands queued, unable to issue '" + command + "'", e));
+        }
+        return future;
+    }
+
     /**
      * Define the right command used to change the shell prompt
      */
@@ -259,7 +334,8 @@ public class SSHClient implements ICommandShell {
     @Override
     public synchronized String issueCommandToShell(String command, boolean newShell, long timeout) throws SSHException {
 
-        connect();
+        // The shell channel is kept open between commands, so it does not use a pooled session
+        connectSession();
 
         try {
 
@@ -272,19 +348,21 @@ public class SSHClient implements ICommandShell {
                 channel = session.openChannel("shell");
                 ((ChannelShell) channel).setPty(true);
                 ((ChannelShell) channel).setPtyType("ansi", 2048, 24, 0, 0);
+                shellOutput = new SSHChannelOutput(null);
+                channel.setOutputStream(shellOutput);
                 channel.connect();
-                Thread.sleep(5000); // NOSONAR - Sleep is sufficent
+                // Let the shell display its banner and first prompt before typing
+                shellOutput.waitForQuiet(500, 5000);
             }
 
             lastCommandTimestamp = System.currentTimeMillis();
             // Set a special prompt so we can easily identify responses to our commands
             logger.trace("Setting special prompt '" + specialPrompt + "'");
-            retrieveOutputFromShell(channel, changePromptCommand, timeout);
-            Thread.sleep(500); // NOSONAR - Sleep is sufficent
+            retrieveOutputFromShell(channel, shellOutput, changePromptCommand, timeout);
 
             // Issue the desired command and retrieve the response to a string
             lastCommandTimestamp = System.currentTimeMillis();
-            String response = retrieveOutputFromShell(channel, command, timeout);
+            String response = retrieveOutputFromShell(channel, shellOutput, command, timeout);
             lastCommandTimestamp = System.currentTimeMillis();
 
             return response;
@@ -296,8 +374,6 @@ public class SSHClient implements ICommandShell {
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new SSHException("Interrupted while trying to retrieve output", e);
-        } catch (ExecutionException e) {
-            throw new SSHException("Execution error while trying to retrieve output", e);
         } finally {
             // disconnect();
         }
@@ -305,7 +381,45 @@ public class SSHClient implements ICommandShell {
 
     @Override
     public void connect() throws SSHException {
-        connect(5);
+        if (this.sessionPool != null) {
+            // Check the host can be reached with the credentials, leaving the session in the pool
+            this.sessionPool.release(this.sessionPool.borrow(this.hostname, this.port, this.credentials));
+            return;
+        }
+        connectSession();
+    }
+
+    private Session execSession() throws SSHException {
+        if (this.sessionPool != null) {
+            return this.sessionPool.borrow(this.hostname, this.port, this.credentials);
+        }
+
+        try {
+            this.execChannels.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SSHException("Interrupted waiting for an SSH channel", e);
+        }
+        try {
+            // Avoid waiting for the lock held by a shell command if already connected
+            Session connectedSession = this.session;
+            if (connectedSession == null || !connectedSession.isConnected()) {
+                connectSession();
+                connectedSession = this.session;
+            }
+            return connectedSession;
+        } catch (SSHException e) {
+            this.execChannels.release();
+            throw e;
+        }
+    }
+
+    private void releaseExecSession(Session execSession) {
+        if (this.sessionPool != null) {
+            this.sessionPool.release(execSession);
+        } else {
+            this.execChannels.release();
+        }
     }
 
     /**
@@ -313,64 +427,17 @@ public class SSHClient implements ICommandShell {
      * 
      * @throws SSHException
      */
-    private synchronized void connect(int retry) throws SSHException {
+    private synchronized void connectSession() throws SSHException {
         // Do nothing if already connected
         if (session != null && session.isConnected()) {
             return;
         }
 
-        try {
-
-            try {
-                session = sshClient.getSession(this.userid, hostname, port);
-                session.setIdentityRepository(sshClient.getIdentityRepository());
-                if (this.password != null) {
-                    session.setPassword(this.password);
-                }
-                session.setConfig("StrictHostKeyChecking", "no");
-
-                session.connect();
-
-                // Slight delay to allow the connection to stabilise
-                try {
-                    Thread.sleep(200); // NOSONAR - Sleep is sufficent
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new SSHException("Interrupted trying to authenticate using SSH", e);
-                }
-
-                logger.trace("SSH Client connected to '" + hostname + ":" + port);
-
-                this.keepAliveThread = new KeepAliveThread(session);
-                this.keepAliveThread.start();
+        session = this.connector.connect(this.credentials);
+        logger.trace("SSH Client connected to '" + hostname + ":" + port);
 
-            } catch (Exception e) {
-                if ("Auth fail".equals(e.getMessage())) {
-                    throw new SSHAuthFailException(e);
-                }
-
-                if (retry > 0) {
-                    logger.trace("Exception caught during SSH connection, will retry.", e);
-                    if (session != null && session.isConnected()) {
-                        session.disconnect();
-                        session = null;
-                    }
-                    Thread.sleep(5000); // NOSONAR - Sleep is sufficent
-                    connect(retry - 1);
-                } else {
-                    throw e;
-                }
-            }
-        } catch (SSHException e) {
-            throw e;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new SSHException("Interrupted while trying to retrieve output", e);
-        } catch (Exception e) {
-            throw new SSHException("Unrecognised exception in connection", e);
-        }
-
-        return;
+        this.keepAliveThread = new KeepAliveThread(session);
+        this.keepAliveThread.start();
     }
 
     @Override
@@ -384,93 +451,87 @@ public class SSHClient implements ICommandShell {
      */
     @Override
     public synchronized void disconnect() throws SSHException {
+        if (keepAliveThread != null) {
+            keepAliveThread.interrupt();
+            keepAliveThread = null;
+        }
         if (session == null) {
             return;
         }
-        synchronized (sshClient) {
-
-            if (!session.isConnected()) {
-                session = null;
-                return;
-            }
-
-            session.disconnect();
-            logger.trace("SSH Client disconnected");
 
+        if (!session.isConnected()) {
             session = null;
+            return;
         }
+
+        session.disconnect();
+        logger.trace("SSH Client disconnected");
+
+        session = null;
         return;
     }
 
     /**
-     * Retrieve all output from the shell, returning only that which is found
-     * between the command issued and the next occurrence of the special prompt we
-     * defined in {@link #issueCommand(String)}
+     * Run a command on its own exec channel and retrieve all of its output, JSch
+     * writes the output to an {@link SSHChannelOutput} as it arrives, so this
+     * returns as soon as the command ends and the channel sends EOF. Also used by
+     * the SSH file system to run commands on the host
      * 
-     * @param session
-     * @param command
-     * @param timeout
-     * @return
-     * @throws IOException
-     * @throws InterruptedException
-     * @throws ExecutionException
+     * @param session        - the session to open the channel on
+     * @param command        - the command
+     * @param pty            - true to run the command in a pseudo terminal
+     * @param timeout        - time (in milliseconds) to wait with no new output
+     *                       appearing before timing out
+     * @param outputListener - called with each block of output as it is received,
+     *                       or null
+     * @return the output of the command (stdout and stderr)
+     * @throws SSHException
+     */
+    public static String retrieveOutput(Session session, String command, boolean pty, long timeout, Consumer<String> outputListener)
+            throws SSHException {
+        return retrieveOutput(session, command, pty, timeout, outputListener, true);
+    }
+
+    /**
+     * Run a command on its own exec channel and retrieve its output, see
+     * {@link #retrieveOutput(Session, String, boolean, long, Consumer)}
+     * 
+     * @param session        - the session to open the channel on
+     * @param command        - the command
+     * @param pty            - true to run the command in a pseudo terminal
+     * @param timeout        - time (in milliseconds) to wait with no new output
+     *                       appearing before timing out
+     * @param outputListener - called with each block of output as it is received,
+     *                       or null
+     * @param keepOutput     - false to only pass the output to the listener
+     * @return the output of the command (stdout and stderr), or an empty string if
+     *         the output is not kept
      * @throws SSHException
      */
-    private String retrieveOutput(String command, long timeout)
-            throws IOException, InterruptedException, ExecutionException, SSHException {
+    public static String retrieveOutput(Session session, String command, boolean pty, long timeout, Consumer<String> outputListener,
+            boolean keepOutput) throws SSHException {
 
-        StringBuilder sb = new StringBuilder();
+        SSHChannelOutput output = new SSHChannelOutput(outputListener, Charset.defaultCharset(), keepOutput);
         ChannelExec channel = null;
         try {
             channel = (ChannelExec) session.openChannel("exec");
-            channel.setPty(true);
-            channel.setPtyType("ansi", 2048, 24, 0, 0);
+            if (pty) {
+                channel.setPty(true);
+                channel.setPtyType("ansi", 2048, 24, 0, 0);
+            }
             channel.setInputStream(null);
-            channel.setErrStream(null);
+            // stdout is closed when the channel sends EOF, stderr shares the stream so must not close it
+            channel.setOutputStream(output);
+            channel.setErrStream(output, true);
             channel.setCommand(command);
-            InputStream is = channel.getInputStream();
-            InputStream err = channel.getErrStream();
             channel.connect();
 
-            long whenTimeout = Calendar.getInstance().getTimeInMillis() + timeout;
-
-            byte[] tmp = new byte[1024];
-            while (true) {
-                if (whenTimeout <= Calendar.getInstance().getTimeInMillis()) {
-                    throw new SSHException("Read of command timed out, response so far:-\n" + sb.toString());
-                }
-                while (is.available() > 0) {
-                    int i = is.read(tmp);
-
-                    if (i < 0) {
-                        break;
-                    }
-                    String data = new String(tmp, 0, i);
-                    sb.append(data);
-                }
-                while (err.available() > 0) {
-                    int i = err.read(tmp);
-
-                    if (i < 0) {
-                        break;
-                    }
-                    String data = new String(tmp, 0, i);
-                    sb.append(data);
-                }
-                if (channel.isClosed()) {
-                    if (is.available() > 0)
-                        continue;
-                    if (err.available() > 0)
-                        continue;
-                    break;
-                }
-                try {
-                    Thread.sleep(100);
-                } catch (Exception ee) {
-                }
-            }
-        } catch (SSHException e) {
-            throw e;
+            return output.waitFor(null, timeout);
+        } catch (TimeoutException e) {
+            throw new SSHException("Read of command timed out, response so far:-\n" + output.getOutput());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SSHException("Interrupted while trying to retrieve output", e);
         } catch (Exception e) {
             throw new SSHException("Error reading exec output", e);
         } finally {
@@ -478,9 +539,6 @@ public class SSHClient implements ICommandShell {
                 channel.disconnect();
             }
         }
-
-        return sb.toString();
-
     }
 
     /**
@@ -489,21 +547,19 @@ public class SSHClient implements ICommandShell {
      * defined in {@link #issueCommandToShell(String)}
      *
      * @param channel
+     * @param output
      * @param command
      * @param timeout
      * @return
      * @throws IOException
      * @throws InterruptedException
-     * @throws ExecutionException
      * @throws SSHException
      */
-    private String retrieveOutputFromShell(Channel channel, String command, long timeout)
-            throws IOException, InterruptedException, ExecutionException, SSHException {
+    private String retrieveOutputFromShell(Channel channel, SSHChannelOutput output, String command, long timeout)
+            throws IOException, InterruptedException, SSHException {
 
-        // Get the input stream from the current session
-        final InputStream in = channel.getInputStream();
         OutputStream os = channel.getOutputStream();
-        in.skip(in.available()); // NOSONAR - Dont care what is on the buffer to start with
+        output.reset(); // Dont care what is on the buffer to start with
 
         // Remove any unwanted trailing end-of-line characters
         command = command.trim();
@@ -519,55 +575,22 @@ public class SSHClient implements ICommandShell {
         logger.trace("Submitting command to host '" + hostname + "':\n'" + command + "'");
         os.write((command + " \r\n").getBytes());
         os.flush();
-        Thread.sleep(500);
-
-        // Create a string builder to build the response, and a buffer in to which to
-        // read
-        // from the input stream
-        StringBuilder responseBuilder = new StringBuilder();
-        final byte buffer[] = new byte[5000];
-
-        // Create an executor and a callable which will allow us to read continuously
-        // from
-        // the input stream with a timeout
-        ExecutorService executor = Executors.newFixedThreadPool(2);
-        Callable<Integer> reader = new Callable<Integer>() {
-
-            /**
-             * Return the number of bytes ready to be read from the buffer
-             */
-            @Override
-            public Integer call() throws Exception {
-                return in.read(buffer);
-            }
-        };
-
-        // Retrieve the output
-        while (true) {
-
-            // Submit our callable and wait for it to tell us how many bytes to read
-            Future<Integer> future = executor.submit(reader);
-            int read = 0;
-            try {
-                read = future.get(timeout, TimeUnit.MILLISECONDS);
-            } catch (TimeoutException e) {
-                executor.shutdown();
-                throw new SSHException("Timed out waiting for response from ssh. Response so far: " + responseBuilder);
-            }
 
-            // Append the new output to our response
-            responseBuilder.append(new String(buffer, 0, read));
-
-            // If the output matches <command>...<prompt> then we have found the complete
-            // response
-            Matcher responseMatcher = responsePattern.matcher(responseBuilder.toString());
-            if (responseMatcher.find()) {
-                executor.shutdown();
-                String response = responseMatcher.group(1);
-                logger.trace("Retrieved response from host '" + hostname + "':\n'" + response + "'");
-                return response;
-            }
+        // Wait until the output matches <command>...<prompt>, which is the complete response
+        String responseSoFar;
+        try {
+            responseSoFar = output.waitFor(current -> responsePattern.matcher(current).find(), timeout);
+        } catch (TimeoutException e) {
+            throw new SSHException("Timed out waiting for response from ssh. Response so far: " + output.getOutput());
         }
+
+        Matcher responseMatcher = responsePattern.matcher(responseSoFar);
+        if (!responseMatcher.find()) {
+            throw new SSHException("Shell closed waiting for response from ssh. Response so far: " + responseSoFar);
+        }
+        String response = responseMatcher.group(1);
+        logger.trace("Retrieved response from host '" + hostname + "':\n'" + response + "'");
+        return response;
     }
 
     private class KeepAliveThread extends Thread {
@@ -601,18 +624,25 @@ public class SSHClient implements ICommandShell {
 
             while (this.monitorSession.isConnected()) {
 
+                // Sleep until the session would become idle, rather than checking continually
+                long wait;
                 synchronized (SSHClient.this) {
 
-                    long timeout = System.currentTimeMillis() - idleTimeout;
-                    if (timeout >= lastCommandTimestamp) {
-                        logger.debug("No command issued after " + idleTimeout + " milliseconds, closing SSH session");
-                        this.monitorSession.disconnect();
+                    wait = lastCommandTimestamp + idleTimeout - System.currentTimeMillis();
+                    if (wait <= 0) {
+                        if (activeCommands.get() == 0) {
+                            logger.debug("No command issued after " + idleTimeout + " milliseconds, closing SSH session");
+                            this.monitorSession.disconnect();
+                            return;
+                        }
+                        // A long running command is still active
+                        wait = idleTimeout;
                     }
                 }
 
                 try {
-                    Thread.sleep(100);
-                } catch (Exception e) {
+                    Thread.sleep(wait);
+                } catch (InterruptedException e) {
                     return;
                 }
             }
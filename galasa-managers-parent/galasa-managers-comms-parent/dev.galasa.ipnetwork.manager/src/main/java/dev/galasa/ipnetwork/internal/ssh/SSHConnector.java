@@ -0,0 +1,187 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.ipnetwork.internal.ssh;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Objects;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+
+import dev.galasa.ICredentials;
+import dev.galasa.ICredentialsUsernamePassword;
+import dev.galasa.ICredentialsUsernameToken;
+import dev.galasa.ipnetwork.SSHAuthFailException;
+import dev.galasa.ipnetwork.SSHException;
+
+/**
+ * Connects and authenticates SSH sessions to a host, for the SSH client, the SSH file system and the session pool.
+ * <p>
+ * Connectors for the same host, port and credentials are equal, so the session pool uses them as its key. A
+ * connector only keeps a salted hash of the password or token, the credentials themselves are passed to
+ * {@link #connect(ICredentials)}.
+ * </p>
+ */
+public class SSHConnector {
+
+    private static final int    CONNECT_RETRIES = 5;
+
+    private static final Log    logger          = LogFactory.getLog(SSHConnector.class);
+
+    private static final byte[] SALT            = new byte[16];
+
+    static {
+        new SecureRandom().nextBytes(SALT);
+    }
+
+    private final String        hostname;
+    private final int           port;
+    private final String        userid;
+    private final byte[]        secretHash;
+
+    /**
+     * @param hostname    - the host
+     * @param port        - the SSH port
+     * @param credentials - the credentials to authenticate with
+     * @throws SSHException if the credentials are not a supported type
+     */
+    public SSHConnector(String hostname, int port, ICredentials credentials) throws SSHException {
+        this.hostname = hostname;
+        this.port = port;
+        checkCredentials(credentials);
+        if (credentials instanceof ICredentialsUsernamePassword) {
+            ICredentialsUsernamePassword creds = (ICredentialsUsernamePassword) credentials;
+            this.userid = creds.getUsername();
+            this.secretHash = hash("password", creds.getPassword() == null ? null : creds.getPassword().getBytes(StandardCharsets.UTF_8));
+        } else {
+            ICredentialsUsernameToken creds = (ICredentialsUsernameToken) credentials;
+            this.userid = creds.getUsername();
+            this.secretHash = hash("token", creds.getToken());
+        }
+    }
+
+    public String getHostname() {
+        return this.hostname;
+    }
+
+    public int getPort() {
+        return this.port;
+    }
+
+    /**
+     * Connect a new session, retrying if the connection fails for any reason other than authentication
+     *
+     * @param credentials - the credentials this connector was created with
+     * @return the connected session
+     * @throws SSHException
+     */
+    public Session connect(ICredentials credentials) throws SSHException {
+        checkCredentials(credentials);
+        String password = null;
+        JSch sshClient = new JSch();
+        if (credentials instanceof ICredentialsUsernamePassword) {
+            password = ((ICredentialsUsernamePassword) credentials).getPassword();
+        } else {
+            try {
+                sshClient.addIdentity(this.userid, ((ICredentialsUsernameToken) credentials).getToken(), null, null);
+            } catch (JSchException e) {
+                throw new SSHException("Problem adding credentials to SSH", e);
+            }
+        }
+
+        int retry = CONNECT_RETRIES;
+        while (true) {
+            Session session = null;
+            try {
+                session = sshClient.getSession(this.userid, this.hostname, this.port);
+                if (password != null) {
+                    session.setPassword(password);
+                }
+                session.setConfig("StrictHostKeyChecking", "no");
+
+                session.connect();
+
+                // Slight delay to allow the connection to stabilise
+                Thread.sleep(200); // NOSONAR - Sleep is sufficent
+
+                logger.trace("SSH session connected to '" + this.hostname + ":" + this.port + "'");
+                return session;
+            } catch (InterruptedException e) {
+                disconnect(session);
+                Thread.currentThread().interrupt();
+                throw new SSHException("Interrupted while trying to connect", e);
+            } catch (Exception e) {
+                if ("Auth fail".equals(e.getMessage())) {
+                    throw new SSHAuthFailException(e);
+                }
+                disconnect(session);
+                if (retry-- <= 0) {
+                    throw new SSHException("Unrecognised exception in connection", e);
+                }
+
+                logger.trace("Exception caught during SSH connection, will retry.", e);
+                try {
+                    Thread.sleep(5000); // NOSONAR - Sleep is sufficent
+                } catch (InterruptedException e1) {
+                    Thread.currentThread().interrupt();
+                    throw new SSHException("Interrupted while trying to connect", e1);
+                }
+            }
+        }
+    }
+
+    private static void checkCredentials(ICredentials credentials) throws SSHException {
+        if (!(credentials instanceof ICredentialsUsernamePassword) && !(credentials instanceof ICredentialsUsernameToken)) {
+            throw new SSHException("Unsupported credentials type - " + (credentials == null ? "null" : credentials.getClass().getName()));
+        }
+    }
+
+    /**
+     * Hash the password or token with the salt for this JVM, so connectors can be compared without keeping the
+     * secret
+     */
+    private static byte[] hash(String type, byte[] secret) throws SSHException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(SALT);
+            digest.update(type.getBytes(StandardCharsets.UTF_8));
+            if (secret != null) {
+                digest.update(secret);
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new SSHException("Problem hashing the SSH credentials", e);
+        }
+    }
+
+    private void disconnect(Session session) {
+        if (session != null && session.isConnected()) {
+            session.disconnect();
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof SSHConnector)) {
+            return false;
+        }
+        SSHConnector other = (SSHConnector) obj;
+        return this.port == other.port && Objects.equals(this.hostname, other.hostname)
+                && Objects.equals(this.userid, other.userid) && MessageDigest.isEqual(this.secretHash, other.secretHash);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.hostname, this.port, this.userid);
+    }
+}
@@ -0,0 +1,454 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.ipnetwork.internal.ssh;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.Session;
+
+import dev.galasa.ICredentials;
+import dev.galasa.ipnetwork.SSHException;
+
+/**
+ * Pool of connected SSH sessions, keyed by host, port and credentials, so a command or SFTP request only has to
+ * open a channel rather than connect and authenticate a new session.
+ * <p>
+ * A session is shared by up to {@link #MAX_CHANNELS_PER_SESSION} channels at a time. The number of sessions to a
+ * host is limited, a borrower waits for a channel when the host is at its limit. Sessions that have not been used for
+ * the idle timeout are disconnected, and an idle session is checked before it is reused.
+ * </p>
+ */
+public class SSHSessionPool {
+
+    /**
+     * Channels open at the same time on a session, below the OpenSSH MaxSessions default of 10
+     */
+    protected static final int        MAX_CHANNELS_PER_SESSION = 8;
+
+    private static final int          DEFAULT_MAX_SESSIONS     = 4;
+
+    private static final long         HEALTH_CHECK_INTERVAL    = 10000;
+
+    private static final int          HEALTH_CHECK_TIMEOUT     = 5000;
+
+    private static final Log          logger                   = LogFactory.getLog(SSHSessionPool.class);
+
+    private final long                idleTimeout;
+    private final long                borrowTimeout;
+
+    private final Map<String, Host>   hosts                    = new HashMap<>();
+    private final Map<Session, Entry> sessions                 = new IdentityHashMap<>();
+
+    /**
+     * Holders of idle channels, weakly referenced so a holder that is discarded without being unregistered does not
+     * stay in the pool
+     */
+    private final Set<IdleChannels>   idleChannelHolders       = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private boolean                   closed;
+
+    private EvictionThread            evictionThread;
+
+    /**
+     * @param idleTimeout   - time (in milliseconds) a session can be unused before it is disconnected
+     * @param borrowTimeout - time (in milliseconds) to wait for a channel when the host is at its session limit
+     */
+    public SSHSessionPool(long idleTimeout, long borrowTimeout) {
+        this.idleTimeout = idleTimeout;
+        this.borrowTimeout = borrowTimeout;
+    }
+
+    /**
+     * Channels kept open for reuse on pooled sessions, each holding the borrow of its session. The pool asks for the
+     * channels to be closed when they have been idle for its idle timeout, so their sessions can then be evicted
+     */
+    public interface IdleChannels {
+        /**
+         * Close the idle channels, releasing their sessions to the pool
+         *
+         * @param idleSince - close the channels last used at or before this time (in milliseconds)
+         */
+        void closeIdleChannels(long idleSince);
+    }
+
+    /**
+     * Register a holder of idle channels, which is asked to close them by the eviction thread and when the pool is
+     * closed
+     *
+     * @param holder - the holder
+     */
+    public synchronized void register(IdleChannels holder) {
+        this.idleChannelHolders.add(holder);
+    }
+
+    /**
+     * @return true if the pool has been closed, channels should then not be kept open on its sessions
+     */
+    public synchronized boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * Set the maximum number of sessions to a host
+     *
+     * @param hostname    - the host
+     * @param port        - the SSH port
+     * @param maxSessions - the maximum number of sessions
+     */
+    public synchronized void setMaxSessions(String hostname, int port, int maxSessions) {
+        host(hostname, port).maxSessions = maxSessions;
+        notifyAll();
+    }
+
+    /**
+     * Borrow a session to open a channel on. The session must be returned with {@link #release(Session)} when the
+     * channel has been disconnected.
+     *
+     * @param hostname    - the host
+     * @param port        - the SSH port
+     * @param credentials - the credentials to authenticate with
+     * @return a connected session
+     * @throws SSHException
+     */
+    public Session borrow(String hostname, int port, ICredentials credentials) throws SSHException {
+        SSHConnector connector = new SSHConnector(hostname, port, credentials);
+        long whenTimeout = System.currentTimeMillis() + this.borrowTimeout;
+
+        while (true) {
+            ArrayList<Session> unhealthy = new ArrayList<>();
+            Host host;
+            Entry entry = null;
+            boolean check = false;
+            try {
+                synchronized (this) {
+                    host = host(hostname, port);
+                    while (true) {
+                        if (this.closed) {
+                            throw new SSHException("The SSH session pool has been closed");
+                        }
+
+                        entry = host.available(connector, unhealthy);
+                        if (entry != null) {
+                            // *** Reserve the session, it is checked outside the lock if it has been idle for a while
+                            check = entry.channels == 0 && System.currentTimeMillis() - entry.lastUsed >= HEALTH_CHECK_INTERVAL;
+                            entry.channels++;
+                            entry.checking = check;
+                            break;
+                        }
+
+                        if (host.sessions + host.connecting < host.maxSessions || host.evictIdle(unhealthy)) {
+                            host.connecting++;
+                            break;
+                        }
+
+                        long wait = whenTimeout - System.currentTimeMillis();
+                        if (wait <= 0) {
+                            throw new SSHException("Timed out waiting for an SSH session to '" + hostname + ":" + port + "'");
+                        }
+                        wait(wait);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SSHException("Interrupted waiting for an SSH session", e);
+            } finally {
+                disconnect(unhealthy);
+            }
+
+            if (entry == null) {
+                return add(host, connector, credentials);
+            }
+            if (!check) {
+                return entry.session;
+            }
+
+            boolean healthy = entry.isHealthy();
+            synchronized (this) {
+                entry.checking = false;
+                if (!healthy) {
+                    entry.channels--;
+                    remove(entry);
+                }
+                notifyAll();
+            }
+            if (healthy) {
+                return entry.session;
+            }
+            disconnect(Collections.singletonList(entry.session));
+        }
+    }
+
+    /**
+     * Connect a new session outside the lock, the handshake is the slow part
+     */
+    private Session add(Host host, SSHConnector connector, ICredentials credentials) throws SSHException {
+        Session session = null;
+        try {
+            session = connect(connector, credentials);
+        } finally {
+            synchronized (this) {
+                host.connecting--;
+                if (session != null) {
+                    Entry entry = new Entry(connector, session);
+                    entry.channels = 1;
+                    host.entries.add(entry);
+                    host.sessions++;
+                    this.sessions.put(session, entry);
+                    startEvictionThread();
+                }
+                notifyAll();
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Connect a new session for the pool
+     *
+     * @param connector   - the host, port and credentials
+     * @param credentials - the credentials the connector was created with
+     * @return the connected session
+     * @throws SSHException
+     */
+    protected Session connect(SSHConnector connector, ICredentials credentials) throws SSHException {
+        return connector.connect(credentials);
+    }
+
+    /**
+     * Return a borrowed session
+     *
+     * @param session - the session
+     */
+    public void release(Session session) {
+        boolean disconnect = false;
+        synchronized (this) {
+            Entry entry = this.sessions.get(session);
+            if (entry == null) {
+                return;
+            }
+            entry.channels--;
+            entry.lastUsed = System.currentTimeMillis();
+            if (entry.channels <= 0 && (this.closed || !session.isConnected())) {
+                remove(entry);
+                disconnect = true;
+            }
+            notifyAll();
+        }
+        if (disconnect) {
+            session.disconnect();
+        }
+    }
+
+    /**
+     * Disconnect the sessions that are not in use, sessions in use are disconnected when they are released
+     */
+    public void close() {
+        synchronized (this) {
+            this.closed = true;
+        }
+        closeIdleChannels(Long.MAX_VALUE);
+
+        ArrayList<Session> idle = new ArrayList<>();
+        synchronized (this) {
+            for (Entry entry : new ArrayList<>(this.sessions.values())) {
+                if (entry.channels <= 0) {
+                    remove(entry);
+                    idle.add(entry.session);
+                }
+            }
+            notifyAll();
+        }
+        disconnect(idle);
+    }
+
+    /**
+     * Disconnect the sessions that have not been used for the idle timeout, called by the eviction thread
+     */
+    protected void evictIdle() {
+        long idleSince = System.currentTimeMillis() - this.idleTimeout;
+        closeIdleChannels(idleSince);
+
+        ArrayList<Session> idle = new ArrayList<>();
+        synchronized (this) {
+            for (Entry entry : new ArrayList<>(this.sessions.values())) {
+                if (entry.channels <= 0 && (entry.lastUsed <= idleSince || !entry.session.isConnected())) {
+                    remove(entry);
+                    idle.add(entry.session);
+                }
+            }
+            if (!idle.isEmpty()) {
+                notifyAll();
+            }
+        }
+        disconnect(idle);
+    }
+
+    /**
+     * Ask the holders to close their idle channels, outside the lock as closing a channel releases its session
+     */
+    private void closeIdleChannels(long idleSince) {
+        List<IdleChannels> holders;
+        synchronized (this) {
+            holders = new ArrayList<>(this.idleChannelHolders);
+        }
+        for (IdleChannels holder : holders) {
+            holder.closeIdleChannels(idleSince);
+        }
+    }
+
+    private void remove(Entry entry) {
+        Host host = host(entry.connector.getHostname(), entry.connector.getPort());
+        host.entries.remove(entry);
+        host.sessions--;
+        this.sessions.remove(entry.session);
+    }
+
+    private void disconnect(List<Session> sessionsToDisconnect) {
+        for (Session session : sessionsToDisconnect) {
+            session.disconnect();
+            logger.trace("Pooled SSH session to '" + session.getHost() + ":" + session.getPort() + "' disconnected");
+        }
+    }
+
+    private Host host(String hostname, int port) {
+        return this.hosts.computeIfAbsent(hostname + ":" + port, k -> new Host());
+    }
+
+    private void startEvictionThread() {
+        if (this.evictionThread == null && !this.closed) {
+            this.evictionThread = new EvictionThread();
+            this.evictionThread.start();
+        }
+    }
+
+    /**
+     * The sessions to one host:port
+     */
+    private class Host {
+        private final List<Entry> entries     = new ArrayList<>();
+        private int               sessions;
+        private int               connecting;
+        private int               maxSessions = DEFAULT_MAX_SESSIONS;
+
+        /**
+         * Find a session for the credentials with a free channel, removing idle sessions that have been dropped
+         */
+        private Entry available(SSHConnector connector, List<Session> unhealthy) {
+            Iterator<Entry> iterator = new ArrayList<>(this.entries).iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (!entry.connector.equals(connector) || entry.checking || entry.channels >= MAX_CHANNELS_PER_SESSION) {
+                    continue;
+                }
+                if (entry.session.isConnected()) {
+                    return entry;
+                }
+                // *** A dropped session in use is removed when its last channel is released
+                if (entry.channels <= 0) {
+                    remove(entry);
+                    unhealthy.add(entry.session);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Make room for a new session by removing the least recently used idle session
+         */
+        private boolean evictIdle(List<Session> evicted) {
+            Entry oldest = null;
+            for (Entry entry : this.entries) {
+                if (entry.channels <= 0 && (oldest == null || entry.lastUsed < oldest.lastUsed)) {
+                    oldest = entry;
+                }
+            }
+            if (oldest == null) {
+                return false;
+            }
+            remove(oldest);
+            evicted.add(oldest.session);
+            return true;
+        }
+    }
+
+    /**
+     * A pooled session
+     */
+    private static class Entry {
+        private final SSHConnector connector;
+        private final Session      session;
+        private int                channels;
+        private boolean            checking;
+        private long               lastUsed = System.currentTimeMillis();
+
+        private Entry(SSHConnector connector, Session session) {
+            this.connector = connector;
+            this.session = session;
+        }
+
+        /**
+         * A session that has been idle for a while may have been dropped by the server or a firewall without the
+         * client noticing. A keep alive is only queued for sending, so open and close a channel, which waits for
+         * the server to reply
+         */
+        private boolean isHealthy() {
+            if (!this.session.isConnected()) {
+                return false;
+            }
+            ChannelExec channel = null;
+            try {
+                channel = (ChannelExec) this.session.openChannel("exec");
+                channel.setCommand("true");
+                channel.connect(HEALTH_CHECK_TIMEOUT);
+                return true;
+            } catch (Exception e) {
+                return false;
+            } finally {
+                if (channel != null) {
+                    channel.disconnect();
+                }
+            }
+        }
+    }
+
+    private class EvictionThread extends Thread {
+
+        public EvictionThread() {
+            this.setDaemon(true);
+            this.setName("GalasaSSHSessionPool eviction thread");
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                synchronized (SSHSessionPool.this) {
+                    if (closed) {
+                        return;
+                    }
+                }
+                evictIdle();
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
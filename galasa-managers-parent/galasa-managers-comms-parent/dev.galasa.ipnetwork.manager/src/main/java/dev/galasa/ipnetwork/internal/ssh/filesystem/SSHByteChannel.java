@@ -10,7 +10,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -23,48 +26,69 @@ import com.jcraft.jsch.SftpException;
 import dev.galasa.ipnetwork.SSHException;
 
 /**
- * Dummy Byte Channel for a null Result Archive Store
+ * Byte Channel for a file on an SSH File System, read and written over SFTP
  *
  * @author Michael Baylis
  *
  */
 public class SSHByteChannel implements SeekableByteChannel {
 
+    private static final int    BUFFER_SIZE = 32768;
+
     private long                size     = 0;
     private long                position = 0;
 
     private final SSHFileSystem fileSystem;
     private final Path          path;
+    private final String        pathName;
 
     private final ChannelSftp   channel;
 
-    private final InputStream   inputStream;
-    private final OutputStream  outputStream;
+    private final boolean       write;
+
+    private InputStream         inputStream;
+    private OutputStream        outputStream;
+
+    private byte[]              buffer;
+
+    private boolean             closed;
 
-    public SSHByteChannel(Path path, Set<? extends OpenOption> options, SSHFileSystem fileSystem) throws SSHException {
+    public SSHByteChannel(Path path, Set<? extends OpenOption> options, SSHFileSystem fileSystem) throws SSHException, FileAlreadyExistsException {
         this.fileSystem = fileSystem;
         this.path = path.toAbsolutePath();
+        this.pathName = this.path.toString();
 
         this.channel = this.fileSystem.getFileChannel();
 
-        boolean write = options.contains(StandardOpenOption.WRITE);
+        this.write = options.contains(StandardOpenOption.WRITE) || options.contains(StandardOpenOption.APPEND);
 
         try {
-            if (write) {
-                inputStream = null;
-
-                outputStream = this.channel.put(this.path.toString());
+            if (this.write) {
+                // *** SFTP through JSch cannot create exclusively, so check first
+                if (options.contains(StandardOpenOption.CREATE_NEW) && exists()) {
+                    throw new FileAlreadyExistsException(this.pathName);
+                }
+                if (options.contains(StandardOpenOption.TRUNCATE_EXISTING)) {
+                    this.outputStream = this.channel.put(this.pathName);
+                } else {
+                    this.size = existingSize();
+                    if (options.contains(StandardOpenOption.APPEND)) {
+                        this.position = this.size;
+                    }
+                    // *** Open now so the file is created even if nothing is written
+                    this.outputStream = openOutputStream();
+                }
             } else {
-                outputStream = null;
-
-                // Check the file exists and get the size
-                SftpATTRS attrs = this.channel.lstat(this.path.toString());
+                // Check the file exists and get the size, the file is opened on the first read
+                SftpATTRS attrs = this.channel.lstat(this.pathName);
                 this.size = attrs.getSize();
-
-                inputStream = this.channel.get(this.path.toString());
             }
         } catch (SftpException e) {
+            this.fileSystem.releaseFileChannel(this.channel);
             throw new SSHException("Unable to open SSH file", e);
+        } catch (FileAlreadyExistsException e) {
+            this.fileSystem.releaseFileChannel(this.channel);
+            throw e;
         }
     }
 
@@ -75,7 +99,7 @@ public class SSHByteChannel implements SeekableByteChannel {
      */
     @Override
     public boolean isOpen() {
-        return this.channel.isConnected();
+        return !this.closed && this.channel.isConnected();
     }
 
     /*
@@ -85,13 +109,15 @@ public class SSHByteChannel implements SeekableByteChannel {
      */
     @Override
     public void close() throws IOException {
-        if (inputStream != null) {
-            inputStream.close();
+        if (this.closed) {
+            return;
         }
-        if (outputStream != null) {
-            outputStream.close();
+        this.closed = true;
+        try {
+            closeStreams();
+        } finally {
+            this.fileSystem.releaseFileChannel(this.channel);
         }
-        this.channel.disconnect();
     }
 
     /*
@@ -104,20 +130,39 @@ public class SSHByteChannel implements SeekableByteChannel {
         if (!isOpen()) {
             throw new ClosedChannelException();
         }
+        if (this.write) {
+            throw new NonReadableChannelException();
+        }
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
 
-        int count = 0;
-        byte[] buffer = new byte[1];
-        for (int i = 0; i < dst.remaining(); i++) {
-            int len = this.inputStream.read(buffer);
-            if (len < 1) {
-                break;
+        if (this.inputStream == null) {
+            try {
+                this.inputStream = this.channel.get(this.pathName, null, this.position);
+            } catch (SftpException e) {
+                throw new IOException("Unable to read SSH file", e);
             }
-            dst.put(buffer);
-            count++;
-            position++;
         }
 
-        return count;
+        int len;
+        if (dst.hasArray()) {
+            len = this.inputStream.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+            if (len > 0) {
+                dst.position(dst.position() + len);
+            }
+        } else {
+            byte[] bytes = buffer();
+            len = this.inputStream.read(bytes, 0, Math.min(bytes.length, dst.remaining()));
+            if (len > 0) {
+                dst.put(bytes, 0, len);
+            }
+        }
+
+        if (len > 0) {
+            this.position += len;
+        }
+        return len;
     }
 
     /*
@@ -130,15 +175,33 @@ public class SSHByteChannel implements SeekableByteChannel {
         if (!isOpen()) {
             throw new ClosedChannelException();
         }
+        if (!this.write) {
+            throw new NonWritableChannelException();
+        }
 
-        int count = 0;
-        while (src.remaining() > 0) { // TODO there has got be a more efficient way of doing this
-            outputStream.write(src.get());
-            count++;
-            size++;
-            position++;
+        if (this.outputStream == null) {
+            try {
+                this.outputStream = openOutputStream();
+            } catch (SftpException e) {
+                throw new IOException("Unable to write SSH file", e);
+            }
         }
 
+        int count = src.remaining();
+        if (src.hasArray()) {
+            this.outputStream.write(src.array(), src.arrayOffset() + src.position(), count);
+            src.position(src.position() + count);
+        } else {
+            byte[] bytes = buffer();
+            while (src.hasRemaining()) {
+                int len = Math.min(bytes.length, src.remaining());
+                src.get(bytes, 0, len);
+                this.outputStream.write(bytes, 0, len);
+            }
+        }
+
+        this.position += count;
+        this.size = Math.max(this.size, this.position);
         return count;
     }
 
@@ -162,7 +225,15 @@ public class SSHByteChannel implements SeekableByteChannel {
         if (!isOpen()) {
             throw new ClosedChannelException();
         }
-        throw new UnsupportedOperationException("need to write");
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Position must not be negative");
+        }
+        if (newPosition != this.position) {
+            // *** The next read or write reopens the file at the new offset
+            closeStreams();
+            this.position = newPosition;
+        }
+        return this;
     }
 
     /*
@@ -188,7 +259,79 @@ public class SSHByteChannel implements SeekableByteChannel {
         if (!isOpen()) {
             throw new ClosedChannelException();
         }
-        throw new UnsupportedOperationException("need to write");
+        if (size < 0) {
+            throw new IllegalArgumentException("Size must not be negative");
+        }
+        if (!this.write) {
+            throw new NonWritableChannelException();
+        }
+        if (size < this.size) {
+            closeStreams();
+            try {
+                // *** SFTP can only truncate by setting the size attribute, the other attributes are set to their current values
+                SftpATTRS attrs = this.channel.stat(this.pathName);
+                attrs.setSIZE(size);
+                this.channel.setStat(this.pathName, attrs);
+            } catch (SftpException e) {
+                throw new IOException("Unable to truncate SSH file", e);
+            }
+            this.size = size;
+        }
+        if (this.position > size) {
+            closeStreams();
+            this.position = size;
+        }
+        return this;
+    }
+
+    private boolean exists() throws SftpException {
+        try {
+            this.channel.lstat(this.pathName);
+            return true;
+        } catch (SftpException e) {
+            if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private long existingSize() throws SftpException {
+        try {
+            return this.channel.stat(this.pathName).getSize();
+        } catch (SftpException e) {
+            if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                return 0;
+            }
+            throw e;
+        }
+    }
+
+    private OutputStream openOutputStream() throws SftpException {
+        // *** APPEND opens the file without truncating it, JSch adds the current size of the file to the offset
+        return this.channel.put(this.pathName, null, ChannelSftp.APPEND, this.position - this.size);
+    }
+
+    private void closeStreams() throws IOException {
+        try {
+            if (this.inputStream != null) {
+                this.inputStream.close();
+            }
+        } finally {
+            this.inputStream = null;
+            if (this.outputStream != null) {
+                OutputStream stream = this.outputStream;
+                this.outputStream = null;
+                stream.close();
+            }
+        }
+    }
+
+    private byte[] buffer() {
+        if (this.buffer == null) {
+            this.buffer = new byte[BUFFER_SIZE];
+        }
+        return this.buffer;
     }
 
 }
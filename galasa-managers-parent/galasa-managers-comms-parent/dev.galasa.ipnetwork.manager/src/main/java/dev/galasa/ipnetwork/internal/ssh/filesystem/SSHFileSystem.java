@@ -14,72 +14,95 @@ import java.nio.file.WatchService;
 import java.nio.file.attribute.UserPrincipalLookupService;
 import java.nio.file.spi.FileSystemProvider;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import com.jcraft.jsch.Channel;
 import com.jcraft.jsch.ChannelSftp;
-import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
 
 import dev.galasa.ICredentials;
-import dev.galasa.ICredentialsUsernamePassword;
-import dev.galasa.ICredentialsUsernameToken;
+import dev.galasa.ipnetwork.IFileTransfer;
 import dev.galasa.ipnetwork.SSHException;
+import dev.galasa.ipnetwork.internal.ssh.SSHClient;
+import dev.galasa.ipnetwork.internal.ssh.SSHConnector;
+import dev.galasa.ipnetwork.internal.ssh.SSHSessionPool;
 
-public class SSHFileSystem extends FileSystem {
+public class SSHFileSystem extends FileSystem implements IFileTransfer, SSHSessionPool.IdleChannels {
+
+    /**
+     * SFTP channels kept open for reuse, which is also the number of files transferred at once. An idle channel on a
+     * pooled session holds its session borrow, so the pool closes it once it has been idle for the pool's idle
+     * timeout, and the session can then be evicted
+     */
+    protected static final int          MAX_IDLE_CHANNELS = 4;
+
+    /**
+     * Read requests JSch sends before waiting for a response
+     */
+    private static final int            BULK_REQUESTS     = 32;
+
+    private static final long           COMMAND_TIMEOUT   = 300000;
+    private static final String         EXIT_STATUS       = "GALASA_EXIT_STATUS=";
+    private static final Pattern        EXIT_STATUS_PATTERN = Pattern.compile(EXIT_STATUS + "(\\d+)\\s*$");
 
     private final Log                   logger = LogFactory.getLog(SSHFileSystemProvider.class);
 
     private final String                hostname;
     private final int                   port;
-    private final String                userid;
-    private final String                password;
+    private final ICredentials          credentials;
+    private final SSHConnector          connector;
+
+    private final SSHSessionPool        sessionPool;
 
-    private JSch                        sshClient;
     private Session                     session;
 
     private final SSHFileStore          fileStore;
     private final SSHFileSystemProvider fileSystemProvider;
+    private final SSHFileTreeTransfer   fileTreeTransfer;
+
+    /**
+     * Idle channels, the least recently used first
+     */
+    private final LinkedList<IdleChannel> idleChannels = new LinkedList<>();
 
     public SSHFileSystem(String hostname, int port, ICredentials credentials) throws SSHException {
+        this(hostname, port, credentials, null);
+    }
+
+    /**
+     * An SSH File System that opens its SFTP channels on sessions borrowed from a pool
+     * 
+     * @param hostname    - the host
+     * @param port        - the SSH port
+     * @param credentials - the credentials to authenticate with
+     * @param sessionPool - the session pool, or null to connect a session for this file system
+     * @throws SSHException
+     */
+    public SSHFileSystem(String hostname, int port, ICredentials credentials, SSHSessionPool sessionPool) throws SSHException {
 
         this.hostname = hostname;
         this.port = port;
+        this.credentials = credentials;
+        this.sessionPool = sessionPool;
 
         this.fileStore = new SSHFileStore("sshfilestore-" + hostname);
         this.fileSystemProvider = new SSHFileSystemProvider(this);
+        this.fileTreeTransfer = new SSHFileTreeTransfer(this);
 
-        this.sshClient = new JSch();
+        this.connector = new SSHConnector(hostname, port, credentials);
         this.session = null;
 
-        try {
-            if (credentials instanceof ICredentialsUsernamePassword) {
-                ICredentialsUsernamePassword creds = (ICredentialsUsernamePassword) credentials;
-                this.userid = creds.getUsername();
-                this.password = creds.getPassword();
-            } else if (credentials instanceof ICredentialsUsernameToken) {
-                ICredentialsUsernameToken creds = (ICredentialsUsernameToken) credentials;
-                this.userid = creds.getUsername();
-                this.password = null;
-                this.sshClient.addIdentity(this.userid, creds.getToken(), null, null);
-            } else {
-                throw new SSHException("Unsupported credentials type - " + credentials.getClass().getName());
-            }
-        } catch (SSHException e) {
-            throw e;
-        } catch (JSchException e) {
-            throw new SSHException("Problem adding credentials to SSH", e);
+        if (sessionPool != null) {
+            sessionPool.register(this);
         }
-
-    }
-
-    public void connect() throws SSHException {
-        connect(5);
     }
 
     /**
@@ -87,93 +110,186 @@ public class SSHFileSystem extends FileSystem {
      * 
      * @throws SSHException
      */
-    private synchronized void connect(int retry) throws SSHException {
+    public synchronized void connect() throws SSHException {
         // Do nothing if already connected
         if (session != null && session.isConnected()) {
             return;
         }
 
-        try {
+        session = this.connector.connect(this.credentials);
+        logger.trace("SSH Client connected to '" + hostname + ":" + port);
+    }
 
-            try {
-                session = sshClient.getSession(this.userid, hostname, port);
-                session.setIdentityRepository(sshClient.getIdentityRepository());
-                if (this.password != null) {
-                    session.setPassword(this.password);
+    /**
+     * Get an SFTP channel, reusing an idle one if possible, which must be returned with
+     * {@link #releaseFileChannel(ChannelSftp)}
+     * 
+     * @return the channel
+     * @throws SSHException
+     */
+    protected ChannelSftp getFileChannel() throws SSHException {
+        synchronized (this.idleChannels) {
+            // *** Reuse the most recently used channel, so the others can reach the idle timeout
+            while (!this.idleChannels.isEmpty()) {
+                ChannelSftp channel = this.idleChannels.removeLast().channel;
+                if (channel.isConnected()) {
+                    return channel;
                 }
-                session.setConfig("StrictHostKeyChecking", "no");
+                closeFileChannel(channel);
+            }
+        }
 
-                session.connect();
+        Session channelSession = borrowSession();
+        try {
+            ChannelSftp channel = (ChannelSftp) channelSession.openChannel("sftp");
+            channel.setBulkRequests(BULK_REQUESTS);
+            channel.connect();
 
-                // Slight delay to allow the connection to stabilise
-                try {
-                    Thread.sleep(200); // NOSONAR - Sleep is sufficent
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new SSHException("Interrupted trying to authenticate using SSH", e);
+            return channel;
+        } catch (Exception e) {
+            releaseSession(channelSession);
+            throw new SSHException("Unable to open a sftp channel to the server", e);
+        }
+    }
+
+    /**
+     * Return an SFTP channel for reuse, or disconnect it if enough channels are
+     * idle or the session pool has been closed
+     * 
+     * @param channel - the channel
+     */
+    protected void releaseFileChannel(ChannelSftp channel) {
+        if (channel.isConnected() && (this.sessionPool == null || !this.sessionPool.isClosed())) {
+            synchronized (this.idleChannels) {
+                if (this.idleChannels.size() < MAX_IDLE_CHANNELS) {
+                    this.idleChannels.addLast(new IdleChannel(channel));
+                    return;
                 }
+            }
+        }
+        closeFileChannel(channel);
+    }
 
-                logger.trace("SSH Client connected to '" + hostname + ":" + port);
-
-            } catch (Exception e) {
-                if (retry > 0) {
-                    logger.trace("Exception caught during SSH connection, will retry.", e);
-                    if (session != null && session.isConnected()) {
-                        session.disconnect();
-                        session = null;
-                    }
-                    Thread.sleep(5000); // NOSONAR - Sleep is sufficient
-                    connect(retry - 1);
-                } else {
-                    throw e;
+    /**
+     * Close the channels that have been idle since a time, called by the session
+     * pool
+     * 
+     * @param idleSince - close the channels last used at or before this time (in
+     *                  milliseconds)
+     */
+    @Override
+    public void closeIdleChannels(long idleSince) {
+        List<ChannelSftp> idle = new ArrayList<>();
+        synchronized (this.idleChannels) {
+            Iterator<IdleChannel> iterator = this.idleChannels.iterator();
+            while (iterator.hasNext()) {
+                IdleChannel idleChannel = iterator.next();
+                if (idleChannel.lastUsed > idleSince) {
+                    break;
                 }
+                iterator.remove();
+                idle.add(idleChannel.channel);
             }
-        } catch (SSHException e) {
-            throw e;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new SSHException("Interrupted while trying to retrieve output", e);
-        } catch (Exception e) {
-            throw new SSHException("Unrecognised exception in connection", e);
         }
+        for (ChannelSftp channel : idle) {
+            closeFileChannel(channel);
+        }
+    }
 
-        return;
+    /**
+     * Disconnect an SFTP channel, returning its session to the pool
+     * 
+     * @param channel - the channel
+     */
+    private void closeFileChannel(ChannelSftp channel) {
+        Session channelSession = null;
+        try {
+            channelSession = channel.getSession();
+        } catch (JSchException e) {
+            // The channel was not connected
+        }
+        channel.disconnect();
+        if (channelSession != null) {
+            releaseSession(channelSession);
+        }
     }
 
-    protected ChannelSftp getFileChannel() throws SSHException {
+    private void closeIdleFileChannels() {
+        closeIdleChannels(Long.MAX_VALUE);
+    }
+
+    private Session borrowSession() throws SSHException {
+        if (this.sessionPool != null) {
+            return this.sessionPool.borrow(this.hostname, this.port, this.credentials);
+        }
         connect();
+        return this.session;
+    }
 
-        try {
-            Channel channel = session.openChannel("sftp");
-            channel.connect();
+    private void releaseSession(Session channelSession) {
+        if (this.sessionPool != null) {
+            this.sessionPool.release(channelSession);
+        }
+    }
 
-            return (ChannelSftp) channel;
-        } catch (Exception e) {
-            throw new SSHException("Unable to open a sftp channel to the server", e);
+    /**
+     * Run a shell command on the host, e.g. to copy a file without transferring
+     * its contents to and from the client
+     * 
+     * @param command - the command
+     * @throws SSHException if the command fails or ends with a non zero exit
+     *                      status
+     */
+    protected void execute(String command) throws SSHException {
+        Session channelSession = borrowSession();
+        try {
+            // The exit status is part of the output, as JSch can receive it after the channel sends EOF
+            String response = SSHClient.retrieveOutput(channelSession, command + " 2>&1; echo " + EXIT_STATUS + "$?", false, COMMAND_TIMEOUT, null);
+            Matcher matcher = EXIT_STATUS_PATTERN.matcher(response);
+            if (!matcher.find() || !"0".equals(matcher.group(1))) {
+                throw new SSHException("Command '" + command + "' failed:-\n" + response);
+            }
+            logger.trace("Command '" + command + "' completed");
+        } finally {
+            releaseSession(channelSession);
         }
     }
 
+    @Override
+    public void upload(Path source, Path target) throws SSHException {
+        this.fileTreeTransfer.upload(source, target);
+    }
+
+    @Override
+    public void download(Path source, Path target) throws SSHException {
+        this.fileTreeTransfer.download(source, target);
+    }
+
+    @Override
+    public List<Path> walk(Path directory) throws SSHException {
+        return this.fileTreeTransfer.walk(directory);
+    }
+
     /**
      * Disconnect the client
      * 
      * @throws IOException
      */
     public synchronized void disconnect() throws SSHException {
+        closeIdleFileChannels();
         if (session == null) {
             return;
         }
-        synchronized (sshClient) {
-
-            if (!session.isConnected()) {
-                session = null;
-                return;
-            }
-
-            session.disconnect();
-            logger.trace("SSH Client disconnected");
 
+        if (!session.isConnected()) {
             session = null;
+            return;
         }
+
+        session.disconnect();
+        logger.trace("SSH Client disconnected");
+
+        session = null;
         return;
     }
 
@@ -287,6 +403,18 @@ public class SSHFileSystem extends FileSystem {
         throw new UnsupportedOperationException("need to write");
     }
 
+    /**
+     * An SFTP channel waiting to be reused
+     */
+    private static class IdleChannel {
+        private final ChannelSftp channel;
+        private final long        lastUsed = System.currentTimeMillis();
+
+        private IdleChannel(ChannelSftp channel) {
+            this.channel = channel;
+        }
+    }
+
     /**
      * Convert a glob into a regex
      *
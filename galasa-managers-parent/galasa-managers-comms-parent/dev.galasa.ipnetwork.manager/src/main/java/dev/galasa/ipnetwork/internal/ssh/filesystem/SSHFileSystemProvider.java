@@ -13,12 +13,14 @@ import java.nio.file.CopyOption;
 import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.DirectoryStream.Filter;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileStore;
 import java.nio.file.FileSystem;
 import java.nio.file.LinkOption;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.FileAttributeView;
@@ -72,7 +74,7 @@ public class SSHFileSystemProvider extends FileSystemProvider {
                         throw new IOException("Unable to check for read via SFTP", e);
                     } finally {
                         if (channel != null) {
-                            channel.disconnect();
+                            fileSystem.releaseFileChannel(channel);
                         }
                     }
                     break;
@@ -87,10 +89,36 @@ public class SSHFileSystemProvider extends FileSystemProvider {
 
     }
 
+    /**
+     * Copy a file on the host with cp, so its contents are not transferred to and
+     * from the client. As with other providers, copying a directory creates an
+     * empty directory
+     */
     @Override
     public void copy(Path source, Path target, CopyOption... options) throws IOException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("need to write");
+        String sourcePath = source.toAbsolutePath().toString();
+        String targetPath = target.toAbsolutePath().toString();
+
+        SftpATTRS sourceAttrs = lstat(sourcePath);
+        if (sourceAttrs == null) {
+            throw new NoSuchFileException(sourcePath);
+        }
+        if (sourcePath.equals(targetPath)) {
+            return;
+        }
+        prepareTarget(target, hasOption(StandardCopyOption.REPLACE_EXISTING, options));
+
+        if (sourceAttrs.isDir()) {
+            createDirectory(target);
+            return;
+        }
+
+        String flags = hasOption(StandardCopyOption.COPY_ATTRIBUTES, options) ? "-p " : "";
+        try {
+            fileSystem.execute("cp " + flags + quote(sourcePath) + " " + quote(targetPath));
+        } catch (SSHException e) {
+            throw new IOException("Unable to copy via SSH", e);
+        }
     }
 
     @Override
@@ -103,7 +131,7 @@ public class SSHFileSystemProvider extends FileSystemProvider {
             throw new IOException("Unable to create directory via SFTP", e);
         } finally {
             if (channel != null) {
-                channel.disconnect();
+                fileSystem.releaseFileChannel(channel);
             }
         }
     }
@@ -145,7 +173,7 @@ public class SSHFileSystemProvider extends FileSystemProvider {
             throw new IOException("Unable to delete via SFTP", e);
         } finally {
             if (channel != null) {
-                channel.disconnect();
+                fileSystem.releaseFileChannel(channel);
             }
         }
     }
@@ -191,10 +219,88 @@ public class SSHFileSystemProvider extends FileSystemProvider {
         throw new UnsupportedOperationException("need to write");
     }
 
+    /**
+     * Move a file or directory by renaming it on the host
+     */
     @Override
     public void move(Path source, Path target, CopyOption... options) throws IOException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("need to write");
+        String sourcePath = source.toAbsolutePath().toString();
+        String targetPath = target.toAbsolutePath().toString();
+        if (sourcePath.equals(targetPath)) {
+            return;
+        }
+        prepareTarget(target, hasOption(StandardCopyOption.REPLACE_EXISTING, options));
+
+        ChannelSftp channel = null;
+        try {
+            channel = fileSystem.getFileChannel();
+            channel.rename(sourcePath, targetPath);
+        } catch (SftpException e) {
+            if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                throw new NoSuchFileException(sourcePath);
+            }
+            throw new IOException("Unable to move via SFTP", e);
+        } catch (Exception e) {
+            throw new IOException("Unable to move via SFTP", e);
+        } finally {
+            if (channel != null) {
+                fileSystem.releaseFileChannel(channel);
+            }
+        }
+    }
+
+    /**
+     * SFTP will not replace an existing file, so delete the target of a copy or
+     * move first if allowed
+     */
+    private void prepareTarget(Path target, boolean replaceExisting) throws IOException {
+        String targetPath = target.toAbsolutePath().toString();
+        if (lstat(targetPath) == null) {
+            return;
+        }
+        if (!replaceExisting) {
+            throw new FileAlreadyExistsException(targetPath);
+        }
+        delete(target);
+    }
+
+    /**
+     * @return the attributes of a file, not following links, or null if it does
+     *         not exist
+     */
+    private SftpATTRS lstat(String path) throws IOException {
+        ChannelSftp channel = null;
+        try {
+            channel = fileSystem.getFileChannel();
+            return channel.lstat(path);
+        } catch (SftpException e) {
+            if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                return null;
+            }
+            throw new IOException("Unable to check for file via SFTP", e);
+        } catch (Exception e) {
+            throw new IOException("Unable to check for file via SFTP", e);
+        } finally {
+            if (channel != null) {
+                fileSystem.releaseFileChannel(channel);
+            }
+        }
+    }
+
+    private static boolean hasOption(CopyOption option, CopyOption... options) {
+        for (CopyOption copyOption : options) {
+            if (copyOption == option) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Quote a path for a POSIX shell
+     */
+    private static String quote(String path) {
+        return "'" + path.replace("'", "'\\''") + "'";
     }
 
     @Override
@@ -0,0 +1,350 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.ipnetwork.internal.ssh.filesystem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.ChannelSftp.LsEntry;
+import com.jcraft.jsch.SftpATTRS;
+import com.jcraft.jsch.SftpException;
+
+import dev.galasa.ipnetwork.SSHException;
+
+/**
+ * Walks, uploads and downloads directory trees for an {@link SSHFileSystem}.
+ * Directories are listed and files are transferred by several threads at once,
+ * each using an SFTP channel from the file system's channel pool. JSch pipelines
+ * the read and write requests of each transfer.
+ */
+public class SSHFileTreeTransfer {
+
+    private final Log           logger = LogFactory.getLog(SSHFileTreeTransfer.class);
+
+    private final SSHFileSystem fileSystem;
+
+    public SSHFileTreeTransfer(SSHFileSystem fileSystem) {
+        this.fileSystem = fileSystem;
+    }
+
+    public List<Path> walk(Path directory) throws SSHException {
+        ArrayList<Path> paths = new ArrayList<>();
+        for (RemoteEntry entry : walkEntries(remotePath(directory))) {
+            paths.add(this.fileSystem.getPath(entry.path));
+        }
+        return paths;
+    }
+
+    public void download(Path source, Path target) throws SSHException {
+        String remoteRoot = remotePath(source);
+
+        ArrayList<Callable<Void>> transfers = new ArrayList<>();
+        try {
+            for (RemoteEntry entry : walkEntries(remoteRoot)) {
+                Path local = localPath(target, remoteRoot, entry.path);
+                if (entry.attrs.isDir()) {
+                    Files.createDirectories(local);
+                } else if (entry.attrs.isReg()) {
+                    transfers.add(() -> {
+                        get(entry.path, local);
+                        return null;
+                    });
+                } else {
+                    logger.trace("Not downloading '" + entry.path + "' as it is not a regular file or directory");
+                }
+            }
+        } catch (IOException e) {
+            throw new SSHException("Unable to create local directory for download of '" + remoteRoot + "'", e);
+        }
+
+        runParallel(transfers);
+        logger.trace("Downloaded " + transfers.size() + " files from '" + remoteRoot + "'");
+    }
+
+    public void upload(Path source, Path target) throws SSHException {
+        String remoteRoot = remotePath(target);
+
+        if (!Files.isDirectory(source)) {
+            put(source, remoteRoot);
+            return;
+        }
+
+        List<Path> localPaths;
+        try (Stream<Path> stream = Files.walk(source)) {
+            localPaths = stream.collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new SSHException("Unable to list local directory '" + source + "'", e);
+        }
+
+        // *** Files.walk lists directories before their contents, so they can be created in order
+        ArrayList<Callable<Void>> transfers = new ArrayList<>();
+        ChannelSftp channel = this.fileSystem.getFileChannel();
+        try {
+            for (Path local : localPaths) {
+                String remote = remotePath(remoteRoot, source.relativize(local));
+                if (Files.isDirectory(local)) {
+                    mkdir(channel, remote);
+                } else if (Files.isRegularFile(local)) {
+                    transfers.add(() -> {
+                        put(local, remote);
+                        return null;
+                    });
+                }
+            }
+        } finally {
+            this.fileSystem.releaseFileChannel(channel);
+        }
+
+        runParallel(transfers);
+        logger.trace("Uploaded " + transfers.size() + " files to '" + remoteRoot + "'");
+    }
+
+    /**
+     * List a remote directory tree, listing several directories at once
+     */
+    private List<RemoteEntry> walkEntries(String root) throws SSHException {
+        ArrayList<RemoteEntry> entries = new ArrayList<>();
+
+        ChannelSftp channel = this.fileSystem.getFileChannel();
+        try {
+            entries.add(new RemoteEntry(root, channel.lstat(root)));
+        } catch (SftpException e) {
+            throw new SSHException("Unable to find '" + root + "'", e);
+        } finally {
+            this.fileSystem.releaseFileChannel(channel);
+        }
+
+        if (entries.get(0).attrs.isDir()) {
+            ExecutorService executor = newExecutor();
+            try {
+                CompletionService<List<RemoteEntry>> listings = new ExecutorCompletionService<>(executor);
+                listings.submit(() -> list(root));
+                int outstanding = 1;
+                while (outstanding > 0) {
+                    List<RemoteEntry> children = result(listings.take());
+                    outstanding--;
+                    for (RemoteEntry child : children) {
+                        entries.add(child);
+                        if (child.attrs.isDir() && !child.attrs.isLink()) {
+                            listings.submit(() -> list(child.path));
+                            outstanding++;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SSHException("Interrupted listing '" + root + "'", e);
+            } finally {
+                // *** Interrupting a listing could leave its channel part way through a request
+                executor.shutdown();
+            }
+        }
+
+        // *** A directory sorts before its contents as its path is a prefix of theirs
+        Collections.sort(entries, Comparator.comparing(entry -> entry.path));
+        return entries;
+    }
+
+    private List<RemoteEntry> list(String directory) throws SSHException {
+        ArrayList<RemoteEntry> children = new ArrayList<>();
+        ChannelSftp channel = this.fileSystem.getFileChannel();
+        try {
+            Vector<?> ls = channel.ls(directory);
+            for (Object entry : ls) {
+                if (entry instanceof LsEntry) {
+                    LsEntry lsEntry = (LsEntry) entry;
+
+                    String fileName = lsEntry.getFilename();
+                    if (".".equals(fileName) || "..".equals(fileName)) {
+                        continue;
+                    }
+
+                    children.add(new RemoteEntry(remotePath(directory, fileName), lsEntry.getAttrs()));
+                }
+            }
+        } catch (SftpException e) {
+            throw new SSHException("Unable to get directory listing of '" + directory + "'", e);
+        } finally {
+            this.fileSystem.releaseFileChannel(channel);
+        }
+        return children;
+    }
+
+    private void get(String remote, Path local) throws SSHException {
+        ChannelSftp channel = this.fileSystem.getFileChannel();
+        try (OutputStream outputStream = Files.newOutputStream(local)) {
+            channel.get(remote, outputStream);
+        } catch (SftpException | IOException e) {
+            throw new SSHException("Unable to download '" + remote + "' to '" + local + "'", e);
+        } finally {
+            this.fileSystem.releaseFileChannel(channel);
+        }
+    }
+
+    private void put(Path local, String remote) throws SSHException {
+        ChannelSftp channel = this.fileSystem.getFileChannel();
+        try {
+            try (InputStream inputStream = Files.newInputStream(local)) {
+                channel.put(inputStream, remote);
+            }
+
+            Integer mode = permissions(local);
+            if (mode != null) {
+                channel.chmod(mode, remote);
+            }
+        } catch (SftpException | IOException e) {
+            throw new SSHException("Unable to upload '" + local + "' to '" + remote + "'", e);
+        } finally {
+            this.fileSystem.releaseFileChannel(channel);
+        }
+    }
+
+    private void mkdir(ChannelSftp channel, String remote) throws SSHException {
+        try {
+            channel.mkdir(remote);
+        } catch (SftpException e) {
+            try {
+                if (channel.stat(remote).isDir()) {
+                    return;
+                }
+            } catch (SftpException e1) {
+                // *** Report the mkdir failure
+            }
+            throw new SSHException("Unable to create directory '" + remote + "'", e);
+        }
+    }
+
+    /**
+     * Run transfers on several threads, each of which uses its own SFTP channel
+     */
+    private void runParallel(List<Callable<Void>> tasks) throws SSHException {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = newExecutor();
+        ArrayList<Future<Void>> futures = new ArrayList<>();
+        try {
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<Void> future : futures) {
+                result(future);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SSHException("Interrupted transferring files", e);
+        } finally {
+            // *** Let running transfers finish so their channels can be reused, but do not start any more
+            for (Future<Void> future : futures) {
+                future.cancel(false);
+            }
+            executor.shutdown();
+        }
+    }
+
+    private <T> T result(Future<T> future) throws SSHException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SSHException) {
+                throw (SSHException) e.getCause();
+            }
+            throw new SSHException("Problem transferring files", e.getCause());
+        }
+    }
+
+    private ExecutorService newExecutor() {
+        return Executors.newFixedThreadPool(SSHFileSystem.MAX_IDLE_CHANNELS, runnable -> {
+            Thread thread = new Thread(runnable, "GalasaSSHFileSystem transfer thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private String remotePath(Path path) throws SSHException {
+        if (!(path instanceof SSHPath)) {
+            throw new SSHException("'" + path + "' is not a path of an SSH FileSystem");
+        }
+        return path.toAbsolutePath().toString();
+    }
+
+    static String remotePath(String directory, String name) {
+        return directory.endsWith("/") ? directory + name : directory + "/" + name;
+    }
+
+    static String remotePath(String root, Path relative) {
+        String remote = root;
+        for (Path name : relative) {
+            if (!name.toString().isEmpty()) {
+                remote = remotePath(remote, name.toString());
+            }
+        }
+        return remote;
+    }
+
+    static Path localPath(Path target, String remoteRoot, String remote) {
+        String relative = remote.substring(remoteRoot.length());
+        while (relative.startsWith("/")) {
+            relative = relative.substring(1);
+        }
+        return relative.isEmpty() ? target : target.resolve(relative);
+    }
+
+    /**
+     * The POSIX mode of a local file, or null if the local file system does not
+     * have POSIX permissions
+     */
+    static Integer permissions(Path local) throws IOException {
+        Set<PosixFilePermission> permissions;
+        try {
+            permissions = Files.getPosixFilePermissions(local);
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+
+        // *** PosixFilePermission is declared in mode bit order, from owner read (0400) to others execute (0001)
+        int mode = 0;
+        for (PosixFilePermission permission : permissions) {
+            mode |= 1 << (8 - permission.ordinal());
+        }
+        return mode;
+    }
+
+    private static class RemoteEntry {
+        private final String    path;
+        private final SftpATTRS attrs;
+
+        private RemoteEntry(String path, SftpATTRS attrs) {
+            this.path = path;
+            this.attrs = attrs;
+        }
+    }
+
+}
@@ -11,6 +11,7 @@ import javax.validation.constraints.NotNull;
 
 import dev.galasa.ICredentials;
 import dev.galasa.ipnetwork.ICommandShell;
+import dev.galasa.ipnetwork.IFileTransfer;
 import dev.galasa.ipnetwork.IIpHost;
 import dev.galasa.ipnetwork.IpNetworkManagerException;
 
@@ -22,4 +23,11 @@ public interface IIpNetworkManagerSpi {
     @NotNull
     FileSystem getFileSystem(IIpHost host) throws IpNetworkManagerException;
 
+    /**
+     * Get bulk file operations for a host, provided by the same file system as
+     * {@link #getFileSystem(IIpHost)} for the host
+     */
+    @NotNull
+    IFileTransfer getFileTransfer(IIpHost host) throws IpNetworkManagerException;
+
 }
@@ -0,0 +1,162 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.ipnetwork.internal.ssh;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSSHChannelOutput {
+
+    @Test
+    public void testWaitForEof() throws Exception {
+        SSHChannelOutput output = new SSHChannelOutput(null, StandardCharsets.UTF_8);
+        Thread sender = sender(output, "line 1\n", "line 2\n");
+
+        Assert.assertEquals("waitFor() should return all of the output at EOF", "line 1\nline 2\n", output.waitFor(null, 10000));
+        sender.join();
+    }
+
+    @Test
+    public void testWaitForComplete() throws Exception {
+        SSHChannelOutput output = new SSHChannelOutput(null, StandardCharsets.UTF_8);
+        AtomicInteger tests = new AtomicInteger();
+        output.write("partial".getBytes(StandardCharsets.UTF_8));
+
+        Thread sender = sender(output, " output", " PROMPT>");
+        Assert.assertEquals("waitFor() should return once the output is complete", "partial output PROMPT>", output.waitFor(current -> {
+            tests.incrementAndGet();
+            return current.endsWith("PROMPT>");
+        }, 10000));
+        sender.join();
+        Assert.assertTrue("waitFor() should only test the output when more has arrived", tests.get() <= 3);
+
+        output.reset();
+        Assert.assertEquals("reset() should discard the output", "", output.getOutput());
+    }
+
+    @Test
+    public void testWaitForTimeout() throws Exception {
+        SSHChannelOutput output = new SSHChannelOutput(null, StandardCharsets.UTF_8);
+        output.write("no prompt".getBytes(StandardCharsets.UTF_8));
+
+        String expectedMessage = "No output received for 100 milliseconds";
+        TimeoutException expectedException = Assert.assertThrows("expected exception should be thrown", TimeoutException.class, ()->{
+            output.waitFor(current -> current.endsWith("PROMPT>"), 100);
+        });
+        Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
+        Assert.assertEquals("getOutput() should return the output received so far", "no prompt", output.getOutput());
+    }
+
+    @Test
+    public void testListenerMultibyteCharacters() throws Exception {
+        List<String> blocks = Collections.synchronizedList(new ArrayList<>());
+        SSHChannelOutput output = new SSHChannelOutput(blocks::add, StandardCharsets.UTF_8);
+
+        // *** The e acute and euro sign are split across the writes
+        byte[] bytes = "caf\u00e9 \u20ac5".getBytes(StandardCharsets.UTF_8);
+        output.write(bytes, 0, 4);
+        output.write(bytes, 4, 3);
+        output.write(bytes, 7, 1);
+        output.write(bytes, 8, bytes.length - 8);
+        output.close();
+        output.waitFor(null, 10000);
+
+        Assert.assertEquals("the listener should receive whole characters", "caf\u00e9 \u20ac5", String.join("", blocks));
+        for (String block : blocks) {
+            Assert.assertFalse("the listener should not receive a split character", block.contains("\uFFFD"));
+        }
+        Assert.assertEquals("getOutput() should decode the whole output", "caf\u00e9 \u20ac5", output.getOutput());
+    }
+
+    @Test
+    public void testListenerIncompleteCharacterAtEof() throws Exception {
+        List<String> blocks = Collections.synchronizedList(new ArrayList<>());
+        SSHChannelOutput output = new SSHChannelOutput(blocks::add, StandardCharsets.UTF_8);
+
+        byte[] bytes = "ab\u20ac".getBytes(StandardCharsets.UTF_8);
+        output.write(bytes, 0, bytes.length - 1);
+        output.close();
+        output.waitFor(null, 10000);
+        Assert.assertEquals("the listener should not receive the start of a character", "ab", blocks.get(0));
+        Assert.assertEquals("the listener should receive a replacement for the incomplete character at EOF", "ab\uFFFD", String.join("", blocks));
+
+        output.close();
+        output.waitFor(null, 10000);
+        Assert.assertEquals("close() should only flush the listener once", "ab\uFFFD", String.join("", blocks));
+    }
+
+    @Test
+    public void testListenerThread() throws Exception {
+        List<String> blocks = Collections.synchronizedList(new ArrayList<>());
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = new CountDownLatch(1);
+        SSHChannelOutput output = new SSHChannelOutput(block -> {
+            threads.add(Thread.currentThread().getName());
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            blocks.add(block);
+        }, StandardCharsets.UTF_8);
+
+        // *** The writes must not wait for the blocked listener
+        for (int i = 0; i < 10; i++) {
+            output.write(("block " + i + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        output.close();
+        Assert.assertTrue("the listener should not have received all of the output yet", blocks.size() < 10);
+
+        release.countDown();
+        output.waitFor(null, 10000);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            expected.append("block " + i + "\n");
+        }
+        Assert.assertEquals("waitFor() should return once the listener has received all of the output in order", expected.toString(), String.join("", blocks));
+        Assert.assertFalse("the listener should not be called on the thread writing the output", threads.contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void testListenerOnly() throws Exception {
+        List<String> blocks = Collections.synchronizedList(new ArrayList<>());
+        SSHChannelOutput output = new SSHChannelOutput(blocks::add, StandardCharsets.UTF_8, false);
+        Thread sender = sender(output, "line 1\n", "line 2\n");
+
+        Assert.assertEquals("waitFor() should not return the output when it is not kept", "", output.waitFor(null, 10000));
+        sender.join();
+        Assert.assertEquals("the listener should receive all of the output", "line 1\nline 2\n", String.join("", blocks));
+        Assert.assertEquals("getOutput() should not return the output when it is not kept", "", output.getOutput());
+    }
+
+    /**
+     * Write each block of output in turn, then send EOF
+     */
+    private Thread sender(SSHChannelOutput output, String... blocks) {
+        Thread sender = new Thread(() -> {
+            try {
+                for (String block : blocks) {
+                    Thread.sleep(50);
+                    output.write(block.getBytes(StandardCharsets.UTF_8));
+                }
+                output.close();
+            } catch (Exception e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        sender.start();
+        return sender;
+    }
+}
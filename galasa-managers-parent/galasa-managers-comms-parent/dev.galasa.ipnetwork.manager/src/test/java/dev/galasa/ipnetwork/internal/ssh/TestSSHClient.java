@@ -0,0 +1,182 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.ipnetwork.internal.ssh;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+
+import dev.galasa.ICredentialsUsernamePassword;
+import dev.galasa.ipnetwork.SSHException;
+
+public class TestSSHClient {
+
+    private static final String HOSTNAME = "host";
+
+    private static final int PORT = 22;
+
+    private Session sessionMock;
+
+    private SSHClient sshClient;
+
+    /** Commands wait for this before sending their output */
+    private CountDownLatch commandsRelease;
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    @Before
+    public void setup() throws Exception {
+        ICredentialsUsernamePassword credentialsMock = Mockito.mock(ICredentialsUsernamePassword.class);
+        Mockito.when(credentialsMock.getUsername()).thenReturn("user");
+        Mockito.when(credentialsMock.getPassword()).thenReturn("password");
+
+        this.commandsRelease = new CountDownLatch(0);
+
+        this.sessionMock = Mockito.mock(Session.class);
+        Mockito.when(this.sessionMock.isConnected()).thenReturn(true);
+        Mockito.when(this.sessionMock.openChannel("exec")).thenAnswer(invocation -> execChannel());
+
+        this.sshClient = new SSHClient(HOSTNAME, PORT, credentialsMock, 10000);
+        Whitebox.setInternalState(this.sshClient, "session", this.sessionMock);
+    }
+
+    @Test
+    public void testIssueCommand() throws Exception {
+        Assert.assertEquals("issueCommand() should return the output of the command", "output of command", this.sshClient.issueCommand("command"));
+
+        Mockito.when(this.sessionMock.openChannel("exec")).thenThrow(new JSchException("exception"));
+        String expectedMessage = "Error reading exec output";
+        SSHException expectedException = Assert.assertThrows("expected exception should be thrown", SSHException.class, ()->{
+            this.sshClient.issueCommand("command");
+        });
+        Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
+        Assert.assertEquals("the channel should be released after a failure", SSHSessionPool.MAX_CHANNELS_PER_SESSION, ((Semaphore) Whitebox.getInternalState(this.sshClient, "execChannels")).availablePermits());
+    }
+
+    @Test
+    public void testConcurrentIssueCommand() throws Exception {
+        this.commandsRelease = new CountDownLatch(1);
+        int commands = SSHSessionPool.MAX_CHANNELS_PER_SESSION + 4;
+
+        List<Thread> threads = new ArrayList<>();
+        List<String> responses = new ArrayList<>();
+        for (int i = 0; i < commands; i++) {
+            String command = "command" + i;
+            Thread thread = new Thread(() -> {
+                try {
+                    String response = this.sshClient.issueCommand(command);
+                    synchronized (responses) {
+                        responses.add(response);
+                    }
+                } catch (SSHException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        waitForRunning(SSHSessionPool.MAX_CHANNELS_PER_SESSION);
+        Thread.sleep(200);
+        Assert.assertEquals("the semaphore should limit the commands running at once on the session", SSHSessionPool.MAX_CHANNELS_PER_SESSION, this.running.get());
+
+        this.commandsRelease.countDown();
+        for (Thread thread : threads) {
+            thread.join(10000);
+        }
+        Assert.assertEquals("every command should complete", commands, responses.size());
+        for (int i = 0; i < commands; i++) {
+            Assert.assertTrue("each command should get its own output", responses.contains("output of command" + i));
+        }
+        Assert.assertEquals("no more commands than channels should have run at once", SSHSessionPool.MAX_CHANNELS_PER_SESSION, this.maxRunning.get());
+    }
+
+    @Test
+    public void testIssueCommandAsync() throws Exception {
+        this.commandsRelease = new CountDownLatch(1);
+        int commands = SSHSessionPool.MAX_CHANNELS_PER_SESSION * 2;
+
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < commands; i++) {
+            futures.add(this.sshClient.issueCommandAsync("command" + i));
+        }
+
+        waitForRunning(SSHSessionPool.MAX_CHANNELS_PER_SESSION);
+        for (CompletableFuture<String> future : futures) {
+            Assert.assertFalse("issueCommandAsync() should not wait for the command", future.isDone());
+        }
+
+        this.commandsRelease.countDown();
+        for (int i = 0; i < commands; i++) {
+            Assert.assertEquals("the future should complete with the output of the command", "output of command" + i, futures.get(i).get(10, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals("no more commands than channels should have run at once", SSHSessionPool.MAX_CHANNELS_PER_SESSION, this.maxRunning.get());
+
+        Mockito.when(this.sessionMock.openChannel("exec")).thenThrow(new JSchException("exception"));
+        ExecutionException expectedException = Assert.assertThrows("expected exception should be thrown", ExecutionException.class, ()->{
+            this.sshClient.issueCommandAsync("command").get(10, TimeUnit.SECONDS);
+        });
+        Assert.assertTrue("the future should complete with an SSHException", expectedException.getCause() instanceof SSHException);
+    }
+
+    /**
+     * An exec channel that writes "output of " and the command, then sends EOF, once the commands are released
+     */
+    private ChannelExec execChannel() throws Exception {
+        ChannelExec channelMock = Mockito.mock(ChannelExec.class);
+        List<OutputStream> outputs = new ArrayList<>();
+        List<String> commands = new ArrayList<>();
+        Mockito.doAnswer(invocation -> outputs.add(invocation.getArgument(0))).when(channelMock).setOutputStream(ArgumentMatchers.any(OutputStream.class));
+        Mockito.doAnswer(invocation -> commands.add(invocation.getArgument(0))).when(channelMock).setCommand(ArgumentMatchers.anyString());
+        Mockito.doAnswer(invocation -> {
+            int now = this.running.incrementAndGet();
+            this.maxRunning.accumulateAndGet(now, Math::max);
+            Thread sender = new Thread(() -> {
+                try {
+                    this.commandsRelease.await();
+                    this.running.decrementAndGet();
+                    OutputStream output = outputs.get(0);
+                    output.write(("output of " + commands.get(0)).getBytes(StandardCharsets.UTF_8));
+                    output.close();
+                } catch (Exception e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            sender.setDaemon(true);
+            sender.start();
+            return null;
+        }).when(channelMock).connect();
+        return channelMock;
+    }
+
+    private void waitForRunning(int expected) throws InterruptedException {
+        long whenTimeout = System.currentTimeMillis() + 10000;
+        while (this.running.get() < expected && System.currentTimeMillis() < whenTimeout) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals("commands should be running", expected, this.running.get());
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.ipnetwork.internal.ssh;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+
+import dev.galasa.ICredentials;
+import dev.galasa.ICredentialsUsernamePassword;
+import dev.galasa.ipnetwork.SSHException;
+
+public class TestSSHSessionPool {
+
+    private static final String HOSTNAME = "host";
+
+    private static final String OTHER_HOSTNAME = "other.host";
+
+    private static final int PORT = 22;
+
+    private ICredentialsUsernamePassword credentialsMock;
+
+    private ICredentialsUsernamePassword otherCredentialsMock;
+
+    private TestPool pool;
+
+    /**
+     * A pool that connects mock sessions
+     */
+    private static class TestPool extends SSHSessionPool {
+
+        private final List<Session> connected = new ArrayList<>();
+
+        private TestPool(long idleTimeout, long borrowTimeout) {
+            super(idleTimeout, borrowTimeout);
+        }
+
+        @Override
+        protected Session connect(SSHConnector connector, ICredentials credentials) throws SSHException {
+            Session sessionMock = Mockito.mock(Session.class);
+            Mockito.when(sessionMock.isConnected()).thenReturn(true);
+            try {
+                Mockito.when(sessionMock.openChannel("exec")).thenReturn(Mockito.mock(ChannelExec.class));
+            } catch (JSchException e) {
+                throw new SSHException(e);
+            }
+            synchronized (this.connected) {
+                this.connected.add(sessionMock);
+            }
+            return sessionMock;
+        }
+    }
+
+    @Before
+    public void setup() {
+        this.credentialsMock = credentials("user1");
+        this.otherCredentialsMock = credentials("user2");
+        this.pool = new TestPool(60000, 200);
+    }
+
+    @After
+    public void tearDown() {
+        this.pool.close();
+    }
+
+    @Test
+    public void testSessionsAreShared() throws Exception {
+        Session session = this.pool.borrow(HOSTNAME, PORT, this.credentialsMock);
+        this.pool.release(session);
+        Assert.assertSame("borrow() should reuse an idle session", session, this.pool.borrow(HOSTNAME, PORT, this.credentialsMock));
+
+        for (int i = 1; i < SSHSessionPool.MAX_CHANNELS_PER_SESSION; i++) {
+            Assert.assertSame("borrow() should share a session until it has no free channels", session, this.pool.borrow(HOSTNAME, PORT, this.credentialsMock));
+        }
+        Assert.assertNotSame("borrow() should connect another session when the session has no free channels", session, this.pool.borrow(HOSTNAME, PORT, this.credentialsMock));
+        Assert.assertNotSame("borrow() should not share sessions between credentials", session, this.pool.borrow(HOSTNAME, PORT, this.otherCredentialsMock));
+        Assert.assertNotSame("borrow() should not share sessions between passwords", session, this.pool.borrow(HOSTNAME, PORT, credentials("user1", "other")));
+        Assert.assertEquals("borrow() should have connected 4 sessions", 4, this.pool.connected.size());
+    }
+
+    @Test
+    public void testConnectorKeepsNoSecret() throws Exception {
+        SSHConnector connector = new SSHConnector(HOSTNAME, PORT, this.credentialsMock);
+        Assert.assertEquals("connectors for the same credentials should be equal", connector, new SSHConnector(HOSTNAME, PORT, credentials("user1")));
+        Assert.assertEquals("connectors for the same credentials should have the same hash code", connector.hashCode(), new SSHConnector(HOSTNAME, PORT, credentials("user1")).hashCode());
+        Assert.assertNotEquals("connectors for different passwords should not be equal", connector, new SSHConnector(HOSTNAME, PORT, credentials("user1", "other")));
+        for (Field field : SSHConnector.class.getDeclaredFields()) {
+            Assert.assertNotEquals("the connector should not keep the password", "password", Whitebox.getInternalState(connector, field.getName()));
+        }
+    }
+
+    @Test
+    public void testPerHostLimit() throws Exception {
+        this.pool.setMaxSessions(HOSTNAME, PORT, 1);
+        for (int i = 0; i < SSHSessionPool.MAX_CHANNELS_PER_SESSION; i++) {
+            this.pool.borrow(HOSTNAME, PORT, this.credentialsMock);
+        }
+
+        String expectedMessage = "Timed out waiting for an SSH session to '" + HOSTNAME + ":" + PORT + "'";
+        SSHException expectedException = Assert.assertThrows("expected exception should be thrown", SSHException.class, ()->{
+            this.pool.borrow(HOSTNAME, PORT, this.credentialsMock);
+        });
+        Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
+
+        expectedException = Assert.assertThrows("expected exception should be thrown", SSHException.class, ()->{
+            this.pool.borrow(HOSTNAME, PORT, this.otherCredentialsMock);
+        });
+        Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
+
+        this.pool.borrow(OTHER_HOSTNAME, PORT, this.credentialsMock);
+        Assert.assertEquals("the limit should only apply to the host", 2, this.pool.connected.size());
+    }
+
+    @Test
+    public void testBorrowTimeout() throws Exception {
+        this.pool = new TestPool(60000, 5000);
+        this.pool.setMaxSessions(HOSTNAME, PORT, 1);
+        Session session = null;
+        for (int i = 0; i < SSHSessionPool.MAX_CHANNELS_PER_SESSION; i++) {
+            session = this.pool.borrow(HOSTNAME, PORT, this.credentialsMock);
+        }
+
+        Session borrowed = session;
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.pool.release(borrowed);
+        });
+        releaser.start();
+
+        long start = System.currentTimeMillis();
+        Assert.assertSame("borrow() should wait for a channel to be released", session, this.pool.borrow(HOSTNAME, PORT, this.credentialsMock));
+        Assert.assertTrue("borrow() should return before the borrow timeout", System.currentTimeMillis() - start < 5000);
+        releaser.join();
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        this.pool = new TestPool(50, 200);
+        Session idle = this.pool.borrow(HOSTNAME, PORT, this.credentialsMock);
+        Session inUse = this.pool.borrow(HOSTNAME, PORT, this.otherCredentialsMock);
+        this.pool.release(idle);
+
+        Thread.sleep(100);
+        this.pool.evictIdle();
+        Mockito.verify(idle).disconnect();
+        Mockito.verify(inUse, Mockito.never()).disconnect();
+        Assert.assertNotSame("borrow() should connect a new session after eviction", idle, this.pool.borrow(HOSTNAME, PORT, this.credentialsMock));
+    }
+
+    @Test
+    public void testEvictionAtHostLimit() throws Exception {
+        this.pool.setMaxSessions(HOSTNAME, PORT, 1);
+        Session session = this.pool.borrow(HOSTNAME, PORT, this.credentialsMock);
+        this.pool.release(session);
+
+        Session otherSession = this.pool.borrow(HOSTNAME, PORT, this.otherCredentialsMock);
+        Assert.assertNotSame("borrow() should connect a session for the other credentials", session, otherSession);
+        Mockito.verify(session).disconnect();
+    }
+
+    @Test
+    public void testHealthCheck() throws Exception {
+        Session session = this.pool.borrow(HOSTNAME, PORT, this.credentialsMock);
+        this.pool.release(session);
+        setIdle(session);
+        Assert.assertSame("borrow() should reuse a session that passes the health check", session, this.pool.borrow(HOSTNAME, PORT, this.credentialsMock));
+        ChannelExec channel = (ChannelExec) session.openChannel("exec");
+        Mockito.verify(channel).connect(Mockito.anyInt());
+        Mockito.verify(channel).disconnect();
+        this.pool.release(session);
+
+        setIdle(session);
+        Mockito.doThrow(new JSchException("dropped")).when(channel).connect(Mockito.anyInt());
+        Assert.assertNotSame("borrow() should not reuse a session that fails the health check", session, this.pool.borrow(HOSTNAME, PORT, this.credentialsMock));
+        Mockito.verify(session).disconnect();
+
+        Session dropped = this.pool.connected.get(1);
+        this.pool.release(dropped);
+        Mockito.when(dropped.isConnected()).thenReturn(false);
+        Assert.assertNotSame("borrow() should not reuse a disconnected session", dropped, this.pool.borrow(HOSTNAME, PORT, this.credentialsMock));
+        Assert.assertEquals("borrow() should have connected 3 sessions", 3, this.pool.connected.size());
+    }
+
+    @Test
+    public void testIdleChannels() throws Exception {
+        SSHSessionPool.IdleChannels holderMock = Mockito.mock(SSHSessionPool.IdleChannels.class);
+        this.pool.register(holderMock);
+
+        long before = System.currentTimeMillis();
+        this.pool.evictIdle();
+        Mockito.verify(holderMock).closeIdleChannels(Mockito.longThat(idleSince -> idleSince >= before - 60000 && idleSince <= System.currentTimeMillis() - 60000));
+
+        this.pool.close();
+        Mockito.verify(holderMock).closeIdleChannels(Long.MAX_VALUE);
+        Assert.assertTrue("isClosed() should return true once the pool is closed", this.pool.isClosed());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        Session inUse = this.pool.borrow(HOSTNAME, PORT, this.credentialsMock);
+        Session idle = this.pool.borrow(HOSTNAME, PORT, this.otherCredentialsMock);
+        this.pool.release(idle);
+
+        this.pool.close();
+        Mockito.verify(idle).disconnect();
+        Mockito.verify(inUse, Mockito.never()).disconnect();
+
+        this.pool.release(inUse);
+        Mockito.verify(inUse).disconnect();
+
+        String expectedMessage = "The SSH session pool has been closed";
+        SSHException expectedException = Assert.assertThrows("expected exception should be thrown", SSHException.class, ()->{
+            this.pool.borrow(HOSTNAME, PORT, this.credentialsMock);
+        });
+        Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
+    }
+
+    private ICredentialsUsernamePassword credentials(String username) {
+        return credentials(username, "password");
+    }
+
+    private ICredentialsUsernamePassword credentials(String username, String password) {
+        ICredentialsUsernamePassword credentials = Mockito.mock(ICredentialsUsernamePassword.class);
+        Mockito.when(credentials.getUsername()).thenReturn(username);
+        Mockito.when(credentials.getPassword()).thenReturn(password);
+        return credentials;
+    }
+
+    /**
+     * Make a session look idle for longer than the health check interval
+     */
+    private void setIdle(Session session) {
+        Map<Session, Object> sessions = Whitebox.getInternalState(this.pool, "sessions");
+        Whitebox.setInternalState(sessions.get(session), "lastUsed", 0L);
+    }
+}
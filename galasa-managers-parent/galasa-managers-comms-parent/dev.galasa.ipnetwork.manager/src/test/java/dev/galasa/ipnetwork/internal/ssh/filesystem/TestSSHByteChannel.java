@@ -0,0 +1,216 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.ipnetwork.internal.ssh.filesystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.SftpATTRS;
+import com.jcraft.jsch.SftpException;
+import com.jcraft.jsch.SftpProgressMonitor;
+
+public class TestSSHByteChannel {
+
+    private static final String PATH_NAME = "/remote/file";
+
+    private static final String CONTENT = "0123456789";
+
+    private SSHFileSystem fileSystemMock;
+
+    private ChannelSftp channelMock;
+
+    private Path pathMock;
+
+    /** The content of the remote file, or null if it does not exist */
+    private byte[] remoteFile;
+
+    @Before
+    public void setup() throws Exception {
+        this.remoteFile = CONTENT.getBytes(StandardCharsets.UTF_8);
+
+        this.pathMock = Mockito.mock(Path.class);
+        Mockito.when(this.pathMock.toAbsolutePath()).thenReturn(this.pathMock);
+        Mockito.when(this.pathMock.toString()).thenReturn(PATH_NAME);
+
+        this.channelMock = Mockito.mock(ChannelSftp.class);
+        Mockito.when(this.channelMock.isConnected()).thenReturn(true);
+        Mockito.when(this.channelMock.lstat(PATH_NAME)).thenAnswer(invocation -> attrs());
+        Mockito.when(this.channelMock.stat(PATH_NAME)).thenAnswer(invocation -> attrs());
+        Mockito.when(this.channelMock.get(ArgumentMatchers.eq(PATH_NAME), ArgumentMatchers.<SftpProgressMonitor>isNull(), ArgumentMatchers.anyLong())).thenAnswer(invocation -> {
+            long skip = invocation.getArgument(2);
+            return new ByteArrayInputStream(this.remoteFile, (int) skip, this.remoteFile.length - (int) skip);
+        });
+        Mockito.when(this.channelMock.put(PATH_NAME)).thenAnswer(invocation -> {
+            this.remoteFile = new byte[0];
+            return remoteOutputStream(0);
+        });
+        // *** JSch adds the current size of the file to the offset in APPEND mode
+        Mockito.when(this.channelMock.put(ArgumentMatchers.eq(PATH_NAME), ArgumentMatchers.<SftpProgressMonitor>isNull(), ArgumentMatchers.eq(ChannelSftp.APPEND), ArgumentMatchers.anyLong())).thenAnswer(invocation -> {
+            if (this.remoteFile == null) {
+                this.remoteFile = new byte[0];
+            }
+            long offset = invocation.getArgument(3);
+            return remoteOutputStream(this.remoteFile.length + offset);
+        });
+
+        this.fileSystemMock = Mockito.mock(SSHFileSystem.class);
+        Mockito.when(this.fileSystemMock.getFileChannel()).thenReturn(this.channelMock);
+    }
+
+    @Test
+    public void testSeekThenRead() throws Exception {
+        SSHByteChannel byteChannel = new SSHByteChannel(this.pathMock, options(StandardOpenOption.READ), this.fileSystemMock);
+        Assert.assertEquals("size() should return the size of the file", 10, byteChannel.size());
+
+        byteChannel.position(4);
+        Assert.assertEquals("read() should read from the new position", "456", read(byteChannel, 3));
+        Assert.assertEquals("position() should return the position after the read", 7, byteChannel.position());
+        Mockito.verify(this.channelMock).get(PATH_NAME, null, 4L);
+
+        byteChannel.position(1);
+        Assert.assertEquals("read() should read from the new position", "12", read(byteChannel, 2));
+        Mockito.verify(this.channelMock).get(PATH_NAME, null, 1L);
+
+        byteChannel.close();
+        Assert.assertFalse("isOpen() should return false after close()", byteChannel.isOpen());
+        Mockito.verify(this.fileSystemMock).releaseFileChannel(this.channelMock);
+    }
+
+    @Test
+    public void testSeekThenWrite() throws Exception {
+        SSHByteChannel byteChannel = new SSHByteChannel(this.pathMock, options(StandardOpenOption.WRITE), this.fileSystemMock);
+        Assert.assertEquals("position() should start at the beginning of the file", 0, byteChannel.position());
+
+        byteChannel.position(2);
+        write(byteChannel, "ab");
+        Assert.assertEquals("position() should return the position after the write", 4, byteChannel.position());
+
+        byteChannel.position(12);
+        write(byteChannel, "cd");
+        Assert.assertEquals("size() should include the bytes written past the end", 14, byteChannel.size());
+        byteChannel.close();
+
+        Assert.assertEquals("write() should overwrite the file at the new position", "01ab456789\0\0cd", remoteContent());
+    }
+
+    @Test
+    public void testTruncate() throws Exception {
+        SftpATTRS attrsMock = attrs();
+        Mockito.when(this.channelMock.stat(PATH_NAME)).thenReturn(attrsMock);
+
+        SSHByteChannel byteChannel = new SSHByteChannel(this.pathMock, options(StandardOpenOption.WRITE), this.fileSystemMock);
+        byteChannel.position(8);
+        byteChannel.truncate(4);
+        Mockito.verify(attrsMock).setSIZE(4);
+        Mockito.verify(this.channelMock).setStat(PATH_NAME, attrsMock);
+        Assert.assertEquals("size() should return the truncated size", 4, byteChannel.size());
+        Assert.assertEquals("truncate() should move the position to the new size", 4, byteChannel.position());
+
+        byteChannel.truncate(6);
+        Mockito.verify(this.channelMock, Mockito.times(1)).setStat(ArgumentMatchers.any(), ArgumentMatchers.any());
+        Assert.assertEquals("truncate() should not extend the file", 4, byteChannel.size());
+        byteChannel.close();
+
+        SSHByteChannel readChannel = new SSHByteChannel(this.pathMock, options(StandardOpenOption.READ), this.fileSystemMock);
+        Assert.assertThrows("truncate() should fail on a read channel", NonWritableChannelException.class, ()->{
+            readChannel.truncate(1);
+        });
+        readChannel.close();
+    }
+
+    @Test
+    public void testAppend() throws Exception {
+        SSHByteChannel byteChannel = new SSHByteChannel(this.pathMock, options(StandardOpenOption.APPEND), this.fileSystemMock);
+        Assert.assertEquals("position() should start at the end of the file", 10, byteChannel.position());
+
+        write(byteChannel, "xy");
+        Assert.assertEquals("size() should include the appended bytes", 12, byteChannel.size());
+        byteChannel.close();
+
+        Assert.assertEquals("write() should append to the file", CONTENT + "xy", remoteContent());
+    }
+
+    @Test
+    public void testCreateNew() throws Exception {
+        Set<OpenOption> createNew = options(StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW);
+        FileAlreadyExistsException expectedException = Assert.assertThrows("expected exception should be thrown", FileAlreadyExistsException.class, ()->{
+            new SSHByteChannel(this.pathMock, createNew, this.fileSystemMock);
+        });
+        Assert.assertEquals("exception should contain the file name", PATH_NAME, expectedException.getFile());
+        Mockito.verify(this.fileSystemMock).releaseFileChannel(this.channelMock);
+        Assert.assertEquals("the existing file should not be changed", CONTENT, remoteContent());
+
+        this.remoteFile = null;
+        SSHByteChannel byteChannel = new SSHByteChannel(this.pathMock, createNew, this.fileSystemMock);
+        write(byteChannel, "new");
+        byteChannel.close();
+        Assert.assertEquals("the file should be created", "new", remoteContent());
+    }
+
+    private Set<OpenOption> options(OpenOption... options) {
+        return new HashSet<>(Arrays.asList(options));
+    }
+
+    private SftpATTRS attrs() throws SftpException {
+        if (this.remoteFile == null) {
+            throw new SftpException(ChannelSftp.SSH_FX_NO_SUCH_FILE, "No such file");
+        }
+        SftpATTRS attrsMock = Mockito.mock(SftpATTRS.class);
+        Mockito.when(attrsMock.getSize()).thenReturn((long) this.remoteFile.length);
+        return attrsMock;
+    }
+
+    private OutputStream remoteOutputStream(long offset) {
+        return new OutputStream() {
+            private int position = (int) offset;
+
+            @Override
+            public void write(int b) throws IOException {
+                if (position >= remoteFile.length) {
+                    remoteFile = Arrays.copyOf(remoteFile, position + 1);
+                }
+                remoteFile[position++] = (byte) b;
+            }
+        };
+    }
+
+    private String remoteContent() {
+        return new String(this.remoteFile, StandardCharsets.UTF_8);
+    }
+
+    private String read(SSHByteChannel byteChannel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining() && byteChannel.read(buffer) > 0) {
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    private void write(SSHByteChannel byteChannel, String content) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            byteChannel.write(buffer);
+        }
+    }
+
+}
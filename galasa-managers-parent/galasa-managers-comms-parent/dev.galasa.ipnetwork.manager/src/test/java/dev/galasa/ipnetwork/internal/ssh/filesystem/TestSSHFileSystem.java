@@ -0,0 +1,101 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.ipnetwork.internal.ssh.filesystem;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.Session;
+
+import dev.galasa.ICredentialsUsernamePassword;
+import dev.galasa.ipnetwork.internal.ssh.SSHSessionPool;
+
+public class TestSSHFileSystem {
+
+    private static final String HOSTNAME = "host";
+
+    private static final int PORT = 22;
+
+    private ICredentialsUsernamePassword credentialsMock;
+
+    private Session sessionMock;
+
+    @Before
+    public void setup() throws Exception {
+        this.credentialsMock = Mockito.mock(ICredentialsUsernamePassword.class);
+        Mockito.when(this.credentialsMock.getUsername()).thenReturn("user");
+        Mockito.when(this.credentialsMock.getPassword()).thenReturn("password");
+
+        this.sessionMock = Mockito.mock(Session.class);
+        Mockito.when(this.sessionMock.isConnected()).thenReturn(true);
+        Mockito.when(this.sessionMock.openChannel("sftp")).thenAnswer(invocation -> {
+            ChannelSftp channelMock = Mockito.mock(ChannelSftp.class);
+            Mockito.when(channelMock.isConnected()).thenReturn(true);
+            Mockito.when(channelMock.getSession()).thenReturn(this.sessionMock);
+            return channelMock;
+        });
+    }
+
+    @Test
+    public void testPooledChannelsAreClosedWhenIdle() throws Exception {
+        SSHSessionPool poolMock = Mockito.mock(SSHSessionPool.class);
+        Mockito.when(poolMock.borrow(ArgumentMatchers.eq(HOSTNAME), ArgumentMatchers.eq(PORT), ArgumentMatchers.any())).thenReturn(this.sessionMock);
+        SSHFileSystem fileSystem = new SSHFileSystem(HOSTNAME, PORT, this.credentialsMock, poolMock);
+        Mockito.verify(poolMock).register(fileSystem);
+
+        ChannelSftp channel = fileSystem.getFileChannel();
+        fileSystem.releaseFileChannel(channel);
+        Assert.assertSame("getFileChannel() should reuse an idle channel on a pooled session", channel, fileSystem.getFileChannel());
+        Mockito.verify(poolMock).borrow(ArgumentMatchers.eq(HOSTNAME), ArgumentMatchers.eq(PORT), ArgumentMatchers.any());
+
+        fileSystem.releaseFileChannel(channel);
+        fileSystem.closeIdleChannels(System.currentTimeMillis() - 60000);
+        Mockito.verify(channel, Mockito.never()).disconnect();
+        Mockito.verify(poolMock, Mockito.never()).release(this.sessionMock);
+
+        fileSystem.closeIdleChannels(System.currentTimeMillis());
+        Mockito.verify(channel).disconnect();
+        Mockito.verify(poolMock).release(this.sessionMock);
+
+        Mockito.when(poolMock.isClosed()).thenReturn(true);
+        ChannelSftp otherChannel = fileSystem.getFileChannel();
+        Assert.assertNotSame("getFileChannel() should open a new channel when none are idle", channel, otherChannel);
+        fileSystem.releaseFileChannel(otherChannel);
+        Mockito.verify(otherChannel).disconnect();
+        Mockito.verify(poolMock, Mockito.times(2)).release(this.sessionMock);
+    }
+
+    @Test
+    public void testOwnSessionChannelsAreReused() throws Exception {
+        SSHFileSystem fileSystem = new SSHFileSystem(HOSTNAME, PORT, this.credentialsMock);
+        Whitebox.setInternalState(fileSystem, "session", this.sessionMock);
+
+        ChannelSftp[] channels = new ChannelSftp[SSHFileSystem.MAX_IDLE_CHANNELS + 1];
+        for (int i = 0; i < channels.length; i++) {
+            channels[i] = fileSystem.getFileChannel();
+        }
+        for (ChannelSftp channel : channels) {
+            fileSystem.releaseFileChannel(channel);
+        }
+        Mockito.verify(channels[channels.length - 1]).disconnect();
+
+        ChannelSftp reused = channels[SSHFileSystem.MAX_IDLE_CHANNELS - 1];
+        Assert.assertSame("getFileChannel() should reuse the most recently used idle channel", reused, fileSystem.getFileChannel());
+        fileSystem.releaseFileChannel(reused);
+
+        fileSystem.close();
+        for (int i = 0; i < SSHFileSystem.MAX_IDLE_CHANNELS; i++) {
+            Mockito.verify(channels[i]).disconnect();
+        }
+        Mockito.verify(this.sessionMock).disconnect();
+    }
+
+}
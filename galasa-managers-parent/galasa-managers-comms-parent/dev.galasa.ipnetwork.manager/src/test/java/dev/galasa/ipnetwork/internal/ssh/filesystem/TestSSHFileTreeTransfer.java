@@ -0,0 +1,54 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.ipnetwork.internal.ssh.filesystem;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class TestSSHFileTreeTransfer {
+
+    @Test
+    public void testRemotePath() {
+        Assert.assertEquals("remotePath() should add a separator", "/remote/dir/file", SSHFileTreeTransfer.remotePath("/remote/dir", "file"));
+        Assert.assertEquals("remotePath() should not double the separator", "/file", SSHFileTreeTransfer.remotePath("/", "file"));
+
+        Path relative = Paths.get("sub", "dir", "file");
+        Assert.assertEquals("remotePath() should add each name of the local path", "/remote/sub/dir/file", SSHFileTreeTransfer.remotePath("/remote", relative));
+        Assert.assertEquals("remotePath() should return the root for an empty local path", "/remote", SSHFileTreeTransfer.remotePath("/remote", Paths.get("")));
+    }
+
+    @Test
+    public void testLocalPath() {
+        Path target = Paths.get("target", "download");
+        Assert.assertEquals("localPath() should resolve the path relative to the remote root", target.resolve("sub/file"), SSHFileTreeTransfer.localPath(target, "/remote", "/remote/sub/file"));
+        Assert.assertEquals("localPath() should return the target for the remote root", target, SSHFileTreeTransfer.localPath(target, "/remote", "/remote"));
+        Assert.assertEquals("localPath() should handle a remote root ending with a separator", target.resolve("file"), SSHFileTreeTransfer.localPath(target, "/remote/", "/remote/file"));
+    }
+
+    @Test
+    public void testPermissions() throws Exception {
+        Assume.assumeTrue("the local file system should have POSIX permissions", FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+        Path file = Files.createTempFile("galasa", ".sh");
+        try {
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rwxr-x---"));
+            Assert.assertEquals("permissions() should return the mode of the file", Integer.valueOf(0750), SSHFileTreeTransfer.permissions(file));
+
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-r--r--"));
+            Assert.assertEquals("permissions() should return the mode of the file", Integer.valueOf(0644), SSHFileTreeTransfer.permissions(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
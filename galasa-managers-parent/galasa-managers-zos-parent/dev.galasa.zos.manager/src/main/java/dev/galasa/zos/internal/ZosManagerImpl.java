@@ -5,7 +5,10 @@
  */
 package dev.galasa.zos.internal;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.nio.file.Files;
@@ -19,6 +22,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 import javax.validation.constraints.NotNull;
 
@@ -51,6 +55,7 @@ import dev.galasa.zos.ZosIpHost;
 import dev.galasa.zos.ZosIpPort;
 import dev.galasa.zos.ZosManagerException;
 import dev.galasa.zos.ZosManagerField;
+import dev.galasa.zos.internal.properties.ArchiveCompress;
 import dev.galasa.zos.internal.properties.BatchExtraBundle;
 import dev.galasa.zos.internal.properties.ClusterIdForTag;
 import dev.galasa.zos.internal.properties.ClusterImages;
@@ -66,6 +71,7 @@ import dev.galasa.zos.internal.properties.UNIXCommandExtraBundle;
 import dev.galasa.zos.internal.properties.ZosPropertiesSingleton;
 import dev.galasa.zos.spi.IZosManagerSpi;
 import dev.galasa.zos.spi.ZosImageDependencyField;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
 import dev.galasa.zosbatch.IZosBatchJobname;
 import dev.galasa.zosbatch.ZosBatchException;
 import dev.galasa.zosbatch.ZosBatchManagerException;
@@ -81,8 +87,10 @@ import dev.galasa.zosconsole.ZosConsoleManagerException;
 import dev.galasa.zosconsole.internal.properties.ConsoleRestrictToImage;
 import dev.galasa.zosconsole.internal.properties.ZosConsolePropertiesSingleton;
 import dev.galasa.zosfile.ZosFileManagerException;
+import dev.galasa.zosfile.internal.properties.DatasetAttributeCacheTtl;
 import dev.galasa.zosfile.internal.properties.DirectoryListMaxItems;
 import dev.galasa.zosfile.internal.properties.FileRestrictToImage;
+import dev.galasa.zosfile.internal.properties.MemberTransferMaxThreads;
 import dev.galasa.zosfile.internal.properties.UnixFilePermissions;
 import dev.galasa.zosfile.internal.properties.ZosFilePropertiesSingleton;
 
@@ -100,6 +108,10 @@ public class ZosManagerImpl extends AbstractManager implements IZosManagerSpi {
     private static final String LOG_SELECTED_FOR_ZOS_TAG = " selected for zosTag '";
     private static final String LOG_ZOS_IMAGE = "zOS Image ";
 
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final ResultArchiveStoreContentType GZIP_CONTENT_TYPE = new ResultArchiveStoreContentType("application/gzip");
+    private static final int ARTIFACT_BUFFER_SIZE = 65536;
+
     private IConfigurationPropertyStoreService cps;
     private IDynamicStatusStoreService dss;
     private IIpNetworkManagerSpi ipManager;
@@ -109,6 +121,8 @@ public class ZosManagerImpl extends AbstractManager implements IZosManagerSpi {
     private final HashMap<String, ZosBaseImageImpl> taggedImages = new HashMap<>();
     private final HashMap<String, ZosBaseImageImpl> images = new HashMap<>();
 
+    private final ZosMetricsRecorder metricsRecorder = new ZosMetricsRecorder();
+
     /* 
      * We need to load the default implementations, but provide the ability for them to be overridden
      */
@@ -248,6 +262,25 @@ public class ZosManagerImpl extends AbstractManager implements IZosManagerSpi {
         }
     }
 
+    /* (non-Javadoc)
+     * @see dev.galasa.framework.spi.AbstractManager#shutdown()
+     */
+    @Override
+    public void shutdown() {
+        //*** Every manager has finished its work for the run before any is shut down, so write the zOS metrics
+        //*** recorded during the run for the zOS metrics provider
+        this.metricsRecorder.flush(this.dss, getFramework().getTestRunName());
+        super.shutdown();
+    }
+
+    /* (non-Javadoc)
+     * @see dev.galasa.zos.spi.IZosManagerSpi#getMetricsRecorder()
+     */
+    @Override
+    public ZosMetricsRecorder getMetricsRecorder() {
+        return this.metricsRecorder;
+    }
+
     //*** We do not allow auto generate of the zos image fields as they need
     //*** to be done first AND the primary image needs to be the first one
     protected IZosImage generateZosImage(Field field) throws ZosManagerException {
@@ -356,16 +389,26 @@ public class ZosManagerImpl extends AbstractManager implements IZosManagerSpi {
         }
         clusterId = clusterId.toUpperCase();
 
-        //*** Find a list of images
+        //*** Find a list of images, reading the usage of each once
+        ArrayList<ImageUsage> clusterImages = new ArrayList<>();
         for(String definedImage : ClusterImages.get(clusterId)) {
             ZosProvisionedImageImpl image = new ZosProvisionedImageImpl(this, definedImage, clusterId);
-            definedImages.add(new ImageUsage(image));
+            clusterImages.add(new ImageUsage(image));
         }
 
-        Collections.sort(definedImages);
+        //*** Least used first, shuffling before the sort so runs pick between equally used images at random rather than all competing for the first
+        Collections.shuffle(clusterImages);
+        Collections.sort(clusterImages);
+        for(ImageUsage image : clusterImages) {
+            definedImages.removeIf(definedImage -> definedImage.image.getImageID().equals(image.image.getImageID()));
+        }
+        definedImages.addAll(clusterImages);
 
         //*** First attempt to use an image that has not been selected for this test yet
-        for(ImageUsage image : definedImages) {
+        for(ImageUsage image : clusterImages) {
+            if (image.usage >= 1.0f) {
+                break; // This and the remaining images were full when read
+            }
             if (this.images.containsKey(image.image.getImageID())) {
                 continue;
             }
@@ -580,6 +623,16 @@ public class ZosManagerImpl extends AbstractManager implements IZosManagerSpi {
 		return DirectoryListMaxItems.get(imageId);
 	}
 
+	@Override
+	public int getZosFilePropertyMemberTransferMaxThreads(String imageId) throws ZosFileManagerException {
+		return MemberTransferMaxThreads.get(imageId);
+	}
+
+	@Override
+	public int getZosFilePropertyDatasetAttributeCacheTtl(String imageId) throws ZosFileManagerException {
+		return DatasetAttributeCacheTtl.get(imageId);
+	}
+
 	@Override
 	public boolean getZosFilePropertyFileRestrictToImage(String imageId) throws ZosFileManagerException {
 		return FileRestrictToImage.get(imageId);
@@ -598,7 +651,7 @@ public class ZosManagerImpl extends AbstractManager implements IZosManagerSpi {
 	@Override
 	public String buildUniquePathName(Path artifactPath, String name) {
     	int uniqueId = 1;
-        while (Files.exists(artifactPath.resolve(name))) {
+        while (Files.exists(artifactPath.resolve(name)) || Files.exists(artifactPath.resolve(name + GZIP_SUFFIX))) {
             Pattern pattern = Pattern.compile("[_][\\d]+$");
             Matcher matcher = pattern.matcher(name);
             if (matcher.find()) {
@@ -617,9 +670,32 @@ public class ZosManagerImpl extends AbstractManager implements IZosManagerSpi {
 
 	@Override
 	public void storeArtifact(Path artifactPath, String content, ResultArchiveStoreContentType type) throws ZosManagerException {
+		storeArtifact(artifactPath, new ByteArrayInputStream(content.getBytes()), type);
+	}
+
+	@Override
+	public void storeArtifact(Path artifactPath, InputStream content, ResultArchiveStoreContentType type) throws ZosManagerException {
+		try (InputStream in = content; OutputStream out = newArtifactOutputStream(artifactPath, type)) {
+			byte[] buffer = new byte[ARTIFACT_BUFFER_SIZE];
+			int count;
+			while ((count = in.read(buffer)) != -1) {
+				out.write(buffer, 0, count);
+			}
+		} catch (IOException e) {
+			throw new ZosManagerException("Unable to store artifact", e);
+		}
+	}
+
+	@Override
+	public OutputStream newArtifactOutputStream(Path artifactPath, ResultArchiveStoreContentType type) throws ZosManagerException {
 		try {
+			if (ArchiveCompress.get()) {
+				Path compressedPath = artifactPath.resolveSibling(artifactPath.getFileName().toString() + GZIP_SUFFIX);
+				Files.createFile(compressedPath, GZIP_CONTENT_TYPE);
+				return new GZIPOutputStream(Files.newOutputStream(compressedPath), ARTIFACT_BUFFER_SIZE);
+			}
 			Files.createFile(artifactPath, type);
-			Files.write(artifactPath, content.getBytes());
+			return Files.newOutputStream(artifactPath);
 		} catch (IOException e) {
 			throw new ZosManagerException("Unable to store artifact", e);
 		}
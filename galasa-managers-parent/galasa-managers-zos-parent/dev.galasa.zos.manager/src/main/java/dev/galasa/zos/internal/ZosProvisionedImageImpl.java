@@ -6,30 +6,57 @@
 package dev.galasa.zos.internal;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import dev.galasa.framework.spi.DynamicStatusStoreException;
 import dev.galasa.framework.spi.IDynamicResource;
 import dev.galasa.framework.spi.IDynamicStatusStoreService;
 import dev.galasa.zos.ZosManagerException;
 import dev.galasa.zos.internal.properties.ImageMaxSlots;
-
+import dev.galasa.zos.spi.ZosMetricsRecorder;
+import dev.galasa.zos.spi.ZosMetricsRecorder.Metric;
+
+/**
+ * A zOS image whose capacity is shared between runs through slots recorded in the DSS.
+ * <p>
+ * The slots in use are counted in a number of counter shards, image.[imageid].current.slots.[shard], each allowed
+ * its share of the maximum slots, so runs allocating slots at the same time usually update different DSS properties.
+ * A slot records the counter it was taken from so it is returned to the same one. The unsharded counter,
+ * image.[imageid].current.slots, is still included in the slots in use and is decremented when slots allocated
+ * before the counter was sharded are freed. Until it drains, the slots it holds are taken from the shares of the
+ * counter shards, so the slots in use never exceed the maximum.
+ * </p>
+ */
 public class ZosProvisionedImageImpl extends ZosBaseImageImpl {
 
     private final static Log logger = LogFactory.getLog(ZosProvisionedImageImpl.class);
 
+    protected static final int SLOT_COUNTER_SHARDS = 8;
+    private static final String SLOT_COUNTER_SUFFIX = ".counter";
+
+    private static final long BACKOFF_MIN_MILLIS = 50;
+    private static final long BACKOFF_MAX_MILLIS = 2000;
+
     private final IDynamicStatusStoreService dss;
     private final IDynamicResource dynamicResource;
+    private final ZosMetricsRecorder metricsRecorder;
 
     private String allocatedSlotName;
+    private String allocatedCounter;
 
     public ZosProvisionedImageImpl(ZosManagerImpl zosManager, String imageId, String clusterId) throws ZosManagerException {
         super(zosManager, imageId, clusterId);
         this.dss = zosManager.getDSS();
         this.dynamicResource = this.dss.getDynamicResource("image." + getImageID());
+        this.metricsRecorder = zosManager.getMetricsRecorder();
     }
 
     public boolean hasCapacity() throws ZosManagerException {
@@ -46,10 +73,7 @@ public class ZosProvisionedImageImpl extends ZosBaseImageImpl {
 
         float usedSlots = 0.0f;
         try {
-            String currentSlots = dss.get("image." + getImageID() + ".current.slots");
-            if (currentSlots != null) {
-                usedSlots = Integer.parseInt(currentSlots);
-            }
+            usedSlots = usedSlots(getSlotCounters(dss, getImageID()));
         } catch (Exception e) {
             throw new ZosManagerException("Problem finding used slots for zOS Image " + getImageID(), e);
         }
@@ -61,23 +85,36 @@ public class ZosProvisionedImageImpl extends ZosBaseImageImpl {
         String runName = getZosManager().getFramework().getTestRunName();
 
         int maxSlots = ImageMaxSlots.get(getImageID());
+        long start = System.nanoTime();
+        int retries = 0;
         try {
-            int usedSlots = 0;
-            String currentSlots = dss.get("image." + getImageID() + ".current.slots");
-            if (currentSlots != null) {
-                usedSlots = Integer.parseInt(currentSlots);
-            }
+            String counter;
+            while (true) {
+                //*** Read every counter shard in one request and pick one with a free slot
+                Map<String, String> counters = getSlotCounters(dss, getImageID());
+                counter = selectSlotCounter(getImageID(), counters, maxSlots);
+                if (counter == null) {
+                    return false;
+                }
 
-            if (usedSlots >= maxSlots) {
-                return false;
-            }
+                //*** allocate a slot
+                String currentSlots = counters.get(counter);
+                int usedSlots = currentSlots == null ? 0 : Integer.parseInt(currentSlots);
+                usedSlots++;
+                if (dss.putSwap(counter, currentSlots, Integer.toString(usedSlots))) {
+                    //*** A run that does not shard the counter may have taken a slot from the unsharded counter
+                    //*** at the same time, give the slot back if the image is now over its maximum
+                    if (usedSlots(getSlotCounters(dss, getImageID())) <= maxSlots) {
+                        break;
+                    }
+                    decrementSlotCounter(dss, counter, new HashMap<>());
+                    return false;
+                }
 
-            //*** allocate a slot
-            usedSlots++;        
-            if (!dss.putSwap("image." + getImageID() + ".current.slots", currentSlots, Integer.toString(usedSlots))) {
-                //*** The value of the current slots changed whilst this was running,  so we need to try again with the updated value
-                Thread.sleep(200); //*** To avoid race conditions
-                return allocateImage();
+                //*** The value of the counter changed whilst this was running, back off for a random time so runs
+                //*** competing for the same counter do not retry together, then try again with the updated values
+                retries++;
+                backoff(retries);
             }
 
             //*** Now generate a slot name so that we can track who is using all the slots
@@ -90,13 +127,15 @@ public class ZosProvisionedImageImpl extends ZosBaseImageImpl {
                     actualSlotname += "_" + i;
                 }
 
-                //*** Try setting the control properties
+                //*** Try setting the control properties, including the counter the slot must be returned to
                 String allocated = Instant.now().toString();
                 String prefix = "image." + getImageID() + ".slot." + actualSlotname;
                 HashMap<String, String> otherProps = new HashMap<>();
                 otherProps.put("slot.run." + runName + "." + prefix, "active");
+                otherProps.put(prefix + SLOT_COUNTER_SUFFIX, counter);
                 if (dss.putSwap(prefix, null, runName, otherProps)) {
                     allocatedSlotName = actualSlotname;
+                    allocatedCounter = counter;
 
                     String resPrefix = "slot." + this.allocatedSlotName;
                     //*** Set the user view properties
@@ -111,6 +150,11 @@ public class ZosProvisionedImageImpl extends ZosBaseImageImpl {
             throw new ZosManagerException("Problem finding used slots for zOS Image " + getImageID(), e);
         }
 
+        this.metricsRecorder.observe(Metric.SLOT_WAIT, System.nanoTime() - start, getImageID());
+        if (retries > 0) {
+            this.metricsRecorder.increment(Metric.SLOT_RETRIES, retries, getImageID());
+        }
+
         return true;
     }
 
@@ -120,20 +164,20 @@ public class ZosProvisionedImageImpl extends ZosBaseImageImpl {
 
     public void freeImage() {
         try {
-            String currentSlots = dss.get("image." + getImageID() + ".current.slots");
-
-            if (currentSlots == null) {
-                return; // Missing value, no need to update
+            String runName = getZosManager().getFramework().getTestRunName();
+            String prefix = "image." + getImageID() + ".slot." + this.allocatedSlotName;
+            String counter = this.allocatedCounter;
+            if (counter == null) {
+                counter = currentSlotsKey(getImageID());
             }
 
-            int usedSlots = Integer.parseInt(currentSlots);
-            usedSlots--;
-            if (usedSlots < 0) {
-                usedSlots = 0;
+            //*** Return the slot to its counter and mark the control set free in the same update
+            HashMap<String, String> otherProps = new HashMap<>();
+            otherProps.put("slot.run." + runName + "." + prefix, "free");
+            if (!decrementSlotCounter(dss, counter, otherProps)) {
+                return; // Missing value, no need to update
             }
 
-            String runName = getZosManager().getFramework().getTestRunName();
-
             //*** Remove the userview set
             String resPrefix = "slot." + this.allocatedSlotName;
             //*** delete the user view properties
@@ -143,19 +187,10 @@ public class ZosProvisionedImageImpl extends ZosBaseImageImpl {
             dynamicResource.delete(resProps);
 
             //*** Remove the control set
-            String prefix = "image." + getImageID() + ".slot." + this.allocatedSlotName;
-            HashMap<String, String> otherProps = new HashMap<>();
-            otherProps.put("slot.run." + getZosManager().getFramework().getTestRunName() + "." + prefix, "free");
-            if (!dss.putSwap("image." + getImageID() + ".current.slots", currentSlots, Integer.toString(usedSlots), otherProps)) {
-                //*** The value of the current slots changed whilst this was running,  so we need to try again with the updated value
-                Thread.sleep(200); //*** To avoid race conditions
-                freeImage();
-                return;
-            }
-
             HashSet<String> delProps = new HashSet<>();
             delProps.add("slot.run." + runName + "." + prefix);
             delProps.add(prefix);
+            delProps.add(prefix + SLOT_COUNTER_SUFFIX);
             dss.delete(delProps);
 
             dss.delete("image." + getImageID() + ".current.slot." + this.allocatedSlotName);
@@ -185,21 +220,12 @@ public class ZosProvisionedImageImpl extends ZosBaseImageImpl {
             String runSlot = dss.get("slot.run." + runName + "." + prefix);
             if ("active".equals(runSlot)) {  //*** The slot is still active so try and free it
                 if (dss.putSwap("slot.run." + runName + "." + prefix, "active", "free")) {
-                    //*** Managed it,   decrement the current slots by 1,  may need a couple attempts as someone else may be updating
-                    while(true) {
-                        String sCurrentSlots = dss.get("image." + imageId + ".current.slots");
-                        int currentSlots = Integer.parseInt(sCurrentSlots);
-                        currentSlots--;
-                        if (currentSlots < 0) {
-                            currentSlots = 0;
-                        }
-
-                        if (dss.putSwap("image." + imageId + ".current.slots", sCurrentSlots, Integer.toString(currentSlots))) {
-                            break;
-                        }
-
-                        Thread.sleep(100);
+                    //*** Managed it,   decrement the counter the slot was taken from by 1,  may need a couple attempts as someone else may be updating
+                    String counter = dss.get(prefix + SLOT_COUNTER_SUFFIX);
+                    if (counter == null) {
+                        counter = currentSlotsKey(imageId);
                     }
+                    decrementSlotCounter(dss, counter, new HashMap<>());
                 }
             }
 
@@ -207,10 +233,98 @@ public class ZosProvisionedImageImpl extends ZosBaseImageImpl {
             HashSet<String> props = new HashSet<>();
             props.add(prefix);
             props.add("slot.run." + runName + "." + prefix);
+            props.add(prefix + SLOT_COUNTER_SUFFIX);
             dss.delete(props);
         } catch(Exception e) {
             logger.error("Failed to discard slot " + slot + " on image " + imageId,e);
         }
 
     }
+
+    private static String currentSlotsKey(String imageId) {
+        return "image." + imageId + ".current.slots";
+    }
+
+    /**
+     * Read the unsharded slot counter and every counter shard of an image
+     */
+    protected static Map<String, String> getSlotCounters(IDynamicStatusStoreService dss, String imageId) throws DynamicStatusStoreException {
+        String key = currentSlotsKey(imageId);
+        HashMap<String, String> counters = new HashMap<>();
+        for (Entry<String, String> entry : dss.getPrefix(key).entrySet()) {
+            if (entry.getKey().equals(key) || entry.getKey().startsWith(key + ".")) {
+                counters.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return counters;
+    }
+
+    protected static int usedSlots(Map<String, String> counters) {
+        int usedSlots = 0;
+        for (String value : counters.values()) {
+            usedSlots += Integer.parseInt(value);
+        }
+        return usedSlots;
+    }
+
+    /**
+     * Pick, at random so concurrent runs spread across the shards, a counter shard that has not used its share of
+     * the maximum slots. The slots still held by the unsharded counter are left out of the shares
+     * @return the counter property, or null if the image has no free slots
+     */
+    protected static String selectSlotCounter(String imageId, Map<String, String> counters, int maxSlots) {
+        if (maxSlots <= 0 || usedSlots(counters) >= maxSlots) {
+            return null;
+        }
+
+        String unshardedSlots = counters.get(currentSlotsKey(imageId));
+        int shardedSlots = maxSlots - (unshardedSlots == null ? 0 : Integer.parseInt(unshardedSlots));
+        int shards = Math.min(SLOT_COUNTER_SHARDS, maxSlots);
+        ArrayList<String> available = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            int capacity = shardedSlots / shards + (shard < shardedSlots % shards ? 1 : 0);
+            String counter = currentSlotsKey(imageId) + "." + shard;
+            String currentSlots = counters.get(counter);
+            if (currentSlots == null || Integer.parseInt(currentSlots) < capacity) {
+                available.add(counter);
+            }
+        }
+        if (available.isEmpty()) {
+            return null;
+        }
+        return available.get(ThreadLocalRandom.current().nextInt(available.size()));
+    }
+
+    /**
+     * Decrement a slot counter, backing off and retrying while other runs are updating it
+     * @return false if the counter does not exist
+     */
+    private static boolean decrementSlotCounter(IDynamicStatusStoreService dss, String counter, Map<String, String> otherProps) throws DynamicStatusStoreException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            String currentSlots = dss.get(counter);
+            if (currentSlots == null) {
+                return false;
+            }
+
+            int usedSlots = Integer.parseInt(currentSlots);
+            usedSlots--;
+            if (usedSlots < 0) {
+                usedSlots = 0;
+            }
+
+            if (dss.putSwap(counter, currentSlots, Integer.toString(usedSlots), otherProps)) {
+                return true;
+            }
+
+            backoff(attempt);
+        }
+    }
+
+    /**
+     * Sleep for a random time up to a limit that doubles with each attempt
+     */
+    private static void backoff(int attempt) throws InterruptedException {
+        long limit = Math.min(BACKOFF_MAX_MILLIS, BACKOFF_MIN_MILLIS << Math.min(attempt, 6));
+        Thread.sleep(ThreadLocalRandom.current().nextLong(BACKOFF_MIN_MILLIS, limit + 1));
+    }
 }
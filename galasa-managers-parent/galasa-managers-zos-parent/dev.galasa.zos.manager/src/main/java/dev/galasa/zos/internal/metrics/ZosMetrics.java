@@ -5,28 +5,60 @@
  */
 package dev.galasa.zos.internal.metrics;
 
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.osgi.service.component.annotations.Component;
 
 import dev.galasa.framework.spi.AbstractManager;
+import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
 import dev.galasa.framework.spi.IDynamicStatusStoreService;
 import dev.galasa.framework.spi.IFramework;
 import dev.galasa.framework.spi.IMetricsProvider;
 import dev.galasa.framework.spi.IMetricsServer;
 import dev.galasa.framework.spi.MetricsServerException;
+import dev.galasa.zos.ZosManagerException;
+import dev.galasa.zos.internal.properties.ImageMaxSlots;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
+import dev.galasa.zos.spi.ZosMetricsRecorder.Metric;
+import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
 
+/**
+ * Reports zOS metrics to Prometheus.
+ * <p>
+ * The used and maximum slots of each image are read from the DSS on each poll. Other metrics are recorded in memory
+ * by each test run, see {@link ZosMetricsRecorder}, and written to the DSS when the run ends. Each poll adds the
+ * values written since the last poll to the Prometheus metrics and deletes them from the DSS.
+ * </p>
+ */
 @Component(service= {IMetricsProvider.class})
 public class ZosMetrics implements IMetricsProvider, Runnable {
     private final Log                          logger = LogFactory.getLog(getClass());    
     private IFramework                         framework;
     private IMetricsServer                     metricsServer;
     private IDynamicStatusStoreService         dss;
+    private IConfigurationPropertyStoreService cps;
 
     private Gauge                              noSlots;
+    private Gauge                              usedSlots;
+    private Gauge                              maxSlots;
+
+    private final Map<Metric, ZosRunHistogram> histograms = new EnumMap<>(Metric.class);
+    private final Map<Metric, Counter>         counters = new EnumMap<>(Metric.class);
+
+    private final Pattern                      slotCounterPattern = Pattern.compile("^image\\.(\\w+)\\.current\\.slots(\\.\\d+)?$");
+    private final Pattern                      runMetricPattern = Pattern.compile("^" + Pattern.quote(ZosMetricsRecorder.DSS_PREFIX) + "[^.]+\\.\\d+\\.(.+)$");
 
     @Override
     public boolean initialise(IFramework framework, IMetricsServer metricsServer) throws MetricsServerException {
@@ -34,6 +66,7 @@ public class ZosMetrics implements IMetricsProvider, Runnable {
         this.metricsServer = metricsServer;
         try {
             this.dss = this.framework.getDynamicStatusStoreService("zos");
+            this.cps = this.framework.getConfigurationPropertyService("zos");
         } catch (Exception e) {
             throw new MetricsServerException("Unable to initialise zOS Metrics", e);
         }
@@ -43,6 +76,30 @@ public class ZosMetrics implements IMetricsProvider, Runnable {
                 .help("How many times insufficent slots has occurred")
                 .register();
 
+        this.usedSlots = Gauge.build()
+                .name("galasa_zos_used_slots")
+                .help("How many slots are in use on each image")
+                .labelNames("image")
+                .register();
+
+        this.maxSlots = Gauge.build()
+                .name("galasa_zos_max_slots")
+                .help("The maximum slots of each image")
+                .labelNames("image")
+                .register();
+
+        for (Metric metric : Metric.values()) {
+            if (metric.isHistogram()) {
+                this.histograms.put(metric, new ZosRunHistogram("galasa_zos_" + metric.getName() + "_seconds", metric.getHelp(), metric.getLabelNames()).register());
+            } else {
+                this.counters.put(metric, Counter.build()
+                        .name("galasa_zos_" + metric.getName() + "_total")
+                        .help(metric.getHelp())
+                        .labelNames(metric.getLabelNames())
+                        .register());
+            }
+        }
+
         return true;
     }
 
@@ -72,6 +129,12 @@ public class ZosMetrics implements IMetricsProvider, Runnable {
                 this.noSlots.set(Double.parseDouble(sNoSlots));
             }
 
+            //*** Used and maximum slots of each image
+            pollSlots();
+
+            //*** Metrics written by the runs that have ended since the last poll
+            pollRunMetrics();
+
 
             this.metricsServer.metricsPollSuccessful();
         } catch(Exception e) {
@@ -80,5 +143,55 @@ public class ZosMetrics implements IMetricsProvider, Runnable {
 
     }
 
+    protected void pollSlots() throws DynamicStatusStoreException, ZosManagerException {
+        Map<String, Integer> imageSlots = new HashMap<>();
+        for (Entry<String, String> entry : dss.getPrefix("image.").entrySet()) {
+            Matcher matcher = slotCounterPattern.matcher(entry.getKey());
+            if (matcher.matches()) {
+                imageSlots.merge(matcher.group(1), Integer.parseInt(entry.getValue()), Integer::sum);
+            }
+        }
+        for (Entry<String, Integer> entry : imageSlots.entrySet()) {
+            this.usedSlots.labels(entry.getKey()).set(entry.getValue());
+            this.maxSlots.labels(entry.getKey()).set(ImageMaxSlots.get(this.cps, entry.getKey()));
+        }
+    }
 
+    protected void pollRunMetrics() throws DynamicStatusStoreException {
+        Map<String, String> runMetrics = dss.getPrefix(ZosMetricsRecorder.DSS_PREFIX);
+        if (runMetrics.isEmpty()) {
+            return;
+        }
+        for (Entry<String, String> entry : runMetrics.entrySet()) {
+            try {
+                addRunMetric(entry.getKey(), Double.parseDouble(entry.getValue()));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring invalid zOS run metric " + entry.getKey(), e);
+            }
+        }
+        //*** Only delete what has been added, a run may have written more since
+        dss.delete(runMetrics.keySet());
+    }
+
+    private void addRunMetric(String key, double value) {
+        Matcher matcher = runMetricPattern.matcher(key);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Unrecognised property name");
+        }
+        //*** metric name, label values, suffix
+        List<String> parts = Arrays.asList(matcher.group(1).split("\\."));
+        Metric metric = Metric.valueOfName(parts.get(0));
+        if (metric == null || parts.size() != metric.getLabelNames().length + 2) {
+            throw new IllegalArgumentException("Unrecognised metric");
+        }
+        List<String> labelValues = parts.subList(1, parts.size() - 1);
+        String suffix = parts.get(parts.size() - 1);
+        if (metric.isHistogram()) {
+            this.histograms.get(metric).add(labelValues, suffix, value);
+        } else if (ZosMetricsRecorder.SUFFIX_TOTAL.equals(suffix)) {
+            this.counters.get(metric).labels(labelValues.toArray(new String[0])).inc(value);
+        } else {
+            throw new IllegalArgumentException("Invalid counter suffix " + suffix);
+        }
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos.internal.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import dev.galasa.zos.spi.ZosMetricsRecorder;
+import io.prometheus.client.Collector;
+
+/**
+ * A Prometheus histogram built from the bucket counts written by test runs, see {@link ZosMetricsRecorder}, rather
+ * than from individual observations
+ */
+public class ZosRunHistogram extends Collector {
+
+    private static final int SUM = ZosMetricsRecorder.BUCKETS.length + 1;
+    private static final int COUNT = SUM + 1;
+
+    private final String name;
+    private final String help;
+    private final List<String> labelNames;
+
+    private final Map<List<String>, double[]> values = new HashMap<>();
+
+    public ZosRunHistogram(String name, String help, String... labelNames) {
+        this.name = name;
+        this.help = help;
+        this.labelNames = Arrays.asList(labelNames);
+    }
+
+    /**
+     * Add a value written by a run
+     * @param labelValues the label values
+     * @param suffix the suffix of the DSS property, a bucket, the sum or the count
+     * @param value the value
+     */
+    public synchronized void add(List<String> labelValues, String suffix, double value) {
+        int index;
+        if (ZosMetricsRecorder.SUFFIX_SUM.equals(suffix)) {
+            index = SUM;
+        } else if (ZosMetricsRecorder.SUFFIX_COUNT.equals(suffix)) {
+            index = COUNT;
+        } else if (suffix.startsWith(ZosMetricsRecorder.SUFFIX_BUCKET)) {
+            index = Integer.parseInt(suffix.substring(ZosMetricsRecorder.SUFFIX_BUCKET.length()));
+            if (index < 0 || index > ZosMetricsRecorder.BUCKETS.length) {
+                throw new IllegalArgumentException("Invalid histogram bucket " + suffix);
+            }
+        } else {
+            throw new IllegalArgumentException("Invalid histogram suffix " + suffix);
+        }
+        this.values.computeIfAbsent(new ArrayList<>(labelValues), k -> new double[COUNT + 1])[index] += value;
+    }
+
+    @Override
+    public synchronized List<MetricFamilySamples> collect() {
+        List<String> bucketLabelNames = new ArrayList<>(this.labelNames);
+        bucketLabelNames.add("le");
+
+        List<MetricFamilySamples.Sample> samples = new ArrayList<>();
+        for (Entry<List<String>, double[]> entry : this.values.entrySet()) {
+            double[] counts = entry.getValue();
+            double cumulative = 0;
+            for (int bucket = 0; bucket <= ZosMetricsRecorder.BUCKETS.length; bucket++) {
+                cumulative += counts[bucket];
+                double upperBound = bucket < ZosMetricsRecorder.BUCKETS.length ? ZosMetricsRecorder.BUCKETS[bucket] : Double.POSITIVE_INFINITY;
+                List<String> bucketLabelValues = new ArrayList<>(entry.getKey());
+                bucketLabelValues.add(doubleToGoString(upperBound));
+                samples.add(new MetricFamilySamples.Sample(this.name + "_bucket", bucketLabelNames, bucketLabelValues, cumulative));
+            }
+            samples.add(new MetricFamilySamples.Sample(this.name + "_count", this.labelNames, entry.getKey(), counts[COUNT]));
+            samples.add(new MetricFamilySamples.Sample(this.name + "_sum", this.labelNames, entry.getKey(), counts[SUM]));
+        }
+
+        List<MetricFamilySamples> familySamples = new ArrayList<>();
+        familySamples.add(new MetricFamilySamples(this.name, Type.HISTOGRAM, this.help, samples));
+        return familySamples;
+    }
+}
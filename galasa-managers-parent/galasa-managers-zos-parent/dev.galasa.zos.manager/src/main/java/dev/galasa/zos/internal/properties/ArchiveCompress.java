@@ -0,0 +1,46 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos.internal.properties;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zos.ZosManagerException;
+
+/**
+ * Compress zOS artifacts stored in the results archive
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name zos.archive.compress
+ * 
+ * @galasa.description Gzip compress job output, supplied JCL, data sets, members and VSAM data sets as they are stored
+ * in the results archive. Compressed artifacts have a {@code .gz} suffix. z/OS UNIX files are always stored uncompressed
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default false
+ * 
+ * @galasa.valid_values true or false
+ * 
+ * @galasa.examples 
+ * <code>zos.archive.compress=true</code><br>
+ *
+ */
+public class ArchiveCompress extends CpsProperties {
+    
+    public static boolean get() throws ZosManagerException {
+        try {
+            String compress = getStringNulled(ZosPropertiesSingleton.cps(), "archive", "compress");
+            if (compress == null)  {
+                return false;
+            }
+            return Boolean.parseBoolean(compress);
+        } catch (ConfigurationPropertyStoreException e) {
+            throw new ZosManagerException("Problem asking the CPS for the zOS archive compress property", e);
+        }
+    }
+
+}
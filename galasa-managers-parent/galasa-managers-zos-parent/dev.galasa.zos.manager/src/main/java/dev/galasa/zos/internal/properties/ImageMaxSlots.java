@@ -6,6 +6,7 @@
 package dev.galasa.zos.internal.properties;
 
 import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
 import dev.galasa.framework.spi.cps.CpsProperties;
 import dev.galasa.zos.ZosManagerException;
 
@@ -33,8 +34,12 @@ public class ImageMaxSlots extends CpsProperties {
     private static final int DEFAULT_MAX_SLOTS = 2;
     
     public static int get(String imageId) throws ZosManagerException {
+        return get(ZosPropertiesSingleton.cps(), imageId);
+    }
+    
+    public static int get(IConfigurationPropertyStoreService cps, String imageId) throws ZosManagerException {
         try {
-            String slots = getStringNulled(ZosPropertiesSingleton.cps(), "image", "max.slots", imageId);
+            String slots = getStringNulled(cps, "image", "max.slots", imageId);
             if (slots == null)  {
                 return DEFAULT_MAX_SLOTS;
             }
@@ -5,6 +5,8 @@
  */
 package dev.galasa.zos.spi;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Path;
 
 import javax.validation.constraints.NotNull;
@@ -142,13 +144,36 @@ public interface IZosManagerSpi extends IZosManager {
 	String buildUniquePathName(Path artifactPath, String name);
 
 	/**
-	 * Store an artifact in the results archive on behalf of another manager
+	 * Store an artifact in the results archive on behalf of another manager. The artifact is compressed as for
+	 * {@link #storeArtifact(Path, InputStream, ResultArchiveStoreContentType)}
 	 * @param archivePath
 	 * @param content
 	 * @param type
 	 */
 	void storeArtifact(Path artifactPath, String content, ResultArchiveStoreContentType type) throws ZosManagerException;
 
+	/**
+	 * Store an artifact in the results archive on behalf of another manager, copying the content from a stream
+	 * without holding it in memory. The stream is closed. The artifact is gzip compressed, with a {@code .gz}
+	 * suffix, if the {@code zos.archive.compress} property is true
+	 * @param artifactPath
+	 * @param content
+	 * @param type
+	 * @throws ZosManagerException
+	 */
+	void storeArtifact(Path artifactPath, InputStream content, ResultArchiveStoreContentType type) throws ZosManagerException;
+
+	/**
+	 * Create an artifact in the results archive on behalf of another manager, returning a stream to write the
+	 * content to. The artifact is compressed as for {@link #storeArtifact(Path, InputStream, ResultArchiveStoreContentType)}.
+	 * The caller must close the stream
+	 * @param artifactPath
+	 * @param type
+	 * @return the artifact content stream
+	 * @throws ZosManagerException
+	 */
+	OutputStream newArtifactOutputStream(Path artifactPath, ResultArchiveStoreContentType type) throws ZosManagerException;
+
 	/**
 	 * Create an empty dirictory in the results archive on behalf of another manager
 	 * @param artifactPath
@@ -164,6 +189,22 @@ public interface IZosManagerSpi extends IZosManager {
      */
 	int getZosFilePropertyDirectoryListMaxItems(String imageId) throws ZosFileManagerException;
 	
+    /**
+     * Provides other managers to the zOS File {@code zosfile.dataset.[imageid].member.transfer.max.threads} property
+     * @param imageId
+     * @return
+     * @throws ZosFileManagerException
+     */
+	int getZosFilePropertyMemberTransferMaxThreads(String imageId) throws ZosFileManagerException;
+	
+    /**
+     * Provides other managers to the zOS File {@code zosfile.dataset.[imageid].attribute.cache.ttl} property
+     * @param imageId
+     * @return
+     * @throws ZosFileManagerException
+     */
+	int getZosFilePropertyDatasetAttributeCacheTtl(String imageId) throws ZosFileManagerException;
+	
     /**
      * Provides other managers to the zOS File {@code zosfile.batchjob.[imageid].restrict.to.image} property
      * @param imageId
@@ -196,4 +237,10 @@ public interface IZosManagerSpi extends IZosManager {
 	 * @throws ZosManagerException
 	 */
 	ICredentials getCredentials(String credentialsId, String imageId) throws ZosManagerException;
+	
+	/**
+	 * Returns the recorder for the zOS metrics of this test run
+	 * @return the recorder
+	 */
+	ZosMetricsRecorder getMetricsRecorder();
 }
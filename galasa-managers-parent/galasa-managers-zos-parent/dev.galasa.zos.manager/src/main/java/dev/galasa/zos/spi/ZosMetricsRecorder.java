@@ -0,0 +1,285 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos.spi;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.framework.spi.IDynamicStatusStoreService;
+
+/**
+ * Counts zOS activity in a test run for the zOS metrics provider, e.g. time waiting for slots, zOS/MF and RSE API
+ * requests, batch job times and bytes transferred by the zOS File Managers.
+ * <p>
+ * The zOS Manager owns the recorder for the run, see {@link IZosManagerSpi#getMetricsRecorder()}. Values are added to
+ * in memory counters while the run is active and written to the DSS in one request when the zOS Manager shuts down,
+ * under metrics.zos.run.[runname].[flush]. The metrics provider adds each run's values to its Prometheus metrics and
+ * deletes them from the DSS.
+ * </p>
+ */
+public class ZosMetricsRecorder {
+
+    /**
+     * Prefix of the DSS properties written for each run
+     */
+    public static final String DSS_PREFIX = "metrics.zos.run.";
+
+    /**
+     * Upper bounds, in seconds, of the histogram buckets, the last bucket is +Inf
+     */
+    public static final double[] BUCKETS = {0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 120, 300, 600};
+
+    public static final String SUFFIX_BUCKET = "le";
+    public static final String SUFFIX_SUM = "sum";
+    public static final String SUFFIX_COUNT = "count";
+    public static final String SUFFIX_TOTAL = "total";
+
+    public enum Metric {
+        SLOT_WAIT("slot_wait", "Time taken to allocate a slot", true, "image"),
+        SLOT_RETRIES("slot_retries", "Slot counter updates retried as another run updated the counter first", false, "image"),
+        API_REQUEST("api_request", "Time taken by zOS/MF and RSE API requests", true, "server", "api", "endpoint"),
+        API_ERRORS("api_errors", "zOS/MF and RSE API requests that failed", false, "server", "api", "endpoint"),
+        BATCH_JOB_QUEUE("batch_job_queue", "Time batch jobs waited to run", true, "image"),
+        BATCH_JOB_EXECUTION("batch_job_execution", "Time batch jobs ran for", true, "image"),
+        FILE_TRANSFERRED("file_transferred_bytes", "Bytes transferred to and from zOS by the zOS File Managers", false, "image", "api", "direction");
+
+        private final String name;
+        private final String help;
+        private final boolean histogram;
+        private final String[] labelNames;
+
+        private Metric(String name, String help, boolean histogram, String... labelNames) {
+            this.name = name;
+            this.help = help;
+            this.histogram = histogram;
+            this.labelNames = labelNames;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public String getHelp() {
+            return this.help;
+        }
+
+        /**
+         * @return true if the metric is a histogram of times in seconds, false if it is a counter
+         */
+        public boolean isHistogram() {
+            return this.histogram;
+        }
+
+        public String[] getLabelNames() {
+            return this.labelNames.clone();
+        }
+
+        public static Metric valueOfName(String name) {
+            for (Metric metric : values()) {
+                if (metric.name.equals(name)) {
+                    return metric;
+                }
+            }
+            return null;
+        }
+    }
+
+    public static final String DIRECTION_SENT = "sent";
+    public static final String DIRECTION_RECEIVED = "received";
+
+    private final Map<String, Double> values = new ConcurrentHashMap<>();
+
+    private final AtomicInteger flushes = new AtomicInteger();
+
+    private static final Log logger = LogFactory.getLog(ZosMetricsRecorder.class);
+
+    /**
+     * Record a time in a histogram metric
+     * @param metric the metric
+     * @param nanos the time in nanoseconds
+     * @param labels the label values, in the order of {@link Metric#getLabelNames()}
+     */
+    public void observe(Metric metric, long nanos, String... labels) {
+        if (!metric.histogram) {
+            throw new IllegalArgumentException("Metric " + metric.name + " is not a histogram");
+        }
+        String key = key(metric, labels);
+        double seconds = nanos / 1_000_000_000.0;
+        int bucket = 0;
+        while (bucket < BUCKETS.length && seconds > BUCKETS[bucket]) {
+            bucket++;
+        }
+        add(key + SUFFIX_BUCKET + bucket, 1);
+        add(key + SUFFIX_SUM, seconds);
+        add(key + SUFFIX_COUNT, 1);
+    }
+
+    /**
+     * Add to a counter metric
+     * @param metric the metric
+     * @param amount the amount to add
+     * @param labels the label values, in the order of {@link Metric#getLabelNames()}
+     */
+    public void increment(Metric metric, double amount, String... labels) {
+        if (metric.histogram) {
+            throw new IllegalArgumentException("Metric " + metric.name + " is not a counter");
+        }
+        add(key(metric, labels) + SUFFIX_TOTAL, amount);
+    }
+
+    /**
+     * Record bytes transferred by a zOS File Manager
+     * @param imageId the image
+     * @param api the API used, e.g. zosmf
+     * @param direction {@link #DIRECTION_SENT} or {@link #DIRECTION_RECEIVED}
+     * @param bytes the number of bytes
+     */
+    public void transferred(String imageId, String api, String direction, long bytes) {
+        if (bytes > 0) {
+            increment(Metric.FILE_TRANSFERRED, bytes, imageId, api, direction);
+        }
+    }
+
+    /**
+     * Record the content transferred by a zOS File Manager. The size of text content is its length in UTF-8 bytes
+     * @param imageId the image
+     * @param api the API used, e.g. zosmf
+     * @param direction {@link #DIRECTION_SENT} or {@link #DIRECTION_RECEIVED}
+     * @param content the content, a {@link String} or byte[]
+     */
+    public void transferred(String imageId, String api, String direction, Object content) {
+        if (content instanceof String) {
+            transferred(imageId, api, direction, utf8Length((String) content));
+        } else if (content instanceof byte[]) {
+            transferred(imageId, api, direction, ((byte[]) content).length);
+        }
+    }
+
+    /**
+     * The endpoint of a REST API request path, to use as a label without including data set names, job ids etc.
+     * @param path the request path
+     * @param base the path of the API, e.g. /zosmf/
+     * @param depth the number of path segments after the base that identify the endpoint
+     * @return the endpoint, or "other" if the path is not part of the API
+     */
+    public static String endpoint(String path, String base, int depth) {
+        if (path == null || !path.startsWith(base)) {
+            return "other";
+        }
+        String remainder = path.substring(base.length());
+        int query = remainder.indexOf('?');
+        if (query >= 0) {
+            remainder = remainder.substring(0, query);
+        }
+        StringBuilder endpoint = new StringBuilder();
+        int segments = 0;
+        for (String segment : remainder.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segments++ == depth) {
+                break;
+            }
+            if (endpoint.length() > 0) {
+                endpoint.append('/');
+            }
+            endpoint.append(segment);
+        }
+        return endpoint.length() > 0 ? endpoint.toString() : "other";
+    }
+
+    /**
+     * Remove and return the values recorded so far, keyed by metric name, label values and suffix separated by ".".
+     * Each value is removed in one step, so a value added at the same time is either returned or kept for the next
+     * drain
+     */
+    public Map<String, Double> drain() {
+        HashMap<String, Double> drained = new HashMap<>();
+        for (String key : this.values.keySet()) {
+            Double value = this.values.remove(key);
+            if (value != null) {
+                drained.put(key, value);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Write the values recorded so far to the DSS for the metrics provider
+     * @param dss the zOS DSS
+     * @param runName the test run name
+     */
+    public void flush(IDynamicStatusStoreService dss, String runName) {
+        Map<String, Double> drained = drain();
+        if (dss == null || drained.isEmpty()) {
+            return;
+        }
+        String prefix = DSS_PREFIX + label(runName) + "." + this.flushes.incrementAndGet() + ".";
+        HashMap<String, String> properties = new HashMap<>();
+        for (Map.Entry<String, Double> entry : drained.entrySet()) {
+            properties.put(prefix + entry.getKey(), Double.toString(entry.getValue()));
+        }
+        try {
+            dss.put(properties);
+        } catch (Exception e) {
+            logger.warn("Unable to write zOS metrics for run " + runName, e);
+        }
+    }
+
+    private static String key(Metric metric, String... labels) {
+        if (labels.length != metric.labelNames.length) {
+            throw new IllegalArgumentException("Metric " + metric.name + " requires " + metric.labelNames.length + " labels");
+        }
+        StringBuilder key = new StringBuilder(metric.name).append('.');
+        for (String label : labels) {
+            key.append(label(label)).append('.');
+        }
+        return key.toString();
+    }
+
+    /**
+     * A label value that can be part of a DSS property name
+     */
+    private static String label(String value) {
+        if (value == null || value.isEmpty()) {
+            return "unknown";
+        }
+        return value.replaceAll("[^A-Za-z0-9_/@#$-]", "_");
+    }
+
+    /**
+     * The length of text in UTF-8 bytes, without encoding it
+     */
+    private static long utf8Length(String text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // *** An unpaired surrogate is encoded as '?'
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private void add(String key, double amount) {
+        this.values.merge(key, amount, Double::sum);
+    }
+}
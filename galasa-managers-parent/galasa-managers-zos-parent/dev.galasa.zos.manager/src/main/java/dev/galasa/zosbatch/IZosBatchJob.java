@@ -5,6 +5,8 @@
  */
 package dev.galasa.zosbatch;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * <p>Represents a zOS Batch Job.</p>
  * 
@@ -109,6 +111,17 @@ public interface IZosBatchJob {
      */
     public int waitForJob() throws ZosBatchException;
 
+    /**
+     * Wait for a job to complete without blocking the caller. The returned future completes with the value that
+     * {@link #waitForJob()} would return, or exceptionally with a {@link ZosBatchException}. The status of
+     * every job being waited for is checked together, so many jobs can be waited for at once. Cancelling the
+     * future stops waiting for the job
+     * 
+     * @return a future for the highest CC
+     * @throws ZosBatchException
+     */
+    public CompletableFuture<Integer> waitForJobAsync() throws ZosBatchException;
+
     /**
      * Retrieve the batch job output as an {@link IZosBatchJobOutput} object
      * 
@@ -42,9 +42,19 @@ public interface IZosBatchJobOutputSpoolFile {
     public String getDdname();
     
     /**
-     * Return the content of this zOS batch job spool file
-     * @return the zOS batch job spool file content
+     * Return the content of this zOS batch job spool file. The content may be retrieved from zOS when it is first
+     * needed, use {@link #retrieveRecords()} to have a failure to retrieve it reported
+     * @return the zOS batch job spool file content, or null if the content could not be retrieved
      */
     public String getRecords();
+    
+    /**
+     * Return the content of this zOS batch job spool file, retrieving it from zOS if it has not already been retrieved
+     * @return the zOS batch job spool file content
+     * @throws ZosBatchException if the content can not be retrieved
+     */
+    public default String retrieveRecords() throws ZosBatchException {
+        return getRecords();
+    }
 
 }
@@ -5,19 +5,35 @@
  */
 package dev.galasa.zosbatch.internal;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import dev.galasa.zosbatch.IZosBatchJobOutput;
 import dev.galasa.zosbatch.IZosBatchJobOutputSpoolFile;
 import dev.galasa.zosbatch.ZosBatchException;
 import dev.galasa.zosbatch.spi.IZosBatchJobOutputSpi;
+import dev.galasa.zosbatch.spi.IZosBatchJobOutputSpi.SpoolFileLoader;
 
 /**
  * Implementation of {@link IZosBatchJobOutput}
- *
+ * <p>
+ * Spool files added with a {@link SpoolFileLoader} are retrieved when their records are first needed. When the
+ * records of every spool file are needed, or are streamed to a store, they are retrieved several at a time.
+ * </p>
  */
 public class ZosBatchJobOutputImpl implements IZosBatchJobOutputSpi, Iterable<IZosBatchJobOutputSpoolFile> {
 
@@ -25,6 +41,13 @@ public class ZosBatchJobOutputImpl implements IZosBatchJobOutputSpi, Iterable<IZ
     private String jobid;
     
     private ArrayList<IZosBatchJobOutputSpoolFile> spoolFiles = new ArrayList<>();
+    
+    /** Most spool files retrieved at the same time, across all jobs */
+    protected static final int MAX_LOAD_THREADS = 8;
+    
+    private static final ExecutorService loadExecutor = newLoadExecutor();
+    
+    private static final Log logger = LogFactory.getLog(ZosBatchJobOutputImpl.class);
 
     public ZosBatchJobOutputImpl(String jobname, String jobid) {
         this.jobname = jobname;
@@ -41,6 +64,120 @@ public class ZosBatchJobOutputImpl implements IZosBatchJobOutputSpi, Iterable<IZ
         spoolFiles.add(new ZosBatchJobOutputSpoolFileImpl(this.jobname, this.jobid, Objects.toString(stepname, ""), Objects.toString(procstep, ""), ddname, records));
     }
 
+    @Override
+    public void addJcl(SpoolFileLoader loader) {
+        spoolFiles.add(new ZosBatchJobOutputSpoolFileImpl(this.jobname, this.jobid, loader));
+    }
+
+    @Override
+    public void addSpoolFile(String stepname, String procstep, String ddname, SpoolFileLoader loader) {
+        spoolFiles.add(new ZosBatchJobOutputSpoolFileImpl(this.jobname, this.jobid, Objects.toString(stepname, ""), Objects.toString(procstep, ""), ddname, loader));
+    }
+
+    @Override
+    public void loadSpoolFiles() throws ZosBatchException {
+        List<ZosBatchJobOutputSpoolFileImpl> notLoaded = new ArrayList<>();
+        for (IZosBatchJobOutputSpoolFile spoolFile : this.spoolFiles) {
+            if (spoolFile instanceof ZosBatchJobOutputSpoolFileImpl && !((ZosBatchJobOutputSpoolFileImpl) spoolFile).isLoaded()) {
+                notLoaded.add((ZosBatchJobOutputSpoolFileImpl) spoolFile);
+            }
+        }
+        runInParallel(notLoaded, ZosBatchJobOutputSpoolFileImpl::loadRecords, "retrieve");
+        // *** Spool files that no longer exist are left out of the output
+        this.spoolFiles.removeIf(spoolFile -> spoolFile instanceof ZosBatchJobOutputSpoolFileImpl && ((ZosBatchJobOutputSpoolFileImpl) spoolFile).isMissing());
+    }
+
+    @Override
+    public IZosBatchJobOutputSpoolFile getSpoolFile(String ddname) throws ZosBatchException {
+        Iterator<IZosBatchJobOutputSpoolFile> spoolFilesIterator = this.spoolFiles.iterator();
+        while (spoolFilesIterator.hasNext()) {
+            IZosBatchJobOutputSpoolFile spoolFile = spoolFilesIterator.next();
+            if (spoolFile.getDdname().equals(ddname)) {
+                spoolFile.retrieveRecords();
+                if (spoolFile instanceof ZosBatchJobOutputSpoolFileImpl && ((ZosBatchJobOutputSpoolFileImpl) spoolFile).isMissing()) {
+                    // *** The spool file no longer exists, so is left out of the output
+                    spoolFilesIterator.remove();
+                    continue;
+                }
+                return spoolFile;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void storeSpoolFiles(SpoolFileStore store) throws ZosBatchException {
+        runInParallel(this.spoolFiles, spoolFile -> {
+            try (InputStream records = openRecords(spoolFile)) {
+                if (records != null) {
+                    store.store(spoolFile, records);
+                }
+            } catch (IOException e) {
+                throw new ZosBatchException("Unable to close spool file " + spoolFile.getDdname(), e);
+            }
+        }, "store");
+    }
+
+    private InputStream openRecords(IZosBatchJobOutputSpoolFile spoolFile) throws ZosBatchException {
+        if (spoolFile instanceof ZosBatchJobOutputSpoolFileImpl) {
+            return ((ZosBatchJobOutputSpoolFileImpl) spoolFile).openRecords();
+        }
+        return new ByteArrayInputStream(spoolFile.retrieveRecords().getBytes());
+    }
+
+    /**
+     * Run an action for each spool file, several at a time when there is more than one
+     */
+    private <T extends IZosBatchJobOutputSpoolFile> void runInParallel(List<T> spoolFilesToProcess, SpoolFileAction<T> action, String actionName) throws ZosBatchException {
+        if (spoolFilesToProcess.size() <= 1) {
+            for (T spoolFile : spoolFilesToProcess) {
+                action.run(spoolFile);
+            }
+            return;
+        }
+        
+        List<Future<Void>> futures = new ArrayList<>();
+        try {
+            for (T spoolFile : spoolFilesToProcess) {
+                futures.add(loadExecutor.submit(() -> {
+                    action.run(spoolFile);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ZosBatchException("Interrupted trying to " + actionName + " spool files for " + this.toString(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ZosBatchException) {
+                throw (ZosBatchException) e.getCause();
+            }
+            throw new ZosBatchException("Unable to " + actionName + " spool files for " + this.toString(), e.getCause());
+        } finally {
+            // *** Spool files not yet started are skipped, those in progress are left to finish on the shared threads
+            for (Future<Void> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private static ExecutorService newLoadExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_LOAD_THREADS, MAX_LOAD_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "zosbatch-spool-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @FunctionalInterface
+    private interface SpoolFileAction<T> {
+        void run(T spoolFile) throws ZosBatchException;
+    }
+
     @Override
     public String getJobname() throws ZosBatchException {
         return this.jobname;
@@ -58,6 +195,11 @@ public class ZosBatchJobOutputImpl implements IZosBatchJobOutputSpi, Iterable<IZ
 
     @Override
     public List<String> toList() {
+        try {
+            loadSpoolFiles();
+        } catch (ZosBatchException e) {
+            logger.error("Unable to retrieve spool files for " + this.toString(), e);
+        }
         ArrayList<String> spoolFilesList = new ArrayList<>();
         spoolFiles.forEach(spoolFile-> 
             spoolFilesList.add(spoolFile.getRecords())
@@ -5,7 +5,15 @@
  */
 package dev.galasa.zosbatch.internal;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 import dev.galasa.zosbatch.IZosBatchJobOutputSpoolFile;
+import dev.galasa.zosbatch.ZosBatchException;
+import dev.galasa.zosbatch.spi.IZosBatchJobOutputSpi.SpoolFileLoader;
 
 /**
  * Implementation of {@link IZosBatchJobOutputSpoolFile}
@@ -18,7 +26,11 @@ public class ZosBatchJobOutputSpoolFileImpl implements IZosBatchJobOutputSpoolFi
     private String stepname;
     private String procstep;
     private String ddname;
-    private String records;
+    private volatile String records;
+    private volatile boolean missing;
+    private final SpoolFileLoader loader;
+    
+    private static final Log logger = LogFactory.getLog(ZosBatchJobOutputSpoolFileImpl.class);
     
     /**
      * Constructor for creating JESJCLIN spool file
@@ -34,6 +46,23 @@ public class ZosBatchJobOutputSpoolFileImpl implements IZosBatchJobOutputSpoolFi
         this.procstep = "";
         this.ddname = "JESJCLIN";
         this.records = records;
+        this.loader = null;
+    }
+    
+    /**
+     * Constructor for creating JESJCLIN spool file with records retrieved when first needed
+     * @param jobname
+     * @param jobid
+     * @param loader
+     */
+    public ZosBatchJobOutputSpoolFileImpl(String jobname, String jobid, SpoolFileLoader loader) {
+
+        this.jobname = jobname;
+        this.jobid = jobid;
+        this.stepname = "";
+        this.procstep = "";
+        this.ddname = "JESJCLIN";
+        this.loader = loader;
     }
     
     /**
@@ -51,6 +80,26 @@ public class ZosBatchJobOutputSpoolFileImpl implements IZosBatchJobOutputSpoolFi
         this.procstep = procstep;
         this.ddname = ddname;
         this.records = records;
+        this.loader = null;
+    }
+    
+    /**
+     * Constructor for creating spool file with records retrieved when first needed
+     * @param jobname 
+     * @param jobid 
+     * @param stepname
+     * @param procstep
+     * @param ddname
+     * @param loader
+     */
+    public ZosBatchJobOutputSpoolFileImpl(String jobname, String jobid, String stepname, String procstep, String ddname, SpoolFileLoader loader) {
+
+        this.jobname = jobname;
+        this.jobid = jobid;
+        this.stepname = stepname;
+        this.procstep = procstep;
+        this.ddname = ddname;
+        this.loader = loader;
     }
 
     @Override
@@ -80,7 +129,58 @@ public class ZosBatchJobOutputSpoolFileImpl implements IZosBatchJobOutputSpoolFi
 
     @Override
     public String getRecords() {
-        return this.records;        
+        try {
+            return loadRecords();
+        } catch (ZosBatchException e) {
+            logger.error("Unable to retrieve spool file " + this.toString(), e);
+            return null;
+        }
+    }
+    
+    @Override
+    public String retrieveRecords() throws ZosBatchException {
+        return loadRecords();
+    }
+    
+    /**
+     * Retrieve the records if they have not already been retrieved. A spool file that no longer exists has no records
+     * @return the records
+     * @throws ZosBatchException
+     */
+    public synchronized String loadRecords() throws ZosBatchException {
+        if (this.records == null && this.loader != null) {
+            String loaded = this.loader.load();
+            this.missing = loaded == null;
+            this.records = loaded != null ? loaded : "";
+        }
+        return this.records;
+    }
+    
+    /**
+     * Open the records as a stream. Records not yet retrieved are streamed without being kept
+     * @return the records, or null if the spool file no longer exists
+     * @throws ZosBatchException
+     */
+    public InputStream openRecords() throws ZosBatchException {
+        String loaded = this.records;
+        if (loaded == null && this.loader != null) {
+            return this.loader.open();
+        }
+        if (this.missing) {
+            return null;
+        }
+        return new ByteArrayInputStream(loaded != null ? loaded.getBytes() : new byte[0]);
+    }
+    
+    /**
+     * @return true if the records were retrieved and the spool file no longer exists
+     */
+    public boolean isMissing() {
+        return this.missing;
+    }
+    
+    public boolean isLoaded() {
+        return this.records != null || this.loader == null;
     }
 
     @Override
@@ -5,13 +5,54 @@
  */
 package dev.galasa.zosbatch.spi;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
 import dev.galasa.zosbatch.IZosBatchJobOutput;
+import dev.galasa.zosbatch.IZosBatchJobOutputSpoolFile;
+import dev.galasa.zosbatch.ZosBatchException;
 
 /**
  * SPI to zOS Batch Job output
  *
  */
 public interface IZosBatchJobOutputSpi extends IZosBatchJobOutput {	
+	
+	/**
+	 * Retrieves the records of a spool file when they are first needed
+	 */
+	@FunctionalInterface
+	public interface SpoolFileLoader {
+		/**
+		 * @return the spool file records, or null if the spool file no longer exists
+		 * @throws ZosBatchException
+		 */
+		public String load() throws ZosBatchException;
+		
+		/**
+		 * Open the spool file records as a stream, without keeping them. The caller must close the stream
+		 * @return the spool file records, or null if the spool file no longer exists
+		 * @throws ZosBatchException
+		 */
+		public default InputStream open() throws ZosBatchException {
+			String records = load();
+			return records != null ? new ByteArrayInputStream(records.getBytes()) : null;
+		}
+	}
+	
+	/**
+	 * Receives the records of each spool file as a stream
+	 */
+	@FunctionalInterface
+	public interface SpoolFileStore {
+		/**
+		 * @param spoolFile the spool file
+		 * @param records the spool file records, closed by the caller once this returns
+		 * @throws ZosBatchException
+		 */
+		public void store(IZosBatchJobOutputSpoolFile spoolFile, InputStream records) throws ZosBatchException;
+	}
+	
 	/**
 	 * Add a spool file to the job output
 	 * @param stepname
@@ -21,10 +62,49 @@ public interface IZosBatchJobOutputSpi extends IZosBatchJobOutput {
 	 */
 	public void addSpoolFile(String stepname, String procstep, String ddname, String fileOutput);
 
+	/**
+	 * Add a spool file to the job output, retrieving its records only when they are first needed
+	 * @param stepname
+	 * @param procstep
+	 * @param ddname
+	 * @param loader
+	 */
+	public void addSpoolFile(String stepname, String procstep, String ddname, SpoolFileLoader loader);
+
 	/**
 	 * Add JCL to the job output
 	 * @param fileOutput
 	 */
 	public void addJcl(String fileOutput);
 
+	/**
+	 * Add JCL to the job output, retrieving it only when it is first needed
+	 * @param loader
+	 */
+	public void addJcl(SpoolFileLoader loader);
+
+	/**
+	 * Retrieve the records of every spool file not yet retrieved, several at a time. Spool files that no longer
+	 * exist are removed from the job output
+	 * @throws ZosBatchException
+	 */
+	public void loadSpoolFiles() throws ZosBatchException;
+
+	/**
+	 * Return the first spool file with a DD name, retrieving its records if they have not already been retrieved. A
+	 * spool file that no longer exists is removed from the job output
+	 * @param ddname
+	 * @return the spool file, or null if there is no spool file with the DD name
+	 * @throws ZosBatchException if the records can not be retrieved
+	 */
+	public IZosBatchJobOutputSpoolFile getSpoolFile(String ddname) throws ZosBatchException;
+
+	/**
+	 * Pass the records of every spool file to a store, several at a time. Records not yet retrieved are streamed
+	 * to the store rather than kept in the job output. Spool files that no longer exist are not stored
+	 * @param store
+	 * @throws ZosBatchException
+	 */
+	public void storeSpoolFiles(SpoolFileStore store) throws ZosBatchException;
+
 }
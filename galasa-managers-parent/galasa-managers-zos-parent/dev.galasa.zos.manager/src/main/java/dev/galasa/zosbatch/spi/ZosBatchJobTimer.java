@@ -0,0 +1,67 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosbatch.spi;
+
+import java.util.function.LongSupplier;
+
+import dev.galasa.zos.spi.ZosMetricsRecorder;
+import dev.galasa.zos.spi.ZosMetricsRecorder.Metric;
+import dev.galasa.zosbatch.IZosBatchJob.JobStatus;
+
+/**
+ * Times how long a submitted batch job waits to run and how long it runs for, from the status changes seen by the
+ * zOS Batch Manager. The times are recorded with the {@link ZosMetricsRecorder} of the run when the job completes, so they are only
+ * as accurate as the interval between status checks.
+ */
+public class ZosBatchJobTimer {
+
+    private final ZosMetricsRecorder metricsRecorder;
+    private final String imageId;
+    private final LongSupplier clock;
+
+    private Long submitted;
+    private Long started;
+    private boolean recorded;
+
+    public ZosBatchJobTimer(ZosMetricsRecorder metricsRecorder, String imageId) {
+        this(metricsRecorder, imageId, System::nanoTime);
+    }
+
+    protected ZosBatchJobTimer(ZosMetricsRecorder metricsRecorder, String imageId, LongSupplier clock) {
+        this.metricsRecorder = metricsRecorder;
+        this.imageId = imageId;
+        this.clock = clock;
+    }
+
+    /**
+     * The job has been submitted
+     */
+    public synchronized void submitted() {
+        this.submitted = this.clock.getAsLong();
+        this.started = null;
+        this.recorded = false;
+    }
+
+    /**
+     * The status of the job has been updated
+     * @param status the job status
+     */
+    public synchronized void status(JobStatus status) {
+        if (this.submitted == null || this.recorded || status == null) {
+            return;
+        }
+        long now = this.clock.getAsLong();
+        if (status == JobStatus.ACTIVE && this.started == null) {
+            this.started = now;
+        } else if (status == JobStatus.OUTPUT) {
+            // *** A job that was never seen active started and ended between status checks
+            long start = this.started != null ? this.started : now;
+            this.metricsRecorder.observe(Metric.BATCH_JOB_QUEUE, start - this.submitted, this.imageId);
+            this.metricsRecorder.observe(Metric.BATCH_JOB_EXECUTION, now - start, this.imageId);
+            this.recorded = true;
+        }
+    }
+}
@@ -6,6 +6,7 @@
 package dev.galasa.zosfile;
 
 import java.util.Collection;
+import java.util.Map;
 
 import javax.validation.constraints.NotNull;
 
@@ -325,6 +326,40 @@ public interface IZosDataset {
      */
     public  byte[] memberRetrieveAsBinary(@NotNull String memberName) throws ZosDatasetException;
 
+    /**
+     * Write content to several partitioned data set members in Text mode. The members are written several at a
+     * time, up to the {@code zosfile.dataset.[imageid].member.transfer.max.threads} limit for the image
+     * @param members the content of each member, keyed by member name
+     * @throws ZosDatasetException
+     */
+    public void membersStoreText(@NotNull Map<String, String> members) throws ZosDatasetException;
+
+    /**
+     * Write content to several partitioned data set members in Binary mode. The members are written several at a
+     * time, see {@link #membersStoreText(Map)}
+     * @param members the content of each member, keyed by member name
+     * @throws ZosDatasetException
+     */
+    public void membersStoreBinary(@NotNull Map<String, byte[]> members) throws ZosDatasetException;
+
+    /**
+     * Retrieve content from several partitioned data set members in Text mode. The members are retrieved several
+     * at a time, see {@link #membersStoreText(Map)}
+     * @param memberNames
+     * @return the content of each member, keyed by member name in the order requested
+     * @throws ZosDatasetException
+     */
+    public Map<String, String> membersRetrieveAsText(@NotNull Collection<String> memberNames) throws ZosDatasetException;
+
+    /**
+     * Retrieve content from several partitioned data set members in Binary mode. The members are retrieved several
+     * at a time, see {@link #membersStoreText(Map)}
+     * @param memberNames
+     * @return the content of each member, keyed by member name in the order requested
+     * @throws ZosDatasetException
+     */
+    public Map<String, byte[]> membersRetrieveAsBinary(@NotNull Collection<String> memberNames) throws ZosDatasetException;
+
     /**
      * List the members of the partitioned data set
      * @return
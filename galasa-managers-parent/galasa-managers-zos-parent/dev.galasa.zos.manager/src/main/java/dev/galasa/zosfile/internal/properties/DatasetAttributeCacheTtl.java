@@ -0,0 +1,55 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosfile.internal.properties;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zosfile.ZosFileManagerException;
+
+/**
+ * zOS File the number of seconds data set attributes are cached for
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name zosfile.dataset.[imageid].attribute.cache.ttl
+ * 
+ * @galasa.description The number of seconds the attributes of a data set that exists are cached for on a zOS image. 
+ * The cached attributes are discarded when the data set is created, deleted or stored to by the zOS File Manager. 
+ * A value of 0, the default, turns the cache off. Whether a data set exists is always checked with the server
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 0
+ * 
+ * @galasa.valid_values 0 or more
+ * 
+ * @galasa.examples 
+ * <code>zosfile.dataset.[imageid].attribute.cache.ttl=30</code><br>
+ *
+ */
+public class DatasetAttributeCacheTtl extends CpsProperties {
+
+    private static final int CACHE_TTL = 0;
+
+    public static int get(String imageId) throws ZosFileManagerException {
+        try {
+            String ttlString = getStringNulled(ZosFilePropertiesSingleton.cps(), "dataset", "attribute.cache.ttl", imageId);
+
+            if (ttlString == null) {
+                return CACHE_TTL;
+            } else {
+                int ttl = Integer.parseInt(ttlString);
+                if (ttl < 0) {
+                    throw new ZosFileManagerException("Data set attribute cache TTL property must not be negative");
+                }
+                return ttl;
+            }
+        } catch (ConfigurationPropertyStoreException | NumberFormatException e) {
+            throw new ZosFileManagerException("Problem asking the CPS for the data set attribute cache TTL property for zOS image "  + imageId, e);
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosfile.internal.properties;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zosfile.ZosFileManagerException;
+
+/**
+ * zOS File the maximum number of data set members transferred at the same time
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name zosfile.dataset.[imageid].member.transfer.max.threads
+ * 
+ * @galasa.description The maximum number of partitioned data set members retrieved, stored or archived at the same time on a zOS image.
+ * The limit is shared by every data set on the image
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 8
+ * 
+ * @galasa.valid_values 
+ * 
+ * @galasa.examples 
+ * <code>zosfile.dataset.[imageid].member.transfer.max.threads=8</code><br>
+ *
+ */
+public class MemberTransferMaxThreads extends CpsProperties {
+
+    private static final int MAX_THREADS = 8;
+
+    public static int get(String imageId) throws ZosFileManagerException {
+        try {
+            String maxThreadsString = getStringNulled(ZosFilePropertiesSingleton.cps(), "dataset", "member.transfer.max.threads", imageId);
+
+            if (maxThreadsString == null) {
+                return MAX_THREADS;
+            } else {
+                int maxThreads = Integer.parseInt(maxThreadsString);
+                if (maxThreads <=0 ) {
+                    throw new ZosFileManagerException("Member transfer max threads property must be greater than 0");
+                }
+                return maxThreads;
+            }
+        } catch (ConfigurationPropertyStoreException | NumberFormatException e) {
+            throw new ZosFileManagerException("Problem asking the CPS for the member transfer max threads property for zOS image "  + imageId, e);
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosfile.spi;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches the attributes of data sets on a zOS image for a number of seconds, so checking that a data set exists
+ * and then asking for its attributes does not list the data set each time. Whether a data set exists is never
+ * answered from the cache.
+ * <p>
+ * Only the attributes of data sets that exist are cached. A zOS File Manager invalidates a data set when it creates,
+ * deletes or stores to it, but changes made outside the manager, for example by a batch job, are not seen until the
+ * cached attributes expire.
+ * </p>
+ */
+public class ZosDatasetAttributeCache {
+
+    private final long ttl;
+    private final LongSupplier clock;
+
+    private final Map<String, Map<String, CachedAttributes>> datasets = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param ttl seconds to cache attributes for, 0 turns the cache off
+     */
+    public ZosDatasetAttributeCache(int ttl) {
+        this(ttl, System::nanoTime);
+    }
+
+    protected ZosDatasetAttributeCache(int ttl, LongSupplier clock) {
+        this.ttl = TimeUnit.SECONDS.toNanos(ttl);
+        this.clock = clock;
+    }
+
+    /**
+     * @return false if attributes are never cached
+     */
+    public boolean isEnabled() {
+        return this.ttl > 0;
+    }
+
+    /**
+     * Return the cached attributes of a data set
+     * @param dsname the data set name
+     * @param attributeSet the name of the set of attributes, e.g. the request that returned them
+     * @param type the type of the attributes
+     * @return the attributes, or null if they are not cached or have expired
+     */
+    public <T> T get(String dsname, String attributeSet, Class<T> type) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Map<String, CachedAttributes> attributeSets = this.datasets.get(dsname);
+        CachedAttributes cached = attributeSets != null ? attributeSets.get(attributeSet) : null;
+        if (cached == null || this.clock.getAsLong() - cached.expires >= 0 || !type.isInstance(cached.attributes)) {
+            if (cached != null) {
+                attributeSets.remove(attributeSet, cached);
+            }
+            this.misses.incrementAndGet();
+            return null;
+        }
+        this.hits.incrementAndGet();
+        return type.cast(cached.attributes);
+    }
+
+    /**
+     * Cache the attributes of a data set that exists
+     * @param dsname the data set name
+     * @param attributeSet the name of the set of attributes
+     * @param attributes the attributes
+     */
+    public void put(String dsname, String attributeSet, Object attributes) {
+        if (!isEnabled() || attributes == null) {
+            return;
+        }
+        this.datasets.computeIfAbsent(dsname, k -> new ConcurrentHashMap<>()).put(attributeSet, new CachedAttributes(attributes, this.clock.getAsLong() + this.ttl));
+    }
+
+    /**
+     * Discard every set of cached attributes of a data set
+     * @param dsname the data set name
+     */
+    public void invalidate(String dsname) {
+        this.datasets.remove(dsname);
+    }
+
+    /**
+     * Discard the cached attributes of every data set
+     */
+    public void invalidateAll() {
+        this.datasets.clear();
+    }
+
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + getHitCount() + ", misses=" + getMissCount();
+    }
+
+    private static class CachedAttributes {
+        private final Object attributes;
+        private final long expires;
+
+        private CachedAttributes(Object attributes, long expires) {
+            this.attributes = attributes;
+            this.expires = expires;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosfile.spi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import dev.galasa.zosfile.IZosDataset;
+import dev.galasa.zosfile.ZosDatasetException;
+
+/**
+ * Transfers the members of partitioned data sets on a zOS image several at a time. The threads are shared by every
+ * data set on the image, are created when first needed and are limited by the
+ * {@code zosfile.dataset.[imageid].member.transfer.max.threads} property
+ */
+public class ZosDatasetMemberTransfer {
+
+    private final String imageId;
+    private final int maxThreads;
+
+    private ExecutorService executor;
+    private boolean shutdown;
+
+    /**
+     * The transfer of a single member
+     */
+    @FunctionalInterface
+    public interface MemberTransfer<T> {
+        T transfer(String memberName) throws ZosDatasetException;
+    }
+
+    /**
+     * @param imageId the zOS image
+     * @param maxThreads the most members transferred at the same time
+     */
+    public ZosDatasetMemberTransfer(String imageId, int maxThreads) {
+        this.imageId = imageId;
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * Check once, rather than for each member, that a data set is a partitioned data set that exists
+     * @param dataset the data set on this image
+     * @throws ZosDatasetException
+     */
+    public void checkMemberTransfer(IZosDataset dataset) throws ZosDatasetException {
+        if (!dataset.exists()) {
+            throw new ZosDatasetException("Data set " + quoted(dataset.getName()) + " does not exist" + logOnImage());
+        }
+        if (!dataset.isPDS()) {
+            throw new ZosDatasetException("Data set " + quoted(dataset.getName()) + " is not a partitioned data set");
+        }
+    }
+
+    /**
+     * Transfer each member, several at a time when there is more than one. Once a transfer fails, the transfers
+     * not yet started are cancelled, those in progress are left to finish
+     * @param dataset the data set on this image
+     * @param memberNames the members to transfer
+     * @param transfer the transfer for a single member
+     * @return the result of each transfer, keyed by member name in the order of the member names
+     * @throws ZosDatasetException
+     */
+    public <T> Map<String, T> transferMembers(IZosDataset dataset, Collection<String> memberNames, MemberTransfer<T> transfer) throws ZosDatasetException {
+        Map<String, T> results = new LinkedHashMap<>();
+        if (memberNames.size() <= 1) {
+            for (String memberName : memberNames) {
+                results.put(memberName, transfer.transfer(memberName));
+            }
+            return results;
+        }
+        ExecutorService transferExecutor = getExecutor();
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        try {
+            for (String memberName : memberNames) {
+                futures.put(memberName, transferExecutor.submit(() -> transfer.transfer(memberName)));
+            }
+            for (Entry<String, Future<T>> entry : futures.entrySet()) {
+                results.put(entry.getKey(), entry.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ZosDatasetException("Interrupted transferring members of data set " + quoted(dataset.getName()) + logOnImage(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ZosDatasetException) {
+                throw (ZosDatasetException) e.getCause();
+            }
+            throw new ZosDatasetException("Unable to transfer members of data set " + quoted(dataset.getName()) + logOnImage(), e.getCause());
+        } finally {
+            // *** Stop the remaining transfers if one has failed. Transfers in progress may be part way through a
+            // *** request, so are not interrupted
+            for (Future<T> future : futures.values()) {
+                future.cancel(false);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Stop the threads. Transfers in progress are left to finish
+     */
+    public synchronized void shutdown() {
+        this.shutdown = true;
+        if (this.executor != null) {
+            this.executor.shutdown();
+            this.executor = null;
+        }
+    }
+
+    protected synchronized ExecutorService getExecutor() throws ZosDatasetException {
+        if (this.shutdown) {
+            throw new ZosDatasetException("Unable to transfer members after the end of the test run" + logOnImage());
+        }
+        if (this.executor == null) {
+            String threadName = "zosfile-member-transfer-" + this.imageId;
+            this.executor = Executors.newFixedThreadPool(this.maxThreads, runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return this.executor;
+    }
+
+    /**
+     * Return content retrieved from a data set as text
+     * @param content a {@link String}, a byte array or an {@link InputStream}, which is read to the end
+     * @return the content
+     * @throws ZosDatasetException
+     */
+    public static String contentAsText(Object content) throws ZosDatasetException {
+        if (content instanceof byte[]) {
+            return new String((byte[]) content);
+        } else if (content instanceof InputStream) {
+            return new String(readAll((InputStream) content));
+        }
+        return (String) content;
+    }
+
+    /**
+     * Return content retrieved from a data set as binary
+     * @param content a {@link String}, a byte array or an {@link InputStream}, which is read to the end
+     * @return the content
+     * @throws ZosDatasetException
+     */
+    public static byte[] contentAsBinary(Object content) throws ZosDatasetException {
+        if (content instanceof String) {
+            return ((String) content).getBytes();
+        } else if (content instanceof InputStream) {
+            return readAll((InputStream) content);
+        }
+        return (byte[]) content;
+    }
+
+    private static byte[] readAll(InputStream in) throws ZosDatasetException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[2048];
+        int count;
+        try {
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+        } catch (IOException e) {
+            throw new ZosDatasetException("Failed to collect binary", e);
+        }
+        return out.toByteArray();
+    }
+
+    private String quoted(String name) {
+        return "\"" + name + "\"";
+    }
+
+    private String logOnImage() {
+        return " on image " + this.imageId;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosfile.spi;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zos.IZosImage;
+import dev.galasa.zos.spi.IZosManagerSpi;
+import dev.galasa.zosfile.ZosFileManagerException;
+
+/**
+ * The {@link ZosDatasetMemberTransfer} and {@link ZosDatasetAttributeCache} of each zOS image, shared by every data
+ * set on the image until they are released at the end of the test run
+ */
+public class ZosDatasetResources {
+
+    private static final Log logger = LogFactory.getLog(ZosDatasetResources.class);
+
+    private final Map<String, ZosDatasetMemberTransfer> memberTransfers = new HashMap<>();
+
+    private final Map<String, ZosDatasetAttributeCache> attributeCaches = new HashMap<>();
+
+    /**
+     * Return the member transfer for an image
+     * @param zosManager the zOS Manager, used to read the image properties
+     * @param image
+     * @return the member transfer
+     * @throws ZosFileManagerException
+     */
+    public synchronized ZosDatasetMemberTransfer getMemberTransfer(IZosManagerSpi zosManager, IZosImage image) throws ZosFileManagerException {
+        ZosDatasetMemberTransfer memberTransfer = this.memberTransfers.get(image.getImageID());
+        if (memberTransfer == null) {
+            memberTransfer = new ZosDatasetMemberTransfer(image.getImageID(), zosManager.getZosFilePropertyMemberTransferMaxThreads(image.getImageID()));
+            this.memberTransfers.put(image.getImageID(), memberTransfer);
+        }
+        return memberTransfer;
+    }
+
+    /**
+     * Return the data set attribute cache for an image. Attributes are kept for the number of seconds in the
+     * {@code zosfile.dataset.[imageid].attribute.cache.ttl} property
+     * @param zosManager the zOS Manager, used to read the image properties
+     * @param image
+     * @return the cache
+     * @throws ZosFileManagerException
+     */
+    public synchronized ZosDatasetAttributeCache getAttributeCache(IZosManagerSpi zosManager, IZosImage image) throws ZosFileManagerException {
+        ZosDatasetAttributeCache cache = this.attributeCaches.get(image.getImageID());
+        if (cache == null) {
+            cache = new ZosDatasetAttributeCache(zosManager.getZosFilePropertyDatasetAttributeCacheTtl(image.getImageID()));
+            this.attributeCaches.put(image.getImageID(), cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Shut down the member transfers and discard the caches of every image. Later calls create new ones
+     */
+    public synchronized void release() {
+        for (ZosDatasetMemberTransfer memberTransfer : this.memberTransfers.values()) {
+            memberTransfer.shutdown();
+        }
+        this.memberTransfers.clear();
+        for (Entry<String, ZosDatasetAttributeCache> entry : this.attributeCaches.entrySet()) {
+            logger.debug("Data set attribute cache on image " + entry.getKey() + ": " + entry.getValue());
+            entry.getValue().invalidateAll();
+        }
+        this.attributeCaches.clear();
+    }
+}
@@ -5,6 +5,8 @@
  */
 package dev.galasa.zostsocommand;
 
+import java.util.concurrent.CompletableFuture;
+
 import javax.validation.constraints.NotNull;
 
 /**
@@ -31,4 +33,23 @@ public interface IZosTSOCommand {
      * @throws ZosTSOCommandException 
      */
     public String issueCommand(@NotNull String command, long timeout) throws ZosTSOCommandException;
+
+    /**
+     * Issue a zOS TSO command without waiting for the response, so many commands can be issued at once. The returned
+     * future completes with the TSO command response, or exceptionally with a {@link ZosTSOCommandException}. The
+     * default implementation issues the command before returning
+     * 
+     * @param command The TSO command
+     * @return a future for the TSO command response
+     * @throws ZosTSOCommandException 
+     */
+    public default CompletableFuture<String> issueCommandAsync(@NotNull String command) throws ZosTSOCommandException {
+        CompletableFuture<String> response = new CompletableFuture<>();
+        try {
+            response.complete(issueCommand(command));
+        } catch (ZosTSOCommandException e) {
+            response.completeExceptionally(e);
+        }
+        return response;
+    }
 }
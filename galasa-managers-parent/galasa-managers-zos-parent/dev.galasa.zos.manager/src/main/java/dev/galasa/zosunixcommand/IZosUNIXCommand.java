@@ -5,6 +5,8 @@
  */
 package dev.galasa.zosunixcommand;
 
+import java.util.concurrent.CompletableFuture;
+
 import javax.validation.constraints.NotNull;
 
 import dev.galasa.ICredentials;
@@ -55,4 +57,43 @@ public interface IZosUNIXCommand {
      */
     public String issueCommand(@NotNull String command, long timeout, ICredentials credentials) throws ZosUNIXCommandException;
 
+    /**
+     * Issue a zOS UNIX command without waiting for the response. Each command runs on its own SSH channel, so many
+     * commands can be issued at once. The returned future completes with the UNIX command response, or exceptionally
+     * with a {@link ZosUNIXCommandException}. The default implementation issues the command before returning
+     * 
+     * @param command The command
+     * @return a future for the UNIX command response
+     * @throws ZosUNIXCommandException 
+     */
+    public default CompletableFuture<String> issueCommandAsync(@NotNull String command) throws ZosUNIXCommandException {
+        CompletableFuture<String> response = new CompletableFuture<>();
+        try {
+            response.complete(issueCommand(command));
+        } catch (ZosUNIXCommandException e) {
+            response.completeExceptionally(e);
+        }
+        return response;
+    }
+
+    /**
+     * Issue a zOS UNIX command with specified credentials and timeout without waiting for the response, see
+     * {@link #issueCommandAsync(String)}
+     * 
+     * @param command The command
+     * @param timeout time (in milliseconds) to wait with no new output appearing before timing out
+     * @param credentials the credentials
+     * @return a future for the UNIX command response
+     * @throws ZosUNIXCommandException 
+     */
+    public default CompletableFuture<String> issueCommandAsync(@NotNull String command, long timeout, ICredentials credentials) throws ZosUNIXCommandException {
+        CompletableFuture<String> response = new CompletableFuture<>();
+        try {
+            response.complete(issueCommand(command, timeout, credentials));
+        } catch (ZosUNIXCommandException e) {
+            response.completeExceptionally(e);
+        }
+        return response;
+    }
+
 }
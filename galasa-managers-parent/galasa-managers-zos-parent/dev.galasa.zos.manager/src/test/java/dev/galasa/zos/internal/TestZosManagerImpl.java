@@ -5,8 +5,10 @@
  */
 package dev.galasa.zos.internal;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
@@ -19,6 +21,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -54,6 +58,7 @@ import dev.galasa.ipnetwork.internal.IpNetworkManagerImpl;
 import dev.galasa.zos.IZosImage;
 import dev.galasa.zos.ZosManagerException;
 import dev.galasa.zos.internal.ZosManagerImpl.ImageUsage;
+import dev.galasa.zos.internal.properties.ArchiveCompress;
 import dev.galasa.zos.internal.properties.BatchExtraBundle;
 import dev.galasa.zos.internal.properties.ClusterIdForTag;
 import dev.galasa.zos.internal.properties.ClusterImages;
@@ -69,6 +74,8 @@ import dev.galasa.zos.internal.properties.RunUNIXPathPrefix;
 import dev.galasa.zos.internal.properties.TSOCommandExtraBundle;
 import dev.galasa.zos.internal.properties.UNIXCommandExtraBundle;
 import dev.galasa.zos.internal.properties.ZosPropertiesSingleton;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
+import dev.galasa.zos.spi.ZosMetricsRecorder.Metric;
 import dev.galasa.zosbatch.ZosBatchException;
 import dev.galasa.zosbatch.internal.properties.BatchRestrictToImage;
 import dev.galasa.zosbatch.internal.properties.JobWaitTimeout;
@@ -78,8 +85,10 @@ import dev.galasa.zosbatch.internal.properties.UseSysaff;
 import dev.galasa.zosbatch.internal.properties.ZosBatchPropertiesSingleton;
 import dev.galasa.zosconsole.internal.properties.ConsoleRestrictToImage;
 import dev.galasa.zosconsole.internal.properties.ZosConsolePropertiesSingleton;
+import dev.galasa.zosfile.internal.properties.DatasetAttributeCacheTtl;
 import dev.galasa.zosfile.internal.properties.DirectoryListMaxItems;
 import dev.galasa.zosfile.internal.properties.FileRestrictToImage;
+import dev.galasa.zosfile.internal.properties.MemberTransferMaxThreads;
 import dev.galasa.zosfile.internal.properties.UnixFilePermissions;
 import dev.galasa.zosfile.internal.properties.ZosFilePropertiesSingleton;
 
@@ -87,7 +96,7 @@ import dev.galasa.zosfile.internal.properties.ZosFilePropertiesSingleton;
 @PrepareForTest({LogFactory.class, BatchExtraBundle.class, ConsoleExtraBundle.class, FileExtraBundle.class, TSOCommandExtraBundle.class, UNIXCommandExtraBundle.class, 
                  DseImageIdForTag.class, ImageIdForTag.class, ImageSysname.class, DseClusterIdForTag.class, AbstractManager.class, ImageMaxSlots.class, DssUtils.class, 
                  ClusterIdForTag.class, ClusterImages.class, RunDatasetHLQ.class, RunUNIXPathPrefix.class, BatchRestrictToImage.class, UseSysaff.class, JobWaitTimeout.class, TruncateJCLRecords.class, 
-                 JobnamePrefix.class, DirectoryListMaxItems.class, FileRestrictToImage.class, ConsoleRestrictToImage.class, UnixFilePermissions.class})
+                 JobnamePrefix.class, DirectoryListMaxItems.class, FileRestrictToImage.class, ConsoleRestrictToImage.class, UnixFilePermissions.class, ArchiveCompress.class, MemberTransferMaxThreads.class, DatasetAttributeCacheTtl.class})
 public class TestZosManagerImpl {
 
     private ZosManagerImpl zosManager;
@@ -322,6 +331,17 @@ public class TestZosManagerImpl {
         PowerMockito.verifyPrivate(zosProvisionedImageMock, Mockito.times(1)).invoke("freeImage");
     }
     
+    @Test
+    public void testShutdownMetrics() throws Exception {
+        Whitebox.setInternalState(zosManagerSpy, "dss", dssMock);
+        Mockito.when(frameworkMock.getTestRunName()).thenReturn("U1");
+        ZosMetricsRecorder metricsRecorder = zosManagerSpy.getMetricsRecorder();
+        metricsRecorder.increment(Metric.SLOT_RETRIES, 1, IMAGE_ID);
+        zosManagerSpy.shutdown();
+        Mockito.verify(dssMock, Mockito.times(1)).put(ArgumentMatchers.<Map<String, String>>any());
+        Assert.assertTrue("shutdown() should write the recorded metrics", metricsRecorder.drain().isEmpty());
+    }
+    
     @Test
     public void testGenerateZosImage() throws Exception {
         PowerMockito.mockStatic(DseImageIdForTag.class);
@@ -465,8 +485,8 @@ public class TestZosManagerImpl {
         List<String> clusters = Arrays.asList(new String[] {IMAGE_ID});
         PowerMockito.doReturn(clusters).when(ClusterImages.class, "get", Mockito.anyString());
         PowerMockito.mockStatic(ImageMaxSlots.class);
-        PowerMockito.doReturn(-1).when(ImageMaxSlots.class, "get", Mockito.anyString());   
-        PowerMockito.when(dssMock.get(ArgumentMatchers.contains(".current.slots"))).thenReturn("-2");  
+        PowerMockito.doReturn(99).when(ImageMaxSlots.class, "get", Mockito.anyString());   
+        PowerMockito.when(dssMock.getPrefix(ArgumentMatchers.contains(".current.slots"))).thenReturn(new HashMap<>());  
         PowerMockito.when(dssMock.putSwap(ArgumentMatchers.contains(".current.slots"), Mockito.any(), Mockito.anyString())).thenReturn(true);
         PowerMockito.when(dssMock.putSwap(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(true);
         
@@ -476,7 +496,7 @@ public class TestZosManagerImpl {
 
         clusters = Arrays.asList(new String[] {IMAGE_ID_1});
         PowerMockito.doReturn(clusters).when(ClusterImages.class, "get", Mockito.anyString());
-        PowerMockito.when(dssMock.get(ArgumentMatchers.contains(".current.slots"))).thenReturn("0");
+        PowerMockito.doReturn(0).when(ImageMaxSlots.class, "get", Mockito.anyString());
         PowerMockito.mockStatic(DssUtils.class);
         String expectedMessage = "Insufficent capacity for images in cluster DEFAULT";
         ZosManagerException expectedException = Assert.assertThrows("expected exception should be thrown", ZosManagerException.class, ()->{
@@ -766,6 +786,20 @@ public class TestZosManagerImpl {
         PowerMockito.doReturn(99).when(DirectoryListMaxItems.class, "get", Mockito.any());
         Assert.assertEquals("DirectoryListMaxItems() should return the expected value", 99, zosManagerSpy.getZosFilePropertyDirectoryListMaxItems(IMAGE_ID));        
     }
+    
+    @Test
+    public void testGetZosFilePropertyMemberTransferMaxThreads() throws Exception {
+        PowerMockito.mockStatic(MemberTransferMaxThreads.class);
+        PowerMockito.doReturn(99).when(MemberTransferMaxThreads.class, "get", Mockito.any());
+        Assert.assertEquals("MemberTransferMaxThreads() should return the expected value", 99, zosManagerSpy.getZosFilePropertyMemberTransferMaxThreads(IMAGE_ID));        
+    }
+    
+    @Test
+    public void testGetZosFilePropertyDatasetAttributeCacheTtl() throws Exception {
+        PowerMockito.mockStatic(DatasetAttributeCacheTtl.class);
+        PowerMockito.doReturn(99).when(DatasetAttributeCacheTtl.class, "get", Mockito.any());
+        Assert.assertEquals("DatasetAttributeCacheTtl() should return the expected value", 99, zosManagerSpy.getZosFilePropertyDatasetAttributeCacheTtl(IMAGE_ID));        
+    }
 
     @Test
     public void testGetZosFilePropertyFileRestrictToImage() throws Exception {
@@ -789,10 +823,42 @@ public class TestZosManagerImpl {
     }
     
     @Test 
-    public void testStoreArtifact() throws ZosManagerException, IOException {
+    public void testStoreArtifact() throws Exception {
+        PowerMockito.mockStatic(ArchiveCompress.class);
+        PowerMockito.doReturn(false).when(ArchiveCompress.class, "get");
     	Path archivePathMock = newMockedPath(true);
     	zosManagerSpy.storeArtifact(archivePathMock, "content", ResultArchiveStoreContentType.TEXT);
     	Mockito.verify(archivePathMock, Mockito.times(2)).getFileSystem();
+    	Mockito.verify(zosManagerSpy).storeArtifact(Mockito.eq(archivePathMock), Mockito.any(InputStream.class), Mockito.eq(ResultArchiveStoreContentType.TEXT));
+    }
+    
+    @Test 
+    public void testStoreArtifactStream() throws Exception {
+        PowerMockito.mockStatic(ArchiveCompress.class);
+        PowerMockito.doReturn(false).when(ArchiveCompress.class, "get");
+    	Path archivePathMock = newMockedPath(true);
+    	zosManagerSpy.storeArtifact(archivePathMock, new ByteArrayInputStream("content".getBytes()), ResultArchiveStoreContentType.TEXT);
+    	Mockito.verify(archivePathMock, Mockito.times(2)).getFileSystem();
+    	Mockito.verify(archivePathMock, Mockito.never()).resolveSibling(Mockito.anyString());
+    }
+    
+    @Test 
+    public void testNewArtifactOutputStream() throws Exception {
+        PowerMockito.mockStatic(ArchiveCompress.class);
+        PowerMockito.doReturn(true).when(ArchiveCompress.class, "get");
+    	Path archivePathMock = newMockedPath(true);
+    	Path fileNameMock = Mockito.mock(Path.class);
+    	Mockito.when(fileNameMock.toString()).thenReturn("name");
+    	Mockito.when(archivePathMock.getFileName()).thenReturn(fileNameMock);
+    	Mockito.when(archivePathMock.resolveSibling(Mockito.anyString())).thenReturn(archivePathMock);
+    	Assert.assertTrue("newArtifactOutputStream() should return a compressed stream", zosManagerSpy.newArtifactOutputStream(archivePathMock, ResultArchiveStoreContentType.TEXT) instanceof GZIPOutputStream);
+    	Mockito.verify(archivePathMock).resolveSibling("name.gz");
+    	
+    	PowerMockito.doThrow(new ZosManagerException("exception")).when(ArchiveCompress.class, "get");
+    	ZosManagerException expectedException = Assert.assertThrows("expected exception should be thrown", ZosManagerException.class, ()->{
+    		zosManagerSpy.newArtifactOutputStream(archivePathMock, ResultArchiveStoreContentType.TEXT);
+    	});
+    	Assert.assertEquals("exception should contain expected message", "exception", expectedException.getMessage());
     }
     
     @Test 
@@ -5,6 +5,9 @@
  */
 package dev.galasa.zos.internal;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.junit.Assert;
@@ -32,6 +35,7 @@ import dev.galasa.framework.spi.creds.ICredentialsService;
 import dev.galasa.zos.ZosManagerException;
 import dev.galasa.zos.internal.properties.ImageMaxSlots;
 import dev.galasa.zos.internal.properties.ZosPropertiesSingleton;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({AbstractManager.class, ZosIpHostImpl.class, ImageMaxSlots.class, LogFactory.class, ZosPropertiesSingleton.class, CpsProperties.class})
@@ -41,6 +45,8 @@ public class TestZosProvisionedImageImpl {
     
     private ZosProvisionedImageImpl zosProvisionedImageSpy;
 
+    private ZosMetricsRecorder metricsRecorder;
+
     @Mock
     private ZosManagerImpl zosManagerMock;
 
@@ -82,6 +88,8 @@ public class TestZosProvisionedImageImpl {
     private static final String RUN_NAME = "RUN-NAME";
 
     private static final String SLOT_NAME = "SLOT-NAME";
+
+    private static final String COUNTER = "image." + IMAGE_ID + ".current.slots";
     
     @Before
     public void setup() throws Exception {
@@ -113,6 +121,8 @@ public class TestZosProvisionedImageImpl {
         PowerMockito.when(dssMock.getDynamicResource(Mockito.any())).thenReturn(dynamicResourceMock);
         PowerMockito.when(zosManagerMock.getDSS()).thenReturn(dssMock);
         PowerMockito.when(zosManagerMock.getFramework()).thenReturn(frameworkMock);
+        metricsRecorder = new ZosMetricsRecorder();
+        PowerMockito.when(zosManagerMock.getMetricsRecorder()).thenReturn(metricsRecorder);
         PowerMockito.when(frameworkMock.getCredentialsService()).thenReturn(credentialsServiceMock);
         PowerMockito.when(frameworkMock.getTestRunName()).thenReturn(RUN_NAME);
         
@@ -146,19 +156,18 @@ public class TestZosProvisionedImageImpl {
         PowerMockito.when(ImageMaxSlots.get(Mockito.anyString())).thenReturn(0);
         Assert.assertEquals("getCurrentUsage() should return the expected value", (Float) 1.0f, zosProvisionedImageSpy.getCurrentUsage());
         
-        PowerMockito.when(ImageMaxSlots.get(Mockito.anyString())).thenReturn(1);
-        PowerMockito.when(dssMock.get(ArgumentMatchers.contains(".current.slots"))).thenReturn(null);
+        PowerMockito.when(ImageMaxSlots.get(Mockito.anyString())).thenReturn(4);
+        PowerMockito.when(dssMock.getPrefix(ArgumentMatchers.contains(".current.slots"))).thenReturn(new HashMap<>());
         Assert.assertEquals("getCurrentUsage() should return the expected value", (Float) 0.0f, zosProvisionedImageSpy.getCurrentUsage());
         
-        PowerMockito.when(ImageMaxSlots.get(Mockito.anyString())).thenReturn(1);
-        PowerMockito.when(dssMock.get(ArgumentMatchers.contains(".current.slots"))).thenReturn("1");
-        Assert.assertEquals("getCurrentUsage() should return the expected value", (Float) 1.0f, zosProvisionedImageSpy.getCurrentUsage());
+        PowerMockito.when(dssMock.getPrefix(ArgumentMatchers.contains(".current.slots"))).thenReturn(counters("1", "2"));
+        Assert.assertEquals("getCurrentUsage() should return the expected value", (Float) 0.75f, zosProvisionedImageSpy.getCurrentUsage());
     }
     
     @Test
     public void testGetCurrentUsageException() throws Exception {        
         PowerMockito.when(ImageMaxSlots.get(Mockito.anyString())).thenReturn(1);
-        PowerMockito.when(dssMock.get(Mockito.anyString())).thenThrow(new DynamicStatusStoreException());
+        PowerMockito.when(dssMock.getPrefix(Mockito.anyString())).thenThrow(new DynamicStatusStoreException());
         
         String expectedMessage = "Problem finding used slots for zOS Image " + IMAGE_ID;
         ZosManagerException expectedException = Assert.assertThrows("expected exception should be thrown", ZosManagerException.class, ()->{
@@ -172,25 +181,35 @@ public class TestZosProvisionedImageImpl {
         PowerMockito.when(ImageMaxSlots.get(Mockito.anyString())).thenReturn(0);
         Assert.assertFalse("allocateImage() should return the false", zosProvisionedImageSpy.allocateImage());
         
-        PowerMockito.when(ImageMaxSlots.get(Mockito.anyString())).thenReturn(0);
-        PowerMockito.when(dssMock.get(ArgumentMatchers.contains(".current.slots"))).thenReturn(null);
-        Assert.assertFalse("allocateImage() should return the false", zosProvisionedImageSpy.allocateImage());
-        
         PowerMockito.when(ImageMaxSlots.get(Mockito.anyString())).thenReturn(2);
-        PowerMockito.when(dssMock.get(ArgumentMatchers.contains(".current.slots"))).thenReturn("1").thenReturn("2");
-        PowerMockito.when(dssMock.putSwap(ArgumentMatchers.contains(".current.slots"), Mockito.anyString(), Mockito.anyString())).thenReturn(false);
+        PowerMockito.when(dssMock.getPrefix(ArgumentMatchers.contains(".current.slots"))).thenReturn(counters(null, "1", "1"));
         Assert.assertFalse("allocateImage() should return the false", zosProvisionedImageSpy.allocateImage());
         
         PowerMockito.when(ImageMaxSlots.get(Mockito.anyString())).thenReturn(2);
-        PowerMockito.when(dssMock.get(ArgumentMatchers.contains(".current.slots"))).thenReturn("1");
-        PowerMockito.when(dssMock.putSwap(ArgumentMatchers.contains(".current.slots"), Mockito.anyString(), Mockito.anyString())).thenReturn(true);
+        PowerMockito.when(dssMock.getPrefix(ArgumentMatchers.contains(".current.slots"))).thenReturn(counters(null, "1"));
+        PowerMockito.when(dssMock.putSwap(ArgumentMatchers.contains(".current.slots"), Mockito.any(), Mockito.anyString())).thenReturn(false).thenReturn(true);
         PowerMockito.when(dssMock.putSwap(Mockito.anyString(), Mockito.any(), ArgumentMatchers.contains(RUN_NAME), Mockito.any())).thenReturn(false).thenReturn(true);
+        metricsRecorder.drain();
         Assert.assertTrue("allocateImage() should return the true", zosProvisionedImageSpy.allocateImage());
+        Mockito.verify(dssMock, Mockito.times(2)).putSwap(Mockito.eq(COUNTER + ".1"), Mockito.isNull(), Mockito.eq("1"));
+        Mockito.verify(dssMock).putSwap(Mockito.anyString(), Mockito.isNull(), Mockito.eq(RUN_NAME), ArgumentMatchers.argThat(props -> (COUNTER + ".1").equals(props.get("image." + IMAGE_ID + ".slot.SLOT_" + RUN_NAME + "_1.counter"))));
+        Map<String, Double> metrics = metricsRecorder.drain();
+        Assert.assertEquals("allocateImage() should record the retries", 1.0, metrics.get("slot_retries." + IMAGE_ID + ".total"), 0);
+        Assert.assertEquals("allocateImage() should record the time taken", 1.0, metrics.get("slot_wait." + IMAGE_ID + ".count"), 0);
+        
+        //*** Another run took a slot from the unsharded counter at the same time
+        PowerMockito.when(dssMock.getPrefix(ArgumentMatchers.contains(".current.slots"))).thenReturn(counters(null, "1")).thenReturn(counters("1", "1", "1"));
+        PowerMockito.when(dssMock.putSwap(ArgumentMatchers.contains(".current.slots"), Mockito.any(), Mockito.anyString())).thenReturn(true);
+        PowerMockito.when(dssMock.get(COUNTER + ".1")).thenReturn("1");
+        PowerMockito.when(dssMock.putSwap(Mockito.eq(COUNTER + ".1"), Mockito.eq("1"), Mockito.eq("0"), Mockito.any())).thenReturn(true);
+        Assert.assertFalse("allocateImage() should return the false", zosProvisionedImageSpy.allocateImage());
+        Mockito.verify(dssMock).putSwap(Mockito.eq(COUNTER + ".1"), Mockito.eq("1"), Mockito.eq("0"), Mockito.any());
     }
     
     @Test
     public void testAllocateImageException() throws Exception {
-        PowerMockito.when(dssMock.get(Mockito.anyString())).thenThrow(new DynamicStatusStoreException());
+        PowerMockito.when(ImageMaxSlots.get(Mockito.anyString())).thenReturn(2);
+        PowerMockito.when(dssMock.getPrefix(Mockito.anyString())).thenThrow(new DynamicStatusStoreException());
         String expectedMessage = "Problem finding used slots for zOS Image " + IMAGE_ID;
         ZosManagerException expectedException = Assert.assertThrows("expected exception should be thrown", ZosManagerException.class, ()->{
         	zosProvisionedImageSpy.allocateImage();
@@ -198,11 +217,30 @@ public class TestZosProvisionedImageImpl {
     	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
     }
     
+    @Test
+    public void testSelectSlotCounter() throws Exception {
+        Assert.assertNull("selectSlotCounter() should return null", ZosProvisionedImageImpl.selectSlotCounter(IMAGE_ID, new HashMap<>(), 0));
+        
+        Assert.assertNull("selectSlotCounter() should return null", ZosProvisionedImageImpl.selectSlotCounter(IMAGE_ID, counters("3", "1"), 4));
+        
+        Assert.assertEquals("selectSlotCounter() should return the expected value", COUNTER + ".1", ZosProvisionedImageImpl.selectSlotCounter(IMAGE_ID, counters(null, "1", null, "1"), 3));
+        
+        //*** The 2 slots held by the unsharded counter leave shares of 1, 1, 0 and 0
+        Assert.assertEquals("selectSlotCounter() should return the expected value", COUNTER + ".1", ZosProvisionedImageImpl.selectSlotCounter(IMAGE_ID, counters("2", "1"), 4));
+        
+        Map<String, String> counters = new HashMap<>();
+        for (int shard = 0; shard < ZosProvisionedImageImpl.SLOT_COUNTER_SHARDS; shard++) {
+            counters.put(COUNTER + "." + shard, "1");
+        }
+        counters.put(COUNTER + ".0", "2");
+        Assert.assertEquals("selectSlotCounter() should return the expected value", COUNTER + ".1", ZosProvisionedImageImpl.selectSlotCounter(IMAGE_ID, counters, ZosProvisionedImageImpl.SLOT_COUNTER_SHARDS + 2));
+    }
+    
     @Test
     public void testGetSlotName() throws Exception {        
         PowerMockito.when(ImageMaxSlots.get(Mockito.anyString())).thenReturn(2);
-        PowerMockito.when(dssMock.get(ArgumentMatchers.contains(".current.slots"))).thenReturn("1");
-        PowerMockito.when(dssMock.putSwap(ArgumentMatchers.contains(".current.slots"), Mockito.anyString(), Mockito.anyString())).thenReturn(true);
+        PowerMockito.when(dssMock.getPrefix(ArgumentMatchers.contains(".current.slots"))).thenReturn(counters("1"));
+        PowerMockito.when(dssMock.putSwap(ArgumentMatchers.contains(".current.slots"), Mockito.any(), Mockito.anyString())).thenReturn(true);
         PowerMockito.when(dssMock.putSwap(Mockito.anyString(), Mockito.any(), ArgumentMatchers.contains(RUN_NAME), Mockito.any())).thenReturn(false).thenReturn(true);
         zosProvisionedImageSpy.allocateImage();
         
@@ -220,6 +258,12 @@ public class TestZosProvisionedImageImpl {
         zosProvisionedImage.freeImage();
         Assert.assertEquals("freeImage() should log specified message", "Discard slot name " + SLOT_NAME + " for zOS Image " + IMAGE_ID, logMessage);
 
+        PowerMockito.when(dssMock.get(COUNTER + ".2")).thenReturn("1");
+        PowerMockito.when(dssMock.putSwap(Mockito.eq(COUNTER + ".2"), Mockito.anyString(), Mockito.any(), Mockito.any())).thenReturn(true);
+        Whitebox.setInternalState(zosProvisionedImage, "allocatedCounter", COUNTER + ".2");
+        zosProvisionedImage.freeImage();
+        Mockito.verify(dssMock).putSwap(Mockito.eq(COUNTER + ".2"), Mockito.eq("1"), Mockito.eq("0"), Mockito.any());
+
         PowerMockito.when(dssMock.get(Mockito.anyString())).thenThrow(new DynamicStatusStoreException());
         zosProvisionedImage.freeImage();
         Assert.assertEquals("freeImage() should log specified message", "Failed to free slot on image " + IMAGE_ID + ", slot " + SLOT_NAME + ", leaving for manager clean up routines", logMessage);        
@@ -237,11 +281,32 @@ public class TestZosProvisionedImageImpl {
         PowerMockito.when(dssMock.get(ArgumentMatchers.contains("slot.run."))).thenReturn("active");        
         PowerMockito.when(dssMock.putSwap(ArgumentMatchers.contains("slot.run."), Mockito.anyString(), Mockito.anyString())).thenReturn(true);
         PowerMockito.when(dssMock.get(ArgumentMatchers.contains(".current.slots"))).thenReturn("0").thenReturn("1").thenReturn("0");
-        PowerMockito.when(dssMock.putSwap(ArgumentMatchers.contains(".current.slots"), Mockito.anyString(), Mockito.anyString())).thenReturn(false).thenReturn(true);
+        PowerMockito.when(dssMock.putSwap(ArgumentMatchers.contains(".current.slots"), Mockito.anyString(), Mockito.anyString(), Mockito.any())).thenReturn(false).thenReturn(true);
+        ZosProvisionedImageImpl.deleteDss(RUN_NAME, IMAGE_ID, SLOT_NAME, dssMock);
+        
+        PowerMockito.when(dssMock.get(ArgumentMatchers.endsWith(".counter"))).thenReturn(COUNTER + ".3");
+        PowerMockito.when(dssMock.get(COUNTER + ".3")).thenReturn("2");
         ZosProvisionedImageImpl.deleteDss(RUN_NAME, IMAGE_ID, SLOT_NAME, dssMock);
+        Mockito.verify(dssMock).putSwap(Mockito.eq(COUNTER + ".3"), Mockito.eq("2"), Mockito.eq("1"), Mockito.any());
         
         PowerMockito.when(dssMock.get(Mockito.anyString())).thenThrow(new DynamicStatusStoreException());
         ZosProvisionedImageImpl.deleteDss(RUN_NAME, IMAGE_ID, SLOT_NAME, dssMock);
         Assert.assertEquals("deleteDss() should log specified message", "Failed to discard slot " + SLOT_NAME + " on image " + IMAGE_ID, logMessage);        
     }
+    
+    /**
+     * The unsharded counter followed by each counter shard, null for a counter that does not exist
+     */
+    private Map<String, String> counters(String... values) {
+        Map<String, String> counters = new HashMap<>();
+        if (values[0] != null) {
+            counters.put(COUNTER, values[0]);
+        }
+        for (int shard = 1; shard < values.length; shard++) {
+            if (values[shard] != null) {
+                counters.put(COUNTER + "." + (shard - 1), values[shard]);
+            }
+        }
+        return counters;
+    }
 }
@@ -5,6 +5,8 @@
  */
 package dev.galasa.zos.internal.metrics;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -22,11 +24,15 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
 import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
 import dev.galasa.framework.spi.IDynamicStatusStoreService;
 import dev.galasa.framework.spi.IFramework;
 import dev.galasa.framework.spi.IMetricsServer;
 import dev.galasa.framework.spi.MetricsServerException;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
+import io.prometheus.client.CollectorRegistry;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest(LogFactory.class)
@@ -50,6 +56,9 @@ public class TestZosMetrics {
 
     @Mock
     private IDynamicStatusStoreService dssMock;
+
+    @Mock
+    private IConfigurationPropertyStoreService cpsMock;
     
     @Mock
     private Log logMock;
@@ -57,7 +66,7 @@ public class TestZosMetrics {
     private static String logMessage;
     
     @Before
-    public void setup() throws DynamicStatusStoreException {
+    public void setup() throws DynamicStatusStoreException, ConfigurationPropertyStoreException {
         PowerMockito.mockStatic(LogFactory.class);
         Mockito.when(LogFactory.getLog(Mockito.any(Class.class))).thenReturn(logMock);
         Answer<String> answer = new Answer<String>() {
@@ -74,6 +83,7 @@ public class TestZosMetrics {
         Mockito.doAnswer(answer).when(logMock).error(Mockito.any(), Mockito.any());
         
         Mockito.when(frameworkMock.getDynamicStatusStoreService(Mockito.any())).thenReturn(dssMock);
+        Mockito.when(frameworkMock.getConfigurationPropertyService(Mockito.any())).thenReturn(cpsMock);
         Mockito.doReturn(scheduledExecutorServiceMock).when(metricsServer).getScheduledExecutorService();
         Mockito.when(frameworkMock.getRandom()).thenReturn(randomMock);
         
@@ -93,7 +103,26 @@ public class TestZosMetrics {
         zosMetricsSpy.run();
         
         Mockito.when(dssMock.get(Mockito.any())).thenReturn("1");
+        Map<String, String> slots = new HashMap<>();
+        slots.put("image.IMAGE.current.slots", "1");
+        slots.put("image.IMAGE.current.slots.3", "2");
+        slots.put("image.IMAGE.slot.SLOT1", "U1");
+        Mockito.when(dssMock.getPrefix("image.")).thenReturn(slots);
+        Map<String, String> runMetrics = new HashMap<>();
+        runMetrics.put(ZosMetricsRecorder.DSS_PREFIX + "U1.1.slot_retries.IMAGE.total", "3.0");
+        runMetrics.put(ZosMetricsRecorder.DSS_PREFIX + "U1.1.slot_wait.IMAGE.le2", "1.0");
+        runMetrics.put(ZosMetricsRecorder.DSS_PREFIX + "U1.1.slot_wait.IMAGE.sum", "0.2");
+        runMetrics.put(ZosMetricsRecorder.DSS_PREFIX + "U1.1.slot_wait.IMAGE.count", "1.0");
+        runMetrics.put(ZosMetricsRecorder.DSS_PREFIX + "U1.1.unknown_metric.IMAGE.total", "1.0");
+        Mockito.when(dssMock.getPrefix(ZosMetricsRecorder.DSS_PREFIX)).thenReturn(runMetrics);
         zosMetricsSpy.run();
+        Assert.assertEquals("run() should set the used slots", 3.0, CollectorRegistry.defaultRegistry.getSampleValue("galasa_zos_used_slots", new String[] {"image"}, new String[] {"IMAGE"}), 0);
+        Assert.assertEquals("run() should set the max slots", 2.0, CollectorRegistry.defaultRegistry.getSampleValue("galasa_zos_max_slots", new String[] {"image"}, new String[] {"IMAGE"}), 0);
+        Assert.assertEquals("run() should add the run counters", 3.0, CollectorRegistry.defaultRegistry.getSampleValue("galasa_zos_slot_retries_total", new String[] {"image"}, new String[] {"IMAGE"}), 0);
+        Assert.assertEquals("run() should add the run histograms", 1.0, CollectorRegistry.defaultRegistry.getSampleValue("galasa_zos_slot_wait_seconds_bucket", new String[] {"image", "le"}, new String[] {"IMAGE", "0.25"}), 0);
+        Assert.assertEquals("run() should add the run histograms", 0.0, CollectorRegistry.defaultRegistry.getSampleValue("galasa_zos_slot_wait_seconds_bucket", new String[] {"image", "le"}, new String[] {"IMAGE", "0.1"}), 0);
+        Assert.assertEquals("run() should add the run histograms", 1.0, CollectorRegistry.defaultRegistry.getSampleValue("galasa_zos_slot_wait_seconds_count", new String[] {"image"}, new String[] {"IMAGE"}), 0);
+        Mockito.verify(dssMock).delete(runMetrics.keySet());
         
         Mockito.when(dssMock.get(Mockito.any())).thenThrow(new RuntimeException());
         zosMetricsSpy.run();
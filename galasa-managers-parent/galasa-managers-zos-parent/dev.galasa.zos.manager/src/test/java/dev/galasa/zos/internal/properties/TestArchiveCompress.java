@@ -0,0 +1,74 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos.internal.properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zos.ZosManagerException;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ZosPropertiesSingleton.class, CpsProperties.class})
+public class TestArchiveCompress {
+    
+    @Mock
+    private IConfigurationPropertyStoreService configurationPropertyStoreServiceMock;
+    
+    @Test
+    public void testConstructor() {
+        ArchiveCompress archiveCompress = new ArchiveCompress();
+        Assert.assertNotNull("Object was not created", archiveCompress);
+    }
+    
+    @Test
+    public void testNull() throws Exception {
+        Assert.assertFalse("Unexpected value returned from ArchiveCompress.get()", getProperty(null));
+    }
+    
+    @Test
+    public void testValid() throws Exception {
+        Assert.assertTrue("Unexpected value returned from ArchiveCompress.get()", getProperty("true"));
+        Assert.assertTrue("Unexpected value returned from ArchiveCompress.get()", getProperty("TRUE"));
+        Assert.assertFalse("Unexpected value returned from ArchiveCompress.get()", getProperty("false"));
+        Assert.assertFalse("Unexpected value returned from ArchiveCompress.get()", getProperty("XXX"));
+    }
+    
+    @Test
+    public void testException() throws Exception {
+        String expectedMessage = "Problem asking the CPS for the zOS archive compress property";
+        ZosManagerException expectedException = Assert.assertThrows("expected exception should be thrown", ZosManagerException.class, ()->{
+        	getProperty("ANY", true);
+        });
+    	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
+    }
+
+    private boolean getProperty(String value) throws Exception {
+        return getProperty(value, false);
+    }
+    
+    private boolean getProperty(String value, boolean exception) throws Exception {
+        PowerMockito.spy(ZosPropertiesSingleton.class);
+        PowerMockito.doReturn(configurationPropertyStoreServiceMock).when(ZosPropertiesSingleton.class, "cps");
+        PowerMockito.spy(CpsProperties.class);
+        
+        if (!exception) {
+            PowerMockito.doReturn(value).when(CpsProperties.class, "getStringNulled", Mockito.any(), Mockito.anyString(), Mockito.anyString());
+        } else {
+            PowerMockito.doThrow(new ConfigurationPropertyStoreException()).when(CpsProperties.class, "getStringNulled", Mockito.any(), Mockito.anyString(), Mockito.anyString());
+        }
+        
+        return ArchiveCompress.get();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos.spi;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.IDynamicStatusStoreService;
+import dev.galasa.zos.spi.ZosMetricsRecorder.Metric;
+
+public class TestZosMetricsRecorder {
+
+    private static final String IMAGE_ID = "IMAGE";
+
+    private static final String SERVER_ID = "SERVER";
+
+    private ZosMetricsRecorder metricsRecorder;
+
+    @Before
+    public void setup() {
+        metricsRecorder = new ZosMetricsRecorder();
+    }
+
+    @Test
+    public void testObserve() {
+        metricsRecorder.observe(Metric.SLOT_WAIT, TimeUnit.MILLISECONDS.toNanos(200), IMAGE_ID);
+        metricsRecorder.observe(Metric.SLOT_WAIT, TimeUnit.MINUTES.toNanos(20), IMAGE_ID);
+        Map<String, Double> values = metricsRecorder.drain();
+        Assert.assertEquals("observe() should count the value in its bucket", 1.0, values.get("slot_wait.IMAGE.le2"), 0);
+        Assert.assertEquals("observe() should count values above the last bound in the +Inf bucket", 1.0, values.get("slot_wait.IMAGE.le" + ZosMetricsRecorder.BUCKETS.length), 0);
+        Assert.assertEquals("observe() should add to the sum", 1200.2, values.get("slot_wait.IMAGE.sum"), 0.0001);
+        Assert.assertEquals("observe() should add to the count", 2.0, values.get("slot_wait.IMAGE.count"), 0);
+        Assert.assertTrue("drain() should remove the values", metricsRecorder.drain().isEmpty());
+    }
+
+    @Test
+    public void testIncrement() {
+        metricsRecorder.increment(Metric.API_ERRORS, 1, SERVER_ID, "zosmf", "restfiles/ds");
+        metricsRecorder.increment(Metric.API_ERRORS, 2, SERVER_ID, "zosmf", "restfiles/ds");
+        metricsRecorder.transferred(IMAGE_ID, "zosmf", ZosMetricsRecorder.DIRECTION_SENT, "content\u00a3");
+        metricsRecorder.transferred(IMAGE_ID, "zosmf", ZosMetricsRecorder.DIRECTION_RECEIVED, new byte[10]);
+        metricsRecorder.transferred(IMAGE_ID, "zosmf", ZosMetricsRecorder.DIRECTION_RECEIVED, "");
+        Map<String, Double> values = metricsRecorder.drain();
+        Assert.assertEquals("increment() should add to the counter", 3.0, values.get("api_errors.SERVER.zosmf.restfiles/ds.total"), 0);
+        Assert.assertEquals("transferred() should add the length of text content in bytes", 9.0, values.get("file_transferred_bytes.IMAGE.zosmf.sent.total"), 0);
+        Assert.assertEquals("transferred() should add the length of binary content", 10.0, values.get("file_transferred_bytes.IMAGE.zosmf.received.total"), 0);
+    }
+
+    @Test
+    public void testTransferredText() {
+        String text = "a\u00a3\u20ac\ud83d\ude00\ud83d";
+        metricsRecorder.transferred(IMAGE_ID, "zosmf", ZosMetricsRecorder.DIRECTION_SENT, text);
+        Map<String, Double> values = metricsRecorder.drain();
+        Assert.assertEquals("transferred() should add the length of text content in UTF-8 bytes", text.getBytes(StandardCharsets.UTF_8).length, values.get("file_transferred_bytes.IMAGE.zosmf.sent.total"), 0);
+    }
+
+    @Test
+    public void testDrainWhileRecording() throws InterruptedException {
+        Thread recorder = new Thread(() -> {
+            for (int i = 0; i < 100000; i++) {
+                metricsRecorder.increment(Metric.SLOT_RETRIES, 1, IMAGE_ID);
+            }
+        });
+        recorder.start();
+        double total = 0;
+        while (recorder.isAlive()) {
+            total += metricsRecorder.drain().getOrDefault("slot_retries.IMAGE.total", 0.0);
+        }
+        recorder.join();
+        total += metricsRecorder.drain().getOrDefault("slot_retries.IMAGE.total", 0.0);
+        Assert.assertEquals("drain() should not lose values added while draining", 100000.0, total, 0);
+    }
+
+    @Test
+    public void testLabels() {
+        metricsRecorder.increment(Metric.SLOT_RETRIES, 1, "IMAGE.1");
+        metricsRecorder.increment(Metric.SLOT_RETRIES, 1, (String) null);
+        Map<String, Double> values = metricsRecorder.drain();
+        Assert.assertTrue("increment() should replace characters that are not valid in a label", values.containsKey("slot_retries.IMAGE_1.total"));
+        Assert.assertTrue("increment() should replace a null label", values.containsKey("slot_retries.unknown.total"));
+
+        String expectedMessage = "Metric slot_retries requires 1 labels";
+        IllegalArgumentException expectedException = Assert.assertThrows("expected exception should be thrown", IllegalArgumentException.class, ()->{
+            metricsRecorder.increment(Metric.SLOT_RETRIES, 1, IMAGE_ID, "extra");
+        });
+        Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
+
+        expectedMessage = "Metric slot_retries is not a histogram";
+        expectedException = Assert.assertThrows("expected exception should be thrown", IllegalArgumentException.class, ()->{
+            metricsRecorder.observe(Metric.SLOT_RETRIES, 1, IMAGE_ID);
+        });
+        Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
+    }
+
+    @Test
+    public void testEndpoint() {
+        Assert.assertEquals("endpoint() should return the expected value", "restfiles/ds", ZosMetricsRecorder.endpoint("/zosmf/restfiles/ds/DATA.SET?X-IBM-Max-Items=0", "/zosmf/", 2));
+        Assert.assertEquals("endpoint() should return the expected value", "restjobs", ZosMetricsRecorder.endpoint("/zosmf/restjobs?owner=USER", "/zosmf/", 2));
+        Assert.assertEquals("endpoint() should return the expected value", "datasets", ZosMetricsRecorder.endpoint("/rseapi/api/v1/datasets/DATA.SET", "/rseapi/api/v1/", 1));
+        Assert.assertEquals("endpoint() should return the expected value", "other", ZosMetricsRecorder.endpoint("/other/path", "/zosmf/", 2));
+        Assert.assertEquals("endpoint() should return the expected value", "other", ZosMetricsRecorder.endpoint(null, "/zosmf/", 2));
+    }
+
+    @Test
+    public void testFlush() throws DynamicStatusStoreException {
+        IDynamicStatusStoreService dssMock = Mockito.mock(IDynamicStatusStoreService.class);
+        metricsRecorder.flush(dssMock, "U1");
+        Mockito.verifyNoInteractions(dssMock);
+
+        metricsRecorder.increment(Metric.SLOT_RETRIES, 1, IMAGE_ID);
+        metricsRecorder.flush(dssMock, "U1");
+        Mockito.verify(dssMock).put(ArgumentMatchers.<Map<String, String>>argThat(properties -> properties.size() == 1
+                && properties.keySet().iterator().next().matches("metrics\\.zos\\.run\\.U1\\.\\d+\\.slot_retries\\.IMAGE\\.total")
+                && "1.0".equals(properties.values().iterator().next())));
+        Assert.assertTrue("flush() should remove the values", metricsRecorder.drain().isEmpty());
+    }
+}
@@ -5,7 +5,13 @@
  */
 package dev.galasa.zosbatch.internal;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -54,6 +60,94 @@ public class TestZosBatchJobOutputImpl {
         Assert.assertEquals("getJobid() should return the supplied value", JOBID, zosBatchJobOutput.getJobid());
         Assert.assertEquals("toString() should return the supplied values of JOBNAME_JOBID", JOBNAME + "_" + JOBID, zosBatchJobOutput.toString());
     }
+    @Test
+    public void testLoadSpoolFiles() throws ZosBatchException {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        zosBatchJobOutput.addJcl(() -> {
+            threads.add(Thread.currentThread().getName());
+            return "JCL";
+        });
+        for (int i = 0; i < 20; i++) {
+            zosBatchJobOutput.addSpoolFile(STEPNAME, PROCSTEP, DDNAME + i, () -> {
+                threads.add(Thread.currentThread().getName());
+                return RECORDS;
+            });
+        }
+        Assert.assertTrue("spool files should not be retrieved until needed", threads.isEmpty());
+        zosBatchJobOutput.loadSpoolFiles();
+        Assert.assertFalse("spool files should not be retrieved by the caller", threads.contains(Thread.currentThread().getName()));
+        Assert.assertEquals("toList() should return the loaded records", "JCL", zosBatchJobOutput.toList().get(0));
+        Assert.assertEquals("toList() should return the loaded records", RECORDS, zosBatchJobOutput.toList().get(20));
+        
+        zosBatchJobOutput.addSpoolFile(STEPNAME, PROCSTEP, DDNAME, () -> null);
+        zosBatchJobOutput.loadSpoolFiles();
+        Assert.assertEquals("spool files that no longer exist should be removed", 21, zosBatchJobOutput.size());
+        
+        zosBatchJobOutput.addSpoolFile(STEPNAME, PROCSTEP, DDNAME, () -> {
+            throw new ZosBatchException("exception");
+        });
+        zosBatchJobOutput.addSpoolFile(STEPNAME, PROCSTEP, DDNAME, () -> RECORDS);
+        ZosBatchException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, ()->{
+        	zosBatchJobOutput.loadSpoolFiles();
+        });
+        Assert.assertEquals("exception should contain expected message", "exception", expectedException.getMessage());
+    }
+    
+    @Test
+    public void testGetSpoolFile() throws ZosBatchException {
+        Set<String> loaded = ConcurrentHashMap.newKeySet();
+        zosBatchJobOutput.addSpoolFile(STEPNAME, PROCSTEP, DDNAME + "MISSING", () -> {
+            loaded.add(DDNAME + "MISSING");
+            return null;
+        });
+        for (int i = 0; i < 3; i++) {
+            String ddname = DDNAME + i;
+            zosBatchJobOutput.addSpoolFile(STEPNAME, PROCSTEP, ddname, () -> {
+                loaded.add(ddname);
+                return RECORDS;
+            });
+        }
+        IZosBatchJobOutputSpoolFile spoolFile = zosBatchJobOutput.getSpoolFile(DDNAME + "1");
+        Assert.assertEquals("getSpoolFile() should return the spool file with the DD name", DDNAME + "1", spoolFile.getDdname());
+        Assert.assertTrue("getSpoolFile() should retrieve the records", ((ZosBatchJobOutputSpoolFileImpl) spoolFile).isLoaded());
+        Assert.assertEquals("getSpoolFile() should only retrieve the records of the spool file", 1, loaded.size());
+        Assert.assertNull("getSpoolFile() should return null for an unknown DD name", zosBatchJobOutput.getSpoolFile("DUMMY"));
+        
+        Assert.assertNull("getSpoolFile() should return null for a spool file that no longer exists", zosBatchJobOutput.getSpoolFile(DDNAME + "MISSING"));
+        Assert.assertEquals("spool files that no longer exist should be removed", 3, zosBatchJobOutput.size());
+        
+        zosBatchJobOutput.addSpoolFile(STEPNAME, PROCSTEP, DDNAME + "FAIL", () -> {
+            throw new ZosBatchException("exception");
+        });
+        ZosBatchException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, ()->{
+        	zosBatchJobOutput.getSpoolFile(DDNAME + "FAIL");
+        });
+        Assert.assertEquals("exception should contain expected message", "exception", expectedException.getMessage());
+    }
+    
+    @Test
+    public void testStoreSpoolFiles() throws ZosBatchException {
+        Map<String, String> stored = new ConcurrentHashMap<>();
+        zosBatchJobOutput.addJcl(() -> "JCL");
+        for (int i = 0; i < 20; i++) {
+            zosBatchJobOutput.addSpoolFile(STEPNAME, PROCSTEP, DDNAME + i, () -> RECORDS);
+        }
+        zosBatchJobOutput.addSpoolFile(STEPNAME, PROCSTEP, DDNAME + "MISSING", () -> null);
+        zosBatchJobOutput.storeSpoolFiles((spoolFile, records) -> {
+            stored.put(spoolFile.getDdname(), new BufferedReader(new InputStreamReader(records)).lines().collect(Collectors.joining("\n")));
+        });
+        Assert.assertEquals("storeSpoolFiles() should store every spool file that exists", 21, stored.size());
+        Assert.assertEquals("storeSpoolFiles() should store the records", RECORDS, stored.get(DDNAME + "19"));
+        Assert.assertFalse("stored spool files should not be kept", ((ZosBatchJobOutputSpoolFileImpl) zosBatchJobOutput.getSpoolFiles().get(1)).isLoaded());
+        
+        ZosBatchException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, ()->{
+        	zosBatchJobOutput.storeSpoolFiles((spoolFile, records) -> {
+        	    throw new ZosBatchException("exception");
+        	});
+        });
+        Assert.assertEquals("exception should contain expected message", "exception", expectedException.getMessage());
+    }
+    
     @Test
     public void testGetSpoolFiles() throws ZosBatchException {
         zosBatchJobOutput.addJcl("JCL");
@@ -5,11 +5,15 @@
  */
 package dev.galasa.zosbatch.internal;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import dev.galasa.zosbatch.ZosBatchException;
+
 @RunWith(MockitoJUnitRunner.class)
 public class TestZosBatchJobOutputSpoolFileImpl { 
 
@@ -49,4 +53,36 @@ public class TestZosBatchJobOutputSpoolFileImpl {
         String expectedString = "JOB=" + JOBNAME + " JOBID=" + JOBID + " STEP=" + STEPNAME +  " PROCSTEP=" + PROCSTEP + " DDNAME=" + DDNAME;
         Assert.assertEquals("toString() should return the values of JOBNAME JOBID STEPNAME PROCSTEP DDNAME", expectedString , zosBatchJobOutputSpoolFile.toString());
     }
+    
+    @Test
+    public void testLoaderConstructor() throws ZosBatchException {
+        AtomicInteger loads = new AtomicInteger();
+        ZosBatchJobOutputSpoolFileImpl zosBatchJobOutputSpoolFile = new ZosBatchJobOutputSpoolFileImpl(JOBNAME, JOBID, STEPNAME, PROCSTEP, DDNAME, () -> {
+            loads.incrementAndGet();
+            return RECORDS;
+        });
+        Assert.assertEquals("getDdname() should return the supplied value", DDNAME, zosBatchJobOutputSpoolFile.getDdname());
+        Assert.assertFalse("isLoaded() should return false", zosBatchJobOutputSpoolFile.isLoaded());
+        Assert.assertEquals("records should not be retrieved until needed", 0, loads.get());
+        Assert.assertEquals("getRecords() should return the loaded value", RECORDS, zosBatchJobOutputSpoolFile.getRecords());
+        Assert.assertEquals("loadRecords() should return the loaded value", RECORDS, zosBatchJobOutputSpoolFile.loadRecords());
+        Assert.assertTrue("isLoaded() should return true", zosBatchJobOutputSpoolFile.isLoaded());
+        Assert.assertEquals("records should be retrieved once", 1, loads.get());
+        
+        zosBatchJobOutputSpoolFile = new ZosBatchJobOutputSpoolFileImpl(JOBNAME, JOBID, () -> null);
+        Assert.assertEquals("getRecords() should return an empty String", "", zosBatchJobOutputSpoolFile.getRecords());
+        Assert.assertTrue("isMissing() should return true", zosBatchJobOutputSpoolFile.isMissing());
+        Assert.assertNull("openRecords() should return null", zosBatchJobOutputSpoolFile.openRecords());
+        
+        ZosBatchJobOutputSpoolFileImpl failingSpoolFile = new ZosBatchJobOutputSpoolFileImpl(JOBNAME, JOBID, () -> {
+            throw new ZosBatchException("exception");
+        });
+        Assert.assertNull("getRecords() should return null", failingSpoolFile.getRecords());
+        ZosBatchException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, ()->{
+            failingSpoolFile.retrieveRecords();
+        });
+        Assert.assertEquals("exception should contain expected message", "exception", expectedException.getMessage());
+        Assert.assertFalse("isLoaded() should return false", failingSpoolFile.isLoaded());
+        Assert.assertFalse("isMissing() should return false", failingSpoolFile.isMissing());
+    }
 }
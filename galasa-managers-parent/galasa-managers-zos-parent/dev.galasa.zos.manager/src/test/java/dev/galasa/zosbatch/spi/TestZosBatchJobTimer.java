@@ -0,0 +1,63 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosbatch.spi;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import dev.galasa.zos.spi.ZosMetricsRecorder;
+import dev.galasa.zosbatch.IZosBatchJob.JobStatus;
+
+public class TestZosBatchJobTimer {
+
+    private AtomicLong clock;
+
+    private ZosMetricsRecorder metricsRecorder;
+
+    private ZosBatchJobTimer timer;
+
+    @Before
+    public void setup() {
+        metricsRecorder = new ZosMetricsRecorder();
+        clock = new AtomicLong(0);
+        timer = new ZosBatchJobTimer(metricsRecorder, "IMAGE", clock::get);
+    }
+
+    @Test
+    public void testQueueAndExecution() {
+        timer.status(JobStatus.OUTPUT);
+        Assert.assertTrue("status() should not record a job that has not been submitted", metricsRecorder.drain().isEmpty());
+
+        timer.submitted();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        timer.status(JobStatus.INPUT);
+        timer.status(JobStatus.ACTIVE);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(20));
+        timer.status(JobStatus.ACTIVE);
+        timer.status(JobStatus.OUTPUT);
+        timer.status(JobStatus.OUTPUT);
+        Map<String, Double> values = metricsRecorder.drain();
+        Assert.assertEquals("status() should record the queue time once", 1.0, values.get("batch_job_queue.IMAGE.count"), 0);
+        Assert.assertEquals("status() should record the queue time", 3.0, values.get("batch_job_queue.IMAGE.sum"), 0);
+        Assert.assertEquals("status() should record the execution time once", 1.0, values.get("batch_job_execution.IMAGE.count"), 0);
+        Assert.assertEquals("status() should record the execution time", 20.0, values.get("batch_job_execution.IMAGE.sum"), 0);
+    }
+
+    @Test
+    public void testNotSeenActive() {
+        timer.submitted();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        timer.status(JobStatus.OUTPUT);
+        Map<String, Double> values = metricsRecorder.drain();
+        Assert.assertEquals("status() should record all the time as queue time", 5.0, values.get("batch_job_queue.IMAGE.sum"), 0);
+        Assert.assertEquals("status() should record no execution time", 0.0, values.get("batch_job_execution.IMAGE.sum"), 0);
+    }
+}
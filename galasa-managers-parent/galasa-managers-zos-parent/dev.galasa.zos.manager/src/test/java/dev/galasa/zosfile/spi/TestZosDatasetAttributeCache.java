@@ -0,0 +1,75 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosfile.spi;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestZosDatasetAttributeCache {
+
+    private AtomicLong clock;
+
+    private ZosDatasetAttributeCache cache;
+
+    private static final String DATASET_NAME = "DATA.SET.NAME";
+
+    private static final String ATTRIBUTE_SET = "base";
+
+    private static final String ATTRIBUTES = "ATTRIBUTES";
+
+    @Before
+    public void setup() {
+        clock = new AtomicLong(1000);
+        cache = new ZosDatasetAttributeCache(30, clock::get);
+    }
+
+    @Test
+    public void testGetAndPut() {
+        Assert.assertNull("get() should return null when nothing is cached", cache.get(DATASET_NAME, ATTRIBUTE_SET, String.class));
+        cache.put(DATASET_NAME, ATTRIBUTE_SET, ATTRIBUTES);
+        Assert.assertEquals("get() should return the cached value", ATTRIBUTES, cache.get(DATASET_NAME, ATTRIBUTE_SET, String.class));
+        Assert.assertNull("get() should return null for another attribute set", cache.get(DATASET_NAME, "listdsi", String.class));
+        Assert.assertNull("get() should return null for another type", cache.get(DATASET_NAME, ATTRIBUTE_SET, Integer.class));
+        Assert.assertEquals("getHitCount() should return the expected value", 1, cache.getHitCount());
+        Assert.assertEquals("getMissCount() should return the expected value", 3, cache.getMissCount());
+        Assert.assertEquals("toString() should return the expected value", "hits=1, misses=3", cache.toString());
+    }
+
+    @Test
+    public void testExpiry() {
+        cache.put(DATASET_NAME, ATTRIBUTE_SET, ATTRIBUTES);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        Assert.assertEquals("get() should return the cached value", ATTRIBUTES, cache.get(DATASET_NAME, ATTRIBUTE_SET, String.class));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        Assert.assertNull("get() should return null when the value has expired", cache.get(DATASET_NAME, ATTRIBUTE_SET, String.class));
+    }
+
+    @Test
+    public void testInvalidate() {
+        cache.put(DATASET_NAME, ATTRIBUTE_SET, ATTRIBUTES);
+        cache.put(DATASET_NAME, "listdsi", ATTRIBUTES);
+        cache.put("OTHER.DATA.SET", ATTRIBUTE_SET, ATTRIBUTES);
+        cache.invalidate(DATASET_NAME);
+        Assert.assertNull("get() should return null after invalidate()", cache.get(DATASET_NAME, ATTRIBUTE_SET, String.class));
+        Assert.assertNull("get() should return null after invalidate()", cache.get(DATASET_NAME, "listdsi", String.class));
+        Assert.assertEquals("get() should return the cached value of other data sets", ATTRIBUTES, cache.get("OTHER.DATA.SET", ATTRIBUTE_SET, String.class));
+        cache.invalidateAll();
+        Assert.assertNull("get() should return null after invalidateAll()", cache.get("OTHER.DATA.SET", ATTRIBUTE_SET, String.class));
+    }
+
+    @Test
+    public void testDisabled() {
+        cache = new ZosDatasetAttributeCache(0);
+        Assert.assertFalse("isEnabled() should return false", cache.isEnabled());
+        cache.put(DATASET_NAME, ATTRIBUTE_SET, ATTRIBUTES);
+        Assert.assertNull("get() should return null when the cache is off", cache.get(DATASET_NAME, ATTRIBUTE_SET, String.class));
+        Assert.assertEquals("getMissCount() should not count when the cache is off", 0, cache.getMissCount());
+    }
+}
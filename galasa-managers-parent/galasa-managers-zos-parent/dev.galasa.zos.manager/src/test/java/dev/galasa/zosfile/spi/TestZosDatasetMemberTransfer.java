@@ -0,0 +1,115 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosfile.spi;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import dev.galasa.zosfile.IZosDataset;
+import dev.galasa.zosfile.ZosDatasetException;
+
+public class TestZosDatasetMemberTransfer {
+
+    private ZosDatasetMemberTransfer memberTransfer;
+
+    private IZosDataset datasetMock;
+
+    private static final String IMAGE = "IMAGE";
+
+    private static final String DATASET_NAME = "DATA.SET.NAME";
+
+    private static final String CONTENT = "content";
+
+    @Before
+    public void setup() throws ZosDatasetException {
+        memberTransfer = new ZosDatasetMemberTransfer(IMAGE, 2);
+        datasetMock = Mockito.mock(IZosDataset.class);
+        Mockito.when(datasetMock.getName()).thenReturn(DATASET_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        memberTransfer.shutdown();
+    }
+
+    @Test
+    public void testCheckMemberTransfer() throws ZosDatasetException {
+        Mockito.when(datasetMock.exists()).thenReturn(true);
+        Mockito.when(datasetMock.isPDS()).thenReturn(true);
+        memberTransfer.checkMemberTransfer(datasetMock);
+
+        Mockito.when(datasetMock.isPDS()).thenReturn(false);
+        ZosDatasetException expectedException = Assert.assertThrows("expected exception should be thrown", ZosDatasetException.class, ()->{
+            memberTransfer.checkMemberTransfer(datasetMock);
+        });
+        Assert.assertEquals("exception should contain expected message", "Data set \"" + DATASET_NAME + "\" is not a partitioned data set", expectedException.getMessage());
+
+        Mockito.when(datasetMock.exists()).thenReturn(false);
+        expectedException = Assert.assertThrows("expected exception should be thrown", ZosDatasetException.class, ()->{
+            memberTransfer.checkMemberTransfer(datasetMock);
+        });
+        Assert.assertEquals("exception should contain expected message", "Data set \"" + DATASET_NAME + "\" does not exist on image " + IMAGE, expectedException.getMessage());
+    }
+
+    @Test
+    public void testTransferMembers() throws ZosDatasetException {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<String> memberNames = new ArrayList<>();
+        for (int i = 9; i >= 0; i--) {
+            memberNames.add("MEMBER" + i);
+        }
+        Map<String, String> results = memberTransfer.transferMembers(datasetMock, memberNames, memberName -> {
+            threads.add(Thread.currentThread().getName());
+            return memberName.toLowerCase();
+        });
+        Assert.assertEquals("transferMembers() should return the members in order", memberNames, new ArrayList<>(results.keySet()));
+        Assert.assertEquals("transferMembers() should return the result of each transfer", "member3", results.get("MEMBER3"));
+        Assert.assertEquals("transferMembers() should use the threads for the image", Collections.singleton("zosfile-member-transfer-" + IMAGE), threads);
+
+        threads.clear();
+        memberTransfer.transferMembers(datasetMock, Arrays.asList("MEMBER"), memberName -> {
+            threads.add(Thread.currentThread().getName());
+            return null;
+        });
+        Assert.assertTrue("transferMembers() should transfer a single member on the calling thread", threads.contains(Thread.currentThread().getName()));
+
+        ZosDatasetException expectedException = Assert.assertThrows("expected exception should be thrown", ZosDatasetException.class, ()->{
+            memberTransfer.transferMembers(datasetMock, memberNames, memberName -> {
+                throw new ZosDatasetException(memberName);
+            });
+        });
+        Assert.assertEquals("exception should contain expected message", "MEMBER9", expectedException.getMessage());
+
+        memberTransfer.shutdown();
+        expectedException = Assert.assertThrows("expected exception should be thrown", ZosDatasetException.class, ()->{
+            memberTransfer.transferMembers(datasetMock, memberNames, memberName -> null);
+        });
+        Assert.assertEquals("exception should contain expected message", "Unable to transfer members after the end of the test run on image " + IMAGE, expectedException.getMessage());
+    }
+
+    @Test
+    public void testContent() throws ZosDatasetException {
+        Assert.assertEquals("contentAsText() should return the supplied value", CONTENT, ZosDatasetMemberTransfer.contentAsText(CONTENT));
+        Assert.assertEquals("contentAsText() should return the supplied value", CONTENT, ZosDatasetMemberTransfer.contentAsText(CONTENT.getBytes()));
+        Assert.assertEquals("contentAsText() should return the supplied value", CONTENT, ZosDatasetMemberTransfer.contentAsText(new ByteArrayInputStream(CONTENT.getBytes())));
+
+        Assert.assertArrayEquals("contentAsBinary() should return the supplied value", CONTENT.getBytes(), ZosDatasetMemberTransfer.contentAsBinary(CONTENT));
+        Assert.assertArrayEquals("contentAsBinary() should return the supplied value", CONTENT.getBytes(), ZosDatasetMemberTransfer.contentAsBinary(CONTENT.getBytes()));
+        Assert.assertArrayEquals("contentAsBinary() should return the supplied value", CONTENT.getBytes(), ZosDatasetMemberTransfer.contentAsBinary(new ByteArrayInputStream(CONTENT.getBytes())));
+    }
+}
@@ -65,4 +65,15 @@ public class FieldContents {
         return this.chars;
     }
 
+    /**
+     * Get the field characters as text, without creating an array of
+     * characters
+     * 
+     * @return the text, or null if the field contains nulls, use
+     *         {@link #getChars()} instead
+     */
+    public String getText() {
+        return this.text;
+    }
+
 }
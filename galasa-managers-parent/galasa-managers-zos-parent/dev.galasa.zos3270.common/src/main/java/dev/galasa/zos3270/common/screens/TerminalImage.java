@@ -32,6 +32,8 @@ public class TerminalImage {
     private final String              aid;
     private final List<TerminalField> fields = new ArrayList<>();
 
+    private boolean                   delta;                     // *** fields only contains the changed fields
+
     /**
      * Constructor
      * 
@@ -135,4 +137,24 @@ public class TerminalImage {
         return cursorRow;
     }
 
+    /**
+     * Is this a delta image, where the fields only contain the fields that have
+     * changed since the previous image. Use {@link TerminalImageDeltas} to
+     * reconstruct the full image.
+     * 
+     * @return delta
+     */
+    public boolean isDelta() {
+        return delta;
+    }
+
+    /**
+     * Set whether this is a delta image
+     * 
+     * @param delta true if the fields only contain the changed fields
+     */
+    public void setDelta(boolean delta) {
+        this.delta = delta;
+    }
+
 }
@@ -0,0 +1,181 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos3270.common.screens;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Converts terminal images to and from delta images.
+ *
+ * An image is stored as a delta when it has the same size and the same field
+ * positions as the previous image, the delta image only contains the fields
+ * whose attributes or contents have changed. The first image of a set is
+ * always a full image, so each {@link Terminal} can be reconstructed on its
+ * own.
+ *
+ */
+public class TerminalImageDeltas {
+
+    private TerminalImageDeltas() {
+    }
+
+    /**
+     * Convert a set of full images to delta images where possible
+     *
+     * @param images full images, in sequence order
+     * @return the images with all but the first converted to deltas where the
+     *         field positions have not changed
+     */
+    public static @NotNull List<TerminalImage> encode(@NotNull List<TerminalImage> images) {
+        ArrayList<TerminalImage> encoded = new ArrayList<>(images.size());
+
+        TerminalImage previous = null;
+        for (TerminalImage image : images) {
+            if (previous == null || !sameLayout(previous, image)) {
+                encoded.add(image);
+            } else {
+                TerminalImage delta = copyImage(image);
+                delta.setDelta(true);
+                for (int i = 0; i < image.getFields().size(); i++) {
+                    TerminalField field = image.getFields().get(i);
+                    if (!sameField(previous.getFields().get(i), field)) {
+                        delta.getFields().add(field);
+                    }
+                }
+                encoded.add(delta);
+            }
+            previous = image;
+        }
+
+        return encoded;
+    }
+
+    /**
+     * Reconstruct the full images from a set of images that may contain deltas
+     *
+     * @param images images in sequence order, the first must be a full image
+     * @return the full images
+     * @throws IllegalArgumentException if a delta image does not match the image before it
+     */
+    public static @NotNull List<TerminalImage> decode(@NotNull List<TerminalImage> images) {
+        ArrayList<TerminalImage> decoded = new ArrayList<>(images.size());
+
+        TerminalImage previous = null;
+        for (TerminalImage image : images) {
+            if (!image.isDelta()) {
+                decoded.add(image);
+                previous = image;
+                continue;
+            }
+
+            if (previous == null) {
+                throw new IllegalArgumentException("Delta image " + image.getId() + " has no previous image");
+            }
+
+            HashMap<Integer, Integer> fieldIndex = new HashMap<>();
+            for (int i = 0; i < previous.getFields().size(); i++) {
+                TerminalField field = previous.getFields().get(i);
+                fieldIndex.put(position(field), i);
+            }
+
+            ArrayList<TerminalField> fields = new ArrayList<>(previous.getFields());
+            for (TerminalField field : image.getFields()) {
+                Integer i = fieldIndex.get(position(field));
+                if (i == null) {
+                    throw new IllegalArgumentException("Delta image " + image.getId() + " has a field at row "
+                            + field.getRow() + " column " + field.getColumn() + " not in the previous image");
+                }
+                fields.set(i, field);
+            }
+
+            TerminalImage full = copyImage(image);
+            full.getFields().addAll(fields);
+            decoded.add(full);
+            previous = full;
+        }
+
+        return decoded;
+    }
+
+    /**
+     * Reconstruct the full images of a terminal
+     *
+     * @param terminal a terminal that may contain delta images
+     * @return a new terminal with full images
+     * @throws IllegalArgumentException if a delta image does not match the image before it
+     */
+    public static @NotNull Terminal decode(@NotNull Terminal terminal) {
+        Terminal decoded = new Terminal(terminal.getId(), terminal.getRunId(), terminal.getSequence(),
+                terminal.getDefaultSize());
+        decoded.getImages().addAll(decode(terminal.getImages()));
+        return decoded;
+    }
+
+    private static TerminalImage copyImage(TerminalImage image) {
+        return new TerminalImage(image.getSequence(), image.getId(), image.isInbound(), image.getType(),
+                image.getAid(), image.getImageSize(), image.getCursorColumn(), image.getCursorRow());
+    }
+
+    private static int position(TerminalField field) {
+        return (field.getRow() << 16) | field.getColumn();
+    }
+
+    private static boolean sameLayout(TerminalImage previous, TerminalImage image) {
+        if (!sameSize(previous.getImageSize(), image.getImageSize())) {
+            return false;
+        }
+
+        List<TerminalField> previousFields = previous.getFields();
+        List<TerminalField> fields = image.getFields();
+        if (previousFields.size() != fields.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < fields.size(); i++) {
+            if (position(previousFields.get(i)) != position(fields.get(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean sameSize(TerminalSize a, TerminalSize b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.getColumns() == b.getColumns() && a.getRows() == b.getRows();
+    }
+
+    private static boolean sameField(TerminalField a, TerminalField b) {
+        if (a.isUnformatted() != b.isUnformatted() || a.isFieldProtected() != b.isFieldProtected()
+                || a.isFieldNumeric() != b.isFieldNumeric() || a.isFieldDisplay() != b.isFieldDisplay()
+                || a.isFieldIntenseDisplay() != b.isFieldIntenseDisplay()
+                || a.isFieldSelectorPen() != b.isFieldSelectorPen() || a.isFieldModifed() != b.isFieldModifed()) {
+            return false;
+        }
+
+        List<FieldContents> aContents = a.getContents();
+        List<FieldContents> bContents = b.getContents();
+        if (aContents.size() != bContents.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < aContents.size(); i++) {
+            if (!Arrays.equals(aContents.get(i).getChars(), bContents.get(i).getChars())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+}
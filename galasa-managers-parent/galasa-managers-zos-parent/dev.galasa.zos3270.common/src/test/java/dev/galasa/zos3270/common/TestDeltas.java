@@ -0,0 +1,88 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos3270.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+import dev.galasa.zos3270.common.screens.FieldContents;
+import dev.galasa.zos3270.common.screens.Terminal;
+import dev.galasa.zos3270.common.screens.TerminalField;
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalImageDeltas;
+import dev.galasa.zos3270.common.screens.TerminalSize;
+
+public class TestDeltas {
+
+    private TerminalImage createImage(int sequence, String... fieldTexts) {
+        TerminalImage image = new TerminalImage(sequence, "bob-" + sequence, true, null, null,
+                new TerminalSize(80, 24), sequence, 0);
+        for (int i = 0; i < fieldTexts.length; i++) {
+            TerminalField field = new TerminalField(i, 0, false, true, false, true, false, false, false);
+            Character[] chars = new Character[fieldTexts[i].length()];
+            for (int c = 0; c < chars.length; c++) {
+                chars[c] = fieldTexts[i].charAt(c);
+            }
+            field.getContents().add(new FieldContents(chars));
+            image.getFields().add(field);
+        }
+        return image;
+    }
+
+    /**
+     * Check that only changed fields are stored and the full images can be rebuilt
+     */
+    @Test
+    public void testEncodeAndDecode() {
+        List<TerminalImage> images = new ArrayList<>();
+        images.add(createImage(1, "MENU", "OPTION ONE", "OPTION TWO"));
+        images.add(createImage(2, "MENU", "OPTION ONE", "OPTION TWO"));
+        images.add(createImage(3, "MENU", "OPTION 111", "OPTION TWO"));
+        images.add(createImage(4, "NEW SCREEN", "WITH FEWER FIELDS"));
+        images.add(createImage(5, "NEW SCREEN", "WITH CHANGED FIELD"));
+
+        List<TerminalImage> encoded = TerminalImageDeltas.encode(images);
+
+        assertThat(encoded.get(0).isDelta()).isFalse();
+        assertThat(encoded.get(1).isDelta()).isTrue();
+        assertThat(encoded.get(1).getFields()).as("cursor only change should have no fields").isEmpty();
+        assertThat(encoded.get(1).getCursorColumn()).isEqualTo(2);
+        assertThat(encoded.get(2).isDelta()).isTrue();
+        assertThat(encoded.get(2).getFields()).hasSize(1);
+        assertThat(encoded.get(2).getFields().get(0).getRow()).isEqualTo(1);
+        assertThat(encoded.get(3).isDelta()).as("different field layout should be a full image").isFalse();
+        assertThat(encoded.get(4).isDelta()).isTrue();
+
+        Terminal terminal = new Terminal("bob", "run", 1, new TerminalSize(80, 24));
+        terminal.getImages().addAll(encoded);
+
+        Gson gson = new Gson();
+        Terminal readBack = gson.fromJson(gson.toJson(terminal), Terminal.class);
+        Terminal decoded = TerminalImageDeltas.decode(readBack);
+
+        assertThat(decoded.getImages()).hasSize(images.size());
+        for (int i = 0; i < images.size(); i++) {
+            TerminalImage expected = images.get(i);
+            TerminalImage actual = decoded.getImages().get(i);
+
+            assertThat(actual.isDelta()).isFalse();
+            assertThat(actual.getSequence()).isEqualTo(expected.getSequence());
+            assertThat(actual.getCursorColumn()).isEqualTo(expected.getCursorColumn());
+            assertThat(actual.getFields()).hasSameSizeAs(expected.getFields());
+            for (int f = 0; f < expected.getFields().size(); f++) {
+                assertThat(actual.getFields().get(f).getContents().get(0).getChars())
+                        .isEqualTo(expected.getFields().get(f).getContents().get(0).getChars());
+            }
+        }
+    }
+
+}
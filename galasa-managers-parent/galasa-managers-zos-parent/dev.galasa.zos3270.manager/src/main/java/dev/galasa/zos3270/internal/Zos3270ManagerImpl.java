@@ -188,6 +188,7 @@ public class Zos3270ManagerImpl extends AbstractGherkinManager implements IZos32
         for (Zos3270TerminalImpl terminal : terminals) {
             try {
                 terminal.flushTerminalCache();
+                terminal.stopLiveTerminal();
                 terminal.disconnect();
             } catch (TerminalInterruptedException e) {
                 logger.warn("Thread interrupted whilst disconnecting terminals", e);
@@ -0,0 +1,206 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos3270.internal.comms;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zos3270.spi.NetworkException;
+
+/**
+ * A small pool of NIO selector threads that are shared by many
+ * {@link SelectorNetwork} connections, instead of a {@link NetworkThread} per
+ * terminal.
+ * <p>
+ * Each connection is assigned to one of the threads when it starts, and the
+ * connect, all reads, writes and TLS processing for the connection happen on
+ * that thread. The inbound messages are passed to
+ * {@link NetworkThread#processMessage} one at a time on a pool of worker
+ * threads, in order for each connection, so
+ * {@link dev.galasa.zos3270.spi.Screen} sees the same ordering as with a
+ * dedicated thread and a slow terminal does not hold up the others on the
+ * selector thread.
+ * </p>
+ */
+public class NetworkSelector {
+
+    private static final long      KEEP_ALIVE_CHECK = 5000;
+
+    private final Log              logger           = LogFactory.getLog(getClass());
+
+    private final SelectorThread[] threads;
+    private final AtomicInteger    nextThread       = new AtomicInteger();
+    private final ExecutorService  workers;
+
+    /**
+     * @param noOfThreads - the number of selector threads to share the connections over
+     * @throws NetworkException - if the selectors cannot be opened
+     */
+    public NetworkSelector(int noOfThreads) throws NetworkException {
+        if (noOfThreads < 1) {
+            throw new NetworkException("The number of selector threads must be at least 1");
+        }
+
+        this.threads = new SelectorThread[noOfThreads];
+        try {
+            for (int i = 0; i < noOfThreads; i++) {
+                this.threads[i] = new SelectorThread(i);
+            }
+        } catch (IOException e) {
+            for (SelectorThread thread : this.threads) {
+                if (thread != null) {
+                    try {
+                        thread.selector.close();
+                    } catch (IOException e1) {
+                        logger.error("Failed to close the 3270 network selector", e1);
+                    }
+                }
+            }
+            throw new NetworkException("Unable to open the 3270 network selector", e);
+        }
+
+        AtomicInteger workerNumber = new AtomicInteger();
+        this.workers = Executors.newCachedThreadPool(r -> {
+            Thread worker = new Thread(r, "3270 inbound " + workerNumber.getAndIncrement());
+            worker.setDaemon(true);
+            return worker;
+        });
+
+        for (SelectorThread thread : this.threads) {
+            thread.start();
+        }
+    }
+
+    /**
+     * @return an executor that processes the inbound messages of one network in order
+     */
+    SerialExecutor newInboundExecutor() {
+        return new SerialExecutor(this.workers);
+    }
+
+    /**
+     * Assign a network to one of the selector threads, and finish the connect or
+     * start reading from it
+     *
+     * @param network - the network
+     */
+    void register(SelectorNetwork network) {
+        int index = Math.floorMod(this.nextThread.getAndIncrement(), this.threads.length);
+        SelectorThread thread = this.threads[index];
+        network.setSelectorThread(thread);
+        thread.execute(() -> {
+            int ops = network.isConnectPending() ? SelectionKey.OP_CONNECT : SelectionKey.OP_READ;
+            try {
+                network.registered(network.getChannel().register(thread.selector, ops, network));
+            } catch (IOException e) {
+                network.failed(e);
+            }
+        });
+    }
+
+    /**
+     * Stop the selector threads, any networks still registered are closed
+     */
+    public void shutdown() {
+        for (SelectorThread thread : this.threads) {
+            thread.shutdown = true;
+            thread.selector.wakeup();
+        }
+        this.workers.shutdown();
+    }
+
+    class SelectorThread extends Thread {
+
+        private final Selector                        selector;
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private volatile boolean                      shutdown;
+
+        private SelectorThread(int id) throws IOException {
+            this.selector = Selector.open();
+            setName("3270 selector " + id);
+            setDaemon(true);
+        }
+
+        /**
+         * Run a task on the selector thread
+         *
+         * @param task - the task
+         */
+        void execute(Runnable task) {
+            this.tasks.add(task);
+            this.selector.wakeup();
+        }
+
+        boolean isSelectorThread() {
+            return Thread.currentThread() == this;
+        }
+
+        @Override
+        public void run() {
+            long nextKeepAlive = System.currentTimeMillis() + KEEP_ALIVE_CHECK;
+
+            while (!this.shutdown) {
+                try {
+                    this.selector.select(KEEP_ALIVE_CHECK);
+                } catch (IOException e) {
+                    logger.error("Problem with 3270 network selector", e);
+                    break;
+                }
+
+                Runnable task;
+                while ((task = this.tasks.poll()) != null) {
+                    task.run();
+                }
+
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    SelectorNetwork network = (SelectorNetwork) key.attachment();
+                    if (key.isValid() && key.isConnectable()) {
+                        network.channelConnectable();
+                    }
+                    if (key.isValid() && key.isReadable()) {
+                        network.channelReadable();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        network.channelWritable();
+                    }
+                }
+
+                if (System.currentTimeMillis() >= nextKeepAlive) {
+                    for (SelectionKey key : this.selector.keys()) {
+                        if (key.isValid()) {
+                            ((SelectorNetwork) key.attachment()).checkKeepAlive();
+                        }
+                    }
+                    nextKeepAlive = System.currentTimeMillis() + KEEP_ALIVE_CHECK;
+                }
+            }
+
+            for (SelectionKey key : this.selector.keys()) {
+                ((SelectorNetwork) key.attachment()).close();
+            }
+
+            try {
+                this.selector.close();
+            } catch (IOException e) {
+                logger.error("Failed to close the 3270 network selector", e);
+            }
+        }
+    }
+
+}
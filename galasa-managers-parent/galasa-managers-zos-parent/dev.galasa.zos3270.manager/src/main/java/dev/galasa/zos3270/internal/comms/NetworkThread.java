@@ -96,6 +96,8 @@ public class NetworkThread extends Thread {
 
     public static final Charset ascii7          = Charset.forName("us-ascii");
 
+    private static final int    INBOUND_BUFFER_SIZE = 32768;
+
     private InputStream inputStream;
     private final Screen      screen;
     private final Network     network;
@@ -111,7 +113,9 @@ public class NetworkThread extends Thread {
     private final ArrayList<String>  possibleDeviceTypes = new ArrayList<>();
     private String                   selectedDeviceType;
 
-    private ByteArrayOutputStream    commandSoFar;
+    private ByteBuffer               inbound         = ByteBuffer.allocate(INBOUND_BUFFER_SIZE);
+    private ByteBuffer               currentMessage;
+    private int                      currentMessageStart;
 
     public NetworkThread(Terminal terminal, Screen screen, Network network, InputStream inputStream) {
         this.screen = screen;
@@ -119,6 +123,8 @@ public class NetworkThread extends Thread {
         this.inputStream = inputStream;
         this.terminal = terminal;
 
+        this.inbound.limit(0);
+
         this.possibleDeviceTypes.add("IBM-DYNAMIC");
         this.possibleDeviceTypes.add("IBM-3278-2");
     }
@@ -141,6 +147,13 @@ public class NetworkThread extends Thread {
                 break;
             }
         }
+        inboundEnded();
+    }
+
+    /**
+     * Tell the screen and terminal the inbound datastream has ended
+     */
+    public void inboundEnded() {
         try {
             screen.networkClosed();
         } catch (TerminalInterruptedException e) {
@@ -151,74 +164,139 @@ public class NetworkThread extends Thread {
         terminal.networkClosed();
     }
 
+    /**
+     * Process the next complete message from the stream.  The stream is read in
+     * bulk into a reusable buffer, so any bytes after the message are kept for
+     * the next call
+     *
+     * @param messageStream - the inbound stream
+     * @throws IOException - if the stream fails
+     * @throws NetworkException - if the message is invalid
+     */
     public void processMessage(InputStream messageStream) throws IOException, NetworkException {
-        this.commandSoFar = new ByteArrayOutputStream();
+        int length;
+        while ((length = TelnetFramer.messageLength(this.inbound)) < 0) {
+            if (!readInbound(messageStream)) {
+                if (!this.inbound.hasRemaining()) {
+                    endOfStream = true;
+                    logger.trace("Terminal has been disconnected");
+                    return;
+                }
+                // *** The stream ended part way through a message, process what we have so the error is reported
+                length = this.inbound.remaining();
+                break;
+            }
+        }
 
-        Byte header = readByte(messageStream);
+        ByteBuffer message = this.inbound.slice();
+        message.limit(length);
+        this.inbound.position(this.inbound.position() + length);
+
+        processMessage(message);
+    }
+
+    /**
+     * Process a single framed message, as located by {@link TelnetFramer}.  The
+     * message is parsed in place, escaped IACs are removed by compacting the
+     * buffer, so the contents of the buffer are altered
+     *
+     * @param message - the message, from the position to the limit
+     * @throws IOException - if the stream fails
+     * @throws NetworkException - if the message is invalid
+     */
+    public void processMessage(ByteBuffer message) throws IOException, NetworkException {
+        this.currentMessage = message;
+        this.currentMessageStart = message.position();
+
+        Byte header = readByte(message);
         if (header == null) {
             return;
         }
 
         if (header == IAC) {
-            doIac(messageStream);
+            doIac(message);
             return;
         }
 
-        if (basicTelnetDatastream) {
-            this.telnetSessionStarted = true;  // must be started if receiving 3270
-
-            ByteBuffer buffer = readTerminatedMessage(header, messageStream);
+        this.telnetSessionStarted = true;  // must be started if receiving 3270
 
+        message.position(this.currentMessageStart);
+        ByteBuffer buffer = unescape(message, EOR);
+        if (buffer == null) {
+            throw new NetworkException("3270 message did not terminate with IAC EOR");
+        }
 
-            Inbound3270Message inbound3270Message = process3270Data(buffer);
-            this.screen.processInboundMessage(inbound3270Message);
-            return;
-        } else {
-            this.telnetSessionStarted = true;  // must be started if receiving 3270
-
-            ByteBuffer buffer = readTerminatedMessage(header, messageStream);
-
+        if (!basicTelnetDatastream) {
             if (buffer.remaining() < 5) {
                 throw new NetworkException("Missing 5 bytes of the TN3270E datastream header");
             }
 
             byte tn3270eHeader = buffer.get();
             if (tn3270eHeader != 0) {
-                throw new NetworkException("Was expecting a TN3270E datastream header of zeros - " + reportCommandSoFar());
+                throw new NetworkException("Was expecting a TN3270E datastream header of zeros - "
+                        + Hex.encodeHexString(new byte[] { tn3270eHeader }));
             }
 
-            buffer.get(new byte[4]);
+            buffer.position(5);
+        }
 
-            Inbound3270Message inbound3270Message = process3270Data(buffer);
-            this.screen.processInboundMessage(inbound3270Message);
-            return;
+        Inbound3270Message inbound3270Message = process3270Data(buffer);
+        this.screen.processInboundMessage(inbound3270Message);
+    }
+
+    /**
+     * Read as much as is available from the stream into the inbound buffer,
+     * growing the buffer if a message will not fit
+     *
+     * @return false if the stream has ended
+     */
+    private boolean readInbound(InputStream messageStream) throws IOException {
+        this.inbound.compact();
+        if (!this.inbound.hasRemaining()) {
+            ByteBuffer larger = ByteBuffer.allocate(this.inbound.capacity() * 2);
+            this.inbound.flip();
+            larger.put(this.inbound);
+            this.inbound = larger;
         }
+
+        int length;
+        try {
+            length = messageStream.read(this.inbound.array(), this.inbound.arrayOffset() + this.inbound.position(),
+                    this.inbound.remaining());
+            if (length > 0) {
+                this.inbound.position(this.inbound.position() + length);
+            }
+        } finally {
+            this.inbound.flip();
+        }
+
+        return length >= 0;
     }
 
-    private void doIac(InputStream messageStream) throws NetworkException, IOException {
-        Byte iac = readByte(messageStream);
+    private void doIac(ByteBuffer message) throws NetworkException, IOException {
+        Byte iac = readByte(message);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC terminated early - " + reportCommandSoFar());
         }
 
         if (iac == DO) {
-            doIacDo(messageStream);
+            doIacDo(message);
             return;
         }
         if (iac == DONT) {
-            doIacDont(messageStream);
+            doIacDont(message);
             return;
         }
         if (iac == SB) {
-            doIacSb(messageStream);
+            doIacSb(message);
             return;
         }
         if (iac == WILL) {
-            doIacWill(messageStream);
+            doIacWill(message);
             return;
         }
         if (iac == WONT) {
-            doIacWont(messageStream);
+            doIacWont(message);
             return;
         }
 
@@ -226,9 +304,12 @@ public class NetworkThread extends Thread {
         throw new NetworkException("Unrecognised IAC Command - " + reportCommandSoFar());
     }
 
-    private void doIacSb(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacSb(ByteBuffer message) throws NetworkException, IOException {
         // Read the whole SB SE command
-        ByteBuffer remainingSb = readTerminatedSB(messageStream);
+        ByteBuffer remainingSb = unescape(message, SE);
+        if (remainingSb == null) {
+            throw new NetworkException("IAC SB message did not terminate with IAC SE");
+        }
 
         byte sb = remainingSb.get();
 
@@ -248,8 +329,8 @@ public class NetworkThread extends Thread {
         throw new NetworkException("Unrecognised IAC SB Command - " + reportCommandSoFar());
     }
 
-    private void doIacWill(InputStream messageStream) throws NetworkException, IOException {
-        Byte will = readByte(messageStream);
+    private void doIacWill(ByteBuffer message) throws NetworkException, IOException {
+        Byte will = readByte(message);
         if (will == null) {
             throw new NetworkException("Unrecognised IAC WILL terminated early - " + reportCommandSoFar());
         }
@@ -257,8 +338,8 @@ public class NetworkThread extends Thread {
         throw new NetworkException("Unrecognised IAC WILL Command - " + reportCommandSoFar());
     }
 
-    private void doIacWont(InputStream messageStream) throws NetworkException, IOException {
-        Byte will = readByte(messageStream);
+    private void doIacWont(ByteBuffer message) throws NetworkException, IOException {
+        Byte will = readByte(message);
         if (will == null) {
             throw new NetworkException("Unrecognised IAC WONT terminated early - " + reportCommandSoFar());
         }
@@ -305,7 +386,9 @@ public class NetworkThread extends Thread {
         logger.trace("TN3270E switching to TLS");
 
         Socket newSocket = this.network.startTls();
-        this.inputStream = newSocket.getInputStream();
+        if (newSocket != null) {
+            this.inputStream = newSocket.getInputStream();
+        }
         this.network.switchedSSL(true);
 
 
@@ -523,34 +606,34 @@ public class NetworkThread extends Thread {
         }
     }
 
-    private void doIacDo(InputStream messageStream) throws NetworkException, IOException {
-        Byte iac = readByte(messageStream);
+    private void doIacDo(ByteBuffer message) throws NetworkException, IOException {
+        Byte iac = readByte(message);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC DO terminated early - " + reportCommandSoFar());
         }
 
         if (iac == TIMING_MARK) {
-            doIacDoTimingMark(messageStream);
+            doIacDoTimingMark(message);
             return;
         }
         if (iac == TN3270E) {
-            doIacDoTn3270e(messageStream);
+            doIacDoTn3270e(message);
             return;
         }
         if (iac == START_TLS) {
-            doIacDoStartTls(messageStream);
+            doIacDoStartTls(message);
             return;
         }
         if (iac == TERMINAL_TYPE) {
-            doIacDoTerminalType(messageStream);
+            doIacDoTerminalType(message);
             return;
         }
         if (iac == TELNET_EOR) {
-            doIacDoTelnetEor(messageStream);
+            doIacDoTelnetEor(message);
             return;
         }
         if (iac == TELNET_BINARY) {
-            doIacDoTelnetBinary(messageStream);
+            doIacDoTelnetBinary(message);
             return;
         }
 
@@ -558,8 +641,8 @@ public class NetworkThread extends Thread {
 
     }
 
-    private void doIacDont(InputStream messageStream) throws NetworkException, IOException {
-        Byte iac = readByte(messageStream);
+    private void doIacDont(ByteBuffer message) throws NetworkException, IOException {
+        Byte iac = readByte(message);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC DO terminated early - " + reportCommandSoFar());
         }
@@ -579,19 +662,19 @@ public class NetworkThread extends Thread {
         throw new NetworkException("Unrecognised IAC DONT Command - " + reportCommandSoFar());
     }
 
-    private void doIacDoTimingMark(InputStream messageStream) throws NetworkException {
+    private void doIacDoTimingMark(ByteBuffer message) throws NetworkException {
         logger.trace("timing received");
         this.network.sendIac(new byte[] {IAC, DONT, TIMING_MARK});
     }
 
-    private void doIacDoTelnetEor(InputStream messageStream) throws NetworkException, IOException {
-        Byte iac = readByte(messageStream);
+    private void doIacDoTelnetEor(ByteBuffer message) throws NetworkException, IOException {
+        Byte iac = readByte(message);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC DO EOR terminated early - " + reportCommandSoFar());
         }
 
         if (iac == IAC) {
-            doIacDoTelnetEorIac(messageStream);
+            doIacDoTelnetEorIac(message);
             return;
         }
 
@@ -599,14 +682,14 @@ public class NetworkThread extends Thread {
     }
 
 
-    private void doIacDoTelnetEorIac(InputStream messageStream) throws NetworkException, IOException {
-        Byte iac = readByte(messageStream);
+    private void doIacDoTelnetEorIac(ByteBuffer message) throws NetworkException, IOException {
+        Byte iac = readByte(message);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC DO EOR IAC terminated early - " + reportCommandSoFar());
         }
 
         if (iac == WILL) {
-            doIacDoTelnetEorIacWill(messageStream);
+            doIacDoTelnetEorIacWill(message);
             return;
         }
 
@@ -614,21 +697,21 @@ public class NetworkThread extends Thread {
     }
 
 
-    private void doIacDoTelnetEorIacWill(InputStream messageStream) throws NetworkException, IOException {
-        Byte iac = readByte(messageStream);
+    private void doIacDoTelnetEorIacWill(ByteBuffer message) throws NetworkException, IOException {
+        Byte iac = readByte(message);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC DO EOR IAC WILL terminated early - " + reportCommandSoFar());
         }
 
         if (iac == TELNET_EOR) {
-            doIacDoTelnetEorIacWillEor(messageStream);
+            doIacDoTelnetEorIacWillEor(message);
             return;
         }
 
         throw new NetworkException("Unrecognised IAC DO EOR WILL Command - " + reportCommandSoFar());
     }
 
-    private void doIacDoTelnetEorIacWillEor(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacDoTelnetEorIacWillEor(ByteBuffer message) throws NetworkException, IOException {
         logger.trace("IAC DO EOR WILL EOR received from server");
         this.network.sendIac(new byte[] {IAC, WILL, TELNET_EOR, IAC, DO, TELNET_EOR});
         this.basicTelnetDatastream = true;
@@ -638,14 +721,14 @@ public class NetworkThread extends Thread {
     }
 
 
-    private void doIacDoTelnetBinary(InputStream messageStream) throws NetworkException, IOException {
-        Byte iac = readByte(messageStream);
+    private void doIacDoTelnetBinary(ByteBuffer message) throws NetworkException, IOException {
+        Byte iac = readByte(message);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC DO BINARY terminated early - " + reportCommandSoFar());
         }
 
         if (iac == IAC) {
-            doIacDoTelnetBinaryIac(messageStream);
+            doIacDoTelnetBinaryIac(message);
             return;
         }
 
@@ -653,14 +736,14 @@ public class NetworkThread extends Thread {
     }
 
 
-    private void doIacDoTelnetBinaryIac(InputStream messageStream) throws NetworkException, IOException {
-        Byte iac = readByte(messageStream);
+    private void doIacDoTelnetBinaryIac(ByteBuffer message) throws NetworkException, IOException {
+        Byte iac = readByte(message);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC DO BINARY IAC terminated early - " + reportCommandSoFar());
         }
 
         if (iac == WILL) {
-            doIacDoTelnetBinaryWill(messageStream);
+            doIacDoTelnetBinaryWill(message);
             return;
         }
 
@@ -668,32 +751,32 @@ public class NetworkThread extends Thread {
     }
 
 
-    private void doIacDoTelnetBinaryWill(InputStream messageStream) throws NetworkException, IOException {
-        Byte iac = readByte(messageStream);
+    private void doIacDoTelnetBinaryWill(ByteBuffer message) throws NetworkException, IOException {
+        Byte iac = readByte(message);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC DO BINARY IAC WILL terminated early - " + reportCommandSoFar());
         }
 
         if (iac == TELNET_BINARY) {
-            doIacDoTelnetBinaryWillBinary(messageStream);
+            doIacDoTelnetBinaryWillBinary(message);
             return;
         }
 
         throw new NetworkException("Unrecognised IAC DO BINARY WILL Command - " + reportCommandSoFar());
     }
 
-    private void doIacDoTelnetBinaryWillBinary(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacDoTelnetBinaryWillBinary(ByteBuffer message) throws NetworkException, IOException {
         logger.trace("IAC DO BINARY WILL BINARY received from server");
         this.network.sendIac(new byte[] {IAC, WILL, TELNET_BINARY, IAC, DO, TELNET_BINARY});
     }
 
 
-    private void doIacDoTerminalType(InputStream messageStream) throws NetworkException {
+    private void doIacDoTerminalType(ByteBuffer message) throws NetworkException {
         logger.trace("IAC DO TERMINAL-TYPE received from server");
         this.network.sendIac(new byte[] {IAC, WILL, TERMINAL_TYPE});
     }
 
-    private void doIacDoTn3270e(InputStream messageStream) throws NetworkException {
+    private void doIacDoTn3270e(ByteBuffer message) throws NetworkException {
         logger.trace("IAC DO TN3270E received from server, responding with IAC WILL TN3270E");
 
         this.network.sendIac(new byte[] {IAC, WILL, TN3270E});
@@ -701,7 +784,7 @@ public class NetworkThread extends Thread {
         this.network.setBasicTelnet(false);
     }
 
-    private void doIacDoStartTls(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacDoStartTls(ByteBuffer message) throws NetworkException, IOException {
         if (this.network.isDoStartTls()) {
             logger.trace("IAC DO START_TLS received from server, agreeing to switch to TLS");
             this.network.sendIac(new byte[] {IAC, WILL, START_TLS, IAC, SB, START_TLS, FOLLOWS, IAC, SE});
@@ -711,32 +794,70 @@ public class NetworkThread extends Thread {
         }
     }
 
-    private Byte readByte(InputStream messageStream) throws IOException {
-        byte[] b = new byte[1];
-        int length = messageStream.read(b);
-
-        if (length == -1) {
-            endOfStream = true;
-            logger.trace("Terminal has been disconnected");
-            return null;
-        }
-        if (length == 0) {
+    private Byte readByte(ByteBuffer message) {
+        if (!message.hasRemaining()) {
             return null;
         }
 
-        this.commandSoFar.write(b);
-
-        return b[0];
+        return message.get();
     }
 
     private String reportCommandSoFar() {
-        return Hex.encodeHexString(this.commandSoFar.toByteArray());
+        ByteBuffer soFar = this.currentMessage.duplicate();
+        soFar.limit(soFar.position());
+        soFar.position(this.currentMessageStart);
+        return Hex.encodeHexString(toByteArray(soFar));
+    }
+
+    /**
+     * Remove the escaped IACs from the message in place, up to the IAC
+     * terminator
+     *
+     * @param message - the message, from the position
+     * @param terminator - the command that ends the message, EOR or SE
+     * @return the unescaped contents, or null if the terminator was not found
+     */
+    private static ByteBuffer unescape(ByteBuffer message, byte terminator) {
+        int start = message.position();
+        int limit = message.limit();
+        int out = start;
+        int i = start;
+        while (i < limit) {
+            byte b = message.get(i++);
+            if (b == IAC) {
+                if (i >= limit) {
+                    break;
+                }
+                byte next = message.get(i++);
+                if (next == terminator) {
+                    message.position(i);
+
+                    ByteBuffer contents = message.duplicate();
+                    contents.position(start);
+                    contents.limit(out);
+                    return contents.slice();
+                }
+                b = next;
+            }
+            message.put(out++, b);
+        }
+
+        message.position(limit);
+        return null;
+    }
+
+    private static byte[] toByteArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
     }
 
     public Inbound3270Message process3270Data(ByteBuffer buffer) throws NetworkException {
 
         if (logger.isTraceEnabled() || !this.screen.getDatastreamListeners().isEmpty()) {
-            String hex = new String(Hex.encodeHex(buffer.array()));
+            ByteBuffer whole = buffer.duplicate();
+            whole.position(0);
+            String hex = Hex.encodeHexString(toByteArray(whole));
             if (logger.isTraceEnabled()) {
                 logger.trace("inbound=" + hex);
             }
@@ -890,39 +1011,6 @@ public class NetworkThread extends Thread {
         return ByteBuffer.wrap(bytes);
     }
 
-    public ByteBuffer readTerminatedSB(InputStream messageStream) throws IOException, NetworkException {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-
-        boolean lastByteFF = false;
-        boolean terminated = false;
-        Byte b;
-        while ((b = readByte(messageStream)) != null) {
-            if (b == IAC) {
-                if (lastByteFF) {
-                    byteArrayOutputStream.write(b);
-                    lastByteFF = false;
-                } else {
-                    lastByteFF = true;
-                }
-            } else {
-                if (b == SE && lastByteFF) {
-                    terminated = true;
-                    break;
-                }
-
-                byteArrayOutputStream.write(b);
-            }
-        }
-
-        if (!terminated) {
-            throw new NetworkException("IAC SB message did not terminate with IAC SE");
-        }
-
-        byte[] bytes = byteArrayOutputStream.toByteArray();
-
-        return ByteBuffer.wrap(bytes);
-    }
-
     public boolean isStarted() {
         return this.telnetSessionStarted;
     }
@@ -0,0 +1,587 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos3270.internal.comms;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zos3270.spi.NetworkException;
+
+/**
+ * A {@link Network} that is serviced by a shared {@link NetworkSelector}
+ * rather than a dedicated {@link NetworkThread}.
+ * <p>
+ * The connect is not blocking, it is finished by the selector thread. TLS,
+ * both direct and negotiated with START_TLS, is done with an
+ * {@link SSLEngine}. Outbound data is queued and written by the selector
+ * thread, so the send methods never block on the network.
+ * </p>
+ * <p>
+ * Inbound messages are processed in order on an executor for this network,
+ * not on the selector thread. When IAC SB START_TLS is received, the selector
+ * thread stops passing on messages until it has been processed, as anything
+ * after it may be the TLS handshake.
+ * </p>
+ */
+public class SelectorNetwork extends Network {
+
+    private static final int                      BUFFER_SIZE = 16384;
+    private static final ByteBuffer               EMPTY       = ByteBuffer.allocate(0);
+
+    private final Log                             logger      = LogFactory.getLog(getClass());
+
+    private final NetworkSelector                 networkSelector;
+    private final SerialExecutor                  inboundExecutor;
+    private final boolean                         ssl;
+
+    private volatile SocketChannel                channel;
+    private volatile boolean                      connected;
+    private volatile boolean                      connectPending;
+    private volatile boolean                      tlsRequested;
+    private NetworkSelector.SelectorThread        selectorThread;
+    private SelectionKey                          key;
+    private NetworkThread                         networkThread;
+    private final AtomicBoolean                   ended       = new AtomicBoolean();
+
+    private final ConcurrentLinkedQueue<ByteBuffer> pendingWrites = new ConcurrentLinkedQueue<>();
+    private volatile Instant                      lastSend    = Instant.now();
+
+    // *** Only used on the selector thread after registration
+    private SSLEngine                             engine;
+    private boolean                               inboundPaused;
+    private ByteBuffer                            netIn;
+    private ByteBuffer                            appIn;
+    private ByteBuffer                            netOut;
+
+    public SelectorNetwork(String host, int port, boolean ssl, String terminalId, NetworkSelector networkSelector) {
+        super(host, port, ssl, terminalId);
+        this.ssl = ssl;
+        this.networkSelector = networkSelector;
+        this.inboundExecutor = networkSelector.newInboundExecutor();
+    }
+
+    @Override
+    public boolean connectClient() throws NetworkException {
+        if (this.channel != null) {
+            if (this.connected) {
+                return true;
+            }
+
+            close();
+        }
+
+        SocketChannel newChannel = null;
+        try {
+            newChannel = SocketChannel.open();
+            newChannel.configureBlocking(false);
+            newChannel.socket().setTcpNoDelay(true);
+            newChannel.socket().setKeepAlive(true);
+            // *** Finished by the selector thread, so the caller does not wait for the server
+            boolean finished = newChannel.connect(new InetSocketAddress(getHost(), getPort()));
+
+            this.netIn = ByteBuffer.allocate(BUFFER_SIZE);
+            this.appIn = ByteBuffer.allocate(BUFFER_SIZE);
+            this.netOut = ByteBuffer.allocate(BUFFER_SIZE);
+            this.engine = null;
+            this.inboundPaused = false;
+            this.tlsRequested = false;
+            this.connectPending = !finished;
+            this.selectorThread = null;
+            this.key = null;
+            this.pendingWrites.clear();
+            this.ended.set(false);
+            if (this.ssl) {
+                this.engine = createEngine();
+            }
+
+            this.channel = newChannel;
+            this.connected = true;
+            newChannel = null;
+
+            return true;
+        } catch (Exception e) {
+            throw new NetworkException("Unable to connect to Telnet server", e);
+        } finally {
+            if (newChannel != null) {
+                try {
+                    newChannel.close();
+                } catch (IOException e) {
+                    logger.error("Failed to close the socket channel", e);
+                }
+            }
+        }
+    }
+
+    private SSLEngine createEngine() throws NetworkException {
+        try {
+            SSLEngine newEngine = createSslContext().createSSLEngine(getHost(), getPort());
+            newEngine.setUseClientMode(true);
+            newEngine.beginHandshake();
+
+            ByteBuffer newNetIn = ByteBuffer
+                    .allocate(Math.max(BUFFER_SIZE, newEngine.getSession().getPacketBufferSize()));
+            this.netIn.flip();
+            newNetIn.put(this.netIn);
+            this.netIn = newNetIn;
+
+            return newEngine;
+        } catch (Exception e) {
+            throw new NetworkException("Problem creating the TLS engine", e);
+        }
+    }
+
+    @Override
+    public void startInbound(NetworkThread networkThread) {
+        this.networkThread = networkThread;
+        this.networkSelector.register(this);
+    }
+
+    @Override
+    public boolean isConnected() {
+        return this.connected;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return null;
+    }
+
+    /**
+     * Switch the connection to TLS, called when IAC SB START_TLS FOLLOWS is
+     * processed. The switch is made by the selector thread once the message
+     * has been processed, before any more inbound data is passed on.
+     *
+     * @return null, there is no new socket, the inbound messages continue to be
+     *         passed to the network thread
+     */
+    @Override
+    public Socket startTls() throws NetworkException {
+        if (!this.inboundExecutor.isCurrentThread()) {
+            throw new NetworkException("START_TLS can only be processed as an inbound message");
+        }
+
+        this.tlsRequested = true;
+        return null;
+    }
+
+    /**
+     * Continue passing on inbound messages after IAC SB START_TLS has been
+     * processed, switching to TLS if requested. Runs on the selector thread
+     */
+    private void resumeInbound() {
+        try {
+            if (this.tlsRequested) {
+                this.tlsRequested = false;
+
+                // *** Anything queued before the switch goes out in the clear ahead of the handshake
+                ByteBuffer pending;
+                while ((pending = this.pendingWrites.poll()) != null) {
+                    putNetOut(pending);
+                }
+
+                this.engine = createEngine();
+
+                // *** Anything after START_TLS FOLLOWS is the server side of the handshake
+                this.appIn.flip();
+                if (this.netIn.remaining() < this.appIn.remaining()) {
+                    this.netIn = enlarge(this.netIn, this.netIn.position() + this.appIn.remaining());
+                }
+                this.netIn.put(this.appIn);
+                this.appIn.compact();
+            }
+
+            this.inboundPaused = false;
+            processInbound();
+            flush();
+        } catch (Exception e) {
+            failed(e);
+        }
+    }
+
+    @Override
+    public void sendDatastream(byte[] outboundDatastream) throws NetworkException {
+        try {
+            queue(frameDatastream(outboundDatastream));
+        } catch (IOException e) {
+            throw new NetworkException("Unable to write outbound datastream", e);
+        }
+    }
+
+    @Override
+    public void sendIac(byte[] outboundIac) throws NetworkException {
+        queue(outboundIac);
+    }
+
+    private void queue(byte[] data) throws NetworkException {
+        if (!this.connected) {
+            throw new NetworkException("Attempt to send data to a disconnected terminal " + getTerminalId());
+        }
+
+        this.pendingWrites.add(ByteBuffer.wrap(data));
+        this.lastSend = Instant.now();
+
+        NetworkSelector.SelectorThread thread = this.selectorThread;
+        if (thread == null) {
+            return; // *** will be written when registered
+        }
+        if (thread.isSelectorThread()) {
+            flush();
+            return;
+        }
+        thread.execute(this::flush);
+    }
+
+    @Override
+    public void close() {
+        this.connected = false;
+        this.connectPending = false;
+
+        SocketChannel oldChannel = this.channel;
+        if (oldChannel != null) {
+            try {
+                oldChannel.close();
+            } catch (IOException e) {
+                logger.error("Failed to close the socket channel", e);
+            }
+        }
+
+        NetworkSelector.SelectorThread thread = this.selectorThread;
+        if ((thread != null && thread.isSelectorThread()) || this.inboundExecutor.isCurrentThread()) {
+            endInbound(true);
+        } else {
+            endInbound(false);
+        }
+    }
+
+    private void endInbound(boolean async) {
+        NetworkThread handler = this.networkThread;
+        if (handler == null || !this.ended.compareAndSet(false, true)) {
+            return;
+        }
+
+        if (!async) {
+            handler.inboundEnded();
+            return;
+        }
+
+        // *** The terminal may reconnect, which must not hold up the selector or inbound threads,
+        // *** so notify on a thread of its own after the messages already passed on
+        Runnable notify = () -> {
+            Thread notifyThread = new Thread(handler::inboundEnded, "3270 network closed " + getTerminalId());
+            notifyThread.setDaemon(true);
+            notifyThread.start();
+        };
+        try {
+            this.inboundExecutor.execute(notify);
+        } catch (RejectedExecutionException e) {
+            notify.run();
+        }
+    }
+
+    SocketChannel getChannel() {
+        return this.channel;
+    }
+
+    boolean isConnectPending() {
+        return this.connectPending;
+    }
+
+    void setSelectorThread(NetworkSelector.SelectorThread selectorThread) {
+        this.selectorThread = selectorThread;
+    }
+
+    void registered(SelectionKey key) {
+        this.key = key;
+        flush();
+    }
+
+    void failed(Exception e) {
+        logger.error("Problem with 3270 network for terminal " + getTerminalId(), e);
+        close();
+    }
+
+    void checkKeepAlive() {
+        if (!this.connected || this.lastSend.plus(10, ChronoUnit.MINUTES).isAfter(Instant.now())) {
+            return;
+        }
+
+        this.pendingWrites
+                .add(ByteBuffer.wrap(new byte[] { NetworkThread.IAC, NetworkThread.DO, NetworkThread.TIMING_MARK }));
+        this.lastSend = Instant.now();
+        flush();
+    }
+
+    void channelConnectable() {
+        try {
+            if (!this.channel.finishConnect()) {
+                return;
+            }
+            this.connectPending = false;
+            this.key.interestOps(SelectionKey.OP_READ);
+            flush();
+        } catch (Exception e) {
+            failed(new NetworkException("Unable to connect to Telnet server", e));
+        }
+    }
+
+    void channelReadable() {
+        try {
+            ByteBuffer target = (this.engine == null) ? this.appIn : this.netIn;
+            if (!target.hasRemaining()) {
+                target = enlarge(target, target.capacity() * 2);
+                if (this.engine == null) {
+                    this.appIn = target;
+                } else {
+                    this.netIn = target;
+                }
+            }
+
+            int length = this.channel.read(target);
+            if (length < 0) {
+                logger.trace("Terminal has been disconnected");
+                close();
+                return;
+            }
+
+            processInbound();
+            flush();
+        } catch (Exception e) {
+            if (this.connected) {
+                failed(e);
+            } else {
+                close();
+            }
+        }
+    }
+
+    void channelWritable() {
+        flush();
+    }
+
+    private void processInbound() throws IOException, NetworkException {
+        if (!this.connected || this.inboundPaused) {
+            return;
+        }
+
+        if (this.engine != null) {
+            unwrap();
+        }
+
+        dispatchMessages();
+    }
+
+    /**
+     * Pass each complete message to the inbound executor, stopping after IAC SB
+     * START_TLS until it has been processed
+     */
+    private void dispatchMessages() {
+        this.appIn.flip();
+        try {
+            int length;
+            while (this.connected && (length = TelnetFramer.messageLength(this.appIn)) > 0) {
+                // *** Copied, as the buffer is reused while the message waits to be processed
+                ByteBuffer message = ByteBuffer.allocate(length);
+                ByteBuffer source = this.appIn.slice();
+                source.limit(length);
+                message.put(source);
+                message.flip();
+                this.appIn.position(this.appIn.position() + length);
+
+                boolean startTls = isStartTls(message);
+                this.inboundExecutor.execute(() -> processMessage(message, startTls));
+
+                if (startTls) {
+                    this.inboundPaused = true;
+                    return;
+                }
+            }
+        } finally {
+            this.appIn.compact();
+        }
+    }
+
+    private static boolean isStartTls(ByteBuffer message) {
+        return message.remaining() > 2 && message.get(0) == NetworkThread.IAC
+                && message.get(1) == NetworkThread.SB && message.get(2) == NetworkThread.START_TLS;
+    }
+
+    /**
+     * Process an inbound message, runs on the inbound executor
+     */
+    private void processMessage(ByteBuffer message, boolean startTls) {
+        if (!this.connected) {
+            return;
+        }
+
+        try {
+            this.networkThread.processMessage(message);
+        } catch (Exception e) {
+            failed(e);
+            return;
+        }
+
+        NetworkSelector.SelectorThread thread = this.selectorThread;
+        if (startTls && thread != null) {
+            thread.execute(this::resumeInbound);
+        }
+    }
+
+    private void unwrap() throws SSLException, NetworkException {
+        this.netIn.flip();
+        try {
+            while (true) {
+                SSLEngineResult result = this.engine.unwrap(this.netIn, this.appIn);
+                switch (result.getStatus()) {
+                    case BUFFER_OVERFLOW:
+                        this.appIn = enlarge(this.appIn,
+                                this.appIn.position() + this.engine.getSession().getApplicationBufferSize());
+                        continue;
+                    case BUFFER_UNDERFLOW:
+                        if (this.netIn.limit() == this.netIn.capacity()) {
+                            this.netIn.compact();
+                            this.netIn = enlarge(this.netIn, this.engine.getSession().getPacketBufferSize() * 2);
+                            this.netIn.flip();
+                        }
+                        return;
+                    case CLOSED:
+                        logger.trace("Terminal has been disconnected, TLS session closed");
+                        close();
+                        return;
+                    default:
+                        break;
+                }
+
+                HandshakeStatus status = runDelegatedTasks(result.getHandshakeStatus());
+                if (status == HandshakeStatus.NEED_WRAP) {
+                    wrap();
+                }
+
+                if (!this.netIn.hasRemaining() || (result.bytesConsumed() == 0 && result.bytesProduced() == 0)) {
+                    return;
+                }
+            }
+        } finally {
+            this.netIn.compact();
+        }
+    }
+
+    private HandshakeStatus runDelegatedTasks(HandshakeStatus status) {
+        if (status != HandshakeStatus.NEED_TASK) {
+            return status;
+        }
+
+        Runnable task;
+        while ((task = this.engine.getDelegatedTask()) != null) {
+            task.run();
+        }
+        return this.engine.getHandshakeStatus();
+    }
+
+    /**
+     * Move queued data into the network output buffer, encrypting if TLS is in use
+     */
+    private void wrap() throws SSLException, NetworkException {
+        while (true) {
+            HandshakeStatus status = runDelegatedTasks(this.engine.getHandshakeStatus());
+
+            ByteBuffer source;
+            if (status == HandshakeStatus.NEED_WRAP) {
+                source = EMPTY;
+            } else if (status == HandshakeStatus.NOT_HANDSHAKING || status == HandshakeStatus.FINISHED) {
+                source = this.pendingWrites.peek();
+                if (source == null) {
+                    return;
+                }
+            } else {
+                return; // *** waiting for the server
+            }
+
+            SSLEngineResult result = this.engine.wrap(source, this.netOut);
+            switch (result.getStatus()) {
+                case BUFFER_OVERFLOW:
+                    this.netOut = enlarge(this.netOut,
+                            this.netOut.position() + this.engine.getSession().getPacketBufferSize());
+                    continue;
+                case CLOSED:
+                    throw new NetworkException("TLS session closed");
+                default:
+                    break;
+            }
+
+            if (source != EMPTY && !source.hasRemaining()) {
+                this.pendingWrites.poll();
+            }
+        }
+    }
+
+    private void flush() {
+        if (this.key == null || !this.key.isValid() || this.connectPending) {
+            return;
+        }
+
+        try {
+            if (this.engine == null) {
+                ByteBuffer pending;
+                while ((pending = this.pendingWrites.poll()) != null) {
+                    putNetOut(pending);
+                }
+            } else {
+                wrap();
+            }
+
+            this.netOut.flip();
+            try {
+                this.channel.write(this.netOut);
+            } finally {
+                this.netOut.compact();
+            }
+
+            int ops = SelectionKey.OP_READ;
+            if (this.netOut.position() > 0) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            this.key.interestOps(ops);
+        } catch (Exception e) {
+            failed(e);
+        }
+    }
+
+    private void putNetOut(ByteBuffer data) {
+        if (this.netOut.remaining() < data.remaining()) {
+            this.netOut = enlarge(this.netOut, this.netOut.position() + data.remaining());
+        }
+        this.netOut.put(data);
+    }
+
+    /**
+     * Enlarge a buffer that is in write mode, keeping the contents
+     */
+    private static ByteBuffer enlarge(ByteBuffer buffer, int minimumSize) {
+        ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(minimumSize, buffer.capacity() * 2));
+        buffer.flip();
+        newBuffer.put(buffer);
+        return newBuffer;
+    }
+
+}
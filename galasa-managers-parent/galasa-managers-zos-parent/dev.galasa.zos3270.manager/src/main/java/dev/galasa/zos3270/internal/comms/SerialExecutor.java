@@ -0,0 +1,82 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos3270.internal.comms;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Runs tasks one at a time, in the order they were submitted, on a shared
+ * executor. Used to process the inbound messages of a terminal in order
+ * without a thread of its own.
+ */
+class SerialExecutor implements Executor {
+
+    private final Log                  logger = LogFactory.getLog(getClass());
+
+    private final Executor             executor;
+    private final ArrayDeque<Runnable> tasks  = new ArrayDeque<>();
+    private boolean                    running;
+    private volatile Thread            currentThread;
+
+    SerialExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        synchronized (this.tasks) {
+            this.tasks.add(task);
+            if (this.running) {
+                return;
+            }
+            this.running = true;
+        }
+
+        try {
+            this.executor.execute(this::runTasks);
+        } catch (RejectedExecutionException e) {
+            synchronized (this.tasks) {
+                this.tasks.clear();
+                this.running = false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return true if called from a task of this executor
+     */
+    boolean isCurrentThread() {
+        return Thread.currentThread() == this.currentThread;
+    }
+
+    private void runTasks() {
+        this.currentThread = Thread.currentThread();
+        while (true) {
+            Runnable task;
+            synchronized (this.tasks) {
+                task = this.tasks.poll();
+                if (task == null) {
+                    this.currentThread = null;
+                    this.running = false;
+                    return;
+                }
+            }
+
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("Problem running 3270 inbound task", e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos3270.internal.comms;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Finds the boundaries of the inbound telnet messages in a buffer, without
+ * copying, so the messages can be passed to {@link NetworkThread} as they
+ * become complete.
+ * <p>
+ * A message is either a 3270 datastream terminated by IAC EOR, an IAC SB
+ * sub-negotiation terminated by IAC SE, or a telnet command. IAC DO EOR and IAC
+ * DO BINARY are followed by IAC WILL EOR/BINARY, which {@link NetworkThread}
+ * processes as a single message.
+ * </p>
+ */
+public class TelnetFramer {
+
+    private TelnetFramer() {
+    }
+
+    /**
+     * Return the length of the first complete message in the buffer
+     *
+     * @param buffer - the buffer, the message starts at the position
+     * @return the length of the message, or -1 if the message is not complete yet
+     */
+    public static int messageLength(ByteBuffer buffer) {
+        int start = buffer.position();
+        int limit = buffer.limit();
+
+        if (start >= limit) {
+            return -1;
+        }
+
+        if (buffer.get(start) != NetworkThread.IAC) {
+            return terminatedLength(buffer, start, start, NetworkThread.EOR);
+        }
+
+        if (start + 1 >= limit) {
+            return -1;
+        }
+
+        byte command = buffer.get(start + 1);
+        switch (command) {
+            case NetworkThread.SB:
+                return terminatedLength(buffer, start, start + 2, NetworkThread.SE);
+            case NetworkThread.DO:
+                if (start + 2 >= limit) {
+                    return -1;
+                }
+                byte option = buffer.get(start + 2);
+                if (option == NetworkThread.TELNET_EOR || option == NetworkThread.TELNET_BINARY) {
+                    return (start + 6 <= limit) ? 6 : -1;
+                }
+                return 3;
+            case NetworkThread.DONT:
+            case NetworkThread.WILL:
+            case NetworkThread.WONT:
+                return (start + 3 <= limit) ? 3 : -1;
+            default:
+                return 2;
+        }
+    }
+
+    /**
+     * Scan for IAC followed by the terminator, skipping escaped IAC IAC
+     */
+    private static int terminatedLength(ByteBuffer buffer, int start, int from, byte terminator) {
+        int limit = buffer.limit();
+        int i = from;
+        while (i < limit) {
+            if (buffer.get(i) != NetworkThread.IAC) {
+                i++;
+                continue;
+            }
+
+            if (i + 1 >= limit) {
+                return -1;
+            }
+
+            if (buffer.get(i + 1) == terminator) {
+                return i + 2 - start;
+            }
+
+            i += 2;
+        }
+
+        return -1;
+    }
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos3270.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zos3270.Zos3270ManagerException;
+
+/**
+ * Are the terminal images stored in the RAS as deltas
+ * <p>
+ * When set, images after the first in each RAS terminal file only contain the
+ * fields that have changed since the previous image, if the field positions
+ * have not changed
+ * </p>
+ * <p>
+ * The property is:-<br>
+ * <br>
+ * zos3270.terminal.images.delta=true
+ * </p>
+ * <p>
+ * default is false
+ * </p>
+ *
+ */
+public class DeltaTerminalImages extends CpsProperties {
+
+    public static boolean get() throws Zos3270ManagerException {
+        return Boolean.parseBoolean(
+                getStringWithDefault(Zos3270PropertiesSingleton.cps(), "false", "terminal.images", "delta"));
+    }
+
+}
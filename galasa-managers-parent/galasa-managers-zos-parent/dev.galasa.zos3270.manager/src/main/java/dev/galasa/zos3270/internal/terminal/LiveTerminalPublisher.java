@@ -0,0 +1,178 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos3270.internal.terminal;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zos3270.common.screens.Terminal;
+import dev.galasa.zos3270.common.screens.TerminalImage;
+
+/**
+ * Sends terminal images to the live terminal UI on a background thread.
+ * <p>
+ * Images are placed on a bounded queue so the 3270 network thread is never
+ * held up by the UI server. Each PUT carries one image as compact json, as
+ * the live terminal UI expects. If the UI falls behind, only the most recent
+ * of the waiting images is sent and the older ones are dropped, the UI is only
+ * interested in the most recent screens. The response is fully read so the
+ * HTTP keep-alive connection is reused for the next PUT.
+ * </p>
+ */
+public class LiveTerminalPublisher extends Thread {
+
+    private static final int                     QUEUE_SIZE = 20;
+
+    private final Log                            logger     = LogFactory.getLog(getClass());
+
+    private final URL                            liveTerminalUrl;
+    private final String                         terminalId;
+    private final String                         runId;
+    private final TerminalJsonWriter             terminalJsonWriter;
+
+    private final ArrayBlockingQueue<TerminalImage> queue   = new ArrayBlockingQueue<>(QUEUE_SIZE);
+
+    private final AtomicLong                     sent       = new AtomicLong();
+    private final AtomicLong                     dropped    = new AtomicLong();
+
+    private volatile boolean                     shutdown;
+    private volatile boolean                     failed;
+    private int                                  sequence;
+
+    public LiveTerminalPublisher(URL liveTerminalUrl, String terminalId, String runId,
+            TerminalJsonWriter terminalJsonWriter) {
+        this.liveTerminalUrl = liveTerminalUrl;
+        this.terminalId = terminalId;
+        this.runId = runId;
+        this.terminalJsonWriter = terminalJsonWriter;
+
+        setName("LiveTerminal-" + terminalId);
+        setDaemon(true);
+    }
+
+    /**
+     * Queue an image to be sent, never blocks
+     *
+     * @param image - the terminal image, must not be changed after it is queued
+     */
+    public void publish(TerminalImage image) {
+        if (this.failed || this.shutdown) {
+            return;
+        }
+
+        while (!this.queue.offer(image)) {
+            if (this.queue.poll() != null) {
+                this.dropped.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        logger.trace("Starting live terminal publisher for terminal " + this.terminalId);
+
+        while (!this.failed) {
+            try {
+                TerminalImage image = this.queue.poll(1, TimeUnit.SECONDS);
+                if (image == null) {
+                    if (this.shutdown) {
+                        break;
+                    }
+                    continue;
+                }
+
+                // *** Coalesce the waiting images to the most recent
+                TerminalImage newer;
+                while ((newer = this.queue.poll()) != null) {
+                    image = newer;
+                    this.dropped.incrementAndGet();
+                }
+
+                send(image);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        this.dropped.addAndGet(this.queue.size());
+        this.queue.clear();
+
+        logger.debug("Live terminal " + this.terminalId + " sent " + this.sent.get() + " images, dropped "
+                + this.dropped.get() + " images");
+    }
+
+    private void send(TerminalImage image) {
+        try {
+            this.sequence++;
+            Terminal liveTerminal = new Terminal(this.terminalId, this.runId, this.sequence, image.getImageSize());
+            liveTerminal.getImages().add(image);
+
+            HttpURLConnection connection = (HttpURLConnection) this.liveTerminalUrl.openConnection();
+            connection.setRequestMethod("PUT");
+            connection.addRequestProperty("Content-Type", "application/json");
+            connection.setDoInput(true);
+            connection.setDoOutput(true);
+            connection.connect();
+            try (OutputStream os = connection.getOutputStream()) {
+                this.terminalJsonWriter.write(liveTerminal, os);
+            }
+            if (connection.getResponseCode() != 200) {
+                logger.warn("Unable to write live terminal due to " + connection.getResponseCode() + " - "
+                        + connection.getResponseMessage());
+                // *** Read and close the error response too, so the connection is released
+                try (InputStream es = connection.getErrorStream()) {
+                    if (es != null) {
+                        IOUtils.skip(es, Long.MAX_VALUE);
+                    }
+                }
+                this.failed = true;
+                this.dropped.incrementAndGet();
+                return;
+            }
+
+            // *** Read the whole response so the connection can be kept alive for the next image
+            try (InputStream is = connection.getInputStream()) {
+                IOUtils.skip(is, Long.MAX_VALUE);
+            }
+
+            this.sent.incrementAndGet();
+        } catch (Exception e) {
+            logger.error("Failed to write live terminal image, image lost", e);
+            this.failed = true;
+            this.dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Send any waiting images and stop the thread
+     *
+     * @param maxWait - how long to wait for the waiting images to be sent, in milliseconds
+     * @throws InterruptedException - if interrupted whilst waiting
+     */
+    public void shutdown(long maxWait) throws InterruptedException {
+        this.shutdown = true;
+        join(maxWait);
+    }
+
+    public long getImagesSent() {
+        return this.sent.get();
+    }
+
+    public long getImagesDropped() {
+        return this.dropped.get();
+    }
+
+}
@@ -13,21 +13,20 @@ import dev.galasa.zos3270.ErrorTextFoundException;
 import dev.galasa.zos3270.IScreenUpdateListener;
 import dev.galasa.zos3270.TextNotFoundException;
 import dev.galasa.zos3270.Zos3270Exception;
+import dev.galasa.zos3270.spi.FieldTextMatcher;
 import dev.galasa.zos3270.spi.Screen;
 
 public class ScreenUpdateTextListener implements IScreenUpdateListener {
 
     private final Screen screen;
-    private final String[] okText;
-    private final String[] errorText;
+    private final FieldTextMatcher matcher;
     private int foundItem = -1;
     private ErrorTextFoundException errorFound = null;
     private Semaphore    textFound = new Semaphore(1, true);
 
     public ScreenUpdateTextListener(Screen screen, String ok[], String error[]) throws InterruptedException {
         this.screen = screen;
-        this.okText = ok;
-        this.errorText = error;
+        this.matcher = new FieldTextMatcher(ok, error);
         this.textFound.acquire();
 
         synchronized (this.screen) {
@@ -42,7 +41,7 @@ public class ScreenUpdateTextListener implements IScreenUpdateListener {
     @Override
     public void screenUpdated(Direction direction, AttentionIdentification aid) {
         try {
-            this.foundItem = screen.searchFieldContaining(okText, errorText);
+            this.foundItem = screen.searchFieldContaining(matcher);
             this.textFound.release();
         } catch (TextNotFoundException e) {
             // IGNORE
@@ -0,0 +1,256 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos3270.internal.terminal;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Map.Entry;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
+
+import dev.galasa.framework.spi.IConfidentialTextService;
+import dev.galasa.zos3270.common.screens.FieldContents;
+import dev.galasa.zos3270.common.screens.Terminal;
+import dev.galasa.zos3270.common.screens.TerminalField;
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalSize;
+
+/**
+ * Writes the terminal pojos as json directly to a stream.
+ * <p>
+ * The json is the same as Gson would produce for the pojos, except false
+ * booleans are left out, so it can be read back with Gson. Confidential text
+ * is removed from each field as it is written, rather than from the whole
+ * document, and is replaced character for character so the text keeps its
+ * screen positions.
+ * </p>
+ */
+public class TerminalJsonWriter {
+
+    private final IConfidentialTextService cts;
+
+    /**
+     * @param cts - the confidential text service, or null if confidential text is not to be removed
+     */
+    public TerminalJsonWriter(IConfidentialTextService cts) {
+        this.cts = cts;
+    }
+
+    /**
+     * Write the terminal to the stream, the stream is flushed but not closed
+     *
+     * @param terminal - the terminal and images to write
+     * @param os - the stream to write to
+     * @throws IOException - if the stream cannot be written to
+     */
+    public void write(Terminal terminal, OutputStream os) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+        JsonWriter json = new JsonWriter(writer);
+
+        json.beginObject();
+        json.name("id").value(terminal.getId());
+        writeString(json, "runId", terminal.getRunId());
+        json.name("sequence").value(terminal.getSequence());
+        json.name("images").beginArray();
+        for (TerminalImage image : terminal.getImages()) {
+            writeImage(json, image);
+        }
+        json.endArray();
+        writeSize(json, "defaultSize", terminal.getDefaultSize());
+        json.endObject();
+
+        json.flush();
+    }
+
+    /**
+     * Write an image object, available so other formats can embed images
+     *
+     * @param json - the writer
+     * @param image - the image to write
+     * @throws IOException - if the stream cannot be written to
+     */
+    public void writeImage(JsonWriter json, TerminalImage image) throws IOException {
+        json.beginObject();
+        json.name("sequence").value(image.getSequence());
+        writeString(json, "id", image.getId());
+        writeBoolean(json, "inbound", image.isInbound());
+        writeString(json, "type", image.getType());
+        writeSize(json, "imageSize", image.getImageSize());
+        json.name("cursorColumn").value(image.getCursorColumn());
+        json.name("cursorRow").value(image.getCursorRow());
+        writeString(json, "aid", image.getAid());
+        writeBoolean(json, "delta", image.isDelta());
+        json.name("fields").beginArray();
+        for (TerminalField field : image.getFields()) {
+            writeField(json, field);
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    /**
+     * Write a field object, available so other formats can embed fields
+     *
+     * @param json - the writer
+     * @param field - the field to write
+     * @throws IOException - if the stream cannot be written to
+     */
+    public void writeField(JsonWriter json, TerminalField field) throws IOException {
+        json.beginObject();
+        json.name("row").value(field.getRow());
+        json.name("column").value(field.getColumn());
+        writeBoolean(json, "unformatted", field.isUnformatted());
+        writeBoolean(json, "fieldProtected", field.isFieldProtected());
+        writeBoolean(json, "fieldNumeric", field.isFieldNumeric());
+        writeBoolean(json, "fieldDisplay", field.isFieldDisplay());
+        writeBoolean(json, "fieldIntenseDisplay", field.isFieldIntenseDisplay());
+        writeBoolean(json, "fieldSelectorPen", field.isFieldSelectorPen());
+        writeBoolean(json, "fieldModifed", field.isFieldModifed());
+        json.name("contents").beginArray();
+        for (FieldContents contents : field.getContents()) {
+            writeContents(json, contents);
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    private void writeContents(JsonWriter json, FieldContents contents) throws IOException {
+        json.beginObject();
+
+        // *** Most fields have no nulls, their text is written as is without a character array
+        String text = contents.getText();
+        if (text != null) {
+            json.name("text").value(removeConfidentialText(text));
+            json.endObject();
+            return;
+        }
+
+        // *** Otherwise the runs of text between the nulls are filtered, nulls stay where they are
+        Character[] chars = contents.getChars();
+        json.name("chars").beginArray();
+        int i = 0;
+        while (i < chars.length) {
+            if (chars[i] == null) {
+                json.nullValue();
+                i++;
+                continue;
+            }
+
+            int end = i;
+            StringBuilder run = new StringBuilder();
+            while (end < chars.length && chars[end] != null) {
+                run.append(chars[end].charValue());
+                end++;
+            }
+            String filtered = removeConfidentialText(run.toString());
+            for (int j = 0; j < filtered.length(); j++) {
+                json.value(String.valueOf(filtered.charAt(j)));
+            }
+            i = end;
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    /**
+     * Remove confidential text, keeping the length of the text. If the
+     * confidential text service changes the length, the part of the text that
+     * changed is replaced with the same number of asterisks
+     */
+    private String removeConfidentialText(String text) {
+        if (this.cts == null) {
+            return text;
+        }
+
+        String filtered = this.cts.removeConfidentialText(text);
+        if (filtered.length() == text.length()) {
+            return filtered;
+        }
+
+        int prefix = 0;
+        int maxPrefix = Math.min(text.length(), filtered.length());
+        while (prefix < maxPrefix && text.charAt(prefix) == filtered.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        int maxSuffix = maxPrefix - prefix;
+        while (suffix < maxSuffix
+                && text.charAt(text.length() - 1 - suffix) == filtered.charAt(filtered.length() - 1 - suffix)) {
+            suffix++;
+        }
+
+        StringBuilder masked = new StringBuilder(text.length());
+        masked.append(text, 0, prefix);
+        for (int i = prefix; i < text.length() - suffix; i++) {
+            masked.append('*');
+        }
+        masked.append(text, text.length() - suffix, text.length());
+        return masked.toString();
+    }
+
+    /**
+     * Remove the false booleans from a Gson tree of the terminal pojos, which
+     * makes it the same as the json this writer produces
+     *
+     * @param json - the json object, changed in place
+     */
+    public static void stripFalseBooleans(JsonObject json) {
+
+        ArrayList<Entry<String, JsonElement>> entries = new ArrayList<>();
+        entries.addAll(json.entrySet());
+
+        for (Entry<String, JsonElement> entry : entries) {
+            JsonElement element = entry.getValue();
+
+            if (element.isJsonPrimitive() && ((JsonPrimitive) element).isBoolean()
+                    && !((JsonPrimitive) element).getAsBoolean()) {
+                json.remove(entry.getKey());
+            } else if (element.isJsonObject()) {
+                stripFalseBooleans((JsonObject) element);
+            } else if (element.isJsonArray()) {
+                JsonArray array = (JsonArray) element;
+                for (int i = 0; i < array.size(); i++) {
+                    if (array.get(i).isJsonObject()) {
+                        stripFalseBooleans((JsonObject) array.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void writeSize(JsonWriter json, String name, TerminalSize size) throws IOException {
+        if (size == null) {
+            return;
+        }
+
+        json.name(name).beginObject();
+        json.name("columns").value(size.getColumns());
+        json.name("rows").value(size.getRows());
+        json.endObject();
+    }
+
+    private static void writeString(JsonWriter json, String name, String value) throws IOException {
+        if (value != null) {
+            json.name(name).value(value);
+        }
+    }
+
+    private static void writeBoolean(JsonWriter json, String name, boolean value) throws IOException {
+        if (value) {
+            json.name(name).value(true);
+        }
+    }
+
+}
@@ -5,12 +5,8 @@
  */
 package dev.galasa.zos3270.spi;
 
-import java.nio.charset.Charset;
-
 public class BufferChar implements IBufferHolder {
 
-    private static final Charset ebcdic = Charset.forName("Cp037");
-
     private final char           character;
 
     public BufferChar(char character) {
@@ -40,13 +36,7 @@ public class BufferChar implements IBufferHolder {
     }
 
     public byte getFieldEbcdic() {
-        if (this.character == 0) {
-            return 0;
-        }
-
-        String value = new String(new char[] { this.character });
-
-        return value.getBytes(ebcdic)[0];
+        return ScreenBuffer.toEbcdic(this.character);
     }
 
 }
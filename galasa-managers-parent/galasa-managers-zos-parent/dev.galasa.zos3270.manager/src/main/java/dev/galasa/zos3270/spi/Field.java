@@ -34,7 +34,30 @@ public class Field {
         this.text = new char[0];
     }
 
+    /**
+     * Create a field from a start of field held in the screen buffer
+     * 
+     * @param start - the start of the field, -1 if wrapped
+     * @param buffer - the screen buffer
+     * @param sfPos - the position of the start of field in the buffer
+     * @param text - the text of the field
+     */
+    protected Field(int start, ScreenBuffer buffer, int sfPos, char[] text) {
+        this.start = start;
+        this.fieldProtected = buffer.isProtected(sfPos);
+        this.fieldNumeric = buffer.isNumeric(sfPos);
+        this.fieldDisplay = buffer.isDisplay(sfPos);
+        this.fieldIntenseDisplay = buffer.isIntenseDisplay(sfPos);
+        this.fieldSelectorPen = buffer.isSelectorPen(sfPos);
+        this.fieldModifed = buffer.isFieldModifed(sfPos);
+        this.text = text;
+    }
+
     public Field() {
+        this(new char[0]);
+    }
+
+    protected Field(char[] text) {
         this.start = -1;
         this.fieldProtected = false;
         this.fieldNumeric = false;
@@ -42,7 +65,24 @@ public class Field {
         this.fieldIntenseDisplay = false;
         this.fieldSelectorPen = false;
         this.fieldModifed = false;
-        this.text = new char[0];
+        this.text = text;
+    }
+
+    /**
+     * Create a copy of an existing field with replacement text, the attributes are unchanged
+     * 
+     * @param field - the field to copy the attributes from
+     * @param text - the new text of the field
+     */
+    protected Field(Field field, char[] text) {
+        this.start = field.start;
+        this.fieldProtected = field.fieldProtected;
+        this.fieldNumeric = field.fieldNumeric;
+        this.fieldDisplay = field.fieldDisplay;
+        this.fieldIntenseDisplay = field.fieldIntenseDisplay;
+        this.fieldSelectorPen = field.fieldSelectorPen;
+        this.fieldModifed = field.fieldModifed;
+        this.text = text;
     }
 
     protected void appendChar(char newChar) {
@@ -82,6 +122,13 @@ public class Field {
         return new String(this.text).contains(searchText);
     }
 
+    /**
+     * @return the field text without copying, must not be changed
+     */
+    char[] getText() {
+        return this.text;
+    }
+
     public int getStart() {
         if (this.start == -1) {
             return 0;
@@ -0,0 +1,196 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos3270.spi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.validation.constraints.NotNull;
+
+import dev.galasa.zos3270.ErrorTextFoundException;
+import dev.galasa.zos3270.TextNotFoundException;
+
+/**
+ * Searches the fields of a screen for any of a set of ok and error texts.
+ * <p>
+ * All the texts are compiled into a single Aho-Corasick automaton when the
+ * matcher is created, so each screen update is checked with one pass over the
+ * field text regardless of how many texts are being waited on. The automaton
+ * is reset at every field boundary so a text only matches if it is wholly
+ * within a single field, as with {@link Field#containsText(String)}.
+ * </p>
+ * <p>
+ * The result is the same as searching for each text in turn, error texts
+ * take priority over ok texts and the lowest matching index is reported.
+ * The matcher is immutable once built and can be shared between threads.
+ * </p>
+ */
+public class FieldTextMatcher {
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final String[]   okText;
+    private final String[]   errorText;
+
+    // *** per state, the sorted transition characters and their target states
+    private final char[][]   transitionChars;
+    private final int[][]    transitionStates;
+    private final int[]      failure;
+    // *** per state, the lowest ok/error index that ends at this state, including via the failure chain
+    private final int[]      okMatch;
+    private final int[]      errorMatch;
+
+    public FieldTextMatcher(@NotNull String[] okText, String[] errorText) {
+        this.okText = okText;
+        this.errorText = (errorText == null) ? new String[0] : errorText;
+
+        ArrayList<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        ArrayList<int[]> matches = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        matches.add(new int[] { NO_MATCH, NO_MATCH });
+
+        for (int i = 0; i < this.errorText.length; i++) {
+            addText(trie, matches, this.errorText[i], 1, i);
+        }
+        for (int i = 0; i < this.okText.length; i++) {
+            addText(trie, matches, this.okText[i], 0, i);
+        }
+
+        int states = trie.size();
+        this.transitionChars = new char[states][];
+        this.transitionStates = new int[states][];
+        this.failure = new int[states];
+        this.okMatch = new int[states];
+        this.errorMatch = new int[states];
+
+        for (int s = 0; s < states; s++) {
+            TreeMap<Character, Integer> next = trie.get(s);
+            this.transitionChars[s] = new char[next.size()];
+            this.transitionStates[s] = new int[next.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> entry : next.entrySet()) {
+                this.transitionChars[s][i] = entry.getKey();
+                this.transitionStates[s][i] = entry.getValue();
+                i++;
+            }
+            this.okMatch[s] = matches.get(s)[0];
+            this.errorMatch[s] = matches.get(s)[1];
+        }
+
+        buildFailureLinks();
+    }
+
+    private static void addText(ArrayList<TreeMap<Character, Integer>> trie, ArrayList<int[]> matches, String text,
+            int kind, int index) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            Integer next = trie.get(state).get(text.charAt(i));
+            if (next == null) {
+                next = trie.size();
+                trie.add(new TreeMap<>());
+                matches.add(new int[] { NO_MATCH, NO_MATCH });
+                trie.get(state).put(text.charAt(i), next);
+            }
+            state = next;
+        }
+        int[] match = matches.get(state);
+        match[kind] = Math.min(match[kind], index);
+    }
+
+    /**
+     * Breadth first so the failure state of a state is always complete before
+     * the state itself is processed
+     */
+    private void buildFailureLinks() {
+        int[] queue = new int[this.failure.length];
+        int head = 0;
+        int tail = 0;
+
+        for (int child : this.transitionStates[0]) {
+            this.failure[child] = 0;
+            queue[tail++] = child;
+        }
+
+        while (head < tail) {
+            int state = queue[head++];
+            for (int i = 0; i < this.transitionChars[state].length; i++) {
+                char c = this.transitionChars[state][i];
+                int child = this.transitionStates[state][i];
+
+                int fail = this.failure[state];
+                int target = transition(fail, c);
+                while (target < 0 && fail != 0) {
+                    fail = this.failure[fail];
+                    target = transition(fail, c);
+                }
+                this.failure[child] = (target < 0) ? 0 : target;
+
+                this.okMatch[child] = Math.min(this.okMatch[child], this.okMatch[this.failure[child]]);
+                this.errorMatch[child] = Math.min(this.errorMatch[child], this.errorMatch[this.failure[child]]);
+
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    private int transition(int state, char c) {
+        int i = Arrays.binarySearch(this.transitionChars[state], c);
+        if (i < 0) {
+            return -1;
+        }
+        return this.transitionStates[state][i];
+    }
+
+    /**
+     * Search the fields for the ok and error texts
+     *
+     * @param fields - the fields of the screen
+     * @return the index of the lowest ok text found
+     * @throws ErrorTextFoundException - if any of the error texts is found
+     * @throws TextNotFoundException - if none of the texts are found
+     */
+    public int search(Field[] fields) throws TextNotFoundException, ErrorTextFoundException {
+        int foundOk = NO_MATCH;
+        int foundError = NO_MATCH;
+
+        for (Field field : fields) {
+            // *** empty texts match at the root, ie in any field
+            foundOk = Math.min(foundOk, this.okMatch[0]);
+            foundError = Math.min(foundError, this.errorMatch[0]);
+
+            int state = 0;
+            for (char c : field.getText()) {
+                int next = transition(state, c);
+                while (next < 0 && state != 0) {
+                    state = this.failure[state];
+                    next = transition(state, c);
+                }
+                state = (next < 0) ? 0 : next;
+
+                foundOk = Math.min(foundOk, this.okMatch[state]);
+                foundError = Math.min(foundError, this.errorMatch[state]);
+            }
+
+            if (foundError == 0) {
+                break;
+            }
+        }
+
+        if (foundError != NO_MATCH) {
+            throw new ErrorTextFoundException("Found error text '" + this.errorText[foundError] + "' on screen",
+                    foundError);
+        }
+
+        if (foundOk != NO_MATCH) {
+            return foundOk;
+        }
+
+        throw new TextNotFoundException("Unable to locate text on sreen");
+    }
+
+}
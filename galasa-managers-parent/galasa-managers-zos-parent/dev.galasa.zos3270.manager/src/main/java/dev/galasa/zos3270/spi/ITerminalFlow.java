@@ -0,0 +1,28 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos3270.spi;
+
+/**
+ * A scripted flow run repeatedly by each terminal of a {@link TerminalFarm}.
+ * <p>
+ * The flow drives the terminal the same way a test would, the response time of
+ * every AID is recorded by the farm, under the transaction name set with
+ * {@link TerminalFarmSession#transaction(String)} or the AID if none has been
+ * set.
+ * </p>
+ */
+@FunctionalInterface
+public interface ITerminalFlow {
+
+    /**
+     * Run one iteration of the flow
+     *
+     * @param session - the terminal and the iteration being run
+     * @throws Exception - the iteration is counted as failed and the next one is started
+     */
+    void run(TerminalFarmSession session) throws Exception;
+
+}
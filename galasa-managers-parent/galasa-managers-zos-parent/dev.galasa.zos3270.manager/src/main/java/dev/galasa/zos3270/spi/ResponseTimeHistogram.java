@@ -0,0 +1,163 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos3270.spi;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of response times in microseconds, that can be recorded into
+ * from many threads at once.
+ * <p>
+ * The buckets are log-linear, each power of 2 is split into 16 buckets, so a
+ * percentile is accurate to within about 6% of the value whatever the range of
+ * response times.
+ * </p>
+ */
+public class ResponseTimeHistogram {
+
+    private static final int      SUB_BUCKET_BITS  = 4;
+    private static final int      SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int      MAX_MSB          = 40;
+    private static final int      BUCKET_COUNT     = (MAX_MSB - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets          = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder       count            = new LongAdder();
+    private final LongAdder       total            = new LongAdder();
+    private final AtomicLong      min              = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong      max              = new AtomicLong();
+
+    /**
+     * Record a response time
+     *
+     * @param time - the response time
+     * @param unit - the unit of the time
+     */
+    public void record(long time, TimeUnit unit) {
+        long micros = Math.max(0, unit.toMicros(time));
+
+        this.buckets.incrementAndGet(bucketIndex(micros));
+        this.count.increment();
+        this.total.add(micros);
+        this.min.accumulateAndGet(micros, Math::min);
+        this.max.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * Add all the response times from another histogram
+     *
+     * @param other - the other histogram
+     */
+    public void add(ResponseTimeHistogram other) {
+        if (other.getCount() == 0) {
+            return;
+        }
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long bucket = other.buckets.get(i);
+            if (bucket != 0) {
+                this.buckets.addAndGet(i, bucket);
+            }
+        }
+        this.count.add(other.count.sum());
+        this.total.add(other.total.sum());
+        this.min.accumulateAndGet(other.min.get(), Math::min);
+        this.max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * @return the fastest response time in microseconds, or 0 if nothing was recorded
+     */
+    public long getMin() {
+        return getCount() == 0 ? 0 : this.min.get();
+    }
+
+    /**
+     * @return the slowest response time in microseconds
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * @return the mean response time in microseconds
+     */
+    public double getMean() {
+        long c = getCount();
+        return c == 0 ? 0 : (double) this.total.sum() / c;
+    }
+
+    /**
+     * Return the response time that the given percentage of responses were at
+     * or below
+     *
+     * @param percentile - the percentile, 0 to 100
+     * @return the response time in microseconds, the upper bound of the bucket
+     *         containing the percentile
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+
+        long c = getCount();
+        if (c == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * c));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += this.buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * @return count, mean and percentiles in milliseconds, for reports
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d min=%.3fms mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms",
+                getCount(), getMin() / 1000.0, getMean() / 1000.0, getPercentile(50) / 1000.0,
+                getPercentile(90) / 1000.0, getPercentile(99) / 1000.0, getMax() / 1000.0);
+    }
+
+    private static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) micros;
+        }
+
+        int msb = 63 - Long.numberOfLeadingZeros(micros);
+        if (msb > MAX_MSB) {
+            return BUCKET_COUNT - 1;
+        }
+
+        int subBucket = (int) (micros >>> (msb - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (msb - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int msb = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKET_COUNT;
+        return ((long) (SUB_BUCKET_COUNT + subBucket + 1) << (msb - SUB_BUCKET_BITS)) - 1;
+    }
+
+}
@@ -84,7 +84,7 @@ public class Screen {
     private final Network                           network;
 
     private boolean                                 usingAlternate;
-    private IBufferHolder[]                         buffer;
+    private ScreenBuffer                            buffer;
     private int                                     screenSize;
     private int                                     columns;
     private int                                     rows;
@@ -99,7 +99,8 @@ public class Screen {
     private int                                     screenCursor    = 0;
 
     private Semaphore                               keyboardLock    = new Semaphore(1, true);
-    private boolean                                 keyboardLockSet = false;
+    // *** Volatile as isKeyboardLocked() is called from other threads, e.g. the terminal farm
+    private volatile boolean                        keyboardLockSet = false;
 
     private final LinkedList<IDatastreamListener> datastreamListeners =  new LinkedList<>();
 
@@ -107,6 +108,13 @@ public class Screen {
 
     private AttentionIdentification                 lastAid = AttentionIdentification.NONE;
 
+    // *** The field index is maintained incrementally, only the fields overlapping the dirty
+    // *** region are rebuilt unless a start of field has been added or removed
+    private Field[]                                 fieldIndex;
+    private boolean                                 fieldStructureChanged = true;
+    private int                                     dirtyStart = -1;
+    private int                                     dirtyEnd   = -1;
+
     public Screen() throws TerminalInterruptedException {
         this(80, 24, null);
     }
@@ -146,6 +154,10 @@ public class Screen {
         }
     }
 
+    public boolean isKeyboardLocked() {
+        return keyboardLockSet;
+    }
+
     public void networkClosed() throws TerminalInterruptedException {
         lockKeyboard();
     }
@@ -192,10 +204,9 @@ public class Screen {
 
     private void resetMdt() {
         for(int i = 0; i < this.screenSize; i++) {
-            IBufferHolder bh = this.buffer[i];
-            if (bh instanceof BufferStartOfField) {
-                BufferStartOfField sof = (BufferStartOfField) bh;
-                sof.clearFieldModified();
+            if (this.buffer.isStartOfField(i) && this.buffer.isFieldModifed(i)) {
+                this.buffer.clearFieldModified(i);
+                markDirty(i);
             }
         }
     }
@@ -209,22 +220,21 @@ public class Screen {
             BufferAddress cursor = new BufferAddress(this.screenCursor);
             outboundBuffer.write(cursor.getCharRepresentation());
 
-            for(IBufferHolder bh : this.buffer) {
-                if (bh == null) {
-                    outboundBuffer.write(0);
-                } else if (bh instanceof BufferGraphicsEscape) {
-                    BufferGraphicsEscape bc = (BufferGraphicsEscape) bh;
-                    outboundBuffer.write(OrderGraphicsEscape.ID);
-                    outboundBuffer.write(bc.getFieldEbcdic());
-                } else if (bh instanceof BufferChar) {
-                    BufferChar bc = (BufferChar) bh;
-                    outboundBuffer.write(bc.getFieldEbcdic());
-                } else if (bh instanceof BufferStartOfField) {
-                    BufferStartOfField sf = (BufferStartOfField) bh;
-                    OrderStartField osf = new OrderStartField(sf.isProtected(), sf.isNumeric(), sf.isDisplay(), sf.isIntenseDisplay(), sf.isSelectorPen(), sf.isFieldModifed());
-                    outboundBuffer.write(osf.getBytes());
-                } else {
-                    throw new DatastreamException("Unrecognised Buffer Holder - " + bh.getClass().getName());
+            for(int i = 0; i < this.screenSize; i++) {
+                switch(this.buffer.getType(i)) {
+                    case ScreenBuffer.TYPE_NULL:
+                        outboundBuffer.write(0);
+                        break;
+                    case ScreenBuffer.TYPE_GRAPHICS_ESCAPE:
+                        outboundBuffer.write(OrderGraphicsEscape.ID);
+                        outboundBuffer.write(this.buffer.getFieldEbcdic(i));
+                        break;
+                    case ScreenBuffer.TYPE_START_OF_FIELD:
+                        OrderStartField osf = new OrderStartField(this.buffer.isProtected(i), this.buffer.isNumeric(i), this.buffer.isDisplay(i), this.buffer.isIntenseDisplay(i), this.buffer.isSelectorPen(i), this.buffer.isFieldModifed(i));
+                        outboundBuffer.write(osf.getBytes());
+                        break;
+                    default:
+                        outboundBuffer.write(this.buffer.getFieldEbcdic(i));
                 }
             }
             writeTrace(outboundBuffer);
@@ -281,15 +291,15 @@ public class Screen {
 
         int start = 0;
         int end = 0;
-        for (; start < buffer.length; start++) {
-            if (buffer[start] instanceof BufferStartOfField) {
+        for (; start < this.screenSize; start++) {
+            if (this.buffer.isStartOfField(start)) {
                 break;
             }
         }
 
-        if (start >= buffer.length) { // indicates unfromatted, send it all
+        if (start >= this.screenSize) { // indicates unfromatted, send it all
             start = 0;
-            end = buffer.length - 1;
+            end = this.screenSize - 1;
 
             // OrderSetBufferAddress sba = new OrderSetBufferAddress(new BufferAddress(0));
             // outboundBuffer.write(sba.getCharRepresentation());
@@ -297,32 +307,29 @@ public class Screen {
         } else { // formatted
             end = start - 1;
             if (end < 0) {
-                end = buffer.length - 1;
+                end = this.screenSize - 1;
             }
         }
 
         int pos = start;
         while (true) {
-            IBufferHolder bh = buffer[pos];
-            if (bh instanceof BufferStartOfField) {
-                BufferStartOfField bsf = (BufferStartOfField) bh;
-                fieldModified = bsf.isFieldModifed();
+            byte type = this.buffer.getType(pos);
+            if (type == ScreenBuffer.TYPE_START_OF_FIELD) {
+                fieldModified = this.buffer.isFieldModifed(pos);
 
                 if (fieldModified) { // Send whether unprotected or not
                     OrderSetBufferAddress sba = new OrderSetBufferAddress(new BufferAddress(pos + 1));
                     outboundBuffer.write(sba.getCharRepresentation());
                 }
-            } else if (bh instanceof BufferGraphicsEscape) {
-                BufferGraphicsEscape bc = (BufferGraphicsEscape) bh;
+            } else if (type == ScreenBuffer.TYPE_GRAPHICS_ESCAPE) {
                 if (fieldModified) {
                     outboundBuffer.write(OrderGraphicsEscape.ID);
-                    byte value = bc.getFieldEbcdic();
+                    byte value = this.buffer.getFieldEbcdic(pos);
                     outboundBuffer.write(value);
                 }
-            } else if (bh instanceof BufferChar) {
-                BufferChar bc = (BufferChar) bh;
+            } else if (type != ScreenBuffer.TYPE_NULL) {
                 if (fieldModified) {
-                    byte value = bc.getFieldEbcdic();
+                    byte value = this.buffer.getFieldEbcdic(pos);
                     if (value != 0) {
                         outboundBuffer.write(value);
                     }
@@ -334,7 +341,7 @@ public class Screen {
             }
 
             pos++;
-            if (pos >= buffer.length) {
+            if (pos >= this.screenSize) {
                 pos = 0;
             }
         }
@@ -501,9 +508,8 @@ public class Screen {
             this.usingAlternate = false;
         }
 
-        for (int i = 0; i < buffer.length; i++) {
-            buffer[i] = null;
-        }
+        this.buffer.clear();
+        this.fieldStructureChanged = true;
 
         this.screenCursor  = 0;
         this.workingCursor = 0;
@@ -524,9 +530,8 @@ public class Screen {
             this.usingAlternate = true;
         }
 
-        for (int i = 0; i < buffer.length; i++) {
-            buffer[i] = null;
-        }
+        this.buffer.clear();
+        this.fieldStructureChanged = true;
 
         this.screenCursor  = 0;
         this.workingCursor = 0;
@@ -534,7 +539,7 @@ public class Screen {
 
     private void allocateBuffer() {
         this.screenSize = this.columns * this.rows;
-        this.buffer = new IBufferHolder[this.screenSize];        
+        this.buffer = new ScreenBuffer(this.screenSize);
     }
 
     /**
@@ -565,7 +570,7 @@ public class Screen {
 
         boolean firstPosition = true;
         while (firstPosition || this.workingCursor != endOfRepeat) {
-            this.buffer[this.workingCursor] = new BufferChar(order.getChar());
+            setBufferChar(this.workingCursor, order.getChar());
             if (endOfRepeat == this.screenSize && this.workingCursor == (this.screenSize - 1)) {
                 endOfRepeat = 0;
                 break;
@@ -585,39 +590,34 @@ public class Screen {
     }
 
     private void processSF(OrderStartField order) {
-        this.buffer[this.workingCursor] = new BufferStartOfField(this.workingCursor, order.isFieldProtected(),
-                order.isFieldNumeric(), order.isFieldDisplay(), order.isFieldIntenseDisplay(),
-                order.isFieldSelectorPen(), order.isFieldModifed());
+        setBufferStartOfField(this.workingCursor, order);
         incrementWorkingCursor();
     }
 
     private void processSFE(OrderStartFieldExtended order) {
         List<IAttribute> attributes = order.getAttributes();
 
-        BufferStartOfField bsf = null;
+        OrderStartField sf = null;
         for (IAttribute attr : attributes) {
             if (attr instanceof OrderStartField) {
-                OrderStartField sf = (OrderStartField) attr;
-                bsf = new BufferStartOfField(this.workingCursor, sf.isFieldProtected(), sf.isFieldNumeric(),
-                        sf.isFieldDisplay(), sf.isFieldIntenseDisplay(), sf.isFieldSelectorPen(), sf.isFieldModifed());
+                sf = (OrderStartField) attr;
             }
             // TODO add processing for character attributes
         }
 
-        if (bsf == null) {
-            bsf = new BufferStartOfField(this.workingCursor, false, false, true, false, false, false);
+        if (sf == null) {
+            sf = new OrderStartField(false, false, true, false, false, false);
         }
 
-        this.buffer[this.workingCursor] = bsf;
+        setBufferStartOfField(this.workingCursor, sf);
         incrementWorkingCursor();
     }
 
     private void processEUA(OrderEraseUnprotectedToAddress order) {
         boolean charProtected = true;
-        IBufferHolder bh = this.buffer[this.workingCursor];
         // are we on a SF, if so take the protected setting
-        if (bh instanceof BufferStartOfField) {
-            charProtected = ((BufferStartOfField)bh).isProtected();
+        if (this.buffer.isStartOfField(this.workingCursor)) {
+            charProtected = this.buffer.isProtected(this.workingCursor);
         } else {
             // we have to go looking backwards for it
             int searchCursor = this.workingCursor - 1;
@@ -626,10 +626,8 @@ public class Screen {
             }
             boolean found = false;
             while(searchCursor != this.workingCursor) {
-                bh = this.buffer[searchCursor];
-
-                if (bh instanceof BufferStartOfField) {
-                    charProtected = ((BufferStartOfField)bh).isProtected();
+                if (this.buffer.isStartOfField(searchCursor)) {
+                    charProtected = this.buffer.isProtected(searchCursor);
                     found = true;
                     break;
                 }
@@ -657,12 +655,11 @@ public class Screen {
 
         int eraseCursor = this.workingCursor;
         while(true) {
-            bh = this.buffer[eraseCursor];
-            if (bh instanceof BufferStartOfField) {
-                charProtected = ((BufferStartOfField)bh).isProtected();
+            if (this.buffer.isStartOfField(eraseCursor)) {
+                charProtected = this.buffer.isProtected(eraseCursor);
             } else {
                 if (!charProtected) {
-                    this.buffer[eraseCursor] = null;
+                    setBufferNull(eraseCursor);
                 }
             }
 
@@ -685,53 +682,46 @@ public class Screen {
     }
 
     private void processNewLine() {
-        this.buffer[this.workingCursor] = new BufferNewLine();
+        setBufferOrder(this.workingCursor, ScreenBuffer.TYPE_NEW_LINE);
         incrementWorkingCursor();
     }
 
     private void processFormFeed() {
-        this.buffer[this.workingCursor] = new BufferFormFeed();
+        setBufferOrder(this.workingCursor, ScreenBuffer.TYPE_FORM_FEED);
         incrementWorkingCursor();
     }
 
     private void processCarrageReturn() {
-        this.buffer[this.workingCursor] = new BufferCarrageReturn();
+        setBufferOrder(this.workingCursor, ScreenBuffer.TYPE_CARRAGE_RETURN);
         incrementWorkingCursor();
     }
 
     private void processEndOfMedium() {
-        this.buffer[this.workingCursor] = new BufferEndOfMedium();
+        setBufferOrder(this.workingCursor, ScreenBuffer.TYPE_END_OF_MEDIUM);
         incrementWorkingCursor();
     }
 
     private void processGraphicsEscape(OrderGraphicsEscape order) {
-        this.buffer[this.workingCursor] = new BufferGraphicsEscape(order.getByte());
+        recordBufferChange(this.workingCursor);
+        this.buffer.setGraphicsEscape(this.workingCursor, order.getByte());
         incrementWorkingCursor();
     }
 
     private void processText(OrderText order) {
         String text = order.getText();
         for (int i = 0; i < text.length(); i++) {
-            this.buffer[this.workingCursor] = new BufferChar(text.charAt(i));
+            setBufferChar(this.workingCursor, text.charAt(i));
             incrementWorkingCursor();
         }
 
     }
 
     public String printScreen() {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < this.buffer.length; i++) {
-            if (this.buffer[i] == null) {
-                sb.append(" ");
-            } else {
-                sb.append(this.buffer[i].getStringWithoutNulls());
-            }
-        }
+        char[] screenChars = retrieveDisplayChars();
 
-        StringBuilder screenSB = new StringBuilder();
-        String screenString = sb.toString();
+        StringBuilder screenSB = new StringBuilder(this.screenSize + this.rows);
         for (int i = 0; i < this.screenSize; i += this.columns) {
-            screenSB.append(screenString.substring(i, i + this.columns));
+            screenSB.append(screenChars, i, this.columns);
             screenSB.append('\n');
         }
         return screenSB.toString();
@@ -741,21 +731,13 @@ public class Screen {
         int cursorRow = screenCursor / columns;
         int cursorCol = screenCursor % columns;
 
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < this.buffer.length; i++) {
-            if (this.buffer[i] == null) {
-                sb.append(" ");
-            } else {
-                sb.append(this.buffer[i].getStringWithoutNulls());
-            }
-        }
+        char[] screenChars = retrieveDisplayChars();
 
         StringBuilder screenSB = new StringBuilder();
-        String screenString = sb.toString();
         int row = 0;
         for (int i = 0; i < this.screenSize; i += this.columns) {
             screenSB.append("=|");
-            screenSB.append(screenString.substring(i, i + this.columns));
+            screenSB.append(screenChars, i, this.columns);
             screenSB.append("|");
             screenSB.append('\n');
             if (row == cursorRow) {
@@ -808,59 +790,79 @@ public class Screen {
     }
 
     public String retrieveFlatScreen() {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < this.buffer.length; i++) {
-            if (this.buffer[i] == null) {
-                sb.append(" ");
-            } else {
-                sb.append(this.buffer[i].getStringWithoutNulls());
-            }
+        return new String(retrieveDisplayChars());
+    }
+
+    private synchronized char[] retrieveDisplayChars() {
+        char[] screenChars = new char[this.screenSize];
+        for (int i = 0; i < this.screenSize; i++) {
+            screenChars[i] = this.buffer.getDisplayChar(i);
         }
-        return sb.toString();
+        return screenChars;
     }
 
 
 
     public synchronized @NotNull Field[] calculateFields() {
+        return getFieldIndex().clone();
+    }
+
+    /**
+     * Retrieve the current field index, rebuilding it if the fields have been
+     * restructured, or refreshing the text of only those fields that overlap
+     * the buffer positions updated since the last call.
+     * 
+     * The returned array is never updated in place, so it is safe to iterate
+     * outside of the screen lock, but it must not be modified.
+     * 
+     * @return the current fields on the screen
+     */
+    private synchronized Field[] getFieldIndex() {
+        if (this.fieldIndex == null || this.fieldStructureChanged) {
+            this.fieldIndex = buildFieldIndex();
+        } else if (this.dirtyStart >= 0) {
+            this.fieldIndex = refreshDirtyFields(this.fieldIndex);
+        }
+
+        this.fieldStructureChanged = false;
+        this.dirtyStart = -1;
+        this.dirtyEnd   = -1;
+
+        return this.fieldIndex;
+    }
+
+    private Field[] buildFieldIndex() {
         ArrayList<Field> fields = new ArrayList<>();
 
-        Field currentField = null;
+        boolean inField = false;
+        int fieldStart = -1;
+        int textStart = 0;
+        int fieldSfPos = -1;
 
         // *** Check to see if the screen is wrapped or unformatted
-        if (!(this.buffer[0] instanceof BufferStartOfField)) {
-            BufferStartOfField wrapSoField = null;
-            for (int i = this.buffer.length - 1; i >= 0; i--) {
-                IBufferHolder bh = this.buffer[i];
-                if (bh instanceof BufferStartOfField) {
-                    wrapSoField = (BufferStartOfField) bh;
+        if (!this.buffer.isStartOfField(0)) {
+            for (int i = this.screenSize - 1; i >= 0; i--) {
+                if (this.buffer.isStartOfField(i)) {
+                    fieldSfPos = i;
                     break;
                 }
             }
-
-            if (wrapSoField == null) {
-                currentField = new Field();
-            } else {
-                currentField = new Field(-1, wrapSoField);
-            }
+            inField = true;
         }
 
-        for (int i = 0; i < this.buffer.length; i++) {
-            IBufferHolder bh = this.buffer[i];
-            if (bh == null) {
-                currentField.appendChar((char) 0x00); // NOSONAR, can't be null
-            } else if (bh instanceof BufferStartOfField) {
-                if (currentField != null) {
-                    fields.add(currentField);
+        for (int i = 0; i < this.screenSize; i++) {
+            if (this.buffer.isStartOfField(i)) {
+                if (inField) {
+                    fields.add(createField(fieldStart, fieldSfPos, textStart, i));
                 }
-                currentField = new Field(i, (BufferStartOfField) bh);
-            } else if (bh instanceof BufferChar) {
-                currentField.appendChar(((BufferChar) bh).getChar());// NOSONAR, can't be null
-            } else {
-                throw new UnsupportedOperationException("Unrecognised buffer type " + bh.getClass().getName());
+                inField = true;
+                fieldStart = i;
+                fieldSfPos = i;
+                textStart = i + 1;
             }
         }
-        if (currentField != null) {
-            fields.add(currentField);
+        if (inField) {
+            fields.add(createField(fieldStart, fieldSfPos, textStart, this.screenSize));
         }
 
         // *** If the SBA were not in order, possibility that the safeguard first field
@@ -874,8 +876,96 @@ public class Screen {
         return fields.toArray(new Field[fields.size()]);
     }
 
+    private Field[] refreshDirtyFields(Field[] currentIndex) {
+        Field[] newIndex = currentIndex.clone();
+        Field lastField = newIndex[newIndex.length - 1];
+        for (int i = 0; i < newIndex.length; i++) {
+            Field field = newIndex[i];
+            int textStart = field.isDummyField() ? 0 : field.getStart() + 1;
+            int textEnd = textStart + field.length() - 1;
+
+            // *** A wrapped field takes its attributes from the last start of field on the screen
+            int sfPos = field.getStart();
+            if (field.isDummyField()) {
+                sfPos = lastField.isDummyField() ? -1 : lastField.getStart();
+            }
+
+            if (sfPos >= 0 && this.dirtyStart <= sfPos && sfPos <= this.dirtyEnd) {
+                newIndex[i] = new Field(field.isDummyField() ? -1 : sfPos, this.buffer, sfPos,
+                        extractFieldText(textStart, textEnd));
+            } else if (textStart <= this.dirtyEnd && this.dirtyStart < textEnd) {
+                newIndex[i] = new Field(field, extractFieldText(textStart, textEnd));
+            }
+        }
+        return newIndex;
+    }
+
+    private Field createField(int start, int sfPos, int textStart, int textEnd) {
+        char[] text = extractFieldText(textStart, textEnd);
+        if (sfPos < 0) {
+            return new Field(text);
+        }
+        return new Field(start, this.buffer, sfPos, text);
+    }
+
+    private char[] extractFieldText(int textStart, int textEnd) {
+        char[] text = new char[textEnd - textStart];
+        for (int i = textStart; i < textEnd; i++) {
+            text[i - textStart] = this.buffer.getChar(i);
+        }
+        return text;
+    }
+
+    /*
+     * The setBuffer methods update a buffer position, recording the change against the field index
+     */
+    private void setBufferChar(int pos, char character) {
+        recordBufferChange(pos);
+        this.buffer.setChar(pos, character);
+    }
+
+    private void setBufferNull(int pos) {
+        recordBufferChange(pos);
+        this.buffer.setNull(pos);
+    }
+
+    private void setBufferOrder(int pos, byte type) {
+        recordBufferChange(pos);
+        this.buffer.setOrder(pos, type);
+    }
+
+    private void setBufferStartOfField(int pos, OrderStartField sf) {
+        this.fieldStructureChanged = true;
+        this.buffer.setStartOfField(pos, sf.isFieldProtected(), sf.isFieldNumeric(), sf.isFieldDisplay(),
+                sf.isFieldIntenseDisplay(), sf.isFieldSelectorPen(), sf.isFieldModifed());
+    }
+
+    private void recordBufferChange(int pos) {
+        if (this.buffer.isStartOfField(pos)) {
+            this.fieldStructureChanged = true;
+        } else {
+            markDirty(pos);
+        }
+    }
+
+    private void markDirty(int pos) {
+        if (this.dirtyStart < 0 || pos < this.dirtyStart) {
+            this.dirtyStart = pos;
+        }
+        if (pos > this.dirtyEnd) {
+            this.dirtyEnd = pos;
+        }
+    }
+
+    private void setFieldModified(int sfPos) {
+        if (!this.buffer.isFieldModifed(sfPos)) {
+            this.buffer.setFieldModified(sfPos);
+            markDirty(sfPos);
+        }
+    }
+
     public void searchFieldContaining(String text) throws TextNotFoundException {
-        for (Field field : calculateFields()) {
+        for (Field field : getFieldIndex()) {
             if (field.containsText(text)) {
                 return;
             }
@@ -885,29 +975,24 @@ public class Screen {
     }
 
     public int searchFieldContaining(@NotNull String[] okText, String[] errorText) throws TextNotFoundException, ErrorTextFoundException {
-        if (errorText != null) {
-            for(int i = 0; i < errorText.length; i++) {
-                for (Field field : calculateFields()) {
-                    if (field.containsText(errorText[i])) {
-                        throw new ErrorTextFoundException("Found error text '" + errorText[i] + "' on screen", i);
-                    }
-                }
-            }
-        }
-
-        for(int i = 0; i < okText.length; i++) {
-            for (Field field : calculateFields()) {
-                if (field.containsText(okText[i])) {
-                    return i;
-                }
-            }
-        }
+        return searchFieldContaining(new FieldTextMatcher(okText, errorText));
+    }
 
-        throw new TextNotFoundException("Unable to locate text on sreen");
+    /**
+     * Search the fields with a matcher that has already been built, so waits
+     * do not recompile the texts on every screen update
+     * 
+     * @param matcher - the compiled ok and error texts
+     * @return the index of the ok text found
+     * @throws TextNotFoundException - if none of the texts are found
+     * @throws ErrorTextFoundException - if any of the error texts are found
+     */
+    public int searchFieldContaining(@NotNull FieldTextMatcher matcher) throws TextNotFoundException, ErrorTextFoundException {
+        return matcher.search(getFieldIndex());
     }
 
     public boolean isTextInField(String text) {
-        for (Field field : calculateFields()) {
+        for (Field field : getFieldIndex()) {
             if (field.containsText(text)) {
                 return true;
             }
@@ -959,7 +1044,7 @@ public class Screen {
             throw new KeyboardLockedException("Unable to move cursor as keyboard is locked");
         }
 
-        for (Field field : calculateFields()) {
+        for (Field field : getFieldIndex()) {
             if (field.containsText(text)) {
                 this.screenCursor = field.getStart();
                 return;
@@ -974,40 +1059,25 @@ public class Screen {
             throw new KeyboardLockedException("Unable to move cursor as keyboard is locked");
         }
 
-        if (buffer[screenCursor] != null && !(buffer[screenCursor] instanceof BufferChar)) {
+        if (this.buffer.isStartOfField(screenCursor)) {
             throw new FieldNotFoundException("Unable to type where the cursor is pointing to - " + this.screenCursor);
         }
 
-        BufferStartOfField sf = null;
-        int sfPos = screenCursor - 1;
-        if (sfPos < 0) {
-            sfPos = buffer.length - 1;
-        }
-        while(sfPos != screenCursor) {
-            if (buffer[sfPos] instanceof BufferStartOfField) {
-                sf = (BufferStartOfField) buffer[sfPos];
-                break;
-            }
-
-            sfPos--;
-            if (sfPos < 0) {
-                sfPos = buffer.length - 1;
-            }
-        }
+        int sfPos = findStartOfField(screenCursor);
 
         // *** if no field found, assume unprotected
-        if (sf != null && sf.isProtected()) {
+        if (sfPos >= 0 && this.buffer.isProtected(sfPos)) {
             throw new FieldNotFoundException("Unable to type where the cursor is pointing to - " + screenCursor);
         }
 
         //*** Set this and following characters to null
         int pos = this.screenCursor;
         while(true) {
-            if (!(buffer[pos] instanceof BufferChar)) {
+            if (!this.buffer.isCharacter(pos)) {
                 break;
             }
 
-            buffer[pos] = new BufferChar((char) 0);
+            setBufferChar(pos, (char) 0);
             pos++;
             if (pos >= this.screenSize) {
                 pos = 0;
@@ -1018,9 +1088,33 @@ public class Screen {
             }
         }
 
-        if (sf != null) {
-            sf.setFieldModified();
+        if (sfPos >= 0) {
+            setFieldModified(sfPos);
+        }
+    }
+
+    /**
+     * Locate the start of field that a buffer position belongs to
+     * 
+     * @param position - the buffer position
+     * @return the position of the start of field, or -1 if the screen is unformatted
+     */
+    private int findStartOfField(int position) {
+        int sfPos = position - 1;
+        if (sfPos < 0) {
+            sfPos = this.screenSize - 1;
+        }
+        while(sfPos != position) {
+            if (this.buffer.isStartOfField(sfPos)) {
+                return sfPos;
+            }
+
+            sfPos--;
+            if (sfPos < 0) {
+                sfPos = this.screenSize - 1;
+            }
         }
+        return -1;
     }
 
 
@@ -1030,23 +1124,22 @@ public class Screen {
         }
 
         boolean unprotected = false;
-        BufferStartOfField startOfFieldUnprotected = null;
+        int startOfFieldUnprotected = -1;
 
         // *** Check to see if the screen is wrapped or unformatted
-        if (!(this.buffer[0] instanceof BufferStartOfField)) {
-            BufferStartOfField wrapSoField = null;
-            for (int i = this.buffer.length - 1; i >= 0; i--) {
-                IBufferHolder bh = this.buffer[i];
-                if (bh instanceof BufferStartOfField) {
-                    wrapSoField = (BufferStartOfField) bh;
+        if (!this.buffer.isStartOfField(0)) {
+            int wrapSoField = -1;
+            for (int i = this.screenSize - 1; i >= 0; i--) {
+                if (this.buffer.isStartOfField(i)) {
+                    wrapSoField = i;
                     break;
                 }
             }
 
-            if (wrapSoField == null) {
+            if (wrapSoField < 0) {
                 unprotected = true;  // unformatted, screen, so all unprotected
             } else {
-                unprotected = !wrapSoField.isProtected();
+                unprotected = !this.buffer.isProtected(wrapSoField);
                 startOfFieldUnprotected = wrapSoField;
             }
         }
@@ -1054,21 +1147,18 @@ public class Screen {
 
 
         for(int i = 0; i < this.screenSize; i++) {
-            IBufferHolder bh = this.buffer[i];
-
-            if (bh instanceof BufferStartOfField) {
-                BufferStartOfField sof = (BufferStartOfField) bh;
-                unprotected = !sof.isProtected();
+            if (this.buffer.isStartOfField(i)) {
+                unprotected = !this.buffer.isProtected(i);
                 if (unprotected) {
-                    startOfFieldUnprotected = sof;
+                    startOfFieldUnprotected = i;
                 } else {
-                    startOfFieldUnprotected = null;
+                    startOfFieldUnprotected = -1;
                 }
             } else {
                 if (unprotected) {
-                    this.buffer[i] = null;
-                    if (startOfFieldUnprotected != null) {
-                        startOfFieldUnprotected.setFieldModified();
+                    setBufferNull(i);
+                    if (startOfFieldUnprotected >= 0) {
+                        setFieldModified(startOfFieldUnprotected);
                     }
                 }
             }
@@ -1085,9 +1175,8 @@ public class Screen {
         int startPosition = this.screenCursor;
         boolean foundUnprotectedField = false;
 
-        IBufferHolder sfCheck = this.buffer[this.screenCursor];    
-        if (sfCheck instanceof BufferStartOfField) {
-            foundUnprotectedField = !((BufferStartOfField)sfCheck).isProtected();
+        if (this.buffer.isStartOfField(this.screenCursor)) {
+            foundUnprotectedField = !this.buffer.isProtected(this.screenCursor);
         }
         while(true) {
             // advance the cursor
@@ -1097,19 +1186,14 @@ public class Screen {
             }
 
             // Get the entry at this position
-            IBufferHolder previousBuffer = this.buffer[this.screenCursor];
-            if (previousBuffer == null || previousBuffer instanceof BufferChar) {
+            if (!this.buffer.isStartOfField(this.screenCursor)) {
                 // if this is a character and we are in an unprotected field, use it
                 if (foundUnprotectedField) {
                     return;
                 }
-            } else  if (previousBuffer instanceof BufferStartOfField) {
-                // we have a start of field
-                BufferStartOfField sof = (BufferStartOfField) previousBuffer;
-                // record if it is unprotected or not
-                foundUnprotectedField = !sof.isProtected();
             } else {
-                throw new FieldNotFoundException("Unrecognised buffer type at pos " + this.screenCursor);
+                // we have a start of field, record if it is unprotected or not
+                foundUnprotectedField = !this.buffer.isProtected(this.screenCursor);
             }
 
             if (this.screenCursor == startPosition) {
@@ -1137,15 +1221,13 @@ public class Screen {
             }
 
             // Get the entry in the previous position
-            IBufferHolder previousBuffer = this.buffer[previousPositionInBuffer];
-            if (previousBuffer == null || previousBuffer instanceof BufferChar) {
+            if (!this.buffer.isStartOfField(previousPositionInBuffer)) {
                 // if it is null or a character, mark position as the last valid position whether unprotected or not
                 lastCharField = previousPositionInBuffer;
-            } else  if (previousBuffer instanceof BufferStartOfField) {
+            } else {
                 // we have a start of field
-                BufferStartOfField sof = (BufferStartOfField) previousBuffer;
                 //if it is protected, invalidate the last valid char position
-                if (sof.isProtected()) {
+                if (this.buffer.isProtected(previousPositionInBuffer)) {
                     lastCharField = -1;
                 } else {
                     // as unprotected field,  indicate that there is atleast one on the screen
@@ -1156,8 +1238,6 @@ public class Screen {
                         return;
                     }
                 }
-            } else {
-                throw new FieldNotFoundException("Unrecognised buffer type at pos " + previousPositionInBuffer);
             }
 
             this.screenCursor = previousPositionInBuffer;
@@ -1223,7 +1303,7 @@ public class Screen {
             throw new KeyboardLockedException("Unable to move cursor as keyboard is locked");
         }
 
-        Field[] fields = calculateFields();
+        Field[] fields = getFieldIndex();
 
         if (fields == null || fields.length == 0) {
             this.screenCursor = 0;
@@ -1252,7 +1332,7 @@ public class Screen {
             throw new KeyboardLockedException("Unable to move cursor as keyboard is locked");
         }
 
-        Field[] fields = calculateFields();
+        Field[] fields = getFieldIndex();
 
 
         int newCursor = ((this.screenCursor / this.columns) + 1) * this.columns;
@@ -1317,29 +1397,14 @@ public class Screen {
 
         int position = this.screenCursor;
 
-        if (buffer[position] != null && !(buffer[position] instanceof BufferChar)) {
+        if (this.buffer.isStartOfField(position)) {
             throw new FieldNotFoundException("Unable to type where the cursor is pointing to - " + this.screenCursor);
         }
 
-        BufferStartOfField sf = null;
-        int sfPos = position - 1;
-        if (sfPos < 0) {
-            sfPos = buffer.length - 1;
-        }
-        while(sfPos != position) {
-            if (buffer[sfPos] instanceof BufferStartOfField) {
-                sf = (BufferStartOfField) buffer[sfPos];
-                break;
-            }
-
-            sfPos--;
-            if (sfPos < 0) {
-                sfPos = buffer.length - 1;
-            }
-        }
+        int sfPos = findStartOfField(position);
 
         // *** if no field found, assume unprotected
-        if (sf != null && sf.isProtected()) {
+        if (sfPos >= 0 && this.buffer.isProtected(sfPos)) {
             throw new FieldNotFoundException("Unable to type where the cursor is pointing to - " + position);
         }
 
@@ -1352,15 +1417,16 @@ public class Screen {
         }
 
         while(true) {
-            this.buffer[position - 1] = this.buffer[position];
-            this.buffer[position] = null;
+            recordBufferChange(position - 1);
+            this.buffer.copy(position, position - 1);
+            setBufferNull(position);
 
             position++;
             if (position >= this.screenSize) {
                 break;
             }
 
-            if (buffer[position] != null && !(buffer[position] instanceof BufferChar)) {
+            if (this.buffer.isStartOfField(position)) {
                 break;
             }
         }
@@ -1395,7 +1461,7 @@ public class Screen {
     }
 
     public Field locateFieldAt(int cursorPos) {
-        Field[] fields = calculateFields();
+        Field[] fields = getFieldIndex();
 
         int fieldPosition = 0;
         for (; fieldPosition < fields.length; fieldPosition++) {
@@ -1409,7 +1475,7 @@ public class Screen {
 
     public String getValueFromFieldContaining(String text) throws TextNotFoundException {
         Boolean foundHeader = false;
-        for (Field field : calculateFields()) {
+        for (Field field : getFieldIndex()) {
             if (!foundHeader) {
                 if (field.containsText(text)) {
                     foundHeader = true;
@@ -1440,29 +1506,14 @@ public class Screen {
             throw new KeyboardLockedException("Unable to type as keyboard is locked");
         }
 
-        if (buffer[position] != null && !(buffer[position] instanceof BufferChar)) {
+        if (this.buffer.isStartOfField(position)) {
             throw new FieldNotFoundException("Unable to type where the cursor is pointing to - " + position);
         }
 
-        BufferStartOfField sf = null;
-        int sfPos = position - 1;
-        if (sfPos < 0) {
-            sfPos = buffer.length - 1;
-        }
-        while(sfPos != position) {
-            if (buffer[sfPos] instanceof BufferStartOfField) {
-                sf = (BufferStartOfField) buffer[sfPos];
-                break;
-            }
-
-            sfPos--;
-            if (sfPos < 0) {
-                sfPos = buffer.length - 1;
-            }
-        }
+        int sfPos = findStartOfField(position);
 
         // *** if no field found, assume unprotected
-        if (sf != null && sf.isProtected()) {
+        if (sfPos >= 0 && this.buffer.isProtected(sfPos)) {
             throw new FieldNotFoundException("Unable to type where the cursor is pointing to - " + position);
         }
 
@@ -1471,16 +1522,15 @@ public class Screen {
         }
 
         for (int i = 0; i < text.length(); i++) {
-            IBufferHolder bh = buffer[position];
-            if (bh != null && !(bh instanceof BufferChar)) {
+            if (this.buffer.isStartOfField(position)) {
                 throw new FieldNotFoundException(
                         "Unable to type where the cursor is pointing to - " + position);
             }
 
-            buffer[position] = new BufferChar(text.charAt(i));
+            setBufferChar(position, text.charAt(i));
 
-            if (sf != null) {
-                sf.setFieldModified();
+            if (sfPos >= 0) {
+                setFieldModified(sfPos);
             }
 
             // We have successfully typed a character, so make sure the cursor is positioned
@@ -1494,17 +1544,16 @@ public class Screen {
                 }
 
                 this.screenCursor = position;
-                bh = buffer[position];
+                boolean startOfField = this.buffer.isStartOfField(position);
 
-                if (unprotected && (bh == null || (bh instanceof BufferChar))) {
+                if (unprotected && !startOfField) {
                     break;
                 }
 
-                if (bh != null && (bh instanceof BufferStartOfField)) {
-                    BufferStartOfField sof = (BufferStartOfField) bh;
-                    unprotected = !sof.isProtected();
+                if (startOfField) {
+                    unprotected = !this.buffer.isProtected(position);
                     if (unprotected) {
-                        sf = sof;
+                        sfPos = position;
                     }
                 }
             }
@@ -1551,7 +1600,7 @@ public class Screen {
     }
 
     public String printFields() {
-        Field[] fields = calculateFields();
+        Field[] fields = getFieldIndex();
 
         StringBuilder sb = new StringBuilder();
         for (Field field : fields) {
@@ -1562,32 +1611,43 @@ public class Screen {
         return sb.toString();
     }
 
-    public void setBuffer(IBufferHolder[] newBuffer) {
-        for (int i = 0; i < this.buffer.length && i < newBuffer.length; i++) {
-            this.buffer[i] = newBuffer[i];
+    public synchronized void setBuffer(IBufferHolder[] newBuffer) {
+        for (int i = 0; i < this.screenSize && i < newBuffer.length; i++) {
+            this.buffer.setBufferHolder(i, newBuffer[i]);
         }
+        this.fieldStructureChanged = true;
     }
 
-    public void setBuffer(int col, int row, String text) {
+    public synchronized void setBuffer(int col, int row, String text) {
         int pos = (row * columns) + col;
         for (int i = 0; i < text.length(); i++) {
-            buffer[pos] = new BufferChar(text.charAt(i));
+            setBufferChar(pos, text.charAt(i));
             pos++;
         }
     }
 
-    public void nullify(int col, int row, int len) {
+    public synchronized void nullify(int col, int row, int len) {
         int pos = (row * columns) + col;
         for (int i = 0; i < len; i++) {
-            buffer[pos] = null;
+            setBufferNull(pos);
             pos++;
         }
     }
 
+    /**
+     * Retrieve a copy of a buffer position
+     * 
+     * @param pos - the buffer position
+     * @return a new buffer holder representing the position, or null if the position is null
+     */
+    public synchronized IBufferHolder getBufferHolder(int pos) {
+        return this.buffer.getBufferHolder(pos);
+    }
+
     public Field getFieldAt(int col, int row) {
         int pos = (row * columns) + col;
 
-        Field[] fields = calculateFields();
+        Field[] fields = getFieldIndex();
         Field currentField = fields[0];
         for (int i = 1; i < fields.length; i++) {
             if (fields[i].getStart() > pos) {
@@ -0,0 +1,309 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos3270.spi;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Packed representation of the 3270 screen buffer.
+ * <p>
+ * Every buffer position is held as a type, a character and an attribute byte
+ * in parallel primitive arrays, so processing the datastream or typing does not
+ * allocate an object per position. {@link IBufferHolder} objects are only
+ * created when they are explicitly asked for.
+ * </p>
+ */
+public class ScreenBuffer {
+
+    public static final byte      TYPE_NULL            = 0;
+    public static final byte      TYPE_CHAR            = 1;
+    public static final byte      TYPE_START_OF_FIELD  = 2;
+    public static final byte      TYPE_NEW_LINE        = 3;
+    public static final byte      TYPE_FORM_FEED       = 4;
+    public static final byte      TYPE_CARRAGE_RETURN  = 5;
+    public static final byte      TYPE_END_OF_MEDIUM   = 6;
+    public static final byte      TYPE_GRAPHICS_ESCAPE = 7;
+
+    private static final byte     ATTR_PROTECTED       = 0x01;
+    private static final byte     ATTR_NUMERIC         = 0x02;
+    private static final byte     ATTR_DISPLAY         = 0x04;
+    private static final byte     ATTR_INTENSE_DISPLAY = 0x08;
+    private static final byte     ATTR_SELECTOR_PEN    = 0x10;
+    private static final byte     ATTR_MODIFIED        = 0x20;
+
+    private static final byte[]   EBCDIC_TABLE         = buildEbcdicTable();
+
+    private final char[]          chars;
+    private final byte[]          types;
+    // *** start of field attributes, or the data byte of a graphics escape
+    private final byte[]          attributes;
+
+    public ScreenBuffer(int size) {
+        this.chars = new char[size];
+        this.types = new byte[size];
+        this.attributes = new byte[size];
+    }
+
+    public int size() {
+        return this.types.length;
+    }
+
+    public void clear() {
+        Arrays.fill(this.chars, (char) 0);
+        Arrays.fill(this.types, TYPE_NULL);
+        Arrays.fill(this.attributes, (byte) 0);
+    }
+
+    public byte getType(int pos) {
+        return this.types[pos];
+    }
+
+    public boolean isNull(int pos) {
+        return this.types[pos] == TYPE_NULL;
+    }
+
+    public boolean isStartOfField(int pos) {
+        return this.types[pos] == TYPE_START_OF_FIELD;
+    }
+
+    /**
+     * @param pos - the buffer position
+     * @return true if the position holds a character or a character like order,
+     *         ie what used to be a {@link BufferChar}
+     */
+    public boolean isCharacter(int pos) {
+        byte type = this.types[pos];
+        return type != TYPE_NULL && type != TYPE_START_OF_FIELD;
+    }
+
+    /**
+     * @param pos - the buffer position
+     * @return the character as it would be returned by {@link IBufferHolder#getChar()}, or 0 if the position is null
+     */
+    public char getChar(int pos) {
+        switch (this.types[pos]) {
+            case TYPE_NULL:
+                return 0;
+            case TYPE_CHAR:
+                return this.chars[pos];
+            default:
+                return ' ';
+        }
+    }
+
+    /**
+     * @param pos - the buffer position
+     * @return the character to display at the position, nulls are displayed as spaces
+     */
+    public char getDisplayChar(int pos) {
+        if (this.types[pos] == TYPE_CHAR && this.chars[pos] != 0) {
+            return this.chars[pos];
+        }
+        return ' ';
+    }
+
+    /**
+     * @param pos - the buffer position
+     * @return the EBCDIC byte to send for a character position
+     */
+    public byte getFieldEbcdic(int pos) {
+        switch (this.types[pos]) {
+            case TYPE_CHAR:
+                return toEbcdic(this.chars[pos]);
+            case TYPE_NEW_LINE:
+                return 0x15;
+            case TYPE_FORM_FEED:
+                return 0x0c;
+            case TYPE_CARRAGE_RETURN:
+                return 0x0d;
+            case TYPE_END_OF_MEDIUM:
+                return 0x19;
+            case TYPE_GRAPHICS_ESCAPE:
+                return this.attributes[pos];
+            default:
+                return 0;
+        }
+    }
+
+    public void setNull(int pos) {
+        set(pos, TYPE_NULL, (char) 0, (byte) 0);
+    }
+
+    public void setChar(int pos, char character) {
+        set(pos, TYPE_CHAR, character, (byte) 0);
+    }
+
+    /**
+     * Set a character like order, new line, form feed, carrage return or end of medium
+     *
+     * @param pos - the buffer position
+     * @param type - the TYPE_ of the order
+     */
+    public void setOrder(int pos, byte type) {
+        set(pos, type, ' ', (byte) 0);
+    }
+
+    public void setGraphicsEscape(int pos, byte data) {
+        set(pos, TYPE_GRAPHICS_ESCAPE, ' ', data);
+    }
+
+    public void setStartOfField(int pos, boolean fieldProtected, boolean fieldNumeric, boolean fieldDisplay,
+            boolean fieldIntenseDisplay, boolean fieldSelectorPen, boolean fieldModifed) {
+        byte attr = 0;
+        if (fieldProtected) {
+            attr |= ATTR_PROTECTED;
+        }
+        if (fieldNumeric) {
+            attr |= ATTR_NUMERIC;
+        }
+        if (fieldDisplay) {
+            attr |= ATTR_DISPLAY;
+        }
+        if (fieldIntenseDisplay) {
+            attr |= ATTR_INTENSE_DISPLAY;
+        }
+        if (fieldSelectorPen) {
+            attr |= ATTR_SELECTOR_PEN;
+        }
+        if (fieldModifed) {
+            attr |= ATTR_MODIFIED;
+        }
+        set(pos, TYPE_START_OF_FIELD, ' ', attr);
+    }
+
+    /**
+     * Move the contents of one position to another, the source position is not changed
+     *
+     * @param from - the source position
+     * @param to - the target position
+     */
+    public void copy(int from, int to) {
+        set(to, this.types[from], this.chars[from], this.attributes[from]);
+    }
+
+    private void set(int pos, byte type, char character, byte attr) {
+        this.types[pos] = type;
+        this.chars[pos] = character;
+        this.attributes[pos] = attr;
+    }
+
+    public boolean isProtected(int pos) {
+        return (this.attributes[pos] & ATTR_PROTECTED) != 0;
+    }
+
+    public boolean isNumeric(int pos) {
+        return (this.attributes[pos] & ATTR_NUMERIC) != 0;
+    }
+
+    public boolean isDisplay(int pos) {
+        return (this.attributes[pos] & ATTR_DISPLAY) != 0;
+    }
+
+    public boolean isIntenseDisplay(int pos) {
+        return (this.attributes[pos] & ATTR_INTENSE_DISPLAY) != 0;
+    }
+
+    public boolean isSelectorPen(int pos) {
+        return (this.attributes[pos] & ATTR_SELECTOR_PEN) != 0;
+    }
+
+    public boolean isFieldModifed(int pos) {
+        return (this.attributes[pos] & ATTR_MODIFIED) != 0;
+    }
+
+    public void setFieldModified(int pos) {
+        this.attributes[pos] |= ATTR_MODIFIED;
+    }
+
+    public void clearFieldModified(int pos) {
+        this.attributes[pos] &= ~ATTR_MODIFIED;
+    }
+
+    /**
+     * Create a {@link IBufferHolder} for a buffer position
+     *
+     * @param pos - the buffer position
+     * @return a new buffer holder, or null if the position is null. Changes to
+     *         the holder are not reflected in the buffer
+     */
+    public IBufferHolder getBufferHolder(int pos) {
+        switch (this.types[pos]) {
+            case TYPE_CHAR:
+                return new BufferChar(this.chars[pos]);
+            case TYPE_START_OF_FIELD:
+                return new BufferStartOfField(pos, isProtected(pos), isNumeric(pos), isDisplay(pos),
+                        isIntenseDisplay(pos), isSelectorPen(pos), isFieldModifed(pos));
+            case TYPE_NEW_LINE:
+                return new BufferNewLine();
+            case TYPE_FORM_FEED:
+                return new BufferFormFeed();
+            case TYPE_CARRAGE_RETURN:
+                return new BufferCarrageReturn();
+            case TYPE_END_OF_MEDIUM:
+                return new BufferEndOfMedium();
+            case TYPE_GRAPHICS_ESCAPE:
+                return new BufferGraphicsEscape(this.attributes[pos]);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Set a buffer position from a {@link IBufferHolder}
+     *
+     * @param pos - the buffer position
+     * @param bh - the buffer holder, null to nullify the position
+     */
+    public void setBufferHolder(int pos, IBufferHolder bh) {
+        if (bh == null) {
+            setNull(pos);
+        } else if (bh instanceof BufferStartOfField) {
+            BufferStartOfField sf = (BufferStartOfField) bh;
+            setStartOfField(pos, sf.isProtected(), sf.isNumeric(), sf.isDisplay(), sf.isIntenseDisplay(),
+                    sf.isSelectorPen(), sf.isFieldModifed());
+        } else if (bh instanceof BufferNewLine) {
+            setOrder(pos, TYPE_NEW_LINE);
+        } else if (bh instanceof BufferFormFeed) {
+            setOrder(pos, TYPE_FORM_FEED);
+        } else if (bh instanceof BufferCarrageReturn) {
+            setOrder(pos, TYPE_CARRAGE_RETURN);
+        } else if (bh instanceof BufferEndOfMedium) {
+            setOrder(pos, TYPE_END_OF_MEDIUM);
+        } else if (bh instanceof BufferGraphicsEscape) {
+            setGraphicsEscape(pos, ((BufferGraphicsEscape) bh).getFieldEbcdic());
+        } else if (bh instanceof BufferChar) {
+            setChar(pos, bh.getChar());
+        } else {
+            throw new UnsupportedOperationException("Unrecognised buffer type " + bh.getClass().getName());
+        }
+    }
+
+    /**
+     * Convert a character to EBCDIC without creating a String for every character
+     *
+     * @param character - the character to convert
+     * @return the EBCDIC byte, or the substitution character if it is not mappable
+     */
+    public static byte toEbcdic(char character) {
+        return EBCDIC_TABLE[character];
+    }
+
+    private static byte[] buildEbcdicTable() {
+        Charset ebcdic = Charset.forName("Cp037");
+
+        byte[] table = new byte[Character.MAX_VALUE + 1];
+        Arrays.fill(table, "?".getBytes(ebcdic)[0]);
+
+        for (int i = 0; i < 256; i++) {
+            String decoded = new String(new byte[] { (byte) i }, ebcdic);
+            table[decoded.charAt(0)] = (byte) i;
+        }
+
+        return table;
+    }
+
+}
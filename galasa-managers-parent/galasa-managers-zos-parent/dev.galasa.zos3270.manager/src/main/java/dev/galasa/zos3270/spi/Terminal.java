@@ -49,7 +49,15 @@ public class Terminal implements ITerminal {
     }
 
     public Terminal(String id, String host, int port, boolean ssl, int primaryColumns, int primaryRows, int alternateColumns, int alternateRows) throws TerminalInterruptedException {
-        network = new Network(host, port, ssl, id);
+        this(id, new Network(host, port, ssl, id), primaryColumns, primaryRows, alternateColumns, alternateRows);
+    }
+
+    /**
+     * Create a terminal with a network provided by the caller, such as a
+     * selector network shared with other terminals in a {@link TerminalFarm}
+     */
+    Terminal(String id, Network network, int primaryColumns, int primaryRows, int alternateColumns, int alternateRows) throws TerminalInterruptedException {
+        this.network = network;
         screen = new Screen(primaryColumns, primaryRows, alternateColumns, alternateRows, this.network);
         this.id = id;
     }
@@ -60,19 +68,12 @@ public class Terminal implements ITerminal {
 
     @Override
     public synchronized void connect() throws NetworkException {
-        connected = network.connectClient();
-        networkThread = new NetworkThread(this, screen, network, network.getInputStream());
-        networkThread.start();
+        startConnect();
         
         Instant expire = Instant.now().plus(60, ChronoUnit.SECONDS);
         boolean started = false;
         while(Instant.now().isBefore(expire)) {
-            NetworkThread nThread = this.networkThread;
-            if (nThread == null) {
-                this.network.close();
-                throw new NetworkException("The TN3270 network thread failed to start correctly");
-            }
-            if (nThread.isStarted()) {
+            if (isSessionStarted()) {
                 started = true;
                 break;
             }
@@ -90,6 +91,29 @@ public class Terminal implements ITerminal {
         }
     }
 
+    /**
+     * Connect to the server and start the inbound processing, without waiting
+     * for the TN3270 session to start
+     */
+    synchronized void startConnect() throws NetworkException {
+        connected = network.connectClient();
+        networkThread = new NetworkThread(this, screen, network, network.getInputStream());
+        network.startInbound(networkThread);
+    }
+
+    /**
+     * @return true if the TN3270 session has started
+     * @throws NetworkException - if the network ended before the session started
+     */
+    boolean isSessionStarted() throws NetworkException {
+        NetworkThread nThread = this.networkThread;
+        if (nThread == null) {
+            this.network.close();
+            throw new NetworkException("The TN3270 network thread failed to start correctly");
+        }
+        return nThread.isStarted();
+    }
+
     @Override
     public void disconnect() throws TerminalInterruptedException {
         boolean oldAutoReconnect = autoReconnect;
@@ -0,0 +1,331 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos3270.spi;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zos3270.TerminalInterruptedException;
+import dev.galasa.zos3270.TimeoutException;
+import dev.galasa.zos3270.internal.comms.NetworkSelector;
+import dev.galasa.zos3270.internal.comms.SelectorNetwork;
+
+/**
+ * Drives many headless terminals against one host from a single JVM, for load
+ * and capacity testing.
+ * <p>
+ * The terminals share the selector threads of a {@link NetworkSelector}
+ * instead of having a network thread each, and the flows are run on a bounded
+ * pool of threads. Each terminal runs one iteration of the flow at a time, and
+ * is resubmitted to the pool after each iteration, so all the terminals make
+ * progress even when there are more terminals than threads.
+ * </p>
+ * <p>
+ * The response time of every AID, from being sent to the keyboard being
+ * unlocked, is recorded in a {@link ResponseTimeHistogram} per transaction.
+ * </p>
+ */
+public class TerminalFarm {
+
+    private static final Duration           CONNECT_TIMEOUT = Duration.ofSeconds(60);
+
+    private final Log                       logger          = LogFactory.getLog(getClass());
+
+    private final NetworkSelector           networkSelector;
+    private final ExecutorService           executor;
+    private final List<TerminalFarmSession> sessions        = new ArrayList<>();
+
+    private volatile Duration               runTimeout      = Duration.ofHours(1);
+
+    /**
+     * @param idPrefix - prefix of the terminal ids, the terminal number is appended
+     * @param host - the host
+     * @param port - the telnet port
+     * @param ssl - use TLS
+     * @param noOfTerminals - the number of terminals in the farm
+     * @param selectorThreads - the number of network threads shared by the terminals
+     * @param maxConcurrentFlows - the number of threads running flows
+     * @throws NetworkException - if the network selector cannot be started
+     * @throws TerminalInterruptedException - if a terminal cannot be created
+     */
+    public TerminalFarm(String idPrefix, String host, int port, boolean ssl, int noOfTerminals, int selectorThreads,
+            int maxConcurrentFlows) throws NetworkException, TerminalInterruptedException {
+        if (noOfTerminals < 1) {
+            throw new NetworkException("A terminal farm needs at least 1 terminal");
+        }
+        if (maxConcurrentFlows < 1) {
+            throw new NetworkException("A terminal farm needs at least 1 thread to run flows");
+        }
+
+        this.networkSelector = new NetworkSelector(selectorThreads);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxConcurrentFlows, r -> {
+            Thread thread = new Thread(r, "3270 farm " + idPrefix + " " + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (int i = 0; i < noOfTerminals; i++) {
+            String id = idPrefix + i;
+            Terminal terminal = new Terminal(id, new SelectorNetwork(host, port, ssl, id, this.networkSelector), 80,
+                    24, 0, 0);
+            this.sessions.add(new TerminalFarmSession(terminal));
+        }
+    }
+
+    public List<Terminal> getTerminals() {
+        List<Terminal> terminals = new ArrayList<>();
+        for (TerminalFarmSession session : this.sessions) {
+            terminals.add(session.getTerminal());
+        }
+        return Collections.unmodifiableList(terminals);
+    }
+
+    /**
+     * How long a run waits for the flows to finish, after the duration of the
+     * run if it has one, the default is 1 hour
+     *
+     * @param runTimeout - the timeout
+     */
+    public void setRunTimeout(Duration runTimeout) {
+        this.runTimeout = runTimeout;
+    }
+
+    /**
+     * Connect all the terminals. The connects are started together and
+     * finished by the selector threads, this thread waits for the sessions to
+     * start, so no flow threads are used
+     *
+     * @throws NetworkException - if any of the terminals fail to connect
+     * @throws TerminalInterruptedException - if interrupted waiting for the connections
+     */
+    public void connect() throws NetworkException, TerminalInterruptedException {
+        NetworkException failure = null;
+        List<Terminal> starting = new ArrayList<>();
+        for (TerminalFarmSession session : this.sessions) {
+            try {
+                session.getTerminal().startConnect();
+                starting.add(session.getTerminal());
+            } catch (NetworkException e) {
+                failure = connectFailure(failure, e);
+            }
+        }
+
+        Instant expire = Instant.now().plus(CONNECT_TIMEOUT);
+        while (!starting.isEmpty()) {
+            for (int i = starting.size() - 1; i >= 0; i--) {
+                try {
+                    if (starting.get(i).isSessionStarted()) {
+                        starting.remove(i);
+                    }
+                } catch (NetworkException e) {
+                    failure = connectFailure(failure, e);
+                    starting.remove(i);
+                }
+            }
+
+            if (starting.isEmpty()) {
+                break;
+            }
+            if (Instant.now().isAfter(expire)) {
+                failure = connectFailure(failure, new NetworkException(
+                        "TN3270 server did not start session in time on " + starting.size() + " terminals"));
+                break;
+            }
+
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TerminalInterruptedException("Wait for the terminal farm to connect was interrupted", e);
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private NetworkException connectFailure(NetworkException failure, NetworkException e) {
+        if (failure != null) {
+            return failure;
+        }
+        return new NetworkException("Failed to connect the terminal farm", e);
+    }
+
+    /**
+     * Run the flow a number of times on every terminal
+     *
+     * @param flow - the flow
+     * @param iterations - the number of iterations for each terminal
+     * @return the results of the run
+     * @throws TerminalInterruptedException - if interrupted waiting for the flows
+     * @throws TimeoutException - if the flows do not finish within the run timeout
+     */
+    public TerminalFarmResults run(ITerminalFlow flow, int iterations)
+            throws TerminalInterruptedException, TimeoutException {
+        return run(flow, iterations, null);
+    }
+
+    /**
+     * Run the flow repeatedly on every terminal until the duration has passed,
+     * iterations in progress are allowed to finish
+     *
+     * @param flow - the flow
+     * @param duration - how long to keep starting iterations
+     * @return the results of the run
+     * @throws TerminalInterruptedException - if interrupted waiting for the flows
+     * @throws TimeoutException - if the flows do not finish within the duration and the run timeout
+     */
+    public TerminalFarmResults run(ITerminalFlow flow, Duration duration)
+            throws TerminalInterruptedException, TimeoutException {
+        return run(flow, Integer.MAX_VALUE, Instant.now().plus(duration));
+    }
+
+    private TerminalFarmResults run(ITerminalFlow flow, int iterations, Instant deadline)
+            throws TerminalInterruptedException, TimeoutException {
+        TerminalFarmResults results = new TerminalFarmResults();
+        CountDownLatch finished = new CountDownLatch(this.sessions.size());
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        Instant start = Instant.now();
+        for (TerminalFarmSession session : this.sessions) {
+            try {
+                this.executor.execute(
+                        new Iteration(session, flow, results, 0, iterations, deadline, finished, cancelled));
+            } catch (RuntimeException e) {
+                logger.warn("Unable to queue the flow on terminal " + session.getTerminal().getId(), e);
+                finished.countDown();
+            }
+        }
+
+        Duration timeout = this.runTimeout;
+        if (deadline != null) {
+            timeout = timeout.plus(Duration.between(start, deadline));
+        }
+
+        try {
+            if (!finished.await(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                cancelled.set(true);
+                throw new TimeoutException("The terminal farm flows did not finish within " + timeout + ", "
+                        + finished.getCount() + " terminals are still running");
+            }
+        } catch (InterruptedException e) {
+            cancelled.set(true);
+            Thread.currentThread().interrupt();
+            throw new TerminalInterruptedException("Wait for the terminal farm flows was interrupted", e);
+        }
+        results.setElapsed(Duration.between(start, Instant.now()));
+
+        return results;
+    }
+
+    /**
+     * Disconnect the terminals and stop the threads
+     */
+    public void shutdown() {
+        for (TerminalFarmSession session : this.sessions) {
+            try {
+                session.getTerminal().disconnect();
+            } catch (TerminalInterruptedException e) {
+                logger.warn("Interrupted disconnecting terminal " + session.getTerminal().getId(), e);
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        this.executor.shutdownNow();
+        try {
+            this.executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.networkSelector.shutdown();
+    }
+
+    /**
+     * One iteration of the flow on one terminal, which queues the next
+     */
+    private class Iteration implements Runnable {
+
+        private final TerminalFarmSession session;
+        private final ITerminalFlow       flow;
+        private final TerminalFarmResults results;
+        private final int                 iteration;
+        private final int                 iterations;
+        private final Instant             deadline;
+        private final CountDownLatch      finished;
+        private final AtomicBoolean       cancelled;
+
+        private Iteration(TerminalFarmSession session, ITerminalFlow flow, TerminalFarmResults results,
+                int iteration, int iterations, Instant deadline, CountDownLatch finished, AtomicBoolean cancelled) {
+            this.session = session;
+            this.flow = flow;
+            this.results = results;
+            this.iteration = iteration;
+            this.iterations = iterations;
+            this.deadline = deadline;
+            this.finished = finished;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public void run() {
+            Terminal terminal = this.session.getTerminal();
+
+            // *** The latch is counted down unless the next iteration is queued, whatever the flow throws
+            boolean queued = false;
+            try {
+                this.session.startIteration(this.results, this.iteration);
+                try {
+                    this.flow.run(this.session);
+                    this.results.flowCompleted();
+                } catch (Exception | AssertionError e) {
+                    this.results.flowFailed();
+                    logger.warn("Flow iteration " + this.iteration + " failed on terminal " + terminal.getId(), e);
+                } finally {
+                    this.session.endIteration();
+                }
+
+                boolean more = this.iteration + 1 < this.iterations
+                        && (this.deadline == null || Instant.now().isBefore(this.deadline));
+                if (!terminal.isConnected()) {
+                    logger.warn("Terminal " + terminal.getId() + " is no longer connected, stopping its flows");
+                    more = false;
+                }
+
+                if (!more || this.cancelled.get() || Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+
+                try {
+                    executor.execute(new Iteration(this.session, this.flow, this.results, this.iteration + 1,
+                            this.iterations, this.deadline, this.finished, this.cancelled));
+                    queued = true;
+                } catch (RuntimeException e) {
+                    logger.warn("Unable to queue the next flow iteration on terminal " + terminal.getId(), e);
+                }
+            } finally {
+                if (!queued) {
+                    this.finished.countDown();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos3270.spi;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The response times and flow counts of a {@link TerminalFarm} run
+ */
+public class TerminalFarmResults {
+
+    private final ConcurrentHashMap<String, ResponseTimeHistogram> transactions   = new ConcurrentHashMap<>();
+    private final LongAdder                                        completedFlows = new LongAdder();
+    private final LongAdder                                        failedFlows    = new LongAdder();
+    private volatile Duration                                      elapsed        = Duration.ZERO;
+
+    void record(String transaction, long time, TimeUnit unit) {
+        this.transactions.computeIfAbsent(transaction, k -> new ResponseTimeHistogram()).record(time, unit);
+    }
+
+    void flowCompleted() {
+        this.completedFlows.increment();
+    }
+
+    void flowFailed() {
+        this.failedFlows.increment();
+    }
+
+    void setElapsed(Duration elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * @return the response times of each transaction, by transaction name
+     */
+    public Map<String, ResponseTimeHistogram> getTransactions() {
+        return new TreeMap<>(this.transactions);
+    }
+
+    /**
+     * @return the response times of all the transactions combined
+     */
+    public ResponseTimeHistogram getAllTransactions() {
+        ResponseTimeHistogram all = new ResponseTimeHistogram();
+        for (ResponseTimeHistogram histogram : this.transactions.values()) {
+            all.add(histogram);
+        }
+        return all;
+    }
+
+    public long getCompletedFlows() {
+        return this.completedFlows.sum();
+    }
+
+    public long getFailedFlows() {
+        return this.failedFlows.sum();
+    }
+
+    public Duration getElapsed() {
+        return this.elapsed;
+    }
+
+    /**
+     * @return a report of the run, one line per transaction
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Terminal farm run of ").append(this.elapsed.toMillis()).append("ms, flows completed=")
+                .append(getCompletedFlows()).append(" failed=").append(getFailedFlows());
+        for (Map.Entry<String, ResponseTimeHistogram> entry : getTransactions().entrySet()) {
+            sb.append("\n  ").append(entry.getKey()).append(" ").append(entry.getValue());
+        }
+        sb.append("\n  ALL ").append(getAllTransactions());
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zos3270.spi;
+
+import java.util.concurrent.TimeUnit;
+
+import dev.galasa.zos3270.AttentionIdentification;
+import dev.galasa.zos3270.IScreenUpdateListener;
+
+/**
+ * One terminal of a {@link TerminalFarm}, passed to the {@link ITerminalFlow}.
+ * <p>
+ * Listens to the screen to time each AID from being sent to the keyboard being
+ * unlocked by the host.
+ * </p>
+ */
+public class TerminalFarmSession implements IScreenUpdateListener {
+
+    private final Terminal              terminal;
+
+    private volatile TerminalFarmResults results;
+    private volatile String             transaction;
+    private volatile String             pendingTransaction;
+    private volatile long               aidSent;
+    private int                         iteration;
+
+    TerminalFarmSession(Terminal terminal) {
+        this.terminal = terminal;
+        this.terminal.getScreen().registerScreenUpdateListener(this);
+    }
+
+    public Terminal getTerminal() {
+        return this.terminal;
+    }
+
+    /**
+     * @return the iteration of the flow being run by this terminal, from 0
+     */
+    public int getIteration() {
+        return this.iteration;
+    }
+
+    /**
+     * Name the transaction the response times of the following AIDs are
+     * recorded under, until the end of the iteration
+     *
+     * @param name - the transaction name
+     */
+    public void transaction(String name) {
+        this.transaction = name;
+    }
+
+    void startIteration(TerminalFarmResults results, int iteration) {
+        synchronized (this.terminal.getScreen()) {
+            this.results = results;
+            this.iteration = iteration;
+            this.transaction = null;
+            this.aidSent = 0;
+        }
+    }
+
+    void endIteration() {
+        // *** The keyboard is unlocked before the screen update listeners are called, both holding the
+        // *** screen lock, so taking the lock makes sure the last response of the iteration is recorded
+        synchronized (this.terminal.getScreen()) {
+            this.results = null;
+        }
+    }
+
+    @Override
+    public void screenUpdated(Direction direction, AttentionIdentification aid) {
+        if (direction == Direction.SENDING) {
+            String name = this.transaction;
+            this.pendingTransaction = (name != null) ? name : aid.name();
+            this.aidSent = System.nanoTime();
+            return;
+        }
+
+        long sent = this.aidSent;
+        TerminalFarmResults currentResults = this.results;
+        if (sent == 0 || currentResults == null || this.terminal.getScreen().isKeyboardLocked()) {
+            return;
+        }
+
+        this.aidSent = 0;
+        currentResults.record(this.pendingTransaction, System.nanoTime() - sent, TimeUnit.NANOSECONDS);
+    }
+
+}
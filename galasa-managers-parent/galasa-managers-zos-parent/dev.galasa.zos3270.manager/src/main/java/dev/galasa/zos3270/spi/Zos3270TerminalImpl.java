@@ -5,28 +5,19 @@
  */
 package dev.galasa.zos3270.spi;
 
-import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.zip.GZIPOutputStream;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
 
 import dev.galasa.ResultArchiveStoreContentType;
 import dev.galasa.SetContentType;
@@ -39,16 +30,21 @@ import dev.galasa.zos3270.Zos3270ManagerException;
 import dev.galasa.zos3270.common.screens.FieldContents;
 import dev.galasa.zos3270.common.screens.TerminalField;
 import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalImageDeltas;
 import dev.galasa.zos3270.common.screens.TerminalSize;
 import dev.galasa.zos3270.internal.properties.ApplyConfidentialTextFiltering;
+import dev.galasa.zos3270.internal.properties.DeltaTerminalImages;
 import dev.galasa.zos3270.internal.properties.LiveTerminalUrl;
 import dev.galasa.zos3270.internal.properties.LogConsoleTerminals;
+import dev.galasa.zos3270.internal.terminal.LiveTerminalPublisher;
+import dev.galasa.zos3270.internal.terminal.TerminalJsonWriter;
 
 public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListener {
 
+    private static final long              LIVE_TERMINAL_SHUTDOWN_WAIT = 10000;
+
     private Log                            logger       = LogFactory.getLog(getClass());
 
-    private final Gson                     gson         = new GsonBuilder().setPrettyPrinting().create();
 
     private final String                   terminalId;
     private int                            updateId;
@@ -56,14 +52,15 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
 
     private final IConfidentialTextService cts;
     private final boolean                  applyCtf;
+    private final TerminalJsonWriter       terminalJsonWriter;
 
     private final ArrayList<TerminalImage> cachedImages = new ArrayList<>();
 
     private final Path                     terminalRasDirectory;
     private int                            rasTerminalSequence;
-    private URL                            liveTerminalUrl;
-    private int                            liveTerminalSequence;
+    private LiveTerminalPublisher          liveTerminalPublisher;
     private boolean                        logConsoleTerminals;
+    private boolean                        deltaTerminalImages;
     private boolean                        autoConnect;
 
     public Zos3270TerminalImpl(String id, String host, int port, boolean tls, IFramework framework, boolean autoConnect)
@@ -75,6 +72,7 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
 
         this.cts = framework.getConfidentialTextService();
         this.applyCtf = ApplyConfidentialTextFiltering.get();
+        this.terminalJsonWriter = new TerminalJsonWriter(this.applyCtf ? this.cts : null);
 
         getScreen().registerScreenUpdateListener(this);
 
@@ -82,9 +80,7 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
         terminalRasDirectory = storedArtifactsRoot.resolve("zos3270").resolve("terminals").resolve(this.terminalId);
 
         URL propLiveTerminalUrl = LiveTerminalUrl.get();
-        if (propLiveTerminalUrl == null) {
-            liveTerminalUrl = null;
-        } else {
+        if (propLiveTerminalUrl != null) {
             try {
                 // *** Register the terminal to the UI which will own the terminal view
                 HttpURLConnection connection = (HttpURLConnection) propLiveTerminalUrl.openConnection();
@@ -98,8 +94,11 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
                     logger.warn("Unable to activate live terminal due to " + connection.getResponseCode() + " - "
                             + connection.getResponseMessage());
                 } else {
-                    this.liveTerminalUrl = new URL(
+                    URL liveTerminalUrl = new URL(
                             propLiveTerminalUrl.toString() + "/" + this.runId + "/" + this.terminalId);
+                    this.liveTerminalPublisher = new LiveTerminalPublisher(liveTerminalUrl, this.terminalId,
+                            this.runId, this.terminalJsonWriter);
+                    this.liveTerminalPublisher.start();
                 }
             } catch (Exception e) {
                 throw new Zos3270ManagerException("Unable to create the live terminal directory", e);
@@ -107,6 +106,7 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
         }
 
         logConsoleTerminals = LogConsoleTerminals.get();
+        deltaTerminalImages = DeltaTerminalImages.get();
     }
 
     public boolean doAutoConnect() {
@@ -147,39 +147,8 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
             flushTerminalCache();
         }
 
-        if (liveTerminalUrl != null) {
-            try {
-                liveTerminalSequence++;
-                dev.galasa.zos3270.common.screens.Terminal liveTerminal = new dev.galasa.zos3270.common.screens.Terminal(
-                        this.terminalId, this.runId, liveTerminalSequence, terminalSize);
-                liveTerminal.getImages().add(terminalImage);
-
-                JsonObject intermediateJson = (JsonObject) gson.toJsonTree(liveTerminal);
-                stripFalseBooleans(intermediateJson);
-                String tempJson = gson.toJson(intermediateJson);
-
-                if (applyCtf) {
-                    tempJson = cts.removeConfidentialText(tempJson);
-                }
-
-                HttpURLConnection connection = (HttpURLConnection) this.liveTerminalUrl.openConnection();
-                connection.setRequestMethod("PUT");
-                connection.addRequestProperty("Content-Type", "application/json");
-                connection.setDoInput(true);
-                connection.setDoOutput(true);
-                connection.connect();
-                try (OutputStream os = connection.getOutputStream()) {
-                    IOUtils.write(tempJson, os, StandardCharsets.UTF_8);
-                }
-                if (connection.getResponseCode() != 200) {
-                    logger.warn("Unable to write live terminal due to " + connection.getResponseCode() + " - "
-                            + connection.getResponseMessage());
-                    this.liveTerminalUrl = null;
-                }
-            } catch (Exception e) {
-                logger.error("Failed to write live terminal image, image lost", e);
-                this.liveTerminalUrl = null;
-            }
+        if (liveTerminalPublisher != null) {
+            liveTerminalPublisher.publish(terminalImage);
         }
 
         if (logConsoleTerminals) {
@@ -210,14 +179,10 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
             // sizes
             dev.galasa.zos3270.common.screens.Terminal rasTerminal = new dev.galasa.zos3270.common.screens.Terminal(
                     this.terminalId, this.runId, rasTerminalSequence, terminalSize);
-            rasTerminal.getImages().addAll(this.cachedImages);
-
-            JsonObject intermediateJson = (JsonObject) gson.toJsonTree(rasTerminal);
-            stripFalseBooleans(intermediateJson);
-            String tempJson = gson.toJson(intermediateJson);
-
-            if (applyCtf) {
-                tempJson = cts.removeConfidentialText(tempJson);
+            if (deltaTerminalImages) {
+                rasTerminal.getImages().addAll(TerminalImageDeltas.encode(this.cachedImages));
+            } else {
+                rasTerminal.getImages().addAll(this.cachedImages);
             }
 
             String terminalFilename = this.terminalId + "-" + String.format("%05d", rasTerminalSequence) + ".gz";
@@ -226,7 +191,7 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
             try (GZIPOutputStream gos = new GZIPOutputStream(Files.newOutputStream(terminalPath,
                     new SetContentType(new ResultArchiveStoreContentType("application/zos3270terminal")),
                     StandardOpenOption.CREATE))) {
-                IOUtils.write(tempJson, gos, "utf-8");
+                terminalJsonWriter.write(rasTerminal, gos);
             }
         } catch (Exception e) {
             logger.error("Unable to write terminal cache to the RAS", e);
@@ -237,6 +202,30 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
         this.cachedImages.clear();
     }
 
+    /**
+     * Send any live terminal images still waiting and stop the live terminal publisher
+     */
+    public void stopLiveTerminal() {
+        if (liveTerminalPublisher == null) {
+            return;
+        }
+
+        try {
+            liveTerminalPublisher.shutdown(LIVE_TERMINAL_SHUTDOWN_WAIT);
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted whilst stopping the live terminal", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getLiveTerminalImagesSent() {
+        return (liveTerminalPublisher == null) ? 0 : liveTerminalPublisher.getImagesSent();
+    }
+
+    public long getLiveTerminalImagesDropped() {
+        return (liveTerminalPublisher == null) ? 0 : liveTerminalPublisher.getImagesDropped();
+    }
+
     private static List<TerminalField> buildTerminalFields(Screen screen) {
         ArrayList<TerminalField> terminalFields = new ArrayList<>();
 
@@ -262,28 +251,15 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
         return this.terminalId;
     }
 
+    /**
+     * @deprecated the terminal json is now written without false booleans by
+     *             {@link TerminalJsonWriter}, use
+     *             {@link TerminalJsonWriter#stripFalseBooleans(JsonObject)} for a
+     *             Gson tree
+     */
+    @Deprecated
     public static void stripFalseBooleans(JsonObject json) {
-
-        ArrayList<Entry<String, JsonElement>> entries = new ArrayList<>();
-        entries.addAll(json.entrySet());
-
-        for (Entry<String, JsonElement> entry : entries) {
-            JsonElement element = entry.getValue();
-
-            if (element.isJsonPrimitive() && ((JsonPrimitive) element).isBoolean()
-                    && !((JsonPrimitive) element).getAsBoolean()) {
-                json.remove(entry.getKey());
-            } else if (element.isJsonObject()) {
-                stripFalseBooleans((JsonObject) element);
-            } else if (element.isJsonArray()) {
-                JsonArray array = (JsonArray) element;
-                for (int i = 0; i < array.size(); i++) {
-                    if (array.get(i).isJsonObject()) {
-                        stripFalseBooleans((JsonObject) array.get(i));
-                    }
-                }
-            }
-        }
+        TerminalJsonWriter.stripFalseBooleans(json);
     }
 
 }
@@ -0,0 +1,157 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package test.zos3270.network;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.Charset;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import dev.galasa.zos3270.internal.comms.NetworkThread;
+import dev.galasa.zos3270.internal.datastream.AbstractCommandCode;
+import dev.galasa.zos3270.internal.datastream.OrderInsertCursor;
+import dev.galasa.zos3270.internal.datastream.OrderSetBufferAddress;
+import dev.galasa.zos3270.internal.datastream.OrderStartField;
+import dev.galasa.zos3270.spi.Screen;
+
+/**
+ * Replay streams of inbound messages through the bulk reader, with the reads
+ * deliberately split across message boundaries
+ */
+public class InboundReplayTest {
+
+    private static final Charset ebcdic = Charset.forName("Cp037");
+
+    @Test
+    public void testReplayLargeScreens() throws Exception {
+        replayFullScreens(160, 62);
+        replayFullScreens(132, 27);
+    }
+
+    @Test
+    public void testReplayCapturedScreen() throws Exception {
+        URL vampFile = getClass().getClassLoader().getResource("vampstream.txt");
+        byte[] datastream = Hex.decodeHex(IOUtils.toString(vampFile.openStream(), "utf-8"));
+
+        Screen expectedScreen = new Screen();
+        new NetworkThread(null, expectedScreen, null, null).processMessage(new ByteArrayInputStream(frame(datastream)));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (int i = 0; i < 50; i++) {
+            stream.write(frame(datastream));
+        }
+
+        Screen screen = new Screen();
+        InputStream inputStream = new ChunkedInputStream(stream.toByteArray(), 1000);
+        NetworkThread networkThread = new NetworkThread(null, screen, null, inputStream);
+        for (int i = 0; i < 50; i++) {
+            networkThread.processMessage(inputStream);
+            assertThat(screen.printScreen()).isEqualTo(expectedScreen.printScreen());
+        }
+    }
+
+    private void replayFullScreens(int columns, int rows) throws Exception {
+        int noOfScreens = 20;
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (int i = 0; i < noOfScreens; i++) {
+            stream.write(frame(fullScreen(columns, rows, i)));
+        }
+
+        Screen screen = new Screen(columns, rows, null);
+        InputStream inputStream = new ChunkedInputStream(stream.toByteArray(), 4093);
+        NetworkThread networkThread = new NetworkThread(null, screen, null, inputStream);
+
+        for (int i = 0; i < noOfScreens; i++) {
+            networkThread.processMessage(inputStream);
+
+            String[] lines = screen.printScreen().split("\n");
+            assertThat(lines[0]).as("first row of screen " + i).contains(rowText(columns, 0, i));
+            assertThat(lines[rows - 1]).as("last row of screen " + i).contains(rowText(columns, rows - 1, i));
+        }
+
+        networkThread.processMessage(inputStream);
+        assertThat(inputStream.read()).as("the stream should be fully consumed").isEqualTo(-1);
+    }
+
+    /**
+     * An ERASE/WRITE filling every row with a protected field, using 14 bit
+     * addresses so the larger screens can be addressed
+     */
+    private byte[] fullScreen(int columns, int rows, int screenNumber) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(AbstractCommandCode.ERASE_WRITE);
+        baos.write(0x03);
+        for (int row = 0; row < rows; row++) {
+            int address = row * columns;
+            baos.write(OrderSetBufferAddress.ID);
+            baos.write((address >> 8) & 0x3f);
+            baos.write(address & 0xff);
+            baos.write(new OrderStartField(true, false, true, false, false, false).getBytes());
+            baos.write(rowText(columns, row, screenNumber).getBytes(ebcdic));
+        }
+        baos.write(OrderInsertCursor.ID);
+        return baos.toByteArray();
+    }
+
+    private String rowText(int columns, int row, int screenNumber) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("SCREEN ").append(screenNumber).append(" ROW ").append(row).append(" ");
+        while (sb.length() < columns - 1) {
+            sb.append((char) ('A' + (sb.length() % 26)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Add the TN3270E header, escape any IACs and terminate with IAC EOR
+     */
+    private byte[] frame(byte[] datastream) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(0);
+        baos.write(0);
+        baos.write(0);
+        baos.write(0);
+        baos.write(0);
+        for (byte b : datastream) {
+            baos.write(b);
+            if (b == NetworkThread.IAC) {
+                baos.write(b);
+            }
+        }
+        baos.write(NetworkThread.IAC);
+        baos.write(NetworkThread.EOR);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Returns no more than a chunk of data on each read, like a socket would
+     */
+    private static class ChunkedInputStream extends FilterInputStream {
+
+        private final int chunkSize;
+
+        ChunkedInputStream(byte[] data, int chunkSize) {
+            super(new ByteArrayInputStream(data));
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, this.chunkSize));
+        }
+    }
+
+}
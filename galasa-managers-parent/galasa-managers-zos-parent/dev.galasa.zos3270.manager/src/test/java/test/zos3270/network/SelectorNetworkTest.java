@@ -0,0 +1,152 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package test.zos3270.network;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import dev.galasa.zos3270.internal.comms.NetworkThread;
+import dev.galasa.zos3270.internal.comms.TelnetFramer;
+import dev.galasa.zos3270.internal.datastream.AbstractCommandCode;
+import dev.galasa.zos3270.spi.Terminal;
+import dev.galasa.zos3270.spi.TerminalFarm;
+
+public class SelectorNetworkTest {
+
+    private static final Charset ebcdic = Charset.forName("Cp037");
+
+    @Test
+    public void testFraming() {
+        byte[] data = new byte[] { 0, 0, 0, 0, 0, (byte) 0xf5, 0x03, NetworkThread.IAC, NetworkThread.IAC, 0x40,
+                NetworkThread.IAC, NetworkThread.EOR, NetworkThread.IAC, NetworkThread.DO, NetworkThread.TIMING_MARK,
+                NetworkThread.IAC, NetworkThread.SB, NetworkThread.TERMINAL_TYPE, NetworkThread.TT_SEND,
+                NetworkThread.IAC, NetworkThread.SE, NetworkThread.IAC, NetworkThread.DO, NetworkThread.TELNET_EOR,
+                NetworkThread.IAC, NetworkThread.WILL, NetworkThread.TELNET_EOR };
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        assertThat(TelnetFramer.messageLength(buffer)).as("datastream with escaped IAC").isEqualTo(12);
+        buffer.position(12);
+        assertThat(TelnetFramer.messageLength(buffer)).as("IAC DO").isEqualTo(3);
+        buffer.position(15);
+        assertThat(TelnetFramer.messageLength(buffer)).as("IAC SB").isEqualTo(6);
+        buffer.position(21);
+        assertThat(TelnetFramer.messageLength(buffer)).as("IAC DO EOR IAC WILL EOR").isEqualTo(6);
+
+        for (int limit = 0; limit < 12; limit++) {
+            assertThat(TelnetFramer.messageLength(ByteBuffer.wrap(data, 0, limit))).as("partial message")
+                    .isEqualTo(-1);
+        }
+        assertThat(TelnetFramer.messageLength(ByteBuffer.wrap(data, 21, 5))).as("partial IAC DO EOR")
+                .isEqualTo(-1);
+    }
+
+    /**
+     * Drive several terminals over a single selector thread against a basic telnet server
+     */
+    @Test
+    public void testTerminalsShareSelector() throws Exception {
+        int noOfTerminals = 4;
+        ConcurrentHashMap<Integer, byte[]> received = new ConcurrentHashMap<>();
+        CountDownLatch allReceived = new CountDownLatch(noOfTerminals);
+
+        try (ServerSocket server = new ServerSocket(0)) {
+            Thread serverThread = new Thread(() -> {
+                for (int i = 0; i < noOfTerminals; i++) {
+                    try {
+                        Socket socket = server.accept();
+                        int id = i;
+                        Thread session = new Thread(() -> runSession(socket, id, received, allReceived));
+                        session.setDaemon(true);
+                        session.start();
+                    } catch (Exception e) {
+                        return;
+                    }
+                }
+            });
+            serverThread.setDaemon(true);
+            serverThread.start();
+
+            TerminalFarm farm = new TerminalFarm("T", "localhost", server.getLocalPort(), false, noOfTerminals, 1,
+                    noOfTerminals);
+            try {
+                farm.connect();
+
+                for (Terminal terminal : farm.getTerminals()) {
+                    terminal.waitForTextInField("SESSION");
+                    terminal.waitForKeyboard().enter();
+                }
+
+                assertThat(allReceived.await(10, TimeUnit.SECONDS)).as("server should receive all the ENTERs")
+                        .isTrue();
+                assertThat(received).hasSize(noOfTerminals);
+                for (byte[] inbound : received.values()) {
+                    assertThat(inbound[0]).as("AID should be ENTER").isEqualTo((byte) 0x7d);
+                }
+            } finally {
+                farm.shutdown();
+            }
+
+            for (Terminal terminal : farm.getTerminals()) {
+                assertThat(terminal.isConnected()).isFalse();
+            }
+        }
+    }
+
+    private void runSession(Socket socket, int id, ConcurrentHashMap<Integer, byte[]> received,
+            CountDownLatch allReceived) {
+        try (Socket s = socket) {
+            OutputStream os = s.getOutputStream();
+            DataInputStream is = new DataInputStream(s.getInputStream());
+
+            os.write(new byte[] { NetworkThread.IAC, NetworkThread.DO, NetworkThread.TELNET_EOR, NetworkThread.IAC,
+                    NetworkThread.WILL, NetworkThread.TELNET_EOR });
+            os.flush();
+            is.readFully(new byte[6]);
+
+            ByteArrayOutputStream screen = new ByteArrayOutputStream();
+            screen.write(AbstractCommandCode.ERASE_WRITE);
+            screen.write(0x03);
+            screen.write(("SESSION " + id).getBytes(ebcdic));
+            screen.write(NetworkThread.IAC);
+            screen.write(NetworkThread.EOR);
+            os.write(screen.toByteArray());
+            os.flush();
+
+            received.put(id, readDatastream(is));
+            allReceived.countDown();
+        } catch (Exception e) {
+            // *** test will fail on the latch
+        }
+    }
+
+    private byte[] readDatastream(InputStream is) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        int previous = 0;
+        int b;
+        while ((b = is.read()) != -1) {
+            if (previous == 0xff && b == 0xef) {
+                break;
+            }
+            baos.write(b);
+            previous = b;
+        }
+        return baos.toByteArray();
+    }
+
+}
@@ -0,0 +1,228 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package test.zos3270.replay;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+
+import dev.galasa.zos3270.AttentionIdentification;
+import dev.galasa.zos3270.internal.comms.Network;
+import dev.galasa.zos3270.internal.comms.NetworkThread;
+import dev.galasa.zos3270.internal.datastream.AbstractCommandCode;
+import dev.galasa.zos3270.internal.datastream.StructuredField;
+import dev.galasa.zos3270.internal.datastream.StructuredFieldReadPartition;
+import dev.galasa.zos3270.spi.Screen;
+
+/**
+ * Replays recorded inbound datastreams through the full parse and apply
+ * pipeline, {@link NetworkThread#process3270Data(ByteBuffer)} followed by
+ * {@link Screen#processInboundMessage}, without a host or a socket.
+ * <p>
+ * Each {@link Scenario} has setup datastreams, applied once to a new screen,
+ * and replay datastreams that are applied on every replay. Outbound
+ * datastreams, from READ MODIFIED and query replies, are counted rather than
+ * sent.
+ * </p>
+ * <p>
+ * Run {@link #main(String[])} from the test classpath to print the time per
+ * replay of each scenario, to compare before and after a change to the
+ * emulator.
+ * </p>
+ */
+public class DatastreamReplay {
+
+    public enum Scenario {
+        ERASE_WRITE,
+        WRITE,
+        STRUCTURED_FIELDS,
+        READ_MODIFIED
+    }
+
+    private static final String CAPTURE = "vampstream.txt";
+
+    private final Scenario      scenario;
+    private final List<byte[]>  setup       = new ArrayList<>();
+    private final List<byte[]>  datastreams = new ArrayList<>();
+
+    private final ReplayNetwork network     = new ReplayNetwork();
+    private Screen              screen;
+    private NetworkThread       networkThread;
+
+    public DatastreamReplay(Scenario scenario) throws IOException, DecoderException {
+        this.scenario = scenario;
+
+        byte[] eraseWrite = loadCapture(CAPTURE);
+
+        switch (scenario) {
+            case ERASE_WRITE:
+                this.datastreams.add(eraseWrite);
+                break;
+            case WRITE:
+                this.setup.add(eraseWrite);
+                // *** The same orders without the erase, as a host would redraw a screen
+                byte[] write = eraseWrite.clone();
+                write[0] = AbstractCommandCode.WRITE;
+                this.datastreams.add(write);
+                break;
+            case STRUCTURED_FIELDS:
+                this.datastreams.add(new byte[] { AbstractCommandCode.WRITE_STRUCTURED, 0x00, 0x05,
+                        StructuredField.SF_READ_PARTITION, (byte) 0xff, StructuredFieldReadPartition.QUERY });
+                this.datastreams.add(wrapIn3270DS(eraseWrite));
+                break;
+            case READ_MODIFIED:
+                this.setup.add(eraseWrite);
+                this.datastreams.add(new byte[] { AbstractCommandCode.READ_MODIFIED });
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown scenario " + scenario);
+        }
+    }
+
+    /**
+     * Create a new screen and apply the setup datastreams
+     *
+     * @return the screen
+     * @throws Exception - if the setup fails
+     */
+    public Screen reset() throws Exception {
+        this.screen = new Screen(80, 24, this.network);
+        this.networkThread = new NetworkThread(null, this.screen, this.network, null);
+
+        for (byte[] datastream : this.setup) {
+            apply(datastream);
+        }
+
+        if (this.scenario == Scenario.READ_MODIFIED) {
+            this.screen.type("LOGON APPLID(CICS)");
+            this.screen.testingSetLastAid(AttentionIdentification.ENTER);
+        }
+
+        this.network.reset();
+        return this.screen;
+    }
+
+    /**
+     * Apply the replay datastreams to the screen once
+     *
+     * @throws Exception - if a datastream fails
+     */
+    public void replay() throws Exception {
+        for (byte[] datastream : this.datastreams) {
+            apply(datastream);
+        }
+    }
+
+    /**
+     * Time the replays after a warm up
+     *
+     * @param warmup - replays to run before timing
+     * @param iterations - replays to time
+     * @return the average nanoseconds per replay
+     * @throws Exception - if a datastream fails
+     */
+    public long measure(int warmup, int iterations) throws Exception {
+        reset();
+        for (int i = 0; i < warmup; i++) {
+            replay();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            replay();
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+
+    public int getOutboundCount() {
+        return this.network.outboundCount;
+    }
+
+    public long getOutboundBytes() {
+        return this.network.outboundBytes;
+    }
+
+    private void apply(byte[] datastream) throws Exception {
+        this.screen.processInboundMessage(this.networkThread.process3270Data(ByteBuffer.wrap(datastream)));
+    }
+
+    private static byte[] wrapIn3270DS(byte[] datastream) {
+        int length = datastream.length + 4;
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(AbstractCommandCode.WRITE_STRUCTURED);
+        baos.write(length >> 8);
+        baos.write(length);
+        baos.write(StructuredField.SF_3270_DS);
+        baos.write(0x00); // *** partition
+        baos.write(datastream, 0, datastream.length);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Load a hex capture of an inbound datastream from the test resources
+     *
+     * @param resource - the resource name
+     * @return the datastream
+     * @throws IOException - if the resource cannot be read
+     * @throws DecoderException - if the resource is not hex
+     */
+    public static byte[] loadCapture(String resource) throws IOException, DecoderException {
+        try (InputStream is = DatastreamReplay.class.getClassLoader().getResourceAsStream(resource)) {
+            if (is == null) {
+                throw new IOException("Missing datastream capture " + resource);
+            }
+            return Hex.decodeHex(IOUtils.toString(is, "utf-8").trim());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int warmup = 20000;
+        int iterations = 50000;
+        if (args.length == 2) {
+            warmup = Integer.parseInt(args[0]);
+            iterations = Integer.parseInt(args[1]);
+        }
+
+        for (Scenario scenario : Scenario.values()) {
+            DatastreamReplay replay = new DatastreamReplay(scenario);
+            long nanos = replay.measure(warmup, iterations);
+            System.out.println(String.format("%-20s %10.2f us/replay", scenario, nanos / 1000.0));
+        }
+    }
+
+    /**
+     * Counts the outbound datastreams instead of sending them
+     */
+    private static class ReplayNetwork extends Network {
+
+        private int  outboundCount;
+        private long outboundBytes;
+
+        ReplayNetwork() {
+            super("replay", 0, "replay");
+        }
+
+        @Override
+        public void sendDatastream(byte[] outboundDatastream) {
+            this.outboundCount++;
+            this.outboundBytes += outboundDatastream.length;
+        }
+
+        void reset() {
+            this.outboundCount = 0;
+            this.outboundBytes = 0;
+        }
+    }
+
+}
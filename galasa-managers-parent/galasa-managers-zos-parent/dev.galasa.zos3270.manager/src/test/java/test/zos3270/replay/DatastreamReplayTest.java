@@ -0,0 +1,57 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package test.zos3270.replay;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import dev.galasa.zos3270.spi.Screen;
+import test.zos3270.replay.DatastreamReplay.Scenario;
+
+/**
+ * Make sure the replay scenarios still drive the emulator as expected, so the
+ * timings from {@link DatastreamReplay} stay meaningful
+ */
+public class DatastreamReplayTest {
+
+    @Test
+    public void testEraseWrite() throws Exception {
+        Screen screen = replay(Scenario.ERASE_WRITE, 0);
+        assertThat(screen.printScreen()).contains("HIT ENTER FOR LATEST STATUS");
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        Screen screen = replay(Scenario.WRITE, 0);
+        assertThat(screen.printScreen()).contains("HIT ENTER FOR LATEST STATUS");
+    }
+
+    @Test
+    public void testStructuredFields() throws Exception {
+        Screen screen = replay(Scenario.STRUCTURED_FIELDS, 3);
+        assertThat(screen.printScreen()).contains("HIT ENTER FOR LATEST STATUS");
+    }
+
+    @Test
+    public void testReadModified() throws Exception {
+        replay(Scenario.READ_MODIFIED, 3);
+    }
+
+    private Screen replay(Scenario scenario, int expectedOutbound) throws Exception {
+        DatastreamReplay replay = new DatastreamReplay(scenario);
+        Screen screen = replay.reset();
+        for (int i = 0; i < 3; i++) {
+            replay.replay();
+        }
+        assertThat(replay.getOutboundCount()).as("outbound datastreams").isEqualTo(expectedOutbound);
+        if (expectedOutbound > 0) {
+            assertThat(replay.getOutboundBytes()).as("outbound bytes").isGreaterThan(expectedOutbound * 3);
+        }
+        return screen;
+    }
+
+}
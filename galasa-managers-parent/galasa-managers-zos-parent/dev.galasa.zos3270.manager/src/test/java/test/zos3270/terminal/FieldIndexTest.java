@@ -0,0 +1,111 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package test.zos3270.terminal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import dev.galasa.zos3270.internal.comms.Inbound3270Message;
+import dev.galasa.zos3270.internal.datastream.AbstractOrder;
+import dev.galasa.zos3270.internal.datastream.BufferAddress;
+import dev.galasa.zos3270.internal.datastream.CommandEraseWrite;
+import dev.galasa.zos3270.internal.datastream.CommandWrite;
+import dev.galasa.zos3270.internal.datastream.OrderSetBufferAddress;
+import dev.galasa.zos3270.internal.datastream.OrderStartField;
+import dev.galasa.zos3270.internal.datastream.OrderText;
+import dev.galasa.zos3270.internal.datastream.WriteControlCharacter;
+import dev.galasa.zos3270.spi.Field;
+import dev.galasa.zos3270.spi.Screen;
+
+/**
+ * Test that the field index is kept up to date as the buffer is changed
+ */
+public class FieldIndexTest {
+
+    private Screen createScreen() throws Exception {
+        Screen screen = new Screen(10, 2, null);
+        screen.erase();
+
+        ArrayList<AbstractOrder> orders = new ArrayList<>();
+        orders.add(new OrderSetBufferAddress(new BufferAddress(0)));
+        orders.add(new OrderStartField(true, false, true, false, false, false));
+        orders.add(new OrderText("Name"));
+        orders.add(new OrderSetBufferAddress(new BufferAddress(5)));
+        orders.add(new OrderStartField(false, false, true, false, false, false));
+        orders.add(new OrderSetBufferAddress(new BufferAddress(10)));
+        orders.add(new OrderStartField(true, false, true, false, false, false));
+        orders.add(new OrderText("Footer"));
+
+        screen.processInboundMessage(new Inbound3270Message(new CommandEraseWrite(),
+                new WriteControlCharacter(false, false, false, false, false, false, true, true), orders));
+
+        return screen;
+    }
+
+    @Test
+    public void testTypeRefreshesOnlyTheTypedField() throws Exception {
+        Screen screen = createScreen();
+
+        Field[] before = screen.calculateFields();
+        assertThat(before).hasSize(3);
+
+        screen.type("Bob", 6);
+
+        Field[] after = screen.calculateFields();
+        assertThat(after).hasSize(3);
+        assertThat(after[0]).as("Untouched field should be reused").isSameAs(before[0]);
+        assertThat(after[2]).as("Untouched field should be reused").isSameAs(before[2]);
+        assertThat(after[1].getFieldWithoutNulls()).isEqualTo("Bob ");
+        assertThat(after[1].isFieldModifed()).as("Typed field should be modified").isTrue();
+        assertThat(before[1].getFieldWithoutNulls()).as("Previous index should not be altered").isEqualTo("    ");
+
+        screen.type("x", 9);
+        Field[] again = screen.calculateFields();
+        assertThat(again[1].getFieldWithoutNulls()).isEqualTo("Bobx");
+    }
+
+    @Test
+    public void testWriteUpdatesIndex() throws Exception {
+        Screen screen = createScreen();
+        screen.calculateFields();
+
+        ArrayList<AbstractOrder> orders = new ArrayList<>();
+        orders.add(new OrderSetBufferAddress(new BufferAddress(11)));
+        orders.add(new OrderText("Change"));
+        screen.processInboundMessage(new Inbound3270Message(new CommandWrite(),
+                new WriteControlCharacter(false, false, false, false, false, false, true, true), orders));
+
+        assertThat(screen.isTextInField("Change")).isTrue();
+        assertThat(screen.isTextInField("Footer")).isFalse();
+
+        orders = new ArrayList<>();
+        orders.add(new OrderSetBufferAddress(new BufferAddress(15)));
+        orders.add(new OrderStartField(false, false, true, false, false, false));
+        screen.processInboundMessage(new Inbound3270Message(new CommandWrite(),
+                new WriteControlCharacter(false, false, false, false, false, false, true, true), orders));
+
+        Field[] fields = screen.calculateFields();
+        assertThat(fields).as("New start of field should be in the index").hasSize(4);
+        assertThat(fields[3].getStart()).isEqualTo(15);
+        assertThat(fields[3].isProtected()).isFalse();
+    }
+
+    @Test
+    public void testEraseEofUpdatesIndex() throws Exception {
+        Screen screen = createScreen();
+        screen.type("Bob", 6);
+        assertThat(screen.isTextInField("Bob")).isTrue();
+
+        screen.setCursorPosition(7);
+        screen.eraseEof();
+
+        assertThat(screen.getFieldAt(7, 0).getFieldWithoutNulls()).isEqualTo("B   ");
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package test.zos3270.terminal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import dev.galasa.zos3270.ErrorTextFoundException;
+import dev.galasa.zos3270.TextNotFoundException;
+import dev.galasa.zos3270.internal.comms.Inbound3270Message;
+import dev.galasa.zos3270.internal.datastream.AbstractOrder;
+import dev.galasa.zos3270.internal.datastream.BufferAddress;
+import dev.galasa.zos3270.internal.datastream.CommandEraseWrite;
+import dev.galasa.zos3270.internal.datastream.OrderSetBufferAddress;
+import dev.galasa.zos3270.internal.datastream.OrderStartField;
+import dev.galasa.zos3270.internal.datastream.OrderText;
+import dev.galasa.zos3270.internal.datastream.WriteControlCharacter;
+import dev.galasa.zos3270.spi.FieldTextMatcher;
+import dev.galasa.zos3270.spi.Screen;
+
+/**
+ * Test the multi text matcher gives the same answers as searching for each text in turn
+ */
+public class FieldTextMatcherTest {
+
+    private Screen createScreen() throws Exception {
+        Screen screen = new Screen(20, 2, null);
+        screen.erase();
+
+        ArrayList<AbstractOrder> orders = new ArrayList<>();
+        orders.add(new OrderSetBufferAddress(new BufferAddress(0)));
+        orders.add(new OrderStartField(true, false, true, false, false, false));
+        orders.add(new OrderText("AABAB SHERLOCK"));
+        orders.add(new OrderSetBufferAddress(new BufferAddress(20)));
+        orders.add(new OrderStartField(true, false, true, false, false, false));
+        orders.add(new OrderText("DFHAC2001 ERROR"));
+
+        screen.processInboundMessage(new Inbound3270Message(new CommandEraseWrite(),
+                new WriteControlCharacter(false, false, false, false, false, false, true, true), orders));
+
+        return screen;
+    }
+
+    @Test
+    public void testOverlappingTextsAreFound() throws Exception {
+        Screen screen = createScreen();
+
+        assertThat(screen.searchFieldContaining(new FieldTextMatcher(new String[] { "XYZ", "ABAB", "HERS" }, null)))
+                .isEqualTo(1);
+        assertThat(screen.searchFieldContaining(new FieldTextMatcher(new String[] { "HERS", "LOCK", "AB" }, null)))
+                .as("Lowest index should be reported, not the first found").isEqualTo(1);
+    }
+
+    @Test
+    public void testErrorTextTakesPriority() throws Exception {
+        Screen screen = createScreen();
+
+        FieldTextMatcher matcher = new FieldTextMatcher(new String[] { "SHERLOCK" },
+                new String[] { "NOT THERE", "ERROR", "DFHAC2001" });
+
+        Throwable thrown = catchThrowable(() -> screen.searchFieldContaining(matcher));
+        assertThat(thrown).isInstanceOf(ErrorTextFoundException.class)
+                .hasMessage("Found error text 'ERROR' on screen");
+        assertThat(((ErrorTextFoundException) thrown).getErrorId()).isEqualTo(1);
+    }
+
+    @Test
+    public void testTextDoesNotSpanFields() throws Exception {
+        Screen screen = createScreen();
+
+        FieldTextMatcher matcher = new FieldTextMatcher(new String[] { "LOCK", "LOCK      DFHAC" }, null);
+        assertThat(screen.searchFieldContaining(matcher)).isEqualTo(0);
+
+        FieldTextMatcher spanning = new FieldTextMatcher(new String[] { "ERRORAABAB", "LOCK DFH" }, null);
+        assertThat(catchThrowable(() -> screen.searchFieldContaining(spanning)))
+                .isInstanceOf(TextNotFoundException.class);
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package test.zos3270.terminal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+import dev.galasa.zos3270.common.screens.Terminal;
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalSize;
+import dev.galasa.zos3270.internal.terminal.LiveTerminalPublisher;
+import dev.galasa.zos3270.internal.terminal.TerminalJsonWriter;
+
+public class LiveTerminalPublisherTest {
+
+    /** The number of images the publisher queues before dropping the oldest */
+    private static final int QUEUE_SIZE = 20;
+
+    /** The body of each PUT, in the order they were sent */
+    private final List<ByteArrayOutputStream> puts = new ArrayList<>();
+
+    private final CountDownLatch firstPutSent = new CountDownLatch(1);
+
+    /** The UI does not respond to the first PUT until this is released */
+    private final CountDownLatch uiRelease = new CountDownLatch(1);
+
+    /** The response code of the UI to each PUT */
+    private int responseCode = 200;
+
+    private InputStream errorStream;
+
+    @Test
+    public void testSlowUiCoalescesImages() throws Exception {
+        LiveTerminalPublisher publisher = new LiveTerminalPublisher(liveTerminalUrl(), "term1", "run1",
+                new TerminalJsonWriter(null));
+        publisher.start();
+
+        publisher.publish(image(1));
+        assertThat(this.firstPutSent.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // *** The publisher is waiting for the UI, so only the most recent images can be kept
+        int published = 1 + QUEUE_SIZE + 10;
+        for (int i = 2; i <= published; i++) {
+            publisher.publish(image(i));
+        }
+        assertThat(publisher.getImagesDropped()).isEqualTo(10);
+
+        this.uiRelease.countDown();
+        publisher.shutdown(10000);
+        assertThat(publisher.isAlive()).isFalse();
+
+        List<Terminal> terminals = new ArrayList<>();
+        synchronized (this.puts) {
+            for (ByteArrayOutputStream put : this.puts) {
+                terminals.add(new Gson().fromJson(new String(put.toByteArray(), StandardCharsets.UTF_8), Terminal.class));
+            }
+        }
+        assertThat(terminals).hasSize(2);
+        assertThat(terminals.get(0).getSequence()).isEqualTo(1);
+        assertThat(terminals.get(0).getImages()).hasSize(1);
+        assertThat(terminals.get(0).getImages().get(0).getSequence()).isEqualTo(1);
+
+        // *** The images waiting when the UI responded are coalesced to the most recent, still one image per PUT
+        assertThat(terminals.get(1).getSequence()).isEqualTo(2);
+        assertThat(terminals.get(1).getImages()).hasSize(1);
+        assertThat(terminals.get(1).getImages().get(0).getSequence()).isEqualTo(published);
+
+        assertThat(publisher.getImagesSent()).isEqualTo(2);
+        assertThat(publisher.getImagesDropped()).isEqualTo(published - 2);
+    }
+
+    @Test
+    public void testErrorResponseIsReadAndClosed() throws Exception {
+        this.responseCode = 500;
+        this.errorStream = spy(new ByteArrayInputStream("Internal error".getBytes(StandardCharsets.UTF_8)));
+        this.uiRelease.countDown();
+
+        LiveTerminalPublisher publisher = new LiveTerminalPublisher(liveTerminalUrl(), "term1", "run1",
+                new TerminalJsonWriter(null));
+        publisher.start();
+        publisher.publish(image(1));
+        publisher.shutdown(10000);
+        assertThat(publisher.isAlive()).isFalse();
+
+        assertThat(this.errorStream.available()).isEqualTo(0);
+        verify(this.errorStream).close();
+        assertThat(publisher.getImagesSent()).isEqualTo(0);
+        assertThat(publisher.getImagesDropped()).isEqualTo(1);
+
+        publisher.publish(image(2));
+        assertThat(publisher.getImagesDropped()).isEqualTo(1);
+    }
+
+    private TerminalImage image(int sequence) {
+        return new TerminalImage(sequence, "term1-" + sequence, true, null, null, new TerminalSize(80, 24), 0, 0);
+    }
+
+    /**
+     * A URL whose connections record the body of each PUT and respond with the
+     * response code, the first once the UI is released
+     */
+    private URL liveTerminalUrl() throws Exception {
+        URLStreamHandler handler = new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(URL url) {
+                HttpURLConnection connection = mock(HttpURLConnection.class);
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                try {
+                    when(connection.getOutputStream()).thenReturn(body);
+                    when(connection.getResponseCode()).thenAnswer(invocation -> {
+                        boolean first;
+                        synchronized (puts) {
+                            puts.add(body);
+                            first = puts.size() == 1;
+                        }
+                        if (first) {
+                            firstPutSent.countDown();
+                            uiRelease.await();
+                        }
+                        return responseCode;
+                    });
+                    when(connection.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
+                    when(connection.getErrorStream()).thenReturn(errorStream);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return connection;
+            }
+        };
+        return new URL(null, "http://localhost/ras/run1/terminals/term1", handler);
+    }
+
+}
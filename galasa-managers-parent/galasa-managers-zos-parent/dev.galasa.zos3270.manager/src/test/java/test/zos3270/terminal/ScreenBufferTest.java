@@ -0,0 +1,61 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package test.zos3270.terminal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+import dev.galasa.zos3270.spi.BufferChar;
+import dev.galasa.zos3270.spi.BufferGraphicsEscape;
+import dev.galasa.zos3270.spi.BufferNewLine;
+import dev.galasa.zos3270.spi.BufferStartOfField;
+import dev.galasa.zos3270.spi.IBufferHolder;
+import dev.galasa.zos3270.spi.Screen;
+import dev.galasa.zos3270.spi.ScreenBuffer;
+
+public class ScreenBufferTest {
+
+    @Test
+    public void testEbcdicTableMatchesCharset() {
+        Charset ebcdic = Charset.forName("Cp037");
+        String sample = "ABCxyz 0123456789$@#!?%&*()[]{}<>|\u00a2\u00ac";
+        for (char c : sample.toCharArray()) {
+            byte expected = new String(new char[] { c }).getBytes(ebcdic)[0];
+            assertThat(ScreenBuffer.toEbcdic(c)).as("EBCDIC value of '" + c + "'").isEqualTo(expected);
+        }
+        assertThat(ScreenBuffer.toEbcdic((char) 0)).isEqualTo((byte) 0);
+        assertThat(ScreenBuffer.toEbcdic('\u4e00')).as("Unmappable characters should be substituted").isEqualTo((byte) 0x6f);
+    }
+
+    @Test
+    public void testBufferHoldersRoundTrip() throws Exception {
+        Screen screen = new Screen(10, 1, null);
+
+        IBufferHolder[] holders = new IBufferHolder[10];
+        holders[0] = new BufferStartOfField(0, true, false, true, false, false, true);
+        holders[1] = new BufferChar('A');
+        holders[2] = new BufferNewLine();
+        holders[3] = new BufferGraphicsEscape((byte) 0x12);
+        screen.setBuffer(holders);
+
+        IBufferHolder sf = screen.getBufferHolder(0);
+        assertThat(sf).isInstanceOf(BufferStartOfField.class);
+        assertThat(((BufferStartOfField) sf).isProtected()).isTrue();
+        assertThat(((BufferStartOfField) sf).isNumeric()).isFalse();
+        assertThat(((BufferStartOfField) sf).isFieldModifed()).isTrue();
+
+        assertThat(screen.getBufferHolder(1).getChar()).isEqualTo('A');
+        assertThat(screen.getBufferHolder(2)).isInstanceOf(BufferNewLine.class);
+        assertThat(((BufferGraphicsEscape) screen.getBufferHolder(3)).getFieldEbcdic()).isEqualTo((byte) 0x12);
+        assertThat(screen.getBufferHolder(4)).isNull();
+
+        assertThat(screen.retrieveFlatScreen()).isEqualTo(" A        ");
+    }
+
+}
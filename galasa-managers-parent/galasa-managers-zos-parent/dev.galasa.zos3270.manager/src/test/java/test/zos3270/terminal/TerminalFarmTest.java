@@ -0,0 +1,193 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package test.zos3270.terminal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import dev.galasa.zos3270.internal.comms.NetworkThread;
+import dev.galasa.zos3270.internal.datastream.AbstractCommandCode;
+import dev.galasa.zos3270.spi.ResponseTimeHistogram;
+import dev.galasa.zos3270.spi.TerminalFarm;
+import dev.galasa.zos3270.spi.TerminalFarmResults;
+
+public class TerminalFarmTest {
+
+    private static final Charset ebcdic       = Charset.forName("Cp037");
+    private static final long    RESPONSE_MS  = 5;
+
+    @Test
+    public void testHistogramPercentiles() {
+        ResponseTimeHistogram histogram = new ResponseTimeHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i, TimeUnit.MILLISECONDS);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(1000);
+        assertThat(histogram.getMin()).isEqualTo(1000);
+        assertThat(histogram.getMax()).isEqualTo(1_000_000);
+        assertThat(histogram.getMean()).isCloseTo(500_500, within(1.0));
+        assertThat((double) histogram.getPercentile(50)).isCloseTo(500_000, within(500_000 * 0.07));
+        assertThat((double) histogram.getPercentile(99)).isCloseTo(990_000, within(990_000 * 0.07));
+        assertThat(histogram.getPercentile(100)).isEqualTo(1_000_000);
+
+        ResponseTimeHistogram combined = new ResponseTimeHistogram();
+        combined.record(5, TimeUnit.MICROSECONDS);
+        combined.add(histogram);
+        assertThat(combined.getCount()).isEqualTo(1001);
+        assertThat(combined.getMin()).isEqualTo(5);
+        assertThat(combined.getPercentile(0)).isEqualTo(5);
+    }
+
+    /**
+     * Run a simple flow on more terminals than flow threads, against a server
+     * that answers every ENTER after a short delay
+     */
+    @Test
+    public void testFarmRecordsResponseTimes() throws Exception {
+        int noOfTerminals = 8;
+        int iterations = 4;
+
+        try (ServerSocket server = new ServerSocket(0)) {
+            startServer(server);
+
+            TerminalFarm farm = new TerminalFarm("F", "localhost", server.getLocalPort(), false, noOfTerminals, 2, 3);
+            try {
+                farm.connect();
+                for (int i = 0; i < noOfTerminals; i++) {
+                    farm.getTerminals().get(i).waitForKeyboard();
+                }
+
+                TerminalFarmResults results = farm.run(session -> {
+                    session.transaction("MENU");
+                    session.getTerminal().waitForKeyboard().enter().waitForKeyboard();
+                }, iterations);
+
+                assertThat(results.getFailedFlows()).isZero();
+                assertThat(results.getCompletedFlows()).isEqualTo(noOfTerminals * iterations);
+                assertThat(results.getTransactions()).containsOnlyKeys("MENU");
+
+                ResponseTimeHistogram menu = results.getTransactions().get("MENU");
+                assertThat(menu.getCount()).isEqualTo(noOfTerminals * iterations);
+                assertThat(menu.getMin()).as("response includes the server delay")
+                        .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toMicros(RESPONSE_MS));
+                assertThat(results.toString()).contains("MENU count=" + (noOfTerminals * iterations));
+            } finally {
+                farm.shutdown();
+            }
+        }
+    }
+
+    /**
+     * A flow that throws an Error must not leave the run waiting for its terminal
+     */
+    @Test
+    public void testFlowErrorsFinishTheRun() throws Exception {
+        int noOfTerminals = 4;
+
+        try (ServerSocket server = new ServerSocket(0)) {
+            startServer(server);
+
+            TerminalFarm farm = new TerminalFarm("E", "localhost", server.getLocalPort(), false, noOfTerminals, 1, 2);
+            farm.setRunTimeout(Duration.ofSeconds(30));
+            try {
+                farm.connect();
+
+                TerminalFarmResults results = farm.run(session -> {
+                    if (session.getIteration() == 0) {
+                        throw new AssertionError("screen check failed");
+                    }
+                    throw new Error("flow broken");
+                }, 3);
+
+                assertThat(results.getFailedFlows()).as("assertion failures are failed flows")
+                        .isEqualTo(noOfTerminals);
+                assertThat(results.getCompletedFlows()).isZero();
+            } finally {
+                farm.shutdown();
+            }
+        }
+    }
+
+    private void startServer(ServerSocket server) {
+        Thread serverThread = new Thread(() -> {
+            while (true) {
+                try {
+                    Socket socket = server.accept();
+                    Thread session = new Thread(() -> runSession(socket));
+                    session.setDaemon(true);
+                    session.start();
+                } catch (Exception e) {
+                    return;
+                }
+            }
+        });
+        serverThread.setDaemon(true);
+        serverThread.start();
+    }
+
+    private void runSession(Socket socket) {
+        try (Socket s = socket) {
+            OutputStream os = s.getOutputStream();
+            DataInputStream is = new DataInputStream(s.getInputStream());
+
+            os.write(new byte[] { NetworkThread.IAC, NetworkThread.DO, NetworkThread.TELNET_EOR, NetworkThread.IAC,
+                    NetworkThread.WILL, NetworkThread.TELNET_EOR });
+            os.flush();
+            is.readFully(new byte[6]);
+
+            int screenNumber = 0;
+            while (true) {
+                os.write(screen(screenNumber++));
+                os.flush();
+
+                if (readDatastream(is) == null) {
+                    return;
+                }
+                Thread.sleep(RESPONSE_MS);
+            }
+        } catch (Exception e) {
+            // *** test will fail on the results
+        }
+    }
+
+    private byte[] screen(int screenNumber) throws Exception {
+        ByteArrayOutputStream screen = new ByteArrayOutputStream();
+        screen.write(AbstractCommandCode.ERASE_WRITE);
+        screen.write(0x03);
+        screen.write(("MENU " + screenNumber).getBytes(ebcdic));
+        screen.write(NetworkThread.IAC);
+        screen.write(NetworkThread.EOR);
+        return screen.toByteArray();
+    }
+
+    private byte[] readDatastream(InputStream is) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        int previous = 0;
+        int b;
+        while ((b = is.read()) != -1) {
+            if (previous == 0xff && b == 0xef) {
+                return baos.toByteArray();
+            }
+            baos.write(b);
+            previous = b;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package test.zos3270.terminal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import dev.galasa.framework.spi.IConfidentialTextService;
+import dev.galasa.zos3270.common.screens.FieldContents;
+import dev.galasa.zos3270.common.screens.Terminal;
+import dev.galasa.zos3270.common.screens.TerminalField;
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalSize;
+import dev.galasa.zos3270.internal.terminal.TerminalJsonWriter;
+
+public class TerminalJsonWriterTest {
+
+    private Terminal createTerminal() {
+        Terminal terminal = new Terminal("term1", "run1", 3, new TerminalSize(80, 24));
+
+        TerminalImage image = new TerminalImage(1, "term1-1", true, null, null, new TerminalSize(80, 24), 4, 2);
+        TerminalField field = new TerminalField(0, 0, false, true, false, true, false, false, false);
+        field.getContents()
+                .add(new FieldContents(new Character[] { 'U', 's', 'e', 'r', ' ', 'S', 'E', 'C', 'R', 'E', 'T' }));
+        image.getFields().add(field);
+
+        TerminalField input = new TerminalField(1, 5, false, false, false, true, false, false, true);
+        input.getContents().add(new FieldContents(new Character[] { 'S', 'E', 'C', 'R', 'E', 'T', null, null }));
+        image.getFields().add(input);
+        terminal.addImage(image);
+
+        terminal.addImage(new TerminalImage(2, "term1-2", false, "type", "ENTER", null, 0, 0));
+
+        return terminal;
+    }
+
+    @Test
+    public void testSameJsonAsGsonWithFalseBooleansRemoved() throws Exception {
+        Terminal terminal = createTerminal();
+
+        JsonObject expected = (JsonObject) new Gson().toJsonTree(terminal);
+        TerminalJsonWriter.stripFalseBooleans(expected);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new TerminalJsonWriter(null).write(terminal, baos);
+
+        JsonObject actual = new JsonParser().parse(new String(baos.toByteArray(), StandardCharsets.UTF_8))
+                .getAsJsonObject();
+        assertThat(actual).isEqualTo(expected);
+
+        Terminal readBack = new Gson().fromJson(new String(baos.toByteArray(), StandardCharsets.UTF_8),
+                Terminal.class);
+        assertThat(readBack.getImages()).hasSize(2);
+        assertThat(readBack.getImages().get(0).getFields().get(1).getContents().get(0).getChars())
+                .containsExactly('S', 'E', 'C', 'R', 'E', 'T', null, null);
+    }
+
+    @Test
+    public void testConfidentialTextRemovedPerField() throws Exception {
+        IConfidentialTextService cts = mock(IConfidentialTextService.class);
+        when(cts.removeConfidentialText(anyString()))
+                .thenAnswer(invocation -> ((String) invocation.getArgument(0)).replace("SECRET", "*1****"));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new TerminalJsonWriter(cts).write(createTerminal(), baos);
+        String json = new String(baos.toByteArray(), StandardCharsets.UTF_8);
+
+        assertThat(json).doesNotContain("SECRET").doesNotContain("\"S\",\"E\"");
+
+        Terminal readBack = new Gson().fromJson(json, Terminal.class);
+        TerminalImage image = readBack.getImages().get(0);
+        assertThat(image.getFields().get(0).getContents().get(0).getChars()).containsExactly('U', 's', 'e', 'r',
+                ' ', '*', '1', '*', '*', '*', '*');
+        assertThat(image.getFields().get(1).getContents().get(0).getChars()).containsExactly('*', '1', '*', '*',
+                '*', '*', null, null);
+    }
+
+    @Test
+    public void testConfidentialTextReplacedCharacterForCharacter() throws Exception {
+        IConfidentialTextService cts = mock(IConfidentialTextService.class);
+        when(cts.removeConfidentialText(anyString()))
+                .thenAnswer(invocation -> ((String) invocation.getArgument(0)).replace("SECRET", "*1*"));
+
+        Terminal terminal = new Terminal("term1", "run1", 1, new TerminalSize(80, 24));
+        TerminalImage image = new TerminalImage(1, "term1-1", true, null, null, new TerminalSize(80, 24), 0, 0);
+        TerminalField field = new TerminalField(0, 0, false, true, false, true, false, false, false);
+        field.getContents().add(new FieldContents(new Character[] { 'P', 'w', null, 'S', 'E', 'C', 'R', 'E', 'T',
+                null, 'x' }));
+        field.getContents().add(new FieldContents(new Character[] { 'a', 'S', 'E', 'C', 'R', 'E', 'T', 'b' }));
+        image.getFields().add(field);
+        terminal.addImage(image);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new TerminalJsonWriter(cts).write(terminal, baos);
+        String json = new String(baos.toByteArray(), StandardCharsets.UTF_8);
+
+        assertThat(json).doesNotContain("SECRET");
+
+        // *** The replacement is shorter, so the changed characters are masked to keep the null positions
+        Terminal readBack = new Gson().fromJson(json, Terminal.class);
+        TerminalField readField = readBack.getImages().get(0).getFields().get(0);
+        assertThat(readField.getContents().get(0).getChars()).containsExactly('P', 'w', null, '*', '*', '*', '*',
+                '*', '*', null, 'x');
+        assertThat(readField.getContents().get(1).getChars()).containsExactly('a', '*', '*', '*', '*', '*', '*',
+                'b');
+    }
+
+}
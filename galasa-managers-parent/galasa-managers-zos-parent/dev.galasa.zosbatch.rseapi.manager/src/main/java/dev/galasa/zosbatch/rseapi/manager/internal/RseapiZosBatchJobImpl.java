@@ -5,13 +5,22 @@
  */
 package dev.galasa.zosbatch.rseapi.manager.internal;
 
+import java.io.InputStream;
 import java.nio.file.Path;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.validation.constraints.NotNull;
 
@@ -35,6 +44,7 @@ import dev.galasa.zosbatch.ZosBatchException;
 import dev.galasa.zosbatch.ZosBatchJobcard;
 import dev.galasa.zosbatch.ZosBatchManagerException;
 import dev.galasa.zosbatch.spi.IZosBatchJobOutputSpi;
+import dev.galasa.zosbatch.spi.ZosBatchJobTimer;
 import dev.galasa.zosrseapi.IRseapi.RseapiRequestType;
 import dev.galasa.zosrseapi.IRseapiResponse;
 import dev.galasa.zosrseapi.IRseapiRestApiProcessor;
@@ -56,14 +66,14 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
     private String jcl;
     private int jobWaitTimeout;
     
-    private String jobid;         
-    private String owner;         
-    private String type;         
-    private JobStatus status;         
-    private String statusString;
-    private boolean jobNotFound;
-    private String retcode;
-    private boolean jobComplete;
+    private volatile String jobid;         
+    private volatile String owner;         
+    private volatile String type;         
+    private volatile JobStatus status;         
+    private volatile String statusString;
+    private volatile boolean jobNotFound;
+    private volatile String retcode;
+    private volatile boolean jobComplete;
     private boolean outputComplete;
     private boolean jobArchived;
     private boolean jobPurged;
@@ -71,6 +81,8 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
     private String jobFilesPath;
     private IZosBatchJobOutputSpi jobOutput;
     private boolean useSysaff;
+    private final ZosBatchJobTimer jobTimer;
+    private final Map<Path, Set<String>> reservedSpoolFileNames = new HashMap<>();
     
     private boolean shouldArchive = true;
 
@@ -91,6 +103,10 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
     private static final String QUERY = "?";
     protected static final String RESTJOBS_PATH = SLASH + "rseapi" + SLASH + "api" + SLASH + "v1" + SLASH + "jobs";
     
+    protected static final long MIN_POLL_INTERVAL = 200;
+    protected static final long MAX_POLL_INTERVAL = 2000;
+    protected static final long WAIT_GRACE_PERIOD = 60;
+    
     private static final String LOG_JOB_NOT_SUBMITTED = "Job has not been submitted by manager";
     
     private static final Log logger = LogFactory.getLog(RseapiZosBatchJobImpl.class);
@@ -109,6 +125,7 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
     	this.zosBatchManager = zosBatchManager;
         this.jobImage = jobImage;
         this.jobname = jobname;
+        this.jobTimer = new ZosBatchJobTimer(this.zosBatchManager.getZosManager().getMetricsRecorder(), jobImage.getImageID());
         if (jobcard != null) {
             this.jobcard = jobcard;
         } else {
@@ -169,6 +186,7 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
             this.retcode = jsonNull(responseBody, PROP_RETCODE);
             setJobPathValues();
             logger.info("JOB " + this.toString() + " Submitted");
+            this.jobTimer.submitted();
         } else {            
             // Error case
             String displayMessage = buildErrorString("Submit job", response); 
@@ -251,35 +269,78 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
 
     @Override
     public int waitForJob() throws ZosBatchException {
+        CompletableFuture<Integer> future = waitForJobAsync();
+        try {
+            // *** The poll completes the future at the timeout, only wait longer if polling has stopped
+            return future.get(jobWaitTimeout + WAIT_GRACE_PERIOD, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new ZosBatchException("Timed out waiting for job " + this.toString(), e);
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            logger.error("waitForJob Interrupted", e);
+            Thread.currentThread().interrupt();
+            throw new ZosBatchException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ZosBatchException) {
+                throw (ZosBatchException) e.getCause();
+            }
+            throw new ZosBatchException(e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> waitForJobAsync() throws ZosBatchException {
         if (!submitted()) {
             throw new ZosBatchException(LOG_JOB_NOT_SUBMITTED);
         }
         logger.info("Waiting up to " + jobWaitTimeout + " second(s) for "+ this.jobid + " " + this.jobname.getName() + " to complete");
         
-        LocalDateTime timeoutTime = LocalDateTime.now().plusSeconds(jobWaitTimeout);
-        while (LocalDateTime.now().isBefore(timeoutTime)) {
+        ScheduledExecutorService scheduler = this.zosBatchManager.getJobWaitScheduler();
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        this.zosBatchManager.addJobWait(this, future);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(jobWaitTimeout);
+        scheduler.execute(() -> pollJob(future, deadline, MIN_POLL_INTERVAL));
+        return future;
+    }
+    
+    /**
+     * Check the job status, scheduling the next check with a longer interval while the status does not change
+     */
+    protected void pollJob(CompletableFuture<Integer> future, long deadline, long interval) {
+        if (future.isDone()) {
+            return;
+        }
+        try {
+            String previousStatus = this.statusString;
             updateJobStatus();
-            if (this.jobNotFound) {
-                return Integer.MIN_VALUE;
-            }
-            try {
-                if (isComplete()) {
-                    String[] rc = this.retcode.split(" ");
-                    if (rc.length == 2) {
-                        return StringUtils.isNumeric(rc[1]) ? Integer.parseInt(rc[1]) : Integer.MIN_VALUE;
-                    }
-                    return Integer.MIN_VALUE;
-                }
-                
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                logger.error("waitForJob Interrupted", e);
-                Thread.currentThread().interrupt();
-                throw new ZosBatchException(e);
+            if (this.jobNotFound || isComplete()) {
+                future.complete(jobReturnCode());
+            } else if (System.nanoTime() - deadline >= 0) {
+                future.complete(Integer.MIN_VALUE);
+            } else if (!future.isDone()) {
+                long nextInterval = Objects.equals(previousStatus, this.statusString) ? Math.min(interval * 3 / 2, MAX_POLL_INTERVAL) : MIN_POLL_INTERVAL;
+                this.zosBatchManager.getJobWaitScheduler().schedule(() -> pollJob(future, deadline, nextInterval), nextInterval, TimeUnit.MILLISECONDS);
             }
+        } catch (ZosBatchException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+    
+    /**
+     * The highest CC of a complete job, {@link Integer#MIN_VALUE} if the job is not complete, was not found or
+     * the CC is not numeric
+     */
+    protected int jobReturnCode() {
+        if (this.jobNotFound || !isComplete() || this.retcode == null) {
+            return Integer.MIN_VALUE;
+        }
+        String[] rc = this.retcode.split(" ");
+        if (rc.length == 2) {
+            return StringUtils.isNumeric(rc[1]) ? Integer.parseInt(rc[1]) : Integer.MIN_VALUE;
         }
         return Integer.MIN_VALUE;
-    }    
+    }
     
     @Override
     public IZosBatchJobOutput retrieveOutput() throws ZosBatchException {
@@ -331,32 +392,45 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
         Path artifactPath = this.zosBatchManager.getArtifactsRoot().resolve(rasPath);
 		logger.info("Archiving batch job " + this.toString() + " to " + artifactPath.toString());
         
-        Iterator<IZosBatchJobOutputSpoolFile> iterator = jobOutput().iterator();
-        while (iterator.hasNext()) {
-            IZosBatchJobOutputSpoolFile spoolFile = iterator.next();
-            StringBuilder name = new StringBuilder();
-            name.append(spoolFile.getJobname());
+        this.jobOutput.storeSpoolFiles((spoolFile, records) -> storeSpoolFile(artifactPath, spoolFile, records));
+        if (isComplete()) {
+        	this.jobArchived = true;
+        }
+    }
+
+    /**
+     * Stream the records of a spool file into the results archive. The artifact name is reserved under a lock as
+     * several spool files are stored at the same time, the content is copied outside the lock
+     */
+    protected void storeSpoolFile(Path artifactPath, IZosBatchJobOutputSpoolFile spoolFile, InputStream records) throws ZosBatchException {
+        StringBuilder name = new StringBuilder();
+        name.append(spoolFile.getJobname());
+        name.append("_");
+        name.append(spoolFile.getJobid());
+        if (!spoolFile.getStepname().isEmpty()){
             name.append("_");
-            name.append(spoolFile.getJobid());
-            if (!spoolFile.getStepname().isEmpty()){
-                name.append("_");
-                name.append(spoolFile.getStepname());
-            }
-            if (!spoolFile.getProcstep().isEmpty()){
-                name.append("_");
-                name.append(spoolFile.getProcstep());
-            }
+            name.append(spoolFile.getStepname());
+        }
+        if (!spoolFile.getProcstep().isEmpty()){
             name.append("_");
-            name.append(spoolFile.getDdname());
+            name.append(spoolFile.getProcstep());
+        }
+        name.append("_");
+        name.append(spoolFile.getDdname());
+        Path spoolFilePath;
+        synchronized (this.reservedSpoolFileNames) {
+            Set<String> reservedNames = this.reservedSpoolFileNames.computeIfAbsent(artifactPath, path -> new HashSet<>());
             String fileName = this.zosBatchManager.getZosManager().buildUniquePathName(artifactPath, name.toString());
-            try {
-            	this.zosBatchManager.getZosManager().storeArtifact(artifactPath.resolve(fileName), spoolFile.getRecords(), ResultArchiveStoreContentType.TEXT);
-			} catch (ZosManagerException e) {
-				throw new ZosBatchException(e);
-			}
+            int uniqueId = 1;
+            while (!reservedNames.add(fileName)) {
+                fileName = this.zosBatchManager.getZosManager().buildUniquePathName(artifactPath, name.toString() + "_" + uniqueId++);
+            }
+            spoolFilePath = artifactPath.resolve(fileName);
         }
-        if (isComplete()) {
-        	this.jobArchived = true;
+        try {
+            this.zosBatchManager.getZosManager().storeArtifact(spoolFilePath, records, ResultArchiveStoreContentType.TEXT);
+        } catch (ZosManagerException e) {
+            throw new ZosBatchException("Unable to archive spool file " + name.toString(), e);
         }
     }
 
@@ -565,6 +639,7 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
                 this.status = JobStatus.NOTFOUND;
             }
             setStatus(this.statusString);
+            this.jobTimer.status(this.status);
             String retcodeProperty = jsonNull(responseBody, PROP_RETCODE);
             if (retcodeProperty != null) {
                 this.retcode = retcodeProperty;
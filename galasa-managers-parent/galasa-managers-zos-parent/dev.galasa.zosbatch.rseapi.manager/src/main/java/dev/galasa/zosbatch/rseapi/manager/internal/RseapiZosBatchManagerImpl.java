@@ -10,7 +10,12 @@ import java.lang.reflect.Field;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 import javax.validation.constraints.NotNull;
 
@@ -66,6 +71,36 @@ public class RseapiZosBatchManagerImpl extends AbstractManager implements IZosBa
     private final HashMap<String, RseapiZosBatchImpl> taggedZosBatches = new HashMap<>();
     private final HashMap<String, RseapiZosBatchImpl> zosBatches = new HashMap<>();
 
+    private ScheduledExecutorService jobWaitScheduler;
+    private boolean jobWaitsEnded;
+    /**
+     * The scheduler used to poll for jobs, created when first needed and shut down at the end of the test run
+     * 
+     * @throws ZosBatchException if the test run has ended
+     */
+    public synchronized ScheduledExecutorService getJobWaitScheduler() throws ZosBatchException {
+        if (this.jobWaitsEnded) {
+            throw new ZosBatchException("Unable to wait for a job after the end of the test run");
+        }
+        if (this.jobWaitScheduler == null) {
+            this.jobWaitScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "zosbatch-job-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return this.jobWaitScheduler;
+    }
+
+    private final Map<CompletableFuture<Integer>, RseapiZosBatchJobImpl> jobWaits = new ConcurrentHashMap<>();
+    /**
+     * Track a wait for a job, so it can be completed if the job is still being waited for at the end of the run
+     */
+    public void addJobWait(RseapiZosBatchJobImpl job, CompletableFuture<Integer> future) {
+        this.jobWaits.put(future, job);
+        future.whenComplete((cc, e) -> this.jobWaits.remove(future));
+    }
+
     private Path artifactsRoot;
     public Path getArtifactsRoot() {
     	return artifactsRoot;
@@ -200,8 +235,19 @@ public class RseapiZosBatchManagerImpl extends AbstractManager implements IZosBa
         } catch (ZosBatchException e) {
             logger.error("Problem in endOfTestRun()", e);
         }
+        synchronized (this) {
+            this.jobWaitsEnded = true;
+            if (this.jobWaitScheduler != null) {
+                this.jobWaitScheduler.shutdownNow();
+                this.jobWaitScheduler = null;
+            }
+        }
+        // *** The polls discarded by shutdownNow() will never complete their futures
+        for (Entry<CompletableFuture<Integer>, RseapiZosBatchJobImpl> entry : new HashMap<>(this.jobWaits).entrySet()) {
+            entry.getKey().completeExceptionally(new ZosBatchException("Stopped waiting for job " + entry.getValue().toString()));
+        }
     }
-    
+
     protected void cleanup(boolean endOfTest) throws ZosBatchException {
         for (Entry<String, RseapiZosBatchImpl> entry : this.taggedZosBatches.entrySet()) {
             entry.getValue().cleanup(endOfTest);
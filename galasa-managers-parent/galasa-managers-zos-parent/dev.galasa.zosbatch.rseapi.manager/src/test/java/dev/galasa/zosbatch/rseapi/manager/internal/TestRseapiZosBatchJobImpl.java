@@ -5,7 +5,10 @@
  */
 package dev.galasa.zosbatch.rseapi.manager.internal;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.FileSystem;
@@ -14,10 +17,13 @@ import java.nio.file.spi.FileSystemProvider;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -39,6 +45,7 @@ import dev.galasa.framework.spi.ras.ResultArchiveStorePath;
 import dev.galasa.zos.IZosImage;
 import dev.galasa.zos.ZosManagerException;
 import dev.galasa.zos.internal.ZosManagerImpl;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
 import dev.galasa.zosbatch.IZosBatchJob.JobStatus;
 import dev.galasa.zosbatch.IZosBatchJobOutputSpoolFile;
 import dev.galasa.zosbatch.IZosBatchJobname;
@@ -46,6 +53,7 @@ import dev.galasa.zosbatch.ZosBatchException;
 import dev.galasa.zosbatch.ZosBatchJobcard;
 import dev.galasa.zosbatch.ZosBatchManagerException;
 import dev.galasa.zosbatch.spi.IZosBatchJobOutputSpi;
+import dev.galasa.zosbatch.spi.IZosBatchJobOutputSpi.SpoolFileStore;
 import dev.galasa.zosrseapi.IRseapi.RseapiRequestType;
 import dev.galasa.zosrseapi.IRseapiResponse;
 import dev.galasa.zosrseapi.IRseapiRestApiProcessor;
@@ -60,6 +68,8 @@ public class TestRseapiZosBatchJobImpl {
     
     private RseapiZosBatchJobImpl zosBatchJobSpy;
     
+    private ScheduledExecutorService jobWaitScheduler;
+    
     @Mock
     private Log logMock;
     
@@ -143,6 +153,13 @@ public class TestRseapiZosBatchJobImpl {
 
 	private static final String EXCEPTION = "exception";
 
+    @After
+    public void tearDown() {
+        if (jobWaitScheduler != null) {
+            jobWaitScheduler.shutdownNow();
+        }
+    }
+    
     @Before
     public void setup() throws Exception {
         PowerMockito.mockStatic(LogFactory.class);
@@ -192,6 +209,7 @@ public class TestRseapiZosBatchJobImpl {
         PowerMockito.doReturn(rseapiApiProcessorMock).when(rseapiManagerMock).newRseapiRestApiProcessor(Mockito.any(), Mockito.anyBoolean());
         Mockito.when(zosBatchManagerMock.getRseapiManager()).thenReturn(rseapiManagerMock);
         Mockito.when(zosBatchManagerMock.getZosManager()).thenReturn(zosManagerMock);
+        Mockito.when(zosManagerMock.getMetricsRecorder()).thenReturn(new ZosMetricsRecorder());
         Mockito.when(zosManagerMock.buildUniquePathName(Mockito.any(), Mockito.any())).thenReturn(FIXED_PATH_NAME);
         
         Mockito.when(zosBatchJobcardMock.getJobcard(Mockito.any(), Mockito.any())).thenReturn(FIXED_JOBCARD);
@@ -242,7 +260,7 @@ public class TestRseapiZosBatchJobImpl {
     
     @Test
     public void testConstructorStoreArtifactException() throws ZosManagerException {
-        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(), Mockito.any());
+        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.anyString(), Mockito.any());
     	ZosBatchManagerException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchManagerException.class, ()->{
     		new RseapiZosBatchJobImpl(zosBatchManagerMock, zosImageMock, zosJobnameMock, "JCL", null);
     	});
@@ -394,6 +412,8 @@ public class TestRseapiZosBatchJobImpl {
     @Test
     public void testWaitForJob() throws RseapiException, ZosBatchManagerException {
         Mockito.doReturn(true).when(zosBatchJobSpy).submitted();
+        jobWaitScheduler = Executors.newSingleThreadScheduledExecutor();
+        Mockito.when(zosBatchManagerMock.getJobWaitScheduler()).thenReturn(jobWaitScheduler);
         
         Mockito.when(rseapiApiProcessorMock.sendRequest(Mockito.eq(RseapiRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(rseapiResponseMockStatus);
 
@@ -572,41 +592,49 @@ public class TestRseapiZosBatchJobImpl {
     }
     
     @Test
-    public void testSaveOutputToTestResultsArchive() throws ZosManagerException {
+    public void testSaveOutputToTestResultsArchive() throws ZosManagerException, ZosBatchException {
     	Mockito.when(zosBatchManagerMock.getZosManager()).thenReturn(zosManagerMock);
-        PowerMockito.doNothing().when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(), Mockito.any());
-        PowerMockito.doReturn(FIXED_PATH_NAME).when(zosManagerMock).buildUniquePathName(Mockito.any(), Mockito.any());
+        ByteArrayOutputStream artifact = new ByteArrayOutputStream();
+        PowerMockito.doAnswer(invocation -> {
+            InputStream records = invocation.getArgument(1);
+            int count;
+            while ((count = records.read()) != -1) {
+                artifact.write(count);
+            }
+            return null;
+        }).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(InputStream.class), Mockito.any());
+        PowerMockito.doAnswer(invocation -> invocation.getArgument(1)).when(zosManagerMock).buildUniquePathName(Mockito.any(), Mockito.any());
     	Whitebox.setInternalState(zosBatchJobSpy, "jobid", FIXED_JOBID);
     	Whitebox.setInternalState(zosBatchJobSpy, "retcode", FIXED_RETCODE_0000);
     	Whitebox.setInternalState(zosBatchJobSpy, "jobOutput", zosBatchJobOutputMock);
-        Mockito.doReturn(zosBatchJobOutputSpoolFileIteratorMock).when(zosBatchJobOutputMock).iterator();
-        Mockito.doReturn(true, false).when(zosBatchJobOutputSpoolFileIteratorMock).hasNext();
-        Mockito.doReturn(zosBatchJobOutputSpoolFileMock).when(zosBatchJobOutputSpoolFileIteratorMock).next();
+        Mockito.doAnswer(invocation -> {
+            SpoolFileStore store = invocation.getArgument(0);
+            store.store(zosBatchJobOutputSpoolFileMock, new ByteArrayInputStream("content".getBytes()));
+            return null;
+        }).when(zosBatchJobOutputMock).storeSpoolFiles(Mockito.any());
         Mockito.doReturn(FIXED_JOBNAME).when(zosBatchJobOutputSpoolFileMock).getJobname();
         Mockito.doReturn(FIXED_JOBID).when(zosBatchJobOutputSpoolFileMock).getJobid();
         Mockito.doReturn("").when(zosBatchJobOutputSpoolFileMock).getStepname();
         Mockito.doReturn("").when(zosBatchJobOutputSpoolFileMock).getProcstep();
         Mockito.doReturn(FIXED_DDNAME).when(zosBatchJobOutputSpoolFileMock).getDdname();
-        Mockito.doReturn("content").when(zosBatchJobOutputSpoolFileMock).getRecords();
         Whitebox.setInternalState(zosBatchJobSpy, "jobComplete", false);
 
         String expectedMessage = "Archiving batch job " + FIXED_JOBNAME + "(" + FIXED_JOBID + ") to "+ FIXED_PATH_NAME;
     	zosBatchJobSpy.saveOutputToResultsArchive(FIXED_PATH_NAME);
         Assert.assertEquals("saveOutputToTestResultsArchive() should log expected message", expectedMessage, logMessage);
+        Assert.assertEquals("saveOutputToTestResultsArchive() should store the spool file records", "content", artifact.toString());
 
         Whitebox.setInternalState(zosBatchJobSpy, "jobComplete", true);
     	Mockito.doReturn(null, zosBatchJobOutputMock).when(zosBatchJobSpy).jobOutput();
     	Mockito.doReturn(zosBatchJobOutputMock).when(zosBatchJobSpy).retrieveOutput();
         Mockito.doReturn(FIXED_STEPNAME).when(zosBatchJobOutputSpoolFileMock).getStepname();
         Mockito.doReturn(FIXED_PROCSTEP).when(zosBatchJobOutputSpoolFileMock).getProcstep();
-        Mockito.doReturn(true, false).when(zosBatchJobOutputSpoolFileIteratorMock).hasNext();
 		
     	zosBatchJobSpy.saveOutputToResultsArchive(FIXED_PATH_NAME);
         Assert.assertEquals("saveOutputToTestResultsArchive() should log expected message", expectedMessage, logMessage);
 
     	Mockito.doReturn(zosBatchJobOutputMock).when(zosBatchJobSpy).jobOutput();
-        Mockito.doReturn(true, false).when(zosBatchJobOutputSpoolFileIteratorMock).hasNext();
-        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(), Mockito.any());
+        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(InputStream.class), Mockito.any());
         ZosBatchException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, ()->{
     		zosBatchJobSpy.saveOutputToResultsArchive(FIXED_PATH_NAME);
     	});
@@ -237,6 +237,11 @@ public class TestRseapiZosBatchManagerImpl {
         Whitebox.setInternalState(zosBatchManagerSpy, "currentTestMethodArchiveFolderName", DummyTestClass.class.getDeclaredMethod("dummyTestMethod").getName());
         zosBatchManagerSpy.endOfTestRun();
         Assert.assertEquals("currentTestMethodArchiveFolderName should be expeacted value", "dummyTestMethod", Whitebox.getInternalState(zosBatchManagerSpy, "currentTestMethodArchiveFolderName"));
+        String expectedMessage = "Unable to wait for a job after the end of the test run";
+        ZosBatchException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, ()->{
+        	zosBatchManagerSpy.getJobWaitScheduler();
+        });
+        Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
 
         Mockito.doThrow(new ZosBatchException()).when(zosBatchManagerSpy).cleanup(true);
         zosBatchManagerSpy.endOfTestRun();
@@ -5,14 +5,22 @@
  */
 package dev.galasa.zosbatch.zosmf.manager.internal;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.validation.constraints.NotNull;
 
@@ -36,6 +44,8 @@ import dev.galasa.zosbatch.ZosBatchException;
 import dev.galasa.zosbatch.ZosBatchJobcard;
 import dev.galasa.zosbatch.ZosBatchManagerException;
 import dev.galasa.zosbatch.spi.IZosBatchJobOutputSpi;
+import dev.galasa.zosbatch.spi.IZosBatchJobOutputSpi.SpoolFileLoader;
+import dev.galasa.zosbatch.spi.ZosBatchJobTimer;
 import dev.galasa.zosmf.IZosmf.ZosmfCustomHeaders;
 import dev.galasa.zosmf.IZosmf.ZosmfRequestType;
 import dev.galasa.zosmf.IZosmfResponse;
@@ -60,14 +70,14 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
     private String intdrRecfm = "F";    
     private int jobWaitTimeout;
     
-    private String jobid;         
-    private String owner;         
-    private String type;         
-    private JobStatus status;         
-    private String statusString;
-    private boolean jobNotFound;
-    private String retcode;
-    private boolean jobComplete;
+    private volatile String jobid;         
+    private volatile String owner;         
+    private volatile String type;         
+    private volatile JobStatus status;         
+    private volatile String statusString;
+    private volatile boolean jobNotFound;
+    private volatile String retcode;
+    private volatile boolean jobComplete;
     private boolean outputComplete;
     private boolean jobArchived;
     private boolean jobPurged;
@@ -75,6 +85,8 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
     private String jobFilesPath;
     private IZosBatchJobOutputSpi jobOutput;
     private boolean useSysaff;
+    private final ZosBatchJobTimer jobTimer;
+    private final Map<Path, Set<String>> reservedSpoolFileNames = new HashMap<>();
     
     private boolean shouldArchive = true;
 
@@ -99,6 +111,8 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
     private static final String QUERY = "?";
     public static final String RESTJOBS_PATH = SLASH + "zosmf" + SLASH + "restjobs" + SLASH + "jobs";
     
+    private static final long WAIT_GRACE_PERIOD = 60;
+    
     private static final String LOG_JOB_NOT_SUBMITTED = "Job has not been submitted by manager";
     
     private static final Log logger = LogFactory.getLog(ZosmfZosBatchJobImpl.class);
@@ -107,6 +121,7 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
     	this.zosBatchManager = zosBatchManager;
         this.jobImage = jobImage;
         this.jobname = jobname;
+        this.jobTimer = new ZosBatchJobTimer(this.zosBatchManager.getZosManager().getMetricsRecorder(), jobImage.getImageID());
         if (jobcard != null) {
             this.jobcard = jobcard;
         } else {
@@ -168,6 +183,7 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
             this.retcode = jsonNull(responseBody, PROP_RETCODE);
             setJobPathValues();
             logger.info("JOB " + this.toString() + " Submitted");
+            this.jobTimer.submitted();
         } else {            
             // Error case - BAD_REQUEST or INTERNAL_SERVER_ERROR
             String displayMessage = buildErrorString("Submit job", responseBody); 
@@ -250,49 +266,50 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
 
     @Override
     public int waitForJob() throws ZosBatchException {
+        CompletableFuture<Integer> future = waitForJobAsync();
+        try {
+            // *** The watcher completes the future at the timeout, only wait longer if watching has stopped
+            return future.get(jobWaitTimeout + WAIT_GRACE_PERIOD, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new ZosBatchException("Timed out waiting for job " + this.toString(), e);
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            logger.error("waitForJob Interrupted", e);
+            Thread.currentThread().interrupt();
+            throw new ZosBatchException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ZosBatchException) {
+                throw (ZosBatchException) e.getCause();
+            }
+            throw new ZosBatchException(e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> waitForJobAsync() throws ZosBatchException {
         if (!submitted()) {
             throw new ZosBatchException(LOG_JOB_NOT_SUBMITTED);
         }
         logger.info("Waiting up to " + jobWaitTimeout + " second(s) for "+ this.jobid + " " + this.jobname.getName() + " to complete");
-        
-        LocalDateTime timeoutTime = LocalDateTime.now().plusSeconds(jobWaitTimeout);
-        while (LocalDateTime.now().isBefore(timeoutTime)) {
-            updateJobStatus();
-            if (this.jobNotFound) {
-                return Integer.MIN_VALUE;
-            }
-            try {
-                if (isComplete()) {
-                    String[] rc = this.retcode.split(" ");
-                    if (rc.length == 2) {
-                        return StringUtils.isNumeric(rc[1]) ? Integer.parseInt(rc[1]) : Integer.MIN_VALUE;
-                    }
-                    return Integer.MIN_VALUE;
-                }
-                
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                logger.error("waitForJob Interrupted", e);
-                Thread.currentThread().interrupt();
-                throw new ZosBatchException(e);
-            }
-        }
-        return Integer.MIN_VALUE;
-    }    
+        return this.zosBatchManager.getJobWatcher().watch(this, this.jobWaitTimeout);
+    }
     
     @Override
     public IZosBatchJobOutput retrieveOutput() throws ZosBatchException {
         if (!this.outputComplete) {
             getOutput();
         }
-        
+        // *** The records of each spool file are retrieved when first needed
         return jobOutput();
     }
 
 	@Override
 	public String retrieveOutputAsString() throws ZosBatchException {
 		StringBuilder output = new StringBuilder();
-		retrieveOutput().getSpoolFiles().forEach(records -> output.append(records.getRecords()));
+		IZosBatchJobOutput jobOutput = retrieveOutput();
+		loadJobOutput();
+		jobOutput.getSpoolFiles().forEach(records -> output.append(records.getRecords()));
         return output.toString();		
 	}
     
@@ -312,50 +329,62 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
     
     @Override
     public IZosBatchJobOutputSpoolFile getSpoolFile(@NotNull String ddname) throws ZosBatchException {
-        Iterator<IZosBatchJobOutputSpoolFile> spoolFilesIterator = retrieveOutput().iterator();
-        while (spoolFilesIterator.hasNext()) {
-            IZosBatchJobOutputSpoolFile spoolFile = spoolFilesIterator.next();
-            if (spoolFile.getDdname().equals(ddname)) {
-                return spoolFile;
-            }
+        retrieveOutput();
+        if (this.jobOutput == null) {
+            return null;
         }
-        return null;
+        // *** Only the records of this spool file are retrieved
+        return this.jobOutput.getSpoolFile(ddname);
     }
 
     @Override
     public void saveOutputToResultsArchive(String rasPath) throws ZosBatchException {
         if (jobOutput() == null) {
-            retrieveOutput();
+            // *** The records are streamed into the archive rather than retrieved here
+            getOutput();
         }
         Path artifactPath = this.zosBatchManager.getArtifactsRoot().resolve(rasPath);
 		logger.info("Archiving batch job " + this.toString() + " to " + artifactPath.toString());
         
-        Iterator<IZosBatchJobOutputSpoolFile> iterator = jobOutput().iterator();
-        while (iterator.hasNext()) {
-            IZosBatchJobOutputSpoolFile spoolFile = iterator.next();
-            StringBuilder name = new StringBuilder();
-            name.append(spoolFile.getJobname());
+        this.jobOutput.storeSpoolFiles((spoolFile, records) -> storeSpoolFile(artifactPath, spoolFile, records));
+        if (isComplete()) {
+        	this.jobArchived = true;
+        }
+    }
+
+    /**
+     * Stream the records of a spool file into the results archive. The artifact name is reserved under a lock as
+     * several spool files are stored at the same time, the content is copied outside the lock
+     */
+    protected void storeSpoolFile(Path artifactPath, IZosBatchJobOutputSpoolFile spoolFile, InputStream records) throws ZosBatchException {
+        StringBuilder name = new StringBuilder();
+        name.append(spoolFile.getJobname());
+        name.append("_");
+        name.append(spoolFile.getJobid());
+        if (!spoolFile.getStepname().isEmpty()){
             name.append("_");
-            name.append(spoolFile.getJobid());
-            if (!spoolFile.getStepname().isEmpty()){
-                name.append("_");
-                name.append(spoolFile.getStepname());
-            }
-            if (!spoolFile.getProcstep().isEmpty()){
-                name.append("_");
-                name.append(spoolFile.getProcstep());
-            }
+            name.append(spoolFile.getStepname());
+        }
+        if (!spoolFile.getProcstep().isEmpty()){
             name.append("_");
-            name.append(spoolFile.getDdname());
+            name.append(spoolFile.getProcstep());
+        }
+        name.append("_");
+        name.append(spoolFile.getDdname());
+        Path spoolFilePath;
+        synchronized (this.reservedSpoolFileNames) {
+            Set<String> reservedNames = this.reservedSpoolFileNames.computeIfAbsent(artifactPath, path -> new HashSet<>());
             String fileName = this.zosBatchManager.getZosManager().buildUniquePathName(artifactPath, name.toString());
-            try {
-				this.zosBatchManager.getZosManager().storeArtifact(artifactPath.resolve(fileName), spoolFile.getRecords(), ResultArchiveStoreContentType.TEXT);
-			} catch (ZosManagerException e) {
-				throw new ZosBatchException(e);
-			}
+            int uniqueId = 1;
+            while (!reservedNames.add(fileName)) {
+                fileName = this.zosBatchManager.getZosManager().buildUniquePathName(artifactPath, name.toString() + "_" + uniqueId++);
+            }
+            spoolFilePath = artifactPath.resolve(fileName);
         }
-        if (isComplete()) {
-        	this.jobArchived = true;
+        try {
+            this.zosBatchManager.getZosManager().storeArtifact(spoolFilePath, records, ResultArchiveStoreContentType.TEXT);
+        } catch (ZosManagerException e) {
+            throw new ZosBatchException("Unable to archive spool file " + name.toString(), e);
         }
     }
 
@@ -513,6 +542,10 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
         return this.jobComplete;
     }
 
+    public boolean isJobNotFound() {
+        return this.jobNotFound;
+    }
+
     public boolean isArchived() {
         return this.jobArchived;
     }
@@ -525,6 +558,33 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
         return this.jobOutput;
     }
 
+    protected IZosImage getJobImage() {
+        return this.jobImage;
+    }
+
+    protected IZosmfRestApiProcessor getZosmfApiProcessor() {
+        return this.zosmfApiProcessor;
+    }
+
+    protected String jobStatusString() {
+        return this.statusString;
+    }
+
+    /**
+     * The highest CC of a complete job, {@link Integer#MIN_VALUE} if the job is not complete, was not found or
+     * the CC is not numeric
+     */
+    protected int jobReturnCode() {
+        if (this.jobNotFound || !isComplete() || this.retcode == null) {
+            return Integer.MIN_VALUE;
+        }
+        String[] rc = this.retcode.split(" ");
+        if (rc.length == 2) {
+            return StringUtils.isNumeric(rc[1]) ? Integer.parseInt(rc[1]) : Integer.MIN_VALUE;
+        }
+        return Integer.MIN_VALUE;
+    }
+
     private String jobStatus() {
         return "JOBID=" + this.jobid + 
               " JOBNAME=" + this.jobname.getName() + 
@@ -559,21 +619,7 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
             
         logger.trace(responseBody);
         if (response.getStatusCode() == HttpStatus.SC_OK) {
-            this.jobNotFound = false;
-            this.owner = jsonNull(responseBody, PROP_OWNER);
-            this.type = jsonNull(responseBody, PROP_TYPE);
-            this.statusString = jsonNull(responseBody, PROP_STATUS);
-            if (this.statusString != null && "OUTPUT".equals(this.statusString)) {
-                this.jobComplete = true;
-            }
-            this.status = JobStatus.valueOfLabel(statusString);
-            String retcodeProperty = jsonNull(responseBody, PROP_RETCODE);
-            if (retcodeProperty != null) {
-                this.retcode = retcodeProperty;
-            } else {
-                this.retcode = StringUtils.repeat(QUERY, 4);
-            }
-            logger.trace(jobStatus());
+            setJobStatus(responseBody);
         } else {
             if (response.getStatusCode() == HttpStatus.SC_BAD_REQUEST &&
                     jsonZero(responseBody, PROP_RC) == 4 &&
@@ -590,47 +636,136 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
         }            
     }
 
-    protected void addOutputFileContent(JsonObject responseBody, String path) throws ZosBatchException {
-    
+    /**
+     * Set the job status from a job object returned by zOS/MF, either for this job or from a list of jobs
+     * @param jobObject
+     */
+    protected void setJobStatus(JsonObject jobObject) {
+        this.jobNotFound = false;
+        this.owner = jsonNull(jobObject, PROP_OWNER);
+        this.type = jsonNull(jobObject, PROP_TYPE);
+        String statusProperty = jsonNull(jobObject, PROP_STATUS);
+        this.status = JobStatus.valueOfLabel(statusProperty);
+        String retcodeProperty = jsonNull(jobObject, PROP_RETCODE);
+        if (retcodeProperty != null) {
+            this.retcode = retcodeProperty;
+        } else {
+            this.retcode = StringUtils.repeat(QUERY, 4);
+        }
+        this.statusString = statusProperty;
+        if (statusProperty != null && "OUTPUT".equals(statusProperty)) {
+            this.jobComplete = true;
+        }
+        this.jobTimer.status(this.status);
+        logger.trace(jobStatus());
+    }
+
+    /**
+     * Add a spool file to the job output, its records are retrieved when first needed
+     * @param responseBody the spool file from the list of spool files, or null for the JCL
+     * @param path the path of the spool file records
+     */
+    protected void addOutputFileContent(JsonObject responseBody, String path) {
+        if (responseBody != null) {
+            String stepname = jsonNull(responseBody, "stepname");
+            String procstep = jsonNull(responseBody, "procstep");
+            String ddname = responseBody.get("ddname").getAsString();
+            this.jobOutput.addSpoolFile(stepname, procstep, ddname, new OutputFileLoader(path));
+        } else {
+            this.jobOutput.addJcl(new OutputFileLoader(path));
+        }
+    }
+
+    /**
+     * Retrieve the records of a spool file
+     * @param path the path of the spool file records
+     * @return the records, or null if the job is complete and the spool file no longer exists
+     * @throws ZosBatchException
+     */
+    protected String retrieveOutputFileContent(String path) throws ZosBatchException {
+        IZosmfResponse response = sendOutputFileRequest(path);
+        if (response == null) {
+            return null;
+        }
+        try {
+            return response.getTextContent();
+        } catch (ZosmfException e) {
+            throw new ZosBatchException(e);
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Open the records of a spool file as a stream, the response is closed when the stream is closed
+     * @param path the path of the spool file records
+     * @return the records, or null if the job is complete and the spool file no longer exists
+     * @throws ZosBatchException
+     */
+    protected InputStream openOutputFileContent(String path) throws ZosBatchException {
+        IZosmfResponse response = sendOutputFileRequest(path);
+        if (response == null) {
+            return null;
+        }
+        try {
+            return new FilterInputStream(response.getContentAsStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        response.close();
+                    }
+                }
+            };
+        } catch (ZosmfException e) {
+            response.close();
+            throw new ZosBatchException(e);
+        }
+    }
+
+    /**
+     * Request the records of a spool file
+     * @return the response, or null if the job is complete and the spool file no longer exists
+     */
+    private IZosmfResponse sendOutputFileRequest(String path) throws ZosBatchException {
         HashMap<String, String> headers = new HashMap<>();
         headers.put(ZosmfCustomHeaders.X_CSRF_ZOSMF_HEADER.toString(), "");
         IZosmfResponse response;
         try {
-            response = this.zosmfApiProcessor.sendRequest(ZosmfRequestType.GET, path, headers, null, new ArrayList<>(Arrays.asList(HttpStatus.SC_OK, HttpStatus.SC_BAD_REQUEST, HttpStatus.SC_INTERNAL_SERVER_ERROR)), true);
+            response = this.zosmfApiProcessor.sendRequest(ZosmfRequestType.GET_STREAM, path, headers, null, new ArrayList<>(Arrays.asList(HttpStatus.SC_OK, HttpStatus.SC_BAD_REQUEST, HttpStatus.SC_INTERNAL_SERVER_ERROR)), true);
         } catch (ZosmfException e) {
             throw new ZosBatchException(e);
         }
     
-        String fileOutput;
         if (response.getStatusCode() == HttpStatus.SC_OK) {
-            try {
-                fileOutput = response.getTextContent();
-            } catch (ZosmfException e) {
-                throw new ZosBatchException(e);
-            }
-        } else {            
-            // Error case
-            JsonObject errorResponseBody;
-            try {
-                errorResponseBody = response.getJsonContent();
-            } catch (ZosmfException e) {
-                throw new ZosBatchException(e);
-            }
-            if (this.jobComplete && spoolFileNotFound(errorResponseBody)) {
-                return; 
-            } else {
-                String displayMessage = buildErrorString("Retrieve job output", errorResponseBody);
-                logger.error(displayMessage);
-                throw new ZosBatchException(displayMessage);
-            }
+            return response;
         }
-        if (responseBody != null) {
-            String stepname = jsonNull(responseBody, "stepname");
-            String procstep = jsonNull(responseBody, "procstep");
-            String ddname = responseBody.get("ddname").getAsString();
-            this.jobOutput.addSpoolFile(stepname, procstep, ddname, fileOutput);
+        // Error case
+        JsonObject errorResponseBody;
+        try {
+            errorResponseBody = response.getJsonContent();
+        } catch (ZosmfException e) {
+            throw new ZosBatchException(e);
+        } finally {
+            response.close();
+        }
+        if (this.jobComplete && spoolFileNotFound(errorResponseBody)) {
+            return null; 
         } else {
-            this.jobOutput.addJcl(fileOutput);
+            String displayMessage = buildErrorString("Retrieve job output", errorResponseBody);
+            logger.error(displayMessage);
+            throw new ZosBatchException(displayMessage);
+        }
+    }
+
+    /**
+     * Retrieve the records of every spool file not yet retrieved, several at a time
+     * @throws ZosBatchException
+     */
+    protected void loadJobOutput() throws ZosBatchException {
+        if (this.jobOutput != null) {
+            this.jobOutput.loadSpoolFiles();
         }
     }
 
@@ -784,4 +919,25 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
             saveOutputToResultsArchive(rasPath.toString());
         }
     }
+
+    /**
+     * Retrieves the records of a spool file, streaming them when they are archived
+     */
+    private class OutputFileLoader implements SpoolFileLoader {
+        private final String path;
+        
+        private OutputFileLoader(String path) {
+            this.path = path;
+        }
+
+        @Override
+        public String load() throws ZosBatchException {
+            return retrieveOutputFileContent(this.path);
+        }
+
+        @Override
+        public InputStream open() throws ZosBatchException {
+            return openOutputFileContent(this.path);
+        }
+    }
 }
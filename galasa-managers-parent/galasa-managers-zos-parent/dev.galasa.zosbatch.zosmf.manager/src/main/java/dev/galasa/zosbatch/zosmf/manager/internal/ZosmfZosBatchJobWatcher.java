@@ -0,0 +1,304 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosbatch.zosmf.manager.internal;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpStatus;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import dev.galasa.zosbatch.ZosBatchException;
+import dev.galasa.zosmf.IZosmf.ZosmfCustomHeaders;
+import dev.galasa.zosmf.IZosmf.ZosmfRequestType;
+import dev.galasa.zosmf.IZosmfResponse;
+import dev.galasa.zosmf.ZosmfException;
+
+/**
+ * Waits for zOS/MF batch jobs to complete.
+ * <p>
+ * One instance is held by the {@link ZosmfZosBatchManagerImpl}. Each poll checks every job being waited for,
+ * using one list jobs request for the jobs with the same owner on the same image rather than one request per
+ * job. The poll interval starts short and backs off while nothing changes, going back to the shortest interval
+ * when a job changes status or a new job is waited for.
+ * </p>
+ */
+public class ZosmfZosBatchJobWatcher {
+
+    protected static final long MIN_POLL_INTERVAL = 200;
+    protected static final long MAX_POLL_INTERVAL = 2000;
+    private static final double POLL_BACKOFF = 1.5;
+
+    private static final String PROP_JOBID = "jobid";
+
+    private final List<WatchedJob> watchedJobs = new ArrayList<>();
+
+    private final LongSupplier clock;
+
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> nextPoll;
+    private boolean polling;
+    private boolean shutdown;
+    private long pollInterval = MIN_POLL_INTERVAL;
+
+    private static final Log logger = LogFactory.getLog(ZosmfZosBatchJobWatcher.class);
+
+    public ZosmfZosBatchJobWatcher() {
+        this(System::nanoTime);
+    }
+
+    protected ZosmfZosBatchJobWatcher(LongSupplier clock) {
+        this(clock, null);
+    }
+
+    /**
+     * @param clock the nanosecond clock used for the job timeouts
+     * @param scheduler the scheduler for the polls, or null to create one when the first job is waited for
+     */
+    protected ZosmfZosBatchJobWatcher(LongSupplier clock, ScheduledExecutorService scheduler) {
+        this.clock = clock;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Wait for a job to complete
+     * @param job the submitted job
+     * @param timeout seconds to wait before completing with {@link Integer#MIN_VALUE}
+     * @return a future completed with the highest CC of the job
+     * @throws ZosBatchException
+     */
+    public synchronized CompletableFuture<Integer> watch(ZosmfZosBatchJobImpl job, int timeout) throws ZosBatchException {
+        if (this.shutdown) {
+            throw new ZosBatchException("The zOS batch job watcher has been shut down");
+        }
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        this.watchedJobs.add(new WatchedJob(job, future, this.clock.getAsLong() + TimeUnit.SECONDS.toNanos(timeout)));
+        this.pollInterval = MIN_POLL_INTERVAL;
+        if (!this.polling) {
+            if (this.nextPoll == null) {
+                schedulePoll(0);
+            } else if (this.nextPoll.getDelay(TimeUnit.MILLISECONDS) > MIN_POLL_INTERVAL && this.nextPoll.cancel(false)) {
+                schedulePoll(MIN_POLL_INTERVAL);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Stop waiting for jobs, completing any outstanding futures exceptionally
+     */
+    public void shutdown() {
+        List<WatchedJob> outstanding;
+        synchronized (this) {
+            this.shutdown = true;
+            if (this.scheduler != null) {
+                this.scheduler.shutdownNow();
+            }
+            outstanding = new ArrayList<>(this.watchedJobs);
+            this.watchedJobs.clear();
+        }
+        for (WatchedJob watchedJob : outstanding) {
+            watchedJob.future.completeExceptionally(new ZosBatchException("Stopped waiting for job " + watchedJob.job.toString()));
+        }
+    }
+
+    protected synchronized int getWatchedJobCount() {
+        return this.watchedJobs.size();
+    }
+
+    protected synchronized long getPollInterval() {
+        return this.pollInterval;
+    }
+
+    private void schedulePoll(long delay) {
+        if (this.scheduler == null) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "zosbatch-job-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.nextPoll = this.scheduler.schedule(this::poll, delay, TimeUnit.MILLISECONDS);
+    }
+
+    protected void poll() {
+        List<WatchedJob> snapshot;
+        synchronized (this) {
+            this.nextPoll = null;
+            this.polling = true;
+            this.watchedJobs.removeIf(watchedJob -> watchedJob.future.isDone());
+            snapshot = new ArrayList<>(this.watchedJobs);
+        }
+        boolean changed = false;
+        try {
+            Map<ZosmfZosBatchJobImpl, ZosBatchException> failures = updateJobStatus(snapshot);
+            long now = this.clock.getAsLong();
+            for (WatchedJob watchedJob : snapshot) {
+                changed |= checkJob(watchedJob, failures.get(watchedJob.job), now);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Problem waiting for zOS batch jobs", e);
+            for (WatchedJob watchedJob : snapshot) {
+                watchedJob.future.completeExceptionally(new ZosBatchException("Problem waiting for job " + watchedJob.job.toString(), e));
+            }
+        } finally {
+            synchronized (this) {
+                this.polling = false;
+                this.watchedJobs.removeIf(watchedJob -> watchedJob.future.isDone());
+                if (changed) {
+                    this.pollInterval = MIN_POLL_INTERVAL;
+                } else {
+                    this.pollInterval = Math.min((long) (this.pollInterval * POLL_BACKOFF), MAX_POLL_INTERVAL);
+                }
+                if (!this.watchedJobs.isEmpty() && !this.shutdown) {
+                    schedulePoll(this.pollInterval);
+                }
+            }
+        }
+    }
+
+    private boolean checkJob(WatchedJob watchedJob, ZosBatchException failure, long now) {
+        ZosmfZosBatchJobImpl job = watchedJob.job;
+        if (failure != null) {
+            return watchedJob.future.completeExceptionally(failure);
+        }
+        if (job.isJobNotFound() || job.isComplete()) {
+            return watchedJob.future.complete(job.jobReturnCode());
+        }
+        if (now - watchedJob.deadline >= 0) {
+            logger.trace("Timed out waiting for " + job.toString());
+            return watchedJob.future.complete(Integer.MIN_VALUE);
+        }
+        String statusString = job.jobStatusString();
+        boolean changed = watchedJob.lastStatus != null && !watchedJob.lastStatus.equals(statusString);
+        watchedJob.lastStatus = statusString;
+        return changed;
+    }
+
+    /**
+     * Update the status of each job, returning the jobs whose status could not be found
+     */
+    private Map<ZosmfZosBatchJobImpl, ZosBatchException> updateJobStatus(List<WatchedJob> snapshot) {
+        Map<String, Set<ZosmfZosBatchJobImpl>> groups = new LinkedHashMap<>();
+        for (WatchedJob watchedJob : snapshot) {
+            ZosmfZosBatchJobImpl job = watchedJob.job;
+            groups.computeIfAbsent(job.getJobImage().getImageID() + "/" + job.getOwner(), k -> new LinkedHashSet<>()).add(job);
+        }
+
+        Map<ZosmfZosBatchJobImpl, ZosBatchException> failures = new HashMap<>();
+        for (Set<ZosmfZosBatchJobImpl> group : groups.values()) {
+            List<ZosmfZosBatchJobImpl> remaining = new ArrayList<>(group);
+            if (remaining.size() > 1) {
+                updateFromJobList(remaining);
+            }
+            // *** Jobs not in the list, or a single job, are checked individually
+            for (ZosmfZosBatchJobImpl job : remaining) {
+                try {
+                    job.updateJobStatus();
+                } catch (ZosBatchException e) {
+                    failures.put(job, e);
+                }
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Update the status of jobs with the same owner from a single list jobs request, removing each job found from
+     * the list. If the request fails the jobs are left to be checked individually
+     */
+    protected void updateFromJobList(List<ZosmfZosBatchJobImpl> jobs) {
+        ZosmfZosBatchJobImpl first = jobs.get(0);
+        String path;
+        try {
+            // *** Owners and job names can contain #, $ and @
+            path = ZosmfZosBatchJobImpl.RESTJOBS_PATH + "?owner=" + URLEncoder.encode(first.getOwner(), StandardCharsets.UTF_8.name())
+                    + "&prefix=" + URLEncoder.encode(jobnamePrefix(jobs), StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            logger.debug("Unable to encode the list jobs request, checking each job instead", e);
+            return;
+        }
+        HashMap<String, String> headers = new HashMap<>();
+        headers.put(ZosmfCustomHeaders.X_CSRF_ZOSMF_HEADER.toString(), "");
+        JsonArray responseBody;
+        try {
+            IZosmfResponse response = first.getZosmfApiProcessor().sendRequest(ZosmfRequestType.GET, path, headers, null, new ArrayList<>(Arrays.asList(HttpStatus.SC_OK)), true);
+            responseBody = response.getJsonArrayContent();
+        } catch (ZosmfException e) {
+            logger.debug("Unable to list jobs, checking each job instead", e);
+            return;
+        }
+        logger.trace(responseBody);
+
+        Map<String, JsonObject> listed = new HashMap<>();
+        for (JsonElement element : responseBody) {
+            JsonObject jobObject = element.getAsJsonObject();
+            JsonElement jobid = jobObject.get(PROP_JOBID);
+            if (jobid != null && !jobid.isJsonNull()) {
+                listed.put(jobid.getAsString(), jobObject);
+            }
+        }
+        Iterator<ZosmfZosBatchJobImpl> iterator = jobs.iterator();
+        while (iterator.hasNext()) {
+            ZosmfZosBatchJobImpl job = iterator.next();
+            JsonObject jobObject = listed.get(job.getJobId());
+            if (jobObject != null) {
+                job.setJobStatus(jobObject);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * The longest prefix shared by the job names, as a list jobs prefix
+     */
+    protected static String jobnamePrefix(List<ZosmfZosBatchJobImpl> jobs) {
+        String prefix = jobs.get(0).getJobname().getName();
+        for (ZosmfZosBatchJobImpl job : jobs) {
+            String name = job.getJobname().getName();
+            int length = 0;
+            while (length < prefix.length() && length < name.length() && prefix.charAt(length) == name.charAt(length)) {
+                length++;
+            }
+            prefix = prefix.substring(0, length);
+        }
+        return prefix + "*";
+    }
+
+    private static class WatchedJob {
+        private final ZosmfZosBatchJobImpl job;
+        private final CompletableFuture<Integer> future;
+        private final long deadline;
+        private String lastStatus;
+
+        private WatchedJob(ZosmfZosBatchJobImpl job, CompletableFuture<Integer> future, long deadline) {
+            this.job = job;
+            this.future = future;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -66,6 +66,23 @@ public class ZosmfZosBatchManagerImpl extends AbstractManager implements IZosBat
     private final HashMap<String, ZosmfZosBatchImpl> taggedZosBatches = new HashMap<>();
     private final HashMap<String, ZosmfZosBatchImpl> zosBatches = new HashMap<>();
 
+    private ZosmfZosBatchJobWatcher jobWatcher;
+    private boolean jobWaitsEnded;
+    /**
+     * The watcher used to poll for jobs, created when first needed and shut down at the end of the test run
+     * 
+     * @throws ZosBatchException if the test run has ended
+     */
+    public synchronized ZosmfZosBatchJobWatcher getJobWatcher() throws ZosBatchException {
+        if (this.jobWaitsEnded) {
+            throw new ZosBatchException("Unable to wait for a job after the end of the test run");
+        }
+        if (this.jobWatcher == null) {
+            this.jobWatcher = new ZosmfZosBatchJobWatcher();
+        }
+        return this.jobWatcher;
+    }
+
     private Path artifactsRoot;
     public Path getArtifactsRoot() {
     	return artifactsRoot;
@@ -200,8 +217,15 @@ public class ZosmfZosBatchManagerImpl extends AbstractManager implements IZosBat
         } catch (ZosBatchException e) {
             logger.error("Problem in endOfTestRun()", e);
         }
+        synchronized (this) {
+            this.jobWaitsEnded = true;
+            if (this.jobWatcher != null) {
+                this.jobWatcher.shutdown();
+                this.jobWatcher = null;
+            }
+        }
     }
-    
+
     protected void cleanup(boolean endOfTest) throws ZosBatchException {
         for (Entry<String, ZosmfZosBatchImpl> entry : this.taggedZosBatches.entrySet()) {
             entry.getValue().cleanup(endOfTest);
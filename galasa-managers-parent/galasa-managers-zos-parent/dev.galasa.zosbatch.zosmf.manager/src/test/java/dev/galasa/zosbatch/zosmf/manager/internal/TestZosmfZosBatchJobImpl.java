@@ -5,14 +5,16 @@
  */
 package dev.galasa.zosbatch.zosmf.manager.internal;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.FileSystem;
 import java.nio.file.Path;
 import java.nio.file.spi.FileSystemProvider;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.logging.Log;
@@ -40,6 +42,7 @@ import dev.galasa.framework.spi.ras.ResultArchiveStorePath;
 import dev.galasa.zos.IZosImage;
 import dev.galasa.zos.ZosManagerException;
 import dev.galasa.zos.internal.ZosManagerImpl;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
 import dev.galasa.zosbatch.IZosBatchJob.JobStatus;
 import dev.galasa.zosbatch.IZosBatchJobOutputSpoolFile;
 import dev.galasa.zosbatch.IZosBatchJobname;
@@ -47,6 +50,8 @@ import dev.galasa.zosbatch.ZosBatchException;
 import dev.galasa.zosbatch.ZosBatchJobcard;
 import dev.galasa.zosbatch.ZosBatchManagerException;
 import dev.galasa.zosbatch.spi.IZosBatchJobOutputSpi;
+import dev.galasa.zosbatch.spi.IZosBatchJobOutputSpi.SpoolFileLoader;
+import dev.galasa.zosbatch.spi.IZosBatchJobOutputSpi.SpoolFileStore;
 import dev.galasa.zosmf.IZosmf.ZosmfRequestType;
 import dev.galasa.zosmf.IZosmfResponse;
 import dev.galasa.zosmf.IZosmfRestApiProcessor;
@@ -101,9 +106,6 @@ public class TestZosmfZosBatchJobImpl {
     @Mock
     private IZosBatchJobOutputSpoolFile zosBatchJobOutputSpoolFileMock;
     
-    @Mock
-    private Iterator<IZosBatchJobOutputSpoolFile> zosBatchJobOutputSpoolFileIteratorMock;
-    
     @Mock
     private ResultArchiveStorePath resultArchiveStorePathMock;
 
@@ -182,6 +184,7 @@ public class TestZosmfZosBatchJobImpl {
         PowerMockito.doReturn(zosmfApiProcessorMock).when(zosmfManagerMock).newZosmfRestApiProcessor(Mockito.any(), Mockito.anyBoolean());
         Mockito.when(zosBatchManagerMock.getZosmfManager()).thenReturn(zosmfManagerMock);
         Mockito.when(zosBatchManagerMock.getZosManager()).thenReturn(zosManagerMock);
+        Mockito.when(zosManagerMock.getMetricsRecorder()).thenReturn(new ZosMetricsRecorder());
         Mockito.when(zosManagerMock.buildUniquePathName(Mockito.any(), Mockito.any())).thenReturn(FIXED_PATH_NAME);
         
         Mockito.when(zosBatchJobcardMock.getJobcard(Mockito.any(), Mockito.any())).thenReturn(FIXED_JOBCARD);
@@ -235,7 +238,7 @@ public class TestZosmfZosBatchJobImpl {
     
     @Test
     public void testConstructorStoreArtifactException() throws ZosManagerException {
-        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(), Mockito.any());
+        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.anyString(), Mockito.any());
 
     	ZosBatchException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, ()->{
     		new ZosmfZosBatchJobImpl(zosBatchManagerMock, zosImageMock, zosJobnameMock, "JCL", null);
@@ -379,8 +382,9 @@ public class TestZosmfZosBatchJobImpl {
     }
     
     @Test
-    public void testWaitForJob() throws ZosmfException, ZosBatchManagerException {
+    public void testWaitForJob() throws Exception {
         Mockito.doReturn(true).when(zosBatchJobSpy).submitted();
+        Mockito.when(zosBatchManagerMock.getJobWatcher()).thenReturn(new ZosmfZosBatchJobWatcher());
         
         Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMockStatus);
 
@@ -388,6 +392,7 @@ public class TestZosmfZosBatchJobImpl {
         Mockito.when(zosmfResponseMockStatus.getJsonContent()).thenReturn(responseBody);
         Mockito.when(zosmfResponseMockStatus.getStatusCode()).thenReturn(HttpStatus.SC_OK);
         Assert.assertEquals("waitForJob() should return zero", 0, zosBatchJobSpy.waitForJob());
+        Assert.assertEquals("waitForJobAsync() should complete with zero", Integer.valueOf(0), zosBatchJobSpy.waitForJobAsync().get());
 
         responseBody = getJsonObject();
         responseBody.addProperty("retcode", FIXED_RETCODE_0020);
@@ -423,11 +428,13 @@ public class TestZosmfZosBatchJobImpl {
     public void testRetrieveOutput() throws Exception {        
     	Mockito.doNothing().when(zosBatchJobSpy).getOutput();
     	Mockito.doReturn(zosBatchJobOutputMock).when(zosBatchJobSpy).jobOutput();
+    	Whitebox.setInternalState(zosBatchJobSpy, "jobOutput", zosBatchJobOutputMock);
     	Whitebox.setInternalState(zosBatchJobSpy, "outputComplete", false);
         Assert.assertEquals("retrieveOutput() should return expected value", zosBatchJobOutputMock, zosBatchJobSpy.retrieveOutput());
         
         Whitebox.setInternalState(zosBatchJobSpy, "outputComplete", true);
         Assert.assertEquals("retrieveOutput() should return expected value", zosBatchJobOutputMock, zosBatchJobSpy.retrieveOutput());
+        Mockito.verify(zosBatchJobOutputMock, Mockito.never()).loadSpoolFiles();
     }
     
     @Test
@@ -508,6 +515,7 @@ public class TestZosmfZosBatchJobImpl {
     @Test
     public void testRetrieveOutputAsString() throws Exception {
     	Mockito.doReturn(zosBatchJobOutputMock).when(zosBatchJobSpy).retrieveOutput();
+    	Whitebox.setInternalState(zosBatchJobSpy, "jobOutput", zosBatchJobOutputMock);
         Mockito.doReturn("RECORDS\n").when(zosBatchJobOutputSpoolFileMock).getRecords();
     	List<IZosBatchJobOutputSpoolFile> spoolFiles = new ArrayList<IZosBatchJobOutputSpoolFile>();
     	spoolFiles.add(zosBatchJobOutputSpoolFileMock);
@@ -515,6 +523,13 @@ public class TestZosmfZosBatchJobImpl {
 		Mockito.doReturn(spoolFiles).when(zosBatchJobOutputMock).getSpoolFiles();
 		String expected = "RECORDS\nRECORDS\n";
 		Assert.assertEquals("retrieveOutputAsString() should return the expected value", expected, zosBatchJobSpy.retrieveOutputAsString());
+        Mockito.verify(zosBatchJobOutputMock).loadSpoolFiles();
+        
+        Mockito.doThrow(new ZosBatchException(EXCEPTION)).when(zosBatchJobOutputMock).loadSpoolFiles();
+        ZosBatchException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, ()->{
+            zosBatchJobSpy.retrieveOutputAsString();
+        });
+        Assert.assertEquals("exception should contain expected message", EXCEPTION, expectedException.getMessage());
     }
 
     @Test
@@ -623,52 +638,63 @@ public class TestZosmfZosBatchJobImpl {
     public void testGetSpoolFile() throws ZosBatchException, ZosmfException {
     	Whitebox.setInternalState(zosBatchJobSpy, "jobid", FIXED_JOBID);
         Mockito.doReturn(zosBatchJobOutputMock).when(zosBatchJobSpy).retrieveOutput();
-        Mockito.doReturn(zosBatchJobOutputSpoolFileIteratorMock).when(zosBatchJobOutputMock).iterator();
-        Mockito.doReturn(true, false).when(zosBatchJobOutputSpoolFileIteratorMock).hasNext();
-        Mockito.doReturn(FIXED_DDNAME).when(zosBatchJobOutputSpoolFileMock).getDdname();
-        Mockito.doReturn(zosBatchJobOutputSpoolFileMock).when(zosBatchJobOutputSpoolFileIteratorMock).next();
+        Whitebox.setInternalState(zosBatchJobSpy, "jobOutput", zosBatchJobOutputMock);
+        Mockito.doReturn(zosBatchJobOutputSpoolFileMock).when(zosBatchJobOutputMock).getSpoolFile(FIXED_DDNAME);
 		Assert.assertEquals("getSpoolFile() should return the mocked IZosBatchJobOutputSpoolFile", zosBatchJobOutputSpoolFileMock, zosBatchJobSpy.getSpoolFile(FIXED_DDNAME));
-
-        Mockito.doReturn(true, false).when(zosBatchJobOutputSpoolFileIteratorMock).hasNext();
-		Assert.assertNull("getSpoolFile() should return the mocked IZosBatchJobOutputSpoolFile", zosBatchJobSpy.getSpoolFile("DUMMY"));
+		Assert.assertNull("getSpoolFile() should return null", zosBatchJobSpy.getSpoolFile("DUMMY"));
+        Mockito.verify(zosBatchJobOutputMock, Mockito.never()).loadSpoolFiles();
+        
+        Mockito.doThrow(new ZosBatchException(EXCEPTION)).when(zosBatchJobOutputMock).getSpoolFile(FIXED_DDNAME);
+        ZosBatchException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, ()->{
+            zosBatchJobSpy.getSpoolFile(FIXED_DDNAME);
+        });
+        Assert.assertEquals("exception should contain expected message", EXCEPTION, expectedException.getMessage());
     }
     
     @Test
-    public void testSaveOutputToTestResultsArchive() throws ZosManagerException {
+    public void testSaveOutputToTestResultsArchive() throws ZosManagerException, ZosBatchException {
     	Mockito.when(zosBatchManagerMock.getZosManager()).thenReturn(zosManagerMock);
-        PowerMockito.doNothing().when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(), Mockito.any());
-        PowerMockito.doReturn("PATH_NAME").when(zosManagerMock).buildUniquePathName(Mockito.any(), Mockito.any());
+        ByteArrayOutputStream artifact = new ByteArrayOutputStream();
+        PowerMockito.doAnswer(invocation -> {
+            InputStream records = invocation.getArgument(1);
+            int count;
+            while ((count = records.read()) != -1) {
+                artifact.write(count);
+            }
+            return null;
+        }).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(InputStream.class), Mockito.any());
+        PowerMockito.doAnswer(invocation -> invocation.getArgument(1)).when(zosManagerMock).buildUniquePathName(Mockito.any(), Mockito.any());
     	Whitebox.setInternalState(zosBatchJobSpy, "jobid", FIXED_JOBID);
     	Whitebox.setInternalState(zosBatchJobSpy, "retcode", FIXED_RETCODE_0000);
     	Whitebox.setInternalState(zosBatchJobSpy, "jobOutput", zosBatchJobOutputMock);
-        Mockito.doReturn(zosBatchJobOutputSpoolFileIteratorMock).when(zosBatchJobOutputMock).iterator();
-        Mockito.doReturn(true, false).when(zosBatchJobOutputSpoolFileIteratorMock).hasNext();
-        Mockito.doReturn(zosBatchJobOutputSpoolFileMock).when(zosBatchJobOutputSpoolFileIteratorMock).next();
+        Mockito.doAnswer(invocation -> {
+            SpoolFileStore store = invocation.getArgument(0);
+            store.store(zosBatchJobOutputSpoolFileMock, new ByteArrayInputStream("content".getBytes()));
+            return null;
+        }).when(zosBatchJobOutputMock).storeSpoolFiles(Mockito.any());
         Mockito.doReturn(FIXED_JOBNAME).when(zosBatchJobOutputSpoolFileMock).getJobname();
         Mockito.doReturn(FIXED_JOBID).when(zosBatchJobOutputSpoolFileMock).getJobid();
         Mockito.doReturn("").when(zosBatchJobOutputSpoolFileMock).getStepname();
         Mockito.doReturn("").when(zosBatchJobOutputSpoolFileMock).getProcstep();
         Mockito.doReturn(FIXED_DDNAME).when(zosBatchJobOutputSpoolFileMock).getDdname();
-        Mockito.doReturn("content").when(zosBatchJobOutputSpoolFileMock).getRecords();
         Whitebox.setInternalState(zosBatchJobSpy, "jobComplete", false);
 
         String expectedMessage = "Archiving batch job " + FIXED_JOBNAME + "(" + FIXED_JOBID + ") to "+ FIXED_PATH_NAME;
     	zosBatchJobSpy.saveOutputToResultsArchive(FIXED_PATH_NAME);
         Assert.assertEquals("saveOutputToTestResultsArchive() should log expected message", expectedMessage, logMessage);
+        Assert.assertEquals("saveOutputToTestResultsArchive() should store the spool file records", "content", artifact.toString());
 
         Whitebox.setInternalState(zosBatchJobSpy, "jobComplete", true);
     	Mockito.doReturn(null, zosBatchJobOutputMock).when(zosBatchJobSpy).jobOutput();
-    	Mockito.doReturn(zosBatchJobOutputMock).when(zosBatchJobSpy).retrieveOutput();
+    	Mockito.doNothing().when(zosBatchJobSpy).getOutput();
         Mockito.doReturn(FIXED_STEPNAME).when(zosBatchJobOutputSpoolFileMock).getStepname();
         Mockito.doReturn(FIXED_PROCSTEP).when(zosBatchJobOutputSpoolFileMock).getProcstep();
-        Mockito.doReturn(true, false).when(zosBatchJobOutputSpoolFileIteratorMock).hasNext();
 		
     	zosBatchJobSpy.saveOutputToResultsArchive(FIXED_PATH_NAME);
         Assert.assertEquals("saveOutputToTestResultsArchive() should log expected message", expectedMessage, logMessage);
 
     	Mockito.doReturn(zosBatchJobOutputMock).when(zosBatchJobSpy).jobOutput();
-        Mockito.doReturn(true, false).when(zosBatchJobOutputSpoolFileIteratorMock).hasNext();
-        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(), Mockito.any());
+        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(InputStream.class), Mockito.any());
         ZosBatchException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, ()->{
     		zosBatchJobSpy.saveOutputToResultsArchive(FIXED_PATH_NAME);
     	});
@@ -823,57 +849,86 @@ public class TestZosmfZosBatchJobImpl {
     
     @Test
     public void testAddOutputFileContent() throws ZosBatchException, ZosmfException {
-        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMockStatus);
-        Mockito.when(zosmfResponseMockStatus.getStatusCode()).thenReturn(HttpStatus.SC_OK);
         Whitebox.setInternalState(zosBatchJobSpy, "jobOutput", zosBatchJobOutputMock);
 
         zosBatchJobSpy.addOutputFileContent(null, null);
+        Mockito.verify(zosBatchJobOutputMock).addJcl(Mockito.any(SpoolFileLoader.class));
         
-        JsonObject jsonObject = getJsonObject();
-        zosBatchJobSpy.addOutputFileContent(jsonObject, null);
+        zosBatchJobSpy.addOutputFileContent(getJsonObject(), null);
+        Mockito.verify(zosBatchJobOutputMock).addSpoolFile(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(SpoolFileLoader.class));
+        
+        Mockito.verify(zosmfApiProcessorMock, Mockito.never()).sendRequest(Mockito.eq(ZosmfRequestType.GET_STREAM), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+    }
+    
+    @Test
+    public void testRetrieveOutputFileContent() throws ZosBatchException, ZosmfException {
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET_STREAM), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMockStatus);
+        Mockito.when(zosmfResponseMockStatus.getStatusCode()).thenReturn(HttpStatus.SC_OK);
+        Mockito.when(zosmfResponseMockStatus.getTextContent()).thenReturn("content");
+
+        Assert.assertEquals("retrieveOutputFileContent() should return the expected value", "content", zosBatchJobSpy.retrieveOutputFileContent(null));
+        Mockito.verify(zosmfResponseMockStatus).close();
 
         Mockito.when(zosmfResponseMockStatus.getStatusCode()).thenReturn(HttpStatus.SC_NOT_FOUND);
         Whitebox.setInternalState(zosBatchJobSpy, "jobComplete", true);
         PowerMockito.doReturn(true).when(zosBatchJobSpy).spoolFileNotFound(Mockito.any());
-        zosBatchJobSpy.addOutputFileContent(jsonObject, null);
+        Assert.assertNull("retrieveOutputFileContent() should return null", zosBatchJobSpy.retrieveOutputFileContent(null));
         
-        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenThrow(new ZosmfException(EXCEPTION));
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET_STREAM), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenThrow(new ZosmfException(EXCEPTION));
         
         ZosBatchException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, ()->{
-    		zosBatchJobSpy.addOutputFileContent(null, null);
+    		zosBatchJobSpy.retrieveOutputFileContent(null);
     	});
     	Assert.assertEquals("exception should contain expected message", EXCEPTION, expectedException.getCause().getMessage());
     }
     
     @Test
-    public void testAddOutputFileContentZosmfResponseException1() throws ZosBatchException, ZosmfException {
-        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMockStatus);
+    public void testOpenOutputFileContent() throws ZosBatchException, ZosmfException, IOException {
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET_STREAM), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMockStatus);
+        Mockito.when(zosmfResponseMockStatus.getStatusCode()).thenReturn(HttpStatus.SC_OK);
+        Mockito.when(zosmfResponseMockStatus.getContentAsStream()).thenReturn(new ByteArrayInputStream("content".getBytes()));
+
+        InputStream content = zosBatchJobSpy.openOutputFileContent(null);
+        Assert.assertEquals("openOutputFileContent() should return the expected value", 'c', content.read());
+        Mockito.verify(zosmfResponseMockStatus, Mockito.never()).close();
+        content.close();
+        Mockito.verify(zosmfResponseMockStatus).close();
+
+        Mockito.when(zosmfResponseMockStatus.getStatusCode()).thenReturn(HttpStatus.SC_NOT_FOUND);
+        Whitebox.setInternalState(zosBatchJobSpy, "jobComplete", true);
+        PowerMockito.doReturn(true).when(zosBatchJobSpy).spoolFileNotFound(Mockito.any());
+        Assert.assertNull("openOutputFileContent() should return null", zosBatchJobSpy.openOutputFileContent(null));
+    }
+    
+    @Test
+    public void testRetrieveOutputFileContentZosmfResponseException1() throws ZosBatchException, ZosmfException {
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET_STREAM), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMockStatus);
         Mockito.when(zosmfResponseMockStatus.getJsonContent()).thenReturn(getJsonObject());
         Mockito.when(zosmfResponseMockStatus.getStatusCode()).thenReturn(HttpStatus.SC_OK);
         
         Mockito.when(zosmfResponseMockStatus.getTextContent()).thenThrow(new ZosmfException(EXCEPTION));
         ZosBatchException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, ()->{
-    		zosBatchJobSpy.addOutputFileContent(null, null);
+    		zosBatchJobSpy.retrieveOutputFileContent(null);
     	});
     	Assert.assertEquals("exception should contain expected message", EXCEPTION, expectedException.getCause().getMessage());
     }
     
     @Test
-    public void testAddOutputFileContentZosmfResponseException2() throws ZosBatchException, ZosmfException {
-        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMockStatus);
+    public void testRetrieveOutputFileContentZosmfResponseException2() throws ZosBatchException, ZosmfException {
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET_STREAM), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMockStatus);
         Mockito.when(zosmfResponseMockStatus.getTextContent()).thenReturn("content");
         Mockito.when(zosmfResponseMockStatus.getStatusCode()).thenReturn(HttpStatus.SC_NOT_FOUND); 
         Mockito.when(zosmfResponseMockStatus.getJsonContent()).thenThrow(new ZosmfException(EXCEPTION));
         
         ZosBatchException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, ()->{
-    		zosBatchJobSpy.addOutputFileContent(null, null);
+    		zosBatchJobSpy.retrieveOutputFileContent(null);
     	});
     	Assert.assertEquals("exception should contain expected message", EXCEPTION, expectedException.getCause().getMessage());
     }
     
     @Test
-    public void testAddOutputBadHttpResponseException1() throws ZosBatchException, ZosmfException {
-        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMockStatus);
+    public void testRetrieveOutputFileContentBadHttpResponseException1() throws ZosBatchException, ZosmfException {
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET_STREAM), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMockStatus);
         Mockito.when(zosmfResponseMockStatus.getJsonContent()).thenReturn(getJsonObject());
         Mockito.when(zosmfResponseMockStatus.getStatusCode()).thenReturn(HttpStatus.SC_NOT_FOUND);
         
@@ -881,14 +936,14 @@ public class TestZosmfZosBatchJobImpl {
         		"stack:\n" + 
         		"stack";
     	ZosBatchException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, ()->{
-    		zosBatchJobSpy.addOutputFileContent(null, null);
+    		zosBatchJobSpy.retrieveOutputFileContent(null);
     	});
     	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
     }
     
     @Test
-    public void testAddOutputBadHttpResponseException2() throws ZosBatchException, ZosmfException {
-        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMockStatus);
+    public void testRetrieveOutputFileContentBadHttpResponseException2() throws ZosBatchException, ZosmfException {
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET_STREAM), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMockStatus);
         Mockito.when(zosmfResponseMockStatus.getJsonContent()).thenReturn(getJsonObject());
         Mockito.when(zosmfResponseMockStatus.getStatusCode()).thenReturn(HttpStatus.SC_NOT_FOUND);
         Whitebox.setInternalState(zosBatchJobSpy, "jobComplete", true);
@@ -897,7 +952,7 @@ public class TestZosmfZosBatchJobImpl {
         		"stack:\n" + 
         		"stack";
     	ZosBatchException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, ()->{
-    		zosBatchJobSpy.addOutputFileContent(null, null);
+    		zosBatchJobSpy.retrieveOutputFileContent(null);
     	});
     	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
     }
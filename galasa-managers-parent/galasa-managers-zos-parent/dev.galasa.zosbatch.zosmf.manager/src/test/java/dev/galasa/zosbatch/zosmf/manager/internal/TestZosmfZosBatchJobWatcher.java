@@ -0,0 +1,220 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosbatch.zosmf.manager.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import dev.galasa.zos.IZosImage;
+import dev.galasa.zosbatch.IZosBatchJobname;
+import dev.galasa.zosbatch.ZosBatchException;
+import dev.galasa.zosmf.IZosmf.ZosmfRequestType;
+import dev.galasa.zosmf.IZosmfResponse;
+import dev.galasa.zosmf.IZosmfRestApiProcessor;
+import dev.galasa.zosmf.ZosmfException;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class TestZosmfZosBatchJobWatcher {
+
+    private ZosmfZosBatchJobWatcher watcher;
+
+    private AtomicLong clock;
+
+    @Mock
+    private IZosImage zosImageMock;
+
+    @Mock
+    private IZosmfRestApiProcessor zosmfApiProcessorMock;
+
+    @Mock
+    private IZosmfResponse zosmfResponseMock;
+
+    @Mock
+    private ZosmfZosBatchJobImpl job1Mock;
+
+    @Mock
+    private ZosmfZosBatchJobImpl job2Mock;
+
+    @Mock
+    private IZosBatchJobname jobname1Mock;
+
+    @Mock
+    private IZosBatchJobname jobname2Mock;
+
+    @Mock
+    private ScheduledExecutorService schedulerMock;
+
+    @Mock
+    private ScheduledFuture<Object> scheduledFutureMock;
+
+    private static final String FIXED_OWNER = "USERID";
+
+    @Before
+    public void setup() {
+        clock = new AtomicLong(0);
+        watcher = new ZosmfZosBatchJobWatcher(clock::get);
+        Mockito.when(zosImageMock.getImageID()).thenReturn("IMAGE");
+        setupJob(job1Mock, jobname1Mock, "GAL00001", "JOB00001");
+        setupJob(job2Mock, jobname2Mock, "GAL00002", "JOB00002");
+    }
+
+    @After
+    public void tearDown() {
+        watcher.shutdown();
+    }
+
+    private void setupJob(ZosmfZosBatchJobImpl jobMock, IZosBatchJobname jobnameMock, String jobname, String jobid) {
+        Mockito.when(jobnameMock.getName()).thenReturn(jobname);
+        Mockito.when(jobMock.getJobname()).thenReturn(jobnameMock);
+        Mockito.when(jobMock.getJobId()).thenReturn(jobid);
+        Mockito.when(jobMock.getOwner()).thenReturn(FIXED_OWNER);
+        Mockito.when(jobMock.getJobImage()).thenReturn(zosImageMock);
+        Mockito.when(jobMock.getZosmfApiProcessor()).thenReturn(zosmfApiProcessorMock);
+    }
+
+    private JsonObject jobObject(String jobid) {
+        JsonObject jobObject = new JsonObject();
+        jobObject.addProperty("jobid", jobid);
+        jobObject.addProperty("status", "OUTPUT");
+        return jobObject;
+    }
+
+    @Test
+    public void testJobnamePrefix() {
+        Assert.assertEquals("jobnamePrefix() should return the common prefix", "GAL0000*", ZosmfZosBatchJobWatcher.jobnamePrefix(Arrays.asList(job1Mock, job2Mock)));
+        Mockito.when(jobname2Mock.getName()).thenReturn("OTHER");
+        Assert.assertEquals("jobnamePrefix() should return a wildcard", "*", ZosmfZosBatchJobWatcher.jobnamePrefix(Arrays.asList(job1Mock, job2Mock)));
+    }
+
+    @Test
+    public void testWatchSingleJob() throws Exception {
+        Mockito.when(job1Mock.isComplete()).thenReturn(true);
+        Mockito.when(job1Mock.jobReturnCode()).thenReturn(4);
+
+        Assert.assertEquals("future should complete with the return code", Integer.valueOf(4), watcher.watch(job1Mock, 10).get(5, TimeUnit.SECONDS));
+        Mockito.verify(job1Mock).updateJobStatus();
+        Mockito.verifyNoInteractions(zosmfApiProcessorMock);
+    }
+
+    @Test
+    public void testUpdateFromJobList() throws Exception {
+        JsonArray jobs = new JsonArray();
+        jobs.add(jobObject("JOB00002"));
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMock);
+        Mockito.when(zosmfResponseMock.getJsonArrayContent()).thenReturn(jobs);
+
+        ArrayList<ZosmfZosBatchJobImpl> remaining = new ArrayList<>(Arrays.asList(job1Mock, job2Mock));
+        watcher.updateFromJobList(remaining);
+
+        Mockito.verify(zosmfApiProcessorMock).sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.eq(ZosmfZosBatchJobImpl.RESTJOBS_PATH + "?owner=" + FIXED_OWNER + "&prefix=GAL0000*"), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+        Mockito.verify(job2Mock).setJobStatus(jobs.get(0).getAsJsonObject());
+        Assert.assertEquals("jobs not listed should remain", Arrays.asList(job1Mock), remaining);
+
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenThrow(new ZosmfException("exception"));
+        remaining = new ArrayList<>(Arrays.asList(job1Mock, job2Mock));
+        watcher.updateFromJobList(remaining);
+        Assert.assertEquals("all jobs should remain when the list fails", 2, remaining.size());
+    }
+
+    @Test
+    public void testUpdateFromJobListEncodesQuery() throws Exception {
+        Mockito.when(job1Mock.getOwner()).thenReturn("USER@#1");
+        Mockito.when(jobname1Mock.getName()).thenReturn("$GAL#001");
+        Mockito.when(jobname2Mock.getName()).thenReturn("$GAL#002");
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMock);
+        Mockito.when(zosmfResponseMock.getJsonArrayContent()).thenReturn(new JsonArray());
+
+        watcher.updateFromJobList(new ArrayList<>(Arrays.asList(job1Mock, job2Mock)));
+
+        Mockito.verify(zosmfApiProcessorMock).sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.eq(ZosmfZosBatchJobImpl.RESTJOBS_PATH + "?owner=USER%40%231&prefix=%24GAL%2300*"), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+    }
+
+    @Test
+    public void testWatchJobsTogether() throws Exception {
+        JsonArray jobs = new JsonArray();
+        jobs.add(jobObject("JOB00001"));
+        jobs.add(jobObject("JOB00002"));
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMock);
+        Mockito.when(zosmfResponseMock.getJsonArrayContent()).thenReturn(jobs);
+        Mockito.when(job1Mock.isComplete()).thenReturn(true);
+        Mockito.when(job1Mock.jobReturnCode()).thenReturn(0);
+        Mockito.when(job2Mock.isComplete()).thenReturn(true);
+        Mockito.when(job2Mock.jobReturnCode()).thenReturn(8);
+
+        // *** Register both jobs before the first poll runs
+        CompletableFuture<Integer> future1;
+        CompletableFuture<Integer> future2;
+        synchronized (watcher) {
+            future1 = watcher.watch(job1Mock, 10);
+            future2 = watcher.watch(job2Mock, 10);
+        }
+
+        Assert.assertEquals("future should complete with the return code", Integer.valueOf(0), future1.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals("future should complete with the return code", Integer.valueOf(8), future2.get(5, TimeUnit.SECONDS));
+        Mockito.verify(zosmfApiProcessorMock, Mockito.times(1)).sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+        Mockito.verify(job1Mock, Mockito.never()).updateJobStatus();
+        Mockito.verify(job2Mock, Mockito.never()).updateJobStatus();
+    }
+
+    @Test
+    public void testTimeoutAndBackoff() throws Exception {
+        // *** The scheduled polls never run, so each poll is driven by the test
+        Mockito.when(schedulerMock.schedule(Mockito.any(Runnable.class), Mockito.anyLong(), Mockito.any())).thenAnswer(invocation -> scheduledFutureMock);
+        Mockito.when(scheduledFutureMock.getDelay(Mockito.any())).thenReturn(0L);
+        watcher.shutdown();
+        watcher = new ZosmfZosBatchJobWatcher(clock::get, schedulerMock);
+        Mockito.when(job1Mock.jobStatusString()).thenReturn("ACTIVE");
+        CompletableFuture<Integer> future = watcher.watch(job1Mock, 10);
+        watcher.poll();
+        watcher.poll();
+        Assert.assertTrue("poll interval should back off while nothing changes", watcher.getPollInterval() > ZosmfZosBatchJobWatcher.MIN_POLL_INTERVAL);
+        Assert.assertFalse("future should not be complete", future.isDone());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        watcher.poll();
+        Assert.assertEquals("future should complete with Integer.MIN_VALUE", Integer.valueOf(Integer.MIN_VALUE), future.getNow(null));
+        Assert.assertEquals("no jobs should be watched", 0, watcher.getWatchedJobCount());
+    }
+
+    @Test
+    public void testException() throws Exception {
+        Mockito.doThrow(new ZosBatchException("exception")).when(job1Mock).updateJobStatus();
+        CompletableFuture<Integer> future = watcher.watch(job1Mock, 10);
+        ExecutionException expectedException = Assert.assertThrows("expected exception should be thrown", ExecutionException.class, ()->{
+            future.get(5, TimeUnit.SECONDS);
+        });
+        Assert.assertEquals("exception should contain expected message", "exception", expectedException.getCause().getMessage());
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        Mockito.when(job1Mock.jobStatusString()).thenReturn("ACTIVE");
+        CompletableFuture<Integer> future = watcher.watch(job1Mock, 10);
+        watcher.shutdown();
+        Assert.assertTrue("future should complete exceptionally", future.isCompletedExceptionally());
+        Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, ()->{
+            watcher.watch(job1Mock, 10);
+        });
+    }
+}
@@ -12,7 +12,6 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 
@@ -29,10 +28,13 @@ import com.google.gson.JsonObject;
 import dev.galasa.ResultArchiveStoreContentType;
 import dev.galasa.zos.IZosImage;
 import dev.galasa.zos.ZosManagerException;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
 import dev.galasa.zosfile.IZosDataset;
 import dev.galasa.zosfile.IZosUNIXFile;
 import dev.galasa.zosfile.ZosDatasetException;
 import dev.galasa.zosfile.ZosFileManagerException;
+import dev.galasa.zosfile.spi.ZosDatasetAttributeCache;
+import dev.galasa.zosfile.spi.ZosDatasetMemberTransfer;
 import dev.galasa.zosrseapi.IRseapi.RseapiRequestType;
 import dev.galasa.zosrseapi.IRseapiResponse;
 import dev.galasa.zosrseapi.IRseapiRestApiProcessor;
@@ -90,6 +92,8 @@ public class RseapiZosDatasetImpl implements IZosDataset {
 
     private RseapiZosDatasetAttributesListdsi rseapiZosDatasetAttributesListdsi;
 
+    private ZosDatasetAttributeCache attributeCache;
+
 	private Path testMethodArchiveFolder;
 
 	private RseapiZosFileHandlerImpl zosFileHandler;
@@ -135,9 +139,15 @@ public class RseapiZosDatasetImpl implements IZosDataset {
     private static final String LOG_NOT_PDS = " is not a partitioned data set";
     private static final String LOG_CONTENT_MUST_NOT_BE_NULL = "content must not be null";
     private static final String LOG_MEMBER_NAME_MUST_NOT_BE_NULL = "member name must not be null";
+    private static final String LOG_MEMBERS_MUST_NOT_BE_NULL = "members must not be null";
+
+    private static final String ATTRIBUTES_BASE = "base";
+    private static final String ATTRIBUTES_LISTDSI = "listdsi";
 
     public static final Log logger = LogFactory.getLog(RseapiZosDatasetImpl.class);
 
+    private static final String METRICS_API = "rseapi";
+
 	private static final String BINARY_HEADER = "binary";
 
     public RseapiZosDatasetImpl(RseapiZosFileHandlerImpl zosFileHandler, IZosImage image, String dsname) throws ZosDatasetException {
@@ -148,6 +158,7 @@ public class RseapiZosDatasetImpl implements IZosDataset {
         
         try {
             this.rseapiApiProcessor = this.zosFileHandler.getRseapiManager().newRseapiRestApiProcessor(this.image, this.zosFileHandler.getZosManager().getZosFilePropertyFileRestrictToImage(image.getImageID()));
+            this.attributeCache = this.zosFileHandler.getZosFileManager().getDatasetAttributeCache(this.image);
         } catch (ZosFileManagerException | RseapiManagerException e) {
             throw new ZosDatasetException(e);
         }
@@ -191,6 +202,7 @@ public class RseapiZosDatasetImpl implements IZosDataset {
             throw new ZosDatasetException(displayMessage);
         }
         
+        invalidateAttributes();
         if (exists()) {
             logger.info(LOG_DATA_SET + quoted(this.dsname) + " created" + logOnImage());
             this.datasetCreated = true;
@@ -219,6 +231,7 @@ public class RseapiZosDatasetImpl implements IZosDataset {
 
     @Override
     public boolean exists() throws ZosDatasetException {
+        // *** Always ask the server, the data set may have been deleted outside the manager
         String urlPath = RESTFILES_DATASET_PATH + SLASH + this.dsname;
         IRseapiResponse response;
         try {
@@ -248,6 +261,8 @@ public class RseapiZosDatasetImpl implements IZosDataset {
 	        String dsnameValue = item.get(PROP_NAME).getAsString();
 	        if (this.dsname.equals(dsnameValue)) {
 	            logger.trace(LOG_DATA_SET + quoted(this.dsname) + " exists" + logOnImage());
+	            // *** The listing returns the attributes, keep them for the getAttibutes() that often follows
+	            this.attributeCache.put(this.dsname, ATTRIBUTES_BASE, item);
 	            return true;
 	        }
         }
@@ -279,13 +294,7 @@ public class RseapiZosDatasetImpl implements IZosDataset {
         if (isPDS()) {
             throw new ZosDatasetException(LOG_DATA_SET + quoted(this.dsname) + " is a partitioned data set. Use retrieve(String memberName) method instead");
         }
-        Object content = retrieve(null);
-        if (content instanceof byte[]) {
-            return new String((byte[]) content);
-        } else if (content instanceof InputStream) {
-            return new String(inputStreamToByteArray((InputStream) content));
-        }
-        return (String) content;
+        return ZosDatasetMemberTransfer.contentAsText(retrieve(null));
     }
 
     @Override
@@ -293,13 +302,7 @@ public class RseapiZosDatasetImpl implements IZosDataset {
         if (isPDS()) {
             throw new ZosDatasetException(LOG_DATA_SET + quoted(this.dsname) + " is a partitioned data set. Use retrieve(String memberName) method instead");
         }
-        Object content = retrieve(null);
-        if (content instanceof String) {
-            return ((String) content).getBytes();
-        } else if (content instanceof InputStream) {
-            return inputStreamToByteArray((InputStream) content);
-        }
-        return (byte[]) content;
+        return ZosDatasetMemberTransfer.contentAsBinary(retrieve(null));
     }
     
     @Override
@@ -427,13 +430,7 @@ public class RseapiZosDatasetImpl implements IZosDataset {
         if (!isPDS()) {
             throw new ZosDatasetException(LOG_DATA_SET + quoted(this.dsname) + LOG_NOT_PDS);
         }
-        Object content = retrieve(memberName);
-        if (content instanceof byte[]) {
-            return new String((byte[]) content);
-        } else if (content instanceof InputStream) {
-            return new String(inputStreamToByteArray((InputStream) content));
-        }
-        return (String) content;
+        return ZosDatasetMemberTransfer.contentAsText(retrieve(memberName));
     }
 
     @Override
@@ -442,13 +439,45 @@ public class RseapiZosDatasetImpl implements IZosDataset {
         if (!isPDS()) {
             throw new ZosDatasetException(LOG_DATA_SET + quoted(this.dsname) + LOG_NOT_PDS);
         }
-        Object content = retrieve(memberName);
-        if (content instanceof String) {
-            return ((String) content).getBytes();
-        } else if (content instanceof InputStream) {
-            return inputStreamToByteArray((InputStream) content);
-        }
-        return (byte[]) content;
+        return ZosDatasetMemberTransfer.contentAsBinary(retrieve(memberName));
+    }
+
+    @Override
+    public void membersStoreText(@NotNull Map<String, String> members) throws ZosDatasetException {
+    	Objects.requireNonNull(members, LOG_MEMBERS_MUST_NOT_BE_NULL);
+        ZosDatasetMemberTransfer memberTransfer = getMemberTransfer();
+        memberTransfer.checkMemberTransfer(this);
+        memberTransfer.transferMembers(this, members.keySet(), memberName -> {
+            writeText(members.get(memberName), memberName, true);
+            return null;
+        });
+    }
+
+    @Override
+    public void membersStoreBinary(@NotNull Map<String, byte[]> members) throws ZosDatasetException {
+    	Objects.requireNonNull(members, LOG_MEMBERS_MUST_NOT_BE_NULL);
+        ZosDatasetMemberTransfer memberTransfer = getMemberTransfer();
+        memberTransfer.checkMemberTransfer(this);
+        memberTransfer.transferMembers(this, members.keySet(), memberName -> {
+            writeBinary(members.get(memberName), memberName, false);
+            return null;
+        });
+    }
+
+    @Override
+    public Map<String, String> membersRetrieveAsText(@NotNull Collection<String> memberNames) throws ZosDatasetException {
+    	Objects.requireNonNull(memberNames, LOG_MEMBERS_MUST_NOT_BE_NULL);
+        ZosDatasetMemberTransfer memberTransfer = getMemberTransfer();
+        memberTransfer.checkMemberTransfer(this);
+        return memberTransfer.transferMembers(this, memberNames, memberName -> ZosDatasetMemberTransfer.contentAsText(retrieve(memberName)));
+    }
+
+    @Override
+    public Map<String, byte[]> membersRetrieveAsBinary(@NotNull Collection<String> memberNames) throws ZosDatasetException {
+    	Objects.requireNonNull(memberNames, LOG_MEMBERS_MUST_NOT_BE_NULL);
+        ZosDatasetMemberTransfer memberTransfer = getMemberTransfer();
+        memberTransfer.checkMemberTransfer(this);
+        return memberTransfer.transferMembers(this, memberNames, memberName -> ZosDatasetMemberTransfer.contentAsBinary(retrieve(memberName)));
     }
 
     @Override
@@ -699,7 +728,10 @@ public class RseapiZosDatasetImpl implements IZosDataset {
         if (this.rseapiZosDatasetAttributesListdsi == null) {
             this.rseapiZosDatasetAttributesListdsi = new RseapiZosDatasetAttributesListdsi(this.zosFileHandler, this.rseapiApiProcessor, this.image);
         }
-        JsonObject datasteAttributes = rseapiZosDatasetAttributesListdsi.get(this.dsname);
+        JsonObject datasteAttributes = this.attributeCache.get(this.dsname, ATTRIBUTES_LISTDSI, JsonObject.class);
+        if (datasteAttributes == null) {
+            datasteAttributes = rseapiZosDatasetAttributesListdsi.get(this.dsname);
+        }
         
         int listdsiRc = datasteAttributes.get(PROP_LISTDSIRC).getAsInt();
         JsonElement value;
@@ -727,6 +759,7 @@ public class RseapiZosDatasetImpl implements IZosDataset {
             }
         }
         
+        this.attributeCache.put(this.dsname, ATTRIBUTES_LISTDSI, datasteAttributes);
         setAttributes(datasteAttributes);
     }
 
@@ -801,6 +834,10 @@ public class RseapiZosDatasetImpl implements IZosDataset {
         if (!exists()) {
             throw new ZosDatasetException(LOG_DATA_SET + quoted(this.dsname) + LOG_DOES_NOT_EXIST + logOnImage());
         }
+        JsonObject cachedAttributes = this.attributeCache.get(this.dsname, ATTRIBUTES_BASE, JsonObject.class);
+        if (cachedAttributes != null) {
+            return cachedAttributes;
+        }
         
         String urlPath = RESTFILES_DATASET_PATH + SLASH + this.dsname;
         IRseapiResponse response;
@@ -832,11 +869,19 @@ public class RseapiZosDatasetImpl implements IZosDataset {
 	        JsonElement dsnameElement = attributes.get(PROP_NAME);
 	        if (dsnameElement != null && this.dsname.equals(dsnameElement.getAsString())) {
 		        logger.trace("Attibutes of data set " + quoted(this.dsname) + "  retrieved from  image " + this.image.getImageID());	            
+		        this.attributeCache.put(this.dsname, ATTRIBUTES_BASE, attributes);
 		        return attributes;
 	        }
         }
         throw new ZosDatasetException("Unable to retrieve attibutes of data set " + quoted(this.dsname) + logOnImage());
     }
+
+    /**
+     * Discard the cached attributes of the data set after it has been changed
+     */
+    protected void invalidateAttributes() {
+        this.attributeCache.invalidate(this.dsname);
+    }
     
     protected void setAttributes(JsonObject datasteAttributes) {
         JsonElement value;
@@ -944,11 +989,10 @@ public class RseapiZosDatasetImpl implements IZosDataset {
     	String dType = this.dataType.toString();
     	String urlPath = RESTFILES_DATASET_PATH + SLASH + joinDSN(memberName) + RESTFILES_DATASET_PATH_CONTENT;
     	IRseapiResponse response;
-    	if (BINARY_HEADER.equals(dType)) {
-            this.convert = false;
-        }
+    	// *** Worked out on each request as members are transferred at the same time
+    	boolean convertContent = this.convert && !BINARY_HEADER.equals(dType);
         try {
-            response = this.rseapiApiProcessor.sendRequest(RseapiRequestType.GET, urlPath, headers, null, RseapiZosFileHandlerImpl.VALID_STATUS_CODES, this.convert);
+            response = this.rseapiApiProcessor.sendRequest(RseapiRequestType.GET, urlPath, headers, null, RseapiZosFileHandlerImpl.VALID_STATUS_CODES, convertContent);
         } catch (RseapiException e) {
             throw new ZosDatasetException(e);
         }
@@ -973,6 +1017,7 @@ public class RseapiZosDatasetImpl implements IZosDataset {
         	content = records.getAsString();
         }
     
+        this.zosFileHandler.getZosManager().getMetricsRecorder().transferred(this.image.getImageID(), METRICS_API, ZosMetricsRecorder.DIRECTION_RECEIVED, content);
         logger.trace("Content of data set " + quoted(joinDSN(memberName)) + " retrieved from  image " + this.image.getImageID());
         return content;
     }
@@ -984,6 +1029,8 @@ public class RseapiZosDatasetImpl implements IZosDataset {
 	        response = this.rseapiApiProcessor.sendRequest(RseapiRequestType.DELETE, urlPath, null, null, RseapiZosFileHandlerImpl.VALID_STATUS_CODES, this.convert);
 	    } catch (RseapiException e) {
 	        throw new ZosDatasetException(e);
+	    } finally {
+	        invalidateAttributes();
 	    }
 	    
 	    if (response.getStatusCode() != HttpStatus.SC_NO_CONTENT) {
@@ -994,6 +1041,17 @@ public class RseapiZosDatasetImpl implements IZosDataset {
 	    }
 	}
 
+    /**
+     * Return the member transfer shared by every data set on the image
+     */
+    protected ZosDatasetMemberTransfer getMemberTransfer() throws ZosDatasetException {
+        try {
+            return this.zosFileHandler.getZosFileManager().getMemberTransfer(this.image);
+        } catch (ZosFileManagerException e) {
+            throw new ZosDatasetException(e);
+        }
+    }
+
 	protected byte[] inputStreamToByteArray(InputStream in) throws ZosDatasetException {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         byte[] buffer = new byte[2048];
@@ -1014,6 +1072,13 @@ public class RseapiZosDatasetImpl implements IZosDataset {
         if (!exists()) {
             throw new ZosDatasetException(LOG_DATA_SET + quoted(this.dsname) + LOG_DOES_NOT_EXIST + logOnImage());
         }
+        writeText(content, memberName, convert);
+    }
+
+    /**
+     * Write the content without first checking the data set exists
+     */
+    protected void writeText(String content, String memberName, boolean convert) throws ZosDatasetException {
         
         JsonObject requestBody = new JsonObject();
         requestBody = addPropertyWhenSet(requestBody, PROP_RECORDS, content);
@@ -1024,6 +1089,8 @@ public class RseapiZosDatasetImpl implements IZosDataset {
             response = this.rseapiApiProcessor.sendRequest(RseapiRequestType.PUT_JSON, urlPath, null, requestBody, RseapiZosFileHandlerImpl.VALID_STATUS_CODES, convert);
         } catch (RseapiException e) {
             throw new ZosDatasetException(e);
+        } finally {
+            invalidateAttributes();
         }
         
         if (response.getStatusCode() != HttpStatus.SC_OK && response.getStatusCode() != HttpStatus.SC_CREATED) {
@@ -1033,6 +1100,7 @@ public class RseapiZosDatasetImpl implements IZosDataset {
             throw new ZosDatasetException(displayMessage);
         }
     
+        this.zosFileHandler.getZosManager().getMetricsRecorder().transferred(this.image.getImageID(), METRICS_API, ZosMetricsRecorder.DIRECTION_SENT, content);
         logger.trace(LOG_DATA_SET + quoted(joinDSN(memberName)) + " updated" + logOnImage());
     }
 
@@ -1041,18 +1109,21 @@ public class RseapiZosDatasetImpl implements IZosDataset {
         try {
         	zosFileHandler.getZosManager().createArtifactDirectory(artifactPath);
             Collection<String> memberList = memberList();
-            Iterator<String> memberListIterator = memberList.iterator();
-        
-        	while (memberListIterator.hasNext()) {
-        		String memberName = memberListIterator.next();
-        		String fileName = zosFileHandler.getZosManager().buildUniquePathName(artifactPath, memberName);
-        		if (this.dataType.equals(DatasetDataType.TEXT)) {
-        			zosFileHandler.getZosManager().storeArtifact(artifactPath.resolve(fileName), memberRetrieveAsText(memberName), ResultArchiveStoreContentType.TEXT);
-        		} else {
-        			zosFileHandler.getZosManager().storeArtifact(artifactPath.resolve(fileName), new String(memberRetrieveAsBinary(memberName)), ResultArchiveStoreContentType.TEXT);
-        		}
-            	logger.info(quoted(joinDSN(memberName)) + LOG_ARCHIVED_TO + artifactPath.resolve(fileName));
-        	}
+            // *** Name every artifact before the members are archived at the same time
+            Map<String, Path> memberPaths = new HashMap<>();
+            for (String memberName : memberList) {
+                memberPaths.put(memberName, artifactPath.resolve(zosFileHandler.getZosManager().buildUniquePathName(artifactPath, memberName)));
+            }
+            getMemberTransfer().transferMembers(this, memberList, memberName -> {
+                String content = ZosDatasetMemberTransfer.contentAsText(retrieve(memberName));
+                try {
+                    zosFileHandler.getZosManager().storeArtifact(memberPaths.get(memberName), content, ResultArchiveStoreContentType.TEXT);
+                } catch (ZosManagerException e) {
+                    throw new ZosDatasetException(e);
+                }
+                logger.info(quoted(joinDSN(memberName)) + LOG_ARCHIVED_TO + memberPaths.get(memberName));
+                return null;
+            });
 		} catch (ZosManagerException e) {
 			throw new ZosDatasetException(e);
 		}
@@ -1062,6 +1133,13 @@ public class RseapiZosDatasetImpl implements IZosDataset {
         if (!exists()) {
             throw new ZosDatasetException(LOG_DATA_SET + quoted(this.dsname) + LOG_DOES_NOT_EXIST + logOnImage());
         }
+        writeBinary(content, memberName, convert);
+    }
+
+    /**
+     * Write the content without first checking the data set exists
+     */
+    protected void writeBinary(byte[] content, String memberName, boolean convert) throws ZosDatasetException {
         Map<String, String> headers = new HashMap<>();
         headers.put(BINARY_HEADER, "true");
     
@@ -1071,6 +1149,8 @@ public class RseapiZosDatasetImpl implements IZosDataset {
             response = this.rseapiApiProcessor.sendRequest(RseapiRequestType.PUT_TEXT, urlPath, headers, new String(content), RseapiZosFileHandlerImpl.VALID_STATUS_CODES, convert);
         } catch (RseapiException e) {
             throw new ZosDatasetException(e);
+        } finally {
+            invalidateAttributes();
         }
         
         if (response.getStatusCode() != HttpStatus.SC_OK && response.getStatusCode() != HttpStatus.SC_CREATED) {
@@ -1080,6 +1160,7 @@ public class RseapiZosDatasetImpl implements IZosDataset {
             throw new ZosDatasetException(displayMessage);
         }
     
+        this.zosFileHandler.getZosManager().getMetricsRecorder().transferred(this.image.getImageID(), METRICS_API, ZosMetricsRecorder.DIRECTION_SENT, content);
         logger.trace(LOG_DATA_SET + quoted(joinDSN(memberName)) + " updated" + logOnImage());
     }
 
@@ -36,6 +36,9 @@ import dev.galasa.zosfile.ZosFileField;
 import dev.galasa.zosfile.ZosFileHandler;
 import dev.galasa.zosfile.ZosFileManagerException;
 import dev.galasa.zosfile.spi.IZosFileSpi;
+import dev.galasa.zosfile.spi.ZosDatasetAttributeCache;
+import dev.galasa.zosfile.spi.ZosDatasetMemberTransfer;
+import dev.galasa.zosfile.spi.ZosDatasetResources;
 import dev.galasa.zosrseapi.spi.IRseapiManagerSpi;
 
 /**
@@ -59,6 +62,8 @@ public class RseapiZosFileManagerImpl extends AbstractManager implements IZosFil
     }
 
     private final Map<String, RseapiZosFileHandlerImpl> zosFileHandlers = new HashMap<>();
+    
+    private final ZosDatasetResources datasetResources = new ZosDatasetResources();
 
     private static final String ZOS_DATASETS = "zOS_Datasets";
     
@@ -244,15 +249,41 @@ public class RseapiZosFileManagerImpl extends AbstractManager implements IZosFil
             cleanup();
         } catch (ZosFileManagerException e) {
             logger.error("Problem in endOfTestRun()", e);
+        } finally {
+            releaseDatasetResources();
         }
     }
-    
+
     protected void cleanup() throws ZosFileManagerException {
         for (Entry<String, RseapiZosFileHandlerImpl> entry : zosFileHandlers.entrySet()) {
             entry.getValue().cleanup();
         }
     }
     
+    /**
+     * Return the member transfer shared by every data set on an image
+     * @param image
+     * @return the member transfer
+     * @throws ZosFileManagerException
+     */
+    public ZosDatasetMemberTransfer getMemberTransfer(IZosImage image) throws ZosFileManagerException {
+        return this.datasetResources.getMemberTransfer(getZosManager(), image);
+    }
+    
+    /**
+     * Return the data set attribute cache shared by every data set on an image
+     * @param image
+     * @return the cache
+     * @throws ZosFileManagerException
+     */
+    public ZosDatasetAttributeCache getDatasetAttributeCache(IZosImage image) throws ZosFileManagerException {
+        return this.datasetResources.getAttributeCache(getZosManager(), image);
+    }
+    
+    protected void releaseDatasetResources() {
+        this.datasetResources.release();
+    }
+    
     @GenerateAnnotatedField(annotation=ZosFileHandler.class)
     public IZosFileHandler generateZosFileHandler(Field field, List<Annotation> annotations) {
         RseapiZosFileHandlerImpl rseapiZosFileHandlerImpl = new RseapiZosFileHandlerImpl(this, field.getName());
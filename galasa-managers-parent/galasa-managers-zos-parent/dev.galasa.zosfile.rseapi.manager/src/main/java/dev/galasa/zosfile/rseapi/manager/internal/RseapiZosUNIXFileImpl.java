@@ -26,6 +26,7 @@ import com.google.gson.JsonObject;
 
 import dev.galasa.ResultArchiveStoreContentType;
 import dev.galasa.zos.IZosImage;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
 import dev.galasa.zosfile.IZosUNIXFile;
 import dev.galasa.zosfile.ZosFileManagerException;
 import dev.galasa.zosfile.ZosUNIXFileException;
@@ -96,6 +97,8 @@ public class RseapiZosUNIXFileImpl implements IZosUNIXFile {
 
     private static final Log logger = LogFactory.getLog(RseapiZosUNIXFileImpl.class);
 
+    private static final String METRICS_API = "rseapi";
+
 	public RseapiZosUNIXFileImpl(RseapiZosFileHandlerImpl zosFileHandler, IZosImage image, String unixPath) throws ZosUNIXFileException {
         if (!unixPath.startsWith(SLASH)) {
             throw new ZosUNIXFileException(LOG_UNIX_PATH + "must be absolute not be relative");
@@ -203,6 +206,7 @@ public class RseapiZosUNIXFileImpl implements IZosUNIXFile {
             throw new ZosUNIXFileException(displayMessage);
         }
     
+        this.zosFileHandler.getZosManager().getMetricsRecorder().transferred(this.image.getImageID(), METRICS_API, ZosMetricsRecorder.DIRECTION_SENT, content);
         logger.trace(LOG_UNIX_PATH + quoted(this.directoryPath) + " updated" + logOnImage());
         
     }
@@ -498,6 +502,7 @@ public class RseapiZosUNIXFileImpl implements IZosUNIXFile {
         	throw new ZosUNIXFileException("Unable to retrieve content of " + quoted(path) + logOnImage(), e);
         }
     
+        this.zosFileHandler.getZosManager().getMetricsRecorder().transferred(this.image.getImageID(), METRICS_API, ZosMetricsRecorder.DIRECTION_RECEIVED, content);
         logger.trace("Content of " + LOG_UNIX_PATH + quoted(path) + " retrieved from  image " + this.image.getImageID());
         return content;
     }
@@ -922,6 +922,9 @@ public class RseapiZosVSAMDatasetImpl implements IZosVSAMDataset {
 			response = this.rseapiApiProcessor.sendRequest(RseapiRequestType.POST_JSON, RESTUNIXCOMMANDS_PATH, null, requestBody, RseapiZosFileHandlerImpl.VALID_STATUS_CODES, false);
         } catch (RseapiException e) {
             throw new ZosVSAMDatasetException(e);
+        } finally {
+            // *** IDCAMS may have defined or deleted the data set
+            this.zosDataset.invalidateAttributes();
         }
 
         if (response.getStatusCode() != HttpStatus.SC_OK) {
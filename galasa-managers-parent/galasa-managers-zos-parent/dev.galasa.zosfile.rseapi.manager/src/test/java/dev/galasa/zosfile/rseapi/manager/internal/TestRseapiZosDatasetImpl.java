@@ -13,7 +13,10 @@ import java.nio.file.FileSystem;
 import java.nio.file.Path;
 import java.nio.file.spi.FileSystemProvider;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.commons.logging.Log;
@@ -38,6 +41,7 @@ import com.google.gson.JsonObject;
 import dev.galasa.zos.IZosImage;
 import dev.galasa.zos.ZosManagerException;
 import dev.galasa.zos.internal.ZosManagerImpl;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
 import dev.galasa.zosfile.IZosDataset.DSType;
 import dev.galasa.zosfile.IZosDataset.DatasetDataType;
 import dev.galasa.zosfile.IZosDataset.DatasetOrganization;
@@ -46,6 +50,8 @@ import dev.galasa.zosfile.IZosDataset.SpaceUnit;
 import dev.galasa.zosfile.IZosUNIXFile;
 import dev.galasa.zosfile.ZosDatasetException;
 import dev.galasa.zosfile.ZosFileManagerException;
+import dev.galasa.zosfile.spi.ZosDatasetAttributeCache;
+import dev.galasa.zosfile.spi.ZosDatasetMemberTransfer;
 import dev.galasa.zosfile.ZosUNIXFileException;
 import dev.galasa.zosrseapi.IRseapi.RseapiRequestType;
 import dev.galasa.zosrseapi.IRseapiResponse;
@@ -136,6 +142,7 @@ public class TestRseapiZosDatasetImpl {
         Mockito.when(zosFileHandlerMock.getRseapiManager()).thenReturn(rseapiManagerMock);
         Mockito.when(zosFileHandlerMock.getZosFileManager()).thenReturn(zosFileManagerMock);
         Mockito.when(zosFileHandlerMock.getZosManager()).thenReturn(zosManagerMock);
+        Mockito.when(zosManagerMock.getMetricsRecorder()).thenReturn(new ZosMetricsRecorder());
         Mockito.when(zosFileHandlerMock.buildErrorString(Mockito.any(), Mockito.any())).thenCallRealMethod();
 
     	Path pathMock = Mockito.mock(Path.class);
@@ -144,6 +151,8 @@ public class TestRseapiZosDatasetImpl {
     	Mockito.doReturn(pathMock).when(zosFileManagerMock).getDatasetCurrentTestMethodArchiveFolder();
     	Mockito.when(zosFileManagerMock.getDatasetCurrentTestMethodArchiveFolder()).thenReturn(pathMock);
         
+        Mockito.when(zosFileManagerMock.getDatasetAttributeCache(Mockito.any())).thenReturn(new ZosDatasetAttributeCache(0));
+        Mockito.when(zosFileManagerMock.getMemberTransfer(Mockito.any())).thenReturn(new ZosDatasetMemberTransfer(IMAGE, 1));
         zosDataset = new RseapiZosDatasetImpl(zosFileHandlerMock, zosImageMock, DATASET_NAME);
         zosDatasetSpy = Mockito.spy(zosDataset);
     }
@@ -265,6 +274,29 @@ public class TestRseapiZosDatasetImpl {
         Assert.assertTrue("exists() should return true", zosDatasetSpy.exists());
     }
 
+    @Test
+    public void testExistsAttributeCache() throws ZosDatasetException, RseapiException {
+        Whitebox.setInternalState(zosDatasetSpy, "attributeCache", new ZosDatasetAttributeCache(30));
+        Mockito.when(rseapiApiProcessorMock.sendRequest(Mockito.eq(RseapiRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(rseapiResponseMock);
+        Mockito.when(rseapiResponseMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
+        JsonObject responseBody = new JsonObject();
+        JsonArray itemsArray = new JsonArray();
+        JsonObject item = new JsonObject();
+        item.addProperty("name", DATASET_NAME);
+        itemsArray.add(item);
+        responseBody.add("items", itemsArray);
+        Mockito.when(rseapiResponseMock.getJsonContent()).thenReturn(responseBody);
+        
+        Assert.assertTrue("exists() should return true", zosDatasetSpy.exists());
+        Assert.assertTrue("exists() should return true", zosDatasetSpy.exists());
+        Assert.assertEquals("getAttibutes() should return the cached attributes", item, zosDatasetSpy.getAttibutes());
+        Mockito.verify(rseapiApiProcessorMock, Mockito.times(2)).sendRequest(Mockito.eq(RseapiRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+        
+        zosDatasetSpy.invalidateAttributes();
+        Assert.assertTrue("exists() should return true", zosDatasetSpy.exists());
+        Mockito.verify(rseapiApiProcessorMock, Mockito.times(3)).sendRequest(Mockito.eq(RseapiRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+    }
+
     @Test
     public void testExistsRseapiException() throws ZosDatasetException, RseapiException {
         Mockito.when(rseapiApiProcessorMock.sendRequest(Mockito.eq(RseapiRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenThrow(new RseapiException(EXCEPTION));
@@ -422,7 +454,7 @@ public class TestRseapiZosDatasetImpl {
         
         PowerMockito.doReturn(true).when(zosDatasetSpy).exists();
         PowerMockito.doReturn(false).when(zosDatasetSpy).isPDS();
-        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(), Mockito.any());
+        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.anyString(), Mockito.any());
         zosDatasetSpy.saveToResultsArchive(RAS_PATH);
         Assert.assertEquals("saveToResultsArchive() should log specified message", expectedMessage, logMessage);
     }
@@ -460,7 +492,7 @@ public class TestRseapiZosDatasetImpl {
         zosDatasetSpy.savePDSToResultsArchive(RAS_PATH);
 		Assert.assertEquals("savePDSToResultsArchive() should log specified message", expectedMessage, logMessage);
 		
-		PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(), Mockito.any());
+		PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.anyString(), Mockito.any());
         ZosDatasetException expectedException = Assert.assertThrows("expected exception should be thrown", ZosDatasetException.class, ()->{
         	zosDatasetSpy.savePDSToResultsArchive(RAS_PATH);
         });
@@ -707,6 +739,80 @@ public class TestRseapiZosDatasetImpl {
         });
     	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
     }     
+
+    @Test
+    public void testMembersStoreText() throws ZosFileManagerException {
+        PowerMockito.doReturn(true).when(zosDatasetSpy).exists();
+        PowerMockito.doReturn(true).when(zosDatasetSpy).isPDS();
+        PowerMockito.doNothing().when(zosDatasetSpy).writeText(Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+        PowerMockito.doNothing().when(zosDatasetSpy).writeBinary(Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+        ZosDatasetMemberTransfer memberTransfer = new ZosDatasetMemberTransfer(IMAGE, 2);
+        Mockito.when(zosFileManagerMock.getMemberTransfer(Mockito.any())).thenReturn(memberTransfer);
+        try {
+            Map<String, String> members = new LinkedHashMap<>();
+            members.put(MEMBER_NAME, CONTENT);
+            members.put(MEMBER_NAME + "2", CONTENT);
+            zosDatasetSpy.membersStoreText(members);
+            Mockito.verify(zosDatasetSpy, Mockito.times(2)).writeText(Mockito.eq(CONTENT), Mockito.any(), Mockito.eq(true));
+            
+            Map<String, byte[]> binaryMembers = new LinkedHashMap<>();
+            binaryMembers.put(MEMBER_NAME, CONTENT.getBytes());
+            binaryMembers.put(MEMBER_NAME + "2", CONTENT.getBytes());
+            zosDatasetSpy.membersStoreBinary(binaryMembers);
+            Mockito.verify(zosDatasetSpy, Mockito.times(2)).writeBinary(Mockito.any(), Mockito.any(), Mockito.eq(false));
+            Mockito.verify(zosDatasetSpy, Mockito.times(2)).exists();
+            
+            PowerMockito.doThrow(new ZosDatasetException(EXCEPTION)).when(zosDatasetSpy).writeText(Mockito.any(), Mockito.eq(MEMBER_NAME + "2"), Mockito.anyBoolean());
+            ZosDatasetException expectedException = Assert.assertThrows("expected exception should be thrown", ZosDatasetException.class, ()->{
+                zosDatasetSpy.membersStoreText(members);
+            });
+            Assert.assertEquals("exception should contain expected message", EXCEPTION, expectedException.getMessage());
+            
+            PowerMockito.doReturn(false).when(zosDatasetSpy).isPDS();
+            expectedException = Assert.assertThrows("expected exception should be thrown", ZosDatasetException.class, ()->{
+                zosDatasetSpy.membersStoreText(members);
+            });
+            Assert.assertEquals("exception should contain expected message", "Data set \"" + DATASET_NAME + "\" is not a partitioned data set", expectedException.getMessage());
+            
+            NullPointerException expectedNullException = Assert.assertThrows("expected exception should be thrown", NullPointerException.class, ()->{
+                zosDatasetSpy.membersStoreText(null);
+            });
+            Assert.assertEquals("exception should contain expected message", "members must not be null", expectedNullException.getMessage());
+        } finally {
+            memberTransfer.shutdown();
+        }
+    }
+
+    @Test
+    public void testMembersRetrieveAsText() throws ZosFileManagerException {
+        PowerMockito.doReturn(true).when(zosDatasetSpy).exists();
+        PowerMockito.doReturn(true).when(zosDatasetSpy).isPDS();
+        PowerMockito.doReturn(CONTENT).when(zosDatasetSpy).retrieve(Mockito.any());
+        ZosDatasetMemberTransfer memberTransfer = new ZosDatasetMemberTransfer(IMAGE, 2);
+        Mockito.when(zosFileManagerMock.getMemberTransfer(Mockito.any())).thenReturn(memberTransfer);
+        try {
+            Map<String, String> members = zosDatasetSpy.membersRetrieveAsText(Arrays.asList(MEMBER_NAME + "2", MEMBER_NAME));
+            Assert.assertEquals("membersRetrieveAsText() should return the members in order", Arrays.asList(MEMBER_NAME + "2", MEMBER_NAME), new ArrayList<>(members.keySet()));
+            Assert.assertEquals("membersRetrieveAsText() should return the supplied value", CONTENT, members.get(MEMBER_NAME));
+            
+            Map<String, byte[]> binaryMembers = zosDatasetSpy.membersRetrieveAsBinary(Arrays.asList(MEMBER_NAME));
+            Assert.assertEquals("membersRetrieveAsBinary() should return the supplied value", CONTENT, new String(binaryMembers.get(MEMBER_NAME)));
+            
+            PowerMockito.doThrow(new ZosDatasetException(EXCEPTION)).when(zosDatasetSpy).retrieve(Mockito.any());
+            ZosDatasetException expectedException = Assert.assertThrows("expected exception should be thrown", ZosDatasetException.class, ()->{
+                zosDatasetSpy.membersRetrieveAsBinary(Arrays.asList(MEMBER_NAME, MEMBER_NAME + "2"));
+            });
+            Assert.assertEquals("exception should contain expected message", EXCEPTION, expectedException.getMessage());
+            
+            PowerMockito.doReturn(false).when(zosDatasetSpy).exists();
+            expectedException = Assert.assertThrows("expected exception should be thrown", ZosDatasetException.class, ()->{
+                zosDatasetSpy.membersRetrieveAsText(Arrays.asList(MEMBER_NAME));
+            });
+            Assert.assertEquals("exception should contain expected message", "Data set \"" + DATASET_NAME + "\" does not exist on image " + IMAGE, expectedException.getMessage());
+        } finally {
+            memberTransfer.shutdown();
+        }
+    }
     
     @Test
     public void testMemberList() throws ZosDatasetException, RseapiException {
@@ -805,7 +911,7 @@ public class TestRseapiZosDatasetImpl {
         zosDatasetSpy.memberSaveToResultsArchive(MEMBER_NAME,RAS_PATH);
         Assert.assertEquals("memberSaveToTestArchive() should log specified message", expectedMessage, logMessage);
 
-        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(), Mockito.any());
+        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.anyString(), Mockito.any());
         logMessage = null;
         expectedMessage = "Unable to save data set member to archive";
         zosDatasetSpy.memberSaveToResultsArchive(MEMBER_NAME,RAS_PATH);
@@ -41,6 +41,8 @@ import dev.galasa.zosfile.ZosDatasetException;
 import dev.galasa.zosfile.ZosFileManagerException;
 import dev.galasa.zosfile.ZosUNIXFileException;
 import dev.galasa.zosfile.ZosVSAMDatasetException;
+import dev.galasa.zosfile.spi.ZosDatasetAttributeCache;
+import dev.galasa.zosfile.spi.ZosDatasetMemberTransfer;
 import dev.galasa.zosrseapi.internal.RseapiManagerImpl;
 
 @RunWith(PowerMockRunner.class)
@@ -255,6 +257,27 @@ public class TestRseapiZosFileManagerImpl {
         zosFileManagerSpy.endOfTestRun();
         Assert.assertEquals("testEndOfTestRun() should log expected message", "Problem in endOfTestRun()", logMessage);
     }
+
+    @Test
+    public void testGetDatasetAttributeCache() throws ZosFileManagerException {
+        Mockito.when(zosManagerMock.getZosFilePropertyDatasetAttributeCacheTtl(Mockito.any())).thenReturn(30);
+        ZosDatasetAttributeCache cache = zosFileManagerSpy.getDatasetAttributeCache(zosImageMock);
+        Assert.assertTrue("getDatasetAttributeCache() should return a cache that is on", cache.isEnabled());
+        Assert.assertSame("getDatasetAttributeCache() should return the same cache for the image", cache, zosFileManagerSpy.getDatasetAttributeCache(zosImageMock));
+        
+        zosFileManagerSpy.releaseDatasetResources();
+        Assert.assertNotSame("getDatasetAttributeCache() should return a new cache after releaseDatasetResources()", cache, zosFileManagerSpy.getDatasetAttributeCache(zosImageMock));
+    }
+    
+    @Test
+    public void testGetMemberTransfer() throws ZosFileManagerException {
+        Mockito.when(zosManagerMock.getZosFilePropertyMemberTransferMaxThreads(Mockito.any())).thenReturn(2);
+        ZosDatasetMemberTransfer memberTransfer = zosFileManagerSpy.getMemberTransfer(zosImageMock);
+        Assert.assertSame("getMemberTransfer() should return the same member transfer for the image", memberTransfer, zosFileManagerSpy.getMemberTransfer(zosImageMock));
+        
+        zosFileManagerSpy.releaseDatasetResources();
+        Assert.assertNotSame("getMemberTransfer() should return a new member transfer after releaseDatasetResources()", memberTransfer, zosFileManagerSpy.getMemberTransfer(zosImageMock));
+    }
     
     @Test
     public void testGenerateZosFileHandler() throws NoSuchMethodException, SecurityException, ManagerException, NoSuchFieldException {
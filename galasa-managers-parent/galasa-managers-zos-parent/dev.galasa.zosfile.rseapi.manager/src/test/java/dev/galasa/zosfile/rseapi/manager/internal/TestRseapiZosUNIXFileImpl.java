@@ -37,6 +37,7 @@ import com.google.gson.JsonObject;
 
 import dev.galasa.zos.IZosImage;
 import dev.galasa.zos.internal.ZosManagerImpl;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
 import dev.galasa.zosfile.IZosUNIXFile.UNIXFileDataType;
 import dev.galasa.zosfile.ZosFileManagerException;
 import dev.galasa.zosfile.ZosUNIXFileException;
@@ -142,6 +143,7 @@ public class TestRseapiZosUNIXFileImpl {
         Mockito.when(zosFileManagerMock.getRseapiManager()).thenReturn(rseapiManagerMock);
         Mockito.when(zosFileHandlerMock.getZosFileManager()).thenReturn(zosFileManagerMock);
         Mockito.when(zosFileHandlerMock.getZosManager()).thenReturn(zosManagerMock);
+        Mockito.when(zosManagerMock.getMetricsRecorder()).thenReturn(new ZosMetricsRecorder());
 
     	Path pathMock = Mockito.mock(Path.class);
     	Mockito.doReturn(pathMock).when(pathMock).resolve(Mockito.anyString());
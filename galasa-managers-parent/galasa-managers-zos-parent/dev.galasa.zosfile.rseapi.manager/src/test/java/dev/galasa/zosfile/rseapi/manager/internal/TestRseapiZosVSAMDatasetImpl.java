@@ -33,6 +33,7 @@ import com.google.gson.JsonObject;
 import dev.galasa.zos.IZosImage;
 import dev.galasa.zos.ZosManagerException;
 import dev.galasa.zos.internal.ZosManagerImpl;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
 import dev.galasa.zosfile.IZosDataset.DatasetDataType;
 import dev.galasa.zosfile.IZosVSAMDataset.BWOOption;
 import dev.galasa.zosfile.IZosVSAMDataset.DatasetOrganisation;
@@ -145,6 +146,7 @@ public class TestRseapiZosVSAMDatasetImpl {
         Mockito.when(zosFileHandlerMock.newDataset(Mockito.any(), Mockito.any())).thenReturn(zosDatasetMock);
         Mockito.when(zosFileHandlerMock.getZosFileManager()).thenReturn(zosFileManagerMock);
         Mockito.when(zosFileHandlerMock.getZosManager()).thenReturn(zosManagerMock);
+        Mockito.when(zosManagerMock.getMetricsRecorder()).thenReturn(new ZosMetricsRecorder());
 
     	Path pathMock = Mockito.mock(Path.class);
     	Mockito.doReturn(pathMock).when(pathMock).resolve(Mockito.anyString());
@@ -457,7 +459,7 @@ public class TestRseapiZosVSAMDatasetImpl {
         zosVSAMDatasetSpy.saveToResultsArchive(RAS_PATH);
 		Assert.assertEquals("saveToResultsArchive() should log specified message", expectedMessage, logMessage);
         
-        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(), Mockito.any());        
+        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.anyString(), Mockito.any());        
         logMessage = null;
         expectedMessage = "Unable to save VSAM data set to archive";
         zosVSAMDatasetSpy.saveToResultsArchive(RAS_PATH);
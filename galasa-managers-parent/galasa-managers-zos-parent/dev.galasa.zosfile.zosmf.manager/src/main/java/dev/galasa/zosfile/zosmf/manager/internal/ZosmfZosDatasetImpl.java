@@ -13,7 +13,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 
@@ -30,9 +29,12 @@ import com.google.gson.JsonObject;
 import dev.galasa.ResultArchiveStoreContentType;
 import dev.galasa.zos.IZosImage;
 import dev.galasa.zos.ZosManagerException;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
 import dev.galasa.zosfile.IZosDataset;
 import dev.galasa.zosfile.ZosDatasetException;
 import dev.galasa.zosfile.ZosFileManagerException;
+import dev.galasa.zosfile.spi.ZosDatasetAttributeCache;
+import dev.galasa.zosfile.spi.ZosDatasetMemberTransfer;
 import dev.galasa.zosmf.IZosmf.ZosmfCustomHeaders;
 import dev.galasa.zosmf.IZosmf.ZosmfRequestType;
 import dev.galasa.zosmf.IZosmfResponse;
@@ -89,6 +91,8 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
 
     private ZosmfZosDatasetAttributesListdsi zosmfZosDatasetAttributesListdsi;
 
+    private ZosDatasetAttributeCache attributeCache;
+
 	private ZosmfZosFileHandlerImpl zosFileHandler;
 
 	private Path testMethodArchiveFolder;
@@ -142,8 +146,14 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
 
     private static final Log logger = LogFactory.getLog(ZosmfZosDatasetImpl.class);
 
+    private static final String METRICS_API = "zosmf";
+
 	private static final String LOG_CONTENT_MUST_NOT_BE_NULL = "content must not be null";
 	private static final String LOG_MEMBER_NAME_MUST_NOT_BE_NULL = "memberName must not be null";
+	private static final String LOG_MEMBERS_MUST_NOT_BE_NULL = "members must not be null";
+
+    private static final String ATTRIBUTES_BASE = "base";
+    private static final String ATTRIBUTES_LISTDSI = "listdsi";
 
     public ZosmfZosDatasetImpl(ZosmfZosFileHandlerImpl zosFileHandler, IZosImage image, String dsname) throws ZosDatasetException {
         this.zosFileHandler = zosFileHandler;
@@ -153,6 +163,7 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
         
         try {
             this.zosmfApiProcessor = this.zosFileHandler.getZosmfManager().newZosmfRestApiProcessor(this.image, this.zosFileHandler.getZosManager().getZosFilePropertyFileRestrictToImage(image.getImageID()));
+            this.attributeCache = this.zosFileHandler.getZosFileManager().getDatasetAttributeCache(this.image);
         } catch (ZosFileManagerException | ZosmfManagerException e) {
             throw new ZosDatasetException(e);
         }
@@ -206,6 +217,7 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
             throw new ZosDatasetException(displayMessage);
         }
         
+        invalidateAttributes();
         if (exists()) {
             logger.info(LOG_DATA_SET + quoted(this.dsname) + " created" + logOnImage());
             this.datasetCreated = true;
@@ -228,6 +240,8 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
                     new ArrayList<>(Arrays.asList(HttpStatus.SC_NO_CONTENT, HttpStatus.SC_BAD_REQUEST, HttpStatus.SC_INTERNAL_SERVER_ERROR)), this.convert);
         } catch (ZosmfException e) {
             throw new ZosDatasetException(e);
+        } finally {
+            invalidateAttributes();
         }
         
         if (response.getStatusCode() != HttpStatus.SC_NO_CONTENT) {
@@ -256,7 +270,12 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
 
     @Override
     public boolean exists() throws ZosDatasetException {
+        // *** Always ask the server, the data set may have been deleted outside the manager. When the attributes
+        // *** are cached, ask for the base attributes too for the getAttibutes() that often follows
         Map<String, String> headers = new HashMap<>();
+        if (this.attributeCache.isEnabled()) {
+            headers.put(ZosmfCustomHeaders.X_IBM_ATTRIBUTES.toString(), ATTRIBUTES_BASE);
+        }
         headers.put(ZosmfCustomHeaders.X_IBM_MAX_ITEMS.toString(), "1");
         String urlPath = RESTFILES_DATASET_PATH + "?dslevel=" + this.dsname;
         IZosmfResponse response;
@@ -283,6 +302,7 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
                 String dsnameValue = item.get(PROP_DSNAME).getAsString();
                 if (this.dsname.equals(dsnameValue)) {
                     logger.trace(LOG_DATA_SET + quoted(this.dsname) + " exists" + logOnImage());
+                    this.attributeCache.put(this.dsname, ATTRIBUTES_BASE, item);
                     return true;
                 }
             }
@@ -320,13 +340,7 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
         if (isPDS()) {
             throw new ZosDatasetException(LOG_DATA_SET + quoted(this.dsname) + " is a partitioned data set. Use retrieve(String memberName) method instead");
         }
-        Object content = retrieve(null);
-        if (content instanceof byte[]) {
-            return new String((byte[]) content);
-        } else if (content instanceof InputStream) {
-            return new String(inputStreamToByteArray((InputStream) content));
-        }
-        return (String) content;
+        return ZosDatasetMemberTransfer.contentAsText(retrieve(null));
     }
 
     @Override
@@ -334,13 +348,7 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
         if (isPDS()) {
             throw new ZosDatasetException(LOG_DATA_SET + quoted(this.dsname) + " is a partitioned data set. Use retrieve(String memberName) method instead");
         }
-        Object content = retrieve(null);
-        if (content instanceof String) {
-            return ((String) content).getBytes();
-        } else if (content instanceof InputStream) {
-            return inputStreamToByteArray((InputStream) content);
-        }
-        return (byte[]) content;
+        return ZosDatasetMemberTransfer.contentAsBinary(retrieve(null));
     }
     
     @Override
@@ -352,15 +360,7 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
                 if (isPDS()) {
                     savePDSToResultsArchive(rasPath);
                 } else {
-                    try {
-                    	if (this.dataType.equals(DatasetDataType.TEXT)) {
-                    		this.zosFileHandler.getZosManager().storeArtifact(artifactPath, retrieveAsText(), ResultArchiveStoreContentType.TEXT);
-                    	} else  {
-                    		this.zosFileHandler.getZosManager().storeArtifact(artifactPath, new String(retrieveAsBinary()), ResultArchiveStoreContentType.TEXT);
-                    	}
-        			} catch (ZosManagerException e) {
-        				throw new ZosDatasetException(e);
-        			}
+                    archiveContent(artifactPath, null);
                 }
             }
         } catch (ZosFileManagerException e) {
@@ -405,6 +405,8 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
                     new ArrayList<>(Arrays.asList(HttpStatus.SC_NO_CONTENT, HttpStatus.SC_BAD_REQUEST, HttpStatus.SC_INTERNAL_SERVER_ERROR)), this.convert);
         } catch (ZosmfException e) {
             throw new ZosDatasetException(e);
+        } finally {
+            invalidateAttributes();
         }
         
         if (response.getStatusCode() != HttpStatus.SC_NO_CONTENT) {
@@ -502,13 +504,7 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
         if (!isPDS()) {
             throw new ZosDatasetException(LOG_DATA_SET + quoted(this.dsname) + LOG_NOT_PDS);
         }
-        Object content = retrieve(memberName);
-        if (content instanceof byte[]) {
-            return new String((byte[]) content);
-        } else if (content instanceof InputStream) {
-            return new String(inputStreamToByteArray((InputStream) content));
-        }
-        return (String) content;
+        return ZosDatasetMemberTransfer.contentAsText(retrieve(memberName));
     }
 
     @Override
@@ -517,13 +513,45 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
         if (!isPDS()) {
             throw new ZosDatasetException(LOG_DATA_SET + quoted(this.dsname) + LOG_NOT_PDS);
         }
-        Object content = retrieve(memberName);
-        if (content instanceof String) {
-            return ((String) content).getBytes();
-        } else if (content instanceof InputStream) {
-            return inputStreamToByteArray((InputStream) content);
-        }
-        return (byte[]) content;
+        return ZosDatasetMemberTransfer.contentAsBinary(retrieve(memberName));
+    }
+
+    @Override
+    public void membersStoreText(@NotNull Map<String, String> members) throws ZosDatasetException {
+    	Objects.requireNonNull(members, LOG_MEMBERS_MUST_NOT_BE_NULL);
+        ZosDatasetMemberTransfer memberTransfer = getMemberTransfer();
+        memberTransfer.checkMemberTransfer(this);
+        memberTransfer.transferMembers(this, members.keySet(), memberName -> {
+            writeText(members.get(memberName), memberName, true);
+            return null;
+        });
+    }
+
+    @Override
+    public void membersStoreBinary(@NotNull Map<String, byte[]> members) throws ZosDatasetException {
+    	Objects.requireNonNull(members, LOG_MEMBERS_MUST_NOT_BE_NULL);
+        ZosDatasetMemberTransfer memberTransfer = getMemberTransfer();
+        memberTransfer.checkMemberTransfer(this);
+        memberTransfer.transferMembers(this, members.keySet(), memberName -> {
+            writeBinary(members.get(memberName), memberName, false);
+            return null;
+        });
+    }
+
+    @Override
+    public Map<String, String> membersRetrieveAsText(@NotNull Collection<String> memberNames) throws ZosDatasetException {
+    	Objects.requireNonNull(memberNames, LOG_MEMBERS_MUST_NOT_BE_NULL);
+        ZosDatasetMemberTransfer memberTransfer = getMemberTransfer();
+        memberTransfer.checkMemberTransfer(this);
+        return memberTransfer.transferMembers(this, memberNames, memberName -> ZosDatasetMemberTransfer.contentAsText(retrieve(memberName)));
+    }
+
+    @Override
+    public Map<String, byte[]> membersRetrieveAsBinary(@NotNull Collection<String> memberNames) throws ZosDatasetException {
+    	Objects.requireNonNull(memberNames, LOG_MEMBERS_MUST_NOT_BE_NULL);
+        ZosDatasetMemberTransfer memberTransfer = getMemberTransfer();
+        memberTransfer.checkMemberTransfer(this);
+        return memberTransfer.transferMembers(this, memberNames, memberName -> ZosDatasetMemberTransfer.contentAsBinary(retrieve(memberName)));
     }
 
     @Override
@@ -534,12 +562,15 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
         this.datasetMembers = new ArrayList<>();
         this.memberStart = null;
         boolean moreRows = true;
+        // *** Ask for every member in one response rather than a page at a time
+        Map<String, String> headers = new HashMap<>();
+        headers.put(ZosmfCustomHeaders.X_IBM_MAX_ITEMS.toString(), "0");
 
         while (moreRows) {
             String urlPath = RESTFILES_DATASET_PATH + SLASH + this.dsname + SLASH + PROP_MEMBER + (this.memberStart != null ? "?start=" + this.memberStart : "");
             IZosmfResponse response;
             try {
-                response = this.zosmfApiProcessor.sendRequest(ZosmfRequestType.GET, urlPath, null, null,
+                response = this.zosmfApiProcessor.sendRequest(ZosmfRequestType.GET, urlPath, headers, null,
                         new ArrayList<>(Arrays.asList(HttpStatus.SC_OK, HttpStatus.SC_BAD_REQUEST, HttpStatus.SC_INTERNAL_SERVER_ERROR)), false);
             } catch (ZosmfException e) {
                 throw new ZosDatasetException(e);
@@ -576,15 +607,7 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
         try {
             Path artifactPath = this.zosFileHandler.getArtifactsRoot().resolve(rasPath);
     		logger.info("Archiving " + quoted(this.dsname) + " to " + artifactPath.toString());
-            try {
-            	if (this.dataType.equals(DatasetDataType.TEXT)) {
-            		this.zosFileHandler.getZosManager().storeArtifact(artifactPath, memberRetrieveAsText(memberName), ResultArchiveStoreContentType.TEXT);
-            	} else  {
-            		this.zosFileHandler.getZosManager().storeArtifact(artifactPath, new String(memberRetrieveAsBinary(memberName)), ResultArchiveStoreContentType.TEXT);
-            	}
-			} catch (ZosManagerException e) {
-				throw new ZosDatasetException(e);
-			}
+            archiveContent(artifactPath, memberName);
         } catch (ZosFileManagerException e) {
             logger.error("Unable to save data set member to archive", e);
         }
@@ -773,7 +796,10 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
         if (this.zosmfZosDatasetAttributesListdsi == null) {
             this.zosmfZosDatasetAttributesListdsi = new ZosmfZosDatasetAttributesListdsi(this.zosFileHandler.getZosFileManager(), this.image);
         }
-        JsonObject datasteAttributes = zosmfZosDatasetAttributesListdsi.get(this.dsname);
+        JsonObject datasteAttributes = this.attributeCache.get(this.dsname, ATTRIBUTES_LISTDSI, JsonObject.class);
+        if (datasteAttributes == null) {
+            datasteAttributes = zosmfZosDatasetAttributesListdsi.get(this.dsname);
+        }
         
         int listdsiRc = datasteAttributes.get(PROP_LISTDSIRC).getAsInt();
         JsonElement value;
@@ -801,6 +827,7 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
             }
         }
         
+        this.attributeCache.put(this.dsname, ATTRIBUTES_LISTDSI, datasteAttributes);
         setAttributes(datasteAttributes);
     }
 
@@ -884,6 +911,10 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
         if (!exists()) {
             throw new ZosDatasetException(LOG_DATA_SET + quoted(this.dsname) + LOG_DOES_NOT_EXIST + logOnImage());
         }
+        JsonObject cachedAttributes = this.attributeCache.get(this.dsname, ATTRIBUTES_BASE, JsonObject.class);
+        if (cachedAttributes != null) {
+            return cachedAttributes;
+        }
         
         Map<String, String> headers = new HashMap<>();
         headers.put(ZosmfCustomHeaders.X_IBM_ATTRIBUTES.toString(), "base");
@@ -912,6 +943,7 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
             if (returnedRowsValue == 1) {
                 JsonArray items = responseBody.getAsJsonArray(PROP_ITEMS);
                 attributes = items.get(0).getAsJsonObject();
+                this.attributeCache.put(this.dsname, ATTRIBUTES_BASE, attributes);
             } else {
                 throw new ZosDatasetException("Unable to retrieve attibutes of data set " + quoted(this.dsname) + logOnImage());                
             }
@@ -925,6 +957,13 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
         
         return attributes;
     }
+
+    /**
+     * Discard the cached attributes of the data set after it has been changed
+     */
+    protected void invalidateAttributes() {
+        this.attributeCache.invalidate(this.dsname);
+    }
     
     protected void setAttributes(JsonObject datasteAttributes) {
         JsonElement value;
@@ -1028,34 +1067,49 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
     }
 
     protected Object retrieve(String memberName) throws ZosDatasetException {
-      Map<String, String> headers = new HashMap<>();
-      String dType = this.dataType.toString();
-      headers.put(ZosmfCustomHeaders.X_IBM_DATA_TYPE.toString(), dType);
-      String urlPath = RESTFILES_DATASET_PATH + SLASH + joinDSN(memberName);
-      IZosmfResponse response;
-      if ("binary".equals(dType)) {
-            this.convert = false;
+        boolean convertContent = convertContent();
+        try (IZosmfResponse response = retrieveStream(memberName, convertContent)) {
+            Object content;
+            if (convertContent) {
+                content = response.getTextContent();
+            } else {
+                content = inputStreamToByteArray(response.getContentAsStream());
+            }
+            this.zosFileHandler.getZosManager().getMetricsRecorder().transferred(this.image.getImageID(), METRICS_API, ZosMetricsRecorder.DIRECTION_RECEIVED, content);
+            logger.trace("Content of data set " + quoted(joinDSN(memberName)) + " retrieved from  image " + this.image.getImageID());
+            return content;
+        } catch (ZosmfException e) {
+            throw new ZosDatasetException("Unable to retrieve content of data set " + quoted(joinDSN(memberName)) + logOnImage(), e);
         }
+    }
+
+    /**
+     * Request the content of the data set or member without reading it, the caller must close the response
+     * @param memberName the member name, or null
+     * @param convert convert the content
+     * @return the open response
+     * @throws ZosDatasetException
+     */
+    protected IZosmfResponse retrieveStream(String memberName, boolean convert) throws ZosDatasetException {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(ZosmfCustomHeaders.X_IBM_DATA_TYPE.toString(), this.dataType.toString());
+        String urlPath = RESTFILES_DATASET_PATH + SLASH + joinDSN(memberName);
+        IZosmfResponse response;
         try {
-            response = this.zosmfApiProcessor.sendRequest(ZosmfRequestType.GET, urlPath, headers, null,
-                    new ArrayList<>(Arrays.asList(HttpStatus.SC_OK, HttpStatus.SC_BAD_REQUEST, HttpStatus.SC_NOT_FOUND, HttpStatus.SC_INTERNAL_SERVER_ERROR)), this.convert);
+            response = this.zosmfApiProcessor.sendRequest(ZosmfRequestType.GET_STREAM, urlPath, headers, null,
+                    new ArrayList<>(Arrays.asList(HttpStatus.SC_OK, HttpStatus.SC_BAD_REQUEST, HttpStatus.SC_NOT_FOUND, HttpStatus.SC_INTERNAL_SERVER_ERROR)), convert);
         } catch (ZosmfException e) {
             throw new ZosDatasetException(e);
         }
   
-        Object content;
-        if (response.getStatusCode() == HttpStatus.SC_OK) {
-            try {
-                content = response.getContent();
-            } catch (ZosmfException e) {
-                throw new ZosDatasetException("Unable to retrieve content of data set " + quoted(joinDSN(memberName)) + logOnImage(), e);
-            }
-        } else {            
+        if (response.getStatusCode() != HttpStatus.SC_OK) {
             JsonObject responseBody;
             try {
                 responseBody = response.getJsonContent();
             } catch (ZosmfException e) {
                 throw new ZosDatasetException("Unable to retrieve content of data set " + quoted(joinDSN(memberName)) + logOnImage(), e);
+            } finally {
+                response.close();
             }
             logger.trace(responseBody);    
             // Error case - BAD_REQUEST or INTERNAL_SERVER_ERROR
@@ -1063,9 +1117,42 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
             logger.error(displayMessage);
             throw new ZosDatasetException(displayMessage);
         }
-    
-        logger.trace("Content of data set " + quoted(joinDSN(memberName)) + " retrieved from  image " + this.image.getImageID());
-        return content;
+        return response;
+    }
+
+    /**
+     * Binary data sets are never converted. Worked out on each request as members are transferred at the same time
+     * @return true if the content should be converted
+     */
+    protected boolean convertContent() {
+        return this.convert && !"binary".equals(this.dataType.toString());
+    }
+
+    /**
+     * Stream the content of the data set or member into the results archive without holding it in memory
+     * @param artifactPath the artifact to create
+     * @param memberName the member name, or null
+     * @throws ZosDatasetException
+     */
+    protected void archiveContent(Path artifactPath, String memberName) throws ZosDatasetException {
+        try (IZosmfResponse response = retrieveStream(memberName, convertContent())) {
+            this.zosFileHandler.getZosManager().storeArtifact(artifactPath, response.getContentAsStream(), ResultArchiveStoreContentType.TEXT);
+        } catch (ZosmfException e) {
+            throw new ZosDatasetException("Unable to retrieve content of data set " + quoted(joinDSN(memberName)) + logOnImage(), e);
+        } catch (ZosManagerException e) {
+            throw new ZosDatasetException(e);
+        }
+    }
+
+    /**
+     * Return the member transfer shared by every data set on the image
+     */
+    protected ZosDatasetMemberTransfer getMemberTransfer() throws ZosDatasetException {
+        try {
+            return this.zosFileHandler.getZosFileManager().getMemberTransfer(this.image);
+        } catch (ZosFileManagerException e) {
+            throw new ZosDatasetException(e);
+        }
     }
 
     protected byte[] inputStreamToByteArray(InputStream in) throws ZosDatasetException {
@@ -1088,6 +1175,13 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
         if (!exists()) {
             throw new ZosDatasetException(LOG_DATA_SET + quoted(this.dsname) + LOG_DOES_NOT_EXIST + logOnImage());
         }
+        writeText(content, memberName, convert);
+    }
+
+    /**
+     * Write the content without first checking the data set exists
+     */
+    protected void writeText(String content, String memberName, boolean convert) throws ZosDatasetException {
         Map<String, String> headers = new HashMap<>();
         headers.put(ZosmfCustomHeaders.X_IBM_DATA_TYPE.toString(), getDataType().toString());
     
@@ -1098,6 +1192,8 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
                     new ArrayList<>(Arrays.asList(HttpStatus.SC_NO_CONTENT, HttpStatus.SC_CREATED, HttpStatus.SC_BAD_REQUEST, HttpStatus.SC_INTERNAL_SERVER_ERROR)), convert);
         } catch (ZosmfException e) {
             throw new ZosDatasetException(e);
+        } finally {
+            invalidateAttributes();
         }
         
         if (response.getStatusCode() != HttpStatus.SC_NO_CONTENT && response.getStatusCode() != HttpStatus.SC_CREATED) {
@@ -1114,6 +1210,7 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
             throw new ZosDatasetException(displayMessage);
         }
     
+        this.zosFileHandler.getZosManager().getMetricsRecorder().transferred(this.image.getImageID(), METRICS_API, ZosMetricsRecorder.DIRECTION_SENT, content);
         logger.trace(LOG_DATA_SET + quoted(joinDSN(memberName)) + " updated" + logOnImage());
     }
 
@@ -1122,18 +1219,16 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
         try {
         	this.zosFileHandler.getZosManager().createArtifactDirectory(artifactPath);
             Collection<String> memberList = memberList();
-            Iterator<String> memberListIterator = memberList.iterator();
-        
-        	while (memberListIterator.hasNext()) {
-        		String memberName = memberListIterator.next();
-        		String fileName = this.zosFileHandler.getZosManager().buildUniquePathName(artifactPath, memberName);
-        		if (this.dataType.equals(DatasetDataType.TEXT)) {
-        			this.zosFileHandler.getZosManager().storeArtifact(artifactPath.resolve(fileName), memberRetrieveAsText(memberName), ResultArchiveStoreContentType.TEXT);
-        		} else {
-        			this.zosFileHandler.getZosManager().storeArtifact(artifactPath.resolve(fileName), new String(memberRetrieveAsBinary(memberName)), ResultArchiveStoreContentType.TEXT);
-        		}
-            	logger.info(quoted(joinDSN(memberName)) + LOG_ARCHIVED_TO + artifactPath.resolve(fileName));
-        	}
+            // *** Name every artifact before the members are archived at the same time
+            Map<String, Path> memberPaths = new HashMap<>();
+            for (String memberName : memberList) {
+                memberPaths.put(memberName, artifactPath.resolve(this.zosFileHandler.getZosManager().buildUniquePathName(artifactPath, memberName)));
+            }
+            getMemberTransfer().transferMembers(this, memberList, memberName -> {
+                archiveContent(memberPaths.get(memberName), memberName);
+                logger.info(quoted(joinDSN(memberName)) + LOG_ARCHIVED_TO + memberPaths.get(memberName));
+                return null;
+            });
 		} catch (ZosManagerException e) {
 			throw new ZosDatasetException(e);
 		}
@@ -1143,6 +1238,13 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
         if (!exists()) {
             throw new ZosDatasetException(LOG_DATA_SET + quoted(this.dsname) + LOG_DOES_NOT_EXIST + logOnImage());
         }
+        writeBinary(content, memberName, convert);
+    }
+
+    /**
+     * Write the content without first checking the data set exists
+     */
+    protected void writeBinary(byte[] content, String memberName, boolean convert) throws ZosDatasetException {
         Map<String, String> headers = new HashMap<>();
         headers.put(ZosmfCustomHeaders.X_IBM_DATA_TYPE.toString(), getDataType().toString());
     
@@ -1153,6 +1255,8 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
                     new ArrayList<>(Arrays.asList(HttpStatus.SC_NO_CONTENT, HttpStatus.SC_CREATED, HttpStatus.SC_BAD_REQUEST, HttpStatus.SC_INTERNAL_SERVER_ERROR)), convert);
         } catch (ZosmfException e) {
             throw new ZosDatasetException(e);
+        } finally {
+            invalidateAttributes();
         }
         
         if (response.getStatusCode() != HttpStatus.SC_NO_CONTENT && response.getStatusCode() != HttpStatus.SC_CREATED) {
@@ -1169,6 +1273,7 @@ public class ZosmfZosDatasetImpl implements IZosDataset {
             throw new ZosDatasetException(displayMessage);
         }
     
+        this.zosFileHandler.getZosManager().getMetricsRecorder().transferred(this.image.getImageID(), METRICS_API, ZosMetricsRecorder.DIRECTION_SENT, content);
         logger.trace(LOG_DATA_SET + quoted(joinDSN(memberName)) + " updated" + logOnImage());
     }
 
@@ -28,6 +28,7 @@ import com.google.gson.JsonObject;
 
 import dev.galasa.ResultArchiveStoreContentType;
 import dev.galasa.zos.IZosImage;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
 import dev.galasa.zosfile.IZosUNIXFile;
 import dev.galasa.zosfile.ZosFileManagerException;
 import dev.galasa.zosfile.ZosUNIXFileException;
@@ -110,6 +111,8 @@ public class ZosmfZosUNIXFileImpl implements IZosUNIXFile {
 
     private static final Log logger = LogFactory.getLog(ZosmfZosUNIXFileImpl.class);
 
+    private static final String METRICS_API = "zosmf";
+
     public ZosmfZosUNIXFileImpl(ZosmfZosFileHandlerImpl zosFileHandler, IZosImage image, String unixPath) throws ZosUNIXFileException {
         if (!unixPath.startsWith(SLASH)) {
             throw new ZosUNIXFileException(LOG_UNIX_PATH + "must be absolute not be relative");
@@ -215,6 +218,7 @@ public class ZosmfZosUNIXFileImpl implements IZosUNIXFile {
             throw new ZosUNIXFileException(displayMessage);
         }
     
+        this.zosFileHandler.getZosManager().getMetricsRecorder().transferred(this.image.getImageID(), METRICS_API, ZosMetricsRecorder.DIRECTION_SENT, content);
         logger.trace(LOG_UNIX_PATH + quoted(this.directoryPath) + " updated" + logOnImage());
         
     }
@@ -547,6 +551,7 @@ public class ZosmfZosUNIXFileImpl implements IZosUNIXFile {
             throw new ZosUNIXFileException(displayMessage);
         }
     
+        this.zosFileHandler.getZosManager().getMetricsRecorder().transferred(this.image.getImageID(), METRICS_API, ZosMetricsRecorder.DIRECTION_RECEIVED, content);
         logger.trace("Content of " + LOG_UNIX_PATH + quoted(path) + " retrieved from  image " + this.image.getImageID());
         return content;
     }
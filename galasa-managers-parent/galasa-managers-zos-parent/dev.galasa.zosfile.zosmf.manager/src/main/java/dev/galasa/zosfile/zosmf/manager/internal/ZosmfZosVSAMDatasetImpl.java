@@ -949,6 +949,9 @@ public class ZosmfZosVSAMDatasetImpl implements IZosVSAMDataset {
                     new ArrayList<>(Arrays.asList(HttpStatus.SC_OK, HttpStatus.SC_BAD_REQUEST, HttpStatus.SC_INTERNAL_SERVER_ERROR)), true);
         } catch (ZosmfException e) {
             throw new ZosVSAMDatasetException(e);
+        } finally {
+            // *** IDCAMS may have defined or deleted the data set
+            this.zosDataset.invalidateAttributes();
         }           
         JsonObject responseBody;
         try {
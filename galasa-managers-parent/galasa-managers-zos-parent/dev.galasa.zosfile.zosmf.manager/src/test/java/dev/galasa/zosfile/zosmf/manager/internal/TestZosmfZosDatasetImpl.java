@@ -7,13 +7,17 @@ package dev.galasa.zosfile.zosmf.manager.internal;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.FileSystem;
 import java.nio.file.Path;
 import java.nio.file.spi.FileSystemProvider;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.commons.logging.Log;
@@ -40,6 +44,7 @@ import com.google.gson.JsonPrimitive;
 import dev.galasa.zos.IZosImage;
 import dev.galasa.zos.ZosManagerException;
 import dev.galasa.zos.internal.ZosManagerImpl;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
 import dev.galasa.zosfile.IZosDataset.DSType;
 import dev.galasa.zosfile.IZosDataset.DatasetDataType;
 import dev.galasa.zosfile.IZosDataset.DatasetOrganization;
@@ -47,6 +52,9 @@ import dev.galasa.zosfile.IZosDataset.RecordFormat;
 import dev.galasa.zosfile.IZosDataset.SpaceUnit;
 import dev.galasa.zosfile.ZosDatasetException;
 import dev.galasa.zosfile.ZosFileManagerException;
+import dev.galasa.zosfile.spi.ZosDatasetAttributeCache;
+import dev.galasa.zosfile.spi.ZosDatasetMemberTransfer;
+import dev.galasa.zosmf.IZosmf.ZosmfCustomHeaders;
 import dev.galasa.zosmf.IZosmf.ZosmfRequestType;
 import dev.galasa.zosmf.IZosmfResponse;
 import dev.galasa.zosmf.IZosmfRestApiProcessor;
@@ -134,6 +142,7 @@ public class TestZosmfZosDatasetImpl {
         PowerMockito.doReturn(zosmfApiProcessorMock).when(zosmfManagerMock).newZosmfRestApiProcessor(Mockito.any(), Mockito.anyBoolean());
         Mockito.when(zosFileHandlerMock.getZosmfManager()).thenReturn(zosmfManagerMock);
         Mockito.when(zosFileHandlerMock.getZosManager()).thenReturn(zosManagerMock);
+        Mockito.when(zosManagerMock.getMetricsRecorder()).thenReturn(new ZosMetricsRecorder());
 
     	Path pathMock = Mockito.mock(Path.class);
     	Mockito.doReturn(pathMock).when(pathMock).resolve(Mockito.anyString());
@@ -142,6 +151,8 @@ public class TestZosmfZosDatasetImpl {
     	Mockito.when(zosFileManagerMock.getDatasetCurrentTestMethodArchiveFolder()).thenReturn(pathMock);
 
         Mockito.when(zosFileHandlerMock.getZosFileManager()).thenReturn(zosFileManagerMock);
+        Mockito.when(zosFileManagerMock.getDatasetAttributeCache(Mockito.any())).thenReturn(new ZosDatasetAttributeCache(0));
+        Mockito.when(zosFileManagerMock.getMemberTransfer(Mockito.any())).thenReturn(new ZosDatasetMemberTransfer(IMAGE, 1));
         zosDataset = new ZosmfZosDatasetImpl(zosFileHandlerMock, zosImageMock, DATASET_NAME);
         zosDatasetSpy = Mockito.spy(zosDataset);
     }
@@ -304,6 +315,7 @@ public class TestZosmfZosDatasetImpl {
         Mockito.when(zosmfResponseMock.getJsonContent()).thenReturn(jsonObject);
         
         Assert.assertTrue("exists() should return true", zosDatasetSpy.exists());
+        Mockito.verify(zosmfApiProcessorMock).sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.argThat((Map<String, String> headers) -> !headers.containsKey(ZosmfCustomHeaders.X_IBM_ATTRIBUTES.toString())), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
         
         jsonObject.add("items", getJsonArray("ANOTHER.DATASET.NAME", null, 1, 0));
         Mockito.when(zosmfResponseMock.getJsonContent()).thenReturn(jsonObject);
@@ -316,6 +328,23 @@ public class TestZosmfZosDatasetImpl {
         Assert.assertFalse("exists() should return false", zosDatasetSpy.exists());
     }
 
+    @Test
+    public void testExistsAttributeCache() throws ZosDatasetException, ZosmfException {
+        Whitebox.setInternalState(zosDatasetSpy, "attributeCache", new ZosDatasetAttributeCache(30));
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMock);
+        Mockito.when(zosmfResponseMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
+        Mockito.when(zosmfResponseMock.getJsonContent()).thenReturn(getJsonObject());
+        
+        Assert.assertTrue("exists() should return true", zosDatasetSpy.exists());
+        Assert.assertTrue("exists() should return true", zosDatasetSpy.exists());
+        Assert.assertEquals("getAttibutes() should return the cached attributes", DATASET_NAME, zosDatasetSpy.getAttibutes().get("dsname").getAsString());
+        Mockito.verify(zosmfApiProcessorMock, Mockito.times(2)).sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.argThat((Map<String, String> headers) -> "base".equals(headers.get(ZosmfCustomHeaders.X_IBM_ATTRIBUTES.toString()))), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+        
+        zosDatasetSpy.invalidateAttributes();
+        Assert.assertTrue("exists() should return true", zosDatasetSpy.exists());
+        Mockito.verify(zosmfApiProcessorMock, Mockito.times(3)).sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+    }
+
     @Test
     public void testExistsZosmfException() throws ZosDatasetException, ZosmfException {
         Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenThrow(new ZosmfException(EXCEPTION));
@@ -437,15 +466,15 @@ public class TestZosmfZosDatasetImpl {
         Path pathMock = newMockedPath(false);
         Mockito.when(zosFileManagerMock.getDatasetCurrentTestMethodArchiveFolder()).thenReturn(pathMock);
         Mockito.when(zosFileHandlerMock.getArtifactsRoot()).thenReturn(pathMock);
-        PowerMockito.doReturn(CONTENT).when(zosDatasetSpy).retrieveAsText();
-        PowerMockito.doReturn(CONTENT.getBytes()).when(zosDatasetSpy).retrieveAsBinary();
-        PowerMockito.doReturn(CONTENT).when(zosDatasetSpy).memberRetrieveAsText(Mockito.any());
-        PowerMockito.doReturn(CONTENT.getBytes()).when(zosDatasetSpy).memberRetrieveAsBinary(Mockito.any());
+        PowerMockito.doReturn(zosmfResponseMock).when(zosDatasetSpy).retrieveStream(Mockito.any(), Mockito.anyBoolean());
+        Mockito.when(zosmfResponseMock.getContentAsStream()).thenReturn(new ByteArrayInputStream(CONTENT.getBytes()));
         
         logMessage = null;
         String expectedMessage = "Archiving \"" + DATASET_NAME + "\"" + " to " + PATH_MOCK;
         zosDatasetSpy.saveToResultsArchive(RAS_PATH);
 		Assert.assertEquals("saveToResultsArchive() should log specified message", expectedMessage, logMessage);
+        Mockito.verify(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(InputStream.class), Mockito.any());
+        Mockito.verify(zosmfResponseMock).close();
 
         Whitebox.setInternalState(zosDatasetSpy, "dataType", DatasetDataType.BINARY);
         logMessage = null;
@@ -474,7 +503,7 @@ public class TestZosmfZosDatasetImpl {
         
         PowerMockito.doReturn(true).when(zosDatasetSpy).exists();
         PowerMockito.doReturn(false).when(zosDatasetSpy).isPDS();
-        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(), Mockito.any());
+        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(InputStream.class), Mockito.any());
         zosDatasetSpy.saveToResultsArchive(RAS_PATH);
         Assert.assertEquals("saveToResultsArchive() should log specified message", expectedMessage, logMessage);
     }
@@ -486,8 +515,8 @@ public class TestZosmfZosDatasetImpl {
         Path pathMock = newMockedPath(false);
         Mockito.when(zosFileManagerMock.getDatasetCurrentTestMethodArchiveFolder()).thenReturn(pathMock);
         Mockito.when(zosFileHandlerMock.getArtifactsRoot()).thenReturn(pathMock);
-        PowerMockito.doReturn(CONTENT).when(zosDatasetSpy).memberRetrieveAsText(Mockito.any());
-        PowerMockito.doReturn(CONTENT.getBytes()).when(zosDatasetSpy).memberRetrieveAsBinary(Mockito.any());
+        PowerMockito.doReturn(zosmfResponseMock).when(zosDatasetSpy).retrieveStream(Mockito.any(), Mockito.anyBoolean());
+        Mockito.when(zosmfResponseMock.getContentAsStream()).thenReturn(new ByteArrayInputStream(CONTENT.getBytes()));
         
         Whitebox.setInternalState(zosDatasetSpy, "dataType", DatasetDataType.TEXT);
         Collection<String> datasetMembers = new ArrayList<>();
@@ -498,7 +527,6 @@ public class TestZosmfZosDatasetImpl {
 		Assert.assertEquals("savePDSToResultsArchive() should log specified message", expectedMessage, logMessage);
 		
         datasetMembers.add(MEMBER_NAME);
-        PowerMockito.doReturn(CONTENT).when(zosDatasetSpy).retrieve(Mockito.any());
         logMessage = null;
         expectedMessage = "\"" + DATASET_NAME + "(" + MEMBER_NAME + ")\" archived to " + PATH_MOCK;
         zosDatasetSpy.savePDSToResultsArchive(RAS_PATH);
@@ -509,7 +537,7 @@ public class TestZosmfZosDatasetImpl {
         zosDatasetSpy.savePDSToResultsArchive(RAS_PATH);
 		Assert.assertEquals("savePDSToResultsArchive() should log specified message", expectedMessage, logMessage);
 		
-		PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(), Mockito.any());
+		PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(InputStream.class), Mockito.any());
         ZosFileManagerException expectedException = Assert.assertThrows("expected exception should be thrown", ZosFileManagerException.class, ()->{
         	zosDatasetSpy.savePDSToResultsArchive(RAS_PATH);
         });
@@ -836,6 +864,80 @@ public class TestZosmfZosDatasetImpl {
         });
     	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
     }     
+
+    @Test
+    public void testMembersStoreText() throws ZosFileManagerException {
+        PowerMockito.doReturn(true).when(zosDatasetSpy).exists();
+        PowerMockito.doReturn(true).when(zosDatasetSpy).isPDS();
+        PowerMockito.doNothing().when(zosDatasetSpy).writeText(Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+        PowerMockito.doNothing().when(zosDatasetSpy).writeBinary(Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+        ZosDatasetMemberTransfer memberTransfer = new ZosDatasetMemberTransfer(IMAGE, 2);
+        Mockito.when(zosFileManagerMock.getMemberTransfer(Mockito.any())).thenReturn(memberTransfer);
+        try {
+            Map<String, String> members = new LinkedHashMap<>();
+            members.put(MEMBER_NAME, CONTENT);
+            members.put(MEMBER_NAME + "2", CONTENT);
+            zosDatasetSpy.membersStoreText(members);
+            Mockito.verify(zosDatasetSpy, Mockito.times(2)).writeText(Mockito.eq(CONTENT), Mockito.any(), Mockito.eq(true));
+            
+            Map<String, byte[]> binaryMembers = new LinkedHashMap<>();
+            binaryMembers.put(MEMBER_NAME, CONTENT.getBytes());
+            binaryMembers.put(MEMBER_NAME + "2", CONTENT.getBytes());
+            zosDatasetSpy.membersStoreBinary(binaryMembers);
+            Mockito.verify(zosDatasetSpy, Mockito.times(2)).writeBinary(Mockito.any(), Mockito.any(), Mockito.eq(false));
+            Mockito.verify(zosDatasetSpy, Mockito.times(2)).exists();
+            
+            PowerMockito.doThrow(new ZosDatasetException(EXCEPTION)).when(zosDatasetSpy).writeText(Mockito.any(), Mockito.eq(MEMBER_NAME + "2"), Mockito.anyBoolean());
+            ZosDatasetException expectedException = Assert.assertThrows("expected exception should be thrown", ZosDatasetException.class, ()->{
+                zosDatasetSpy.membersStoreText(members);
+            });
+            Assert.assertEquals("exception should contain expected message", EXCEPTION, expectedException.getMessage());
+            
+            PowerMockito.doReturn(false).when(zosDatasetSpy).isPDS();
+            expectedException = Assert.assertThrows("expected exception should be thrown", ZosDatasetException.class, ()->{
+                zosDatasetSpy.membersStoreText(members);
+            });
+            Assert.assertEquals("exception should contain expected message", "Data set \"" + DATASET_NAME + "\" is not a partitioned data set", expectedException.getMessage());
+            
+            NullPointerException expectedNullException = Assert.assertThrows("expected exception should be thrown", NullPointerException.class, ()->{
+                zosDatasetSpy.membersStoreText(null);
+            });
+            Assert.assertEquals("exception should contain expected message", "members must not be null", expectedNullException.getMessage());
+        } finally {
+            memberTransfer.shutdown();
+        }
+    }
+
+    @Test
+    public void testMembersRetrieveAsText() throws ZosFileManagerException {
+        PowerMockito.doReturn(true).when(zosDatasetSpy).exists();
+        PowerMockito.doReturn(true).when(zosDatasetSpy).isPDS();
+        PowerMockito.doReturn(CONTENT).when(zosDatasetSpy).retrieve(Mockito.any());
+        ZosDatasetMemberTransfer memberTransfer = new ZosDatasetMemberTransfer(IMAGE, 2);
+        Mockito.when(zosFileManagerMock.getMemberTransfer(Mockito.any())).thenReturn(memberTransfer);
+        try {
+            Map<String, String> members = zosDatasetSpy.membersRetrieveAsText(Arrays.asList(MEMBER_NAME + "2", MEMBER_NAME));
+            Assert.assertEquals("membersRetrieveAsText() should return the members in order", Arrays.asList(MEMBER_NAME + "2", MEMBER_NAME), new ArrayList<>(members.keySet()));
+            Assert.assertEquals("membersRetrieveAsText() should return the supplied value", CONTENT, members.get(MEMBER_NAME));
+            
+            Map<String, byte[]> binaryMembers = zosDatasetSpy.membersRetrieveAsBinary(Arrays.asList(MEMBER_NAME));
+            Assert.assertEquals("membersRetrieveAsBinary() should return the supplied value", CONTENT, new String(binaryMembers.get(MEMBER_NAME)));
+            
+            PowerMockito.doThrow(new ZosDatasetException(EXCEPTION)).when(zosDatasetSpy).retrieve(Mockito.any());
+            ZosDatasetException expectedException = Assert.assertThrows("expected exception should be thrown", ZosDatasetException.class, ()->{
+                zosDatasetSpy.membersRetrieveAsBinary(Arrays.asList(MEMBER_NAME, MEMBER_NAME + "2"));
+            });
+            Assert.assertEquals("exception should contain expected message", EXCEPTION, expectedException.getMessage());
+            
+            PowerMockito.doReturn(false).when(zosDatasetSpy).exists();
+            expectedException = Assert.assertThrows("expected exception should be thrown", ZosDatasetException.class, ()->{
+                zosDatasetSpy.membersRetrieveAsText(Arrays.asList(MEMBER_NAME));
+            });
+            Assert.assertEquals("exception should contain expected message", "Data set \"" + DATASET_NAME + "\" does not exist on image " + IMAGE, expectedException.getMessage());
+        } finally {
+            memberTransfer.shutdown();
+        }
+    }
     
     @Test
     public void testMemberList() throws ZosDatasetException, ZosmfException {
@@ -921,8 +1023,8 @@ public class TestZosmfZosDatasetImpl {
         Path pathMock = newMockedPath(false);
         Mockito.when(zosFileManagerMock.getDatasetCurrentTestMethodArchiveFolder()).thenReturn(pathMock);
         Mockito.when(zosFileHandlerMock.getArtifactsRoot()).thenReturn(pathMock);
-        PowerMockito.doReturn(CONTENT).when(zosDatasetSpy).memberRetrieveAsText(Mockito.any());
-        PowerMockito.doReturn(CONTENT.getBytes()).when(zosDatasetSpy).memberRetrieveAsBinary(Mockito.any());
+        PowerMockito.doReturn(zosmfResponseMock).when(zosDatasetSpy).retrieveStream(Mockito.any(), Mockito.anyBoolean());
+        Mockito.when(zosmfResponseMock.getContentAsStream()).thenReturn(new ByteArrayInputStream(CONTENT.getBytes()));
         Whitebox.setInternalState(zosDatasetSpy, "dataType", DatasetDataType.TEXT);
         
         logMessage = null;
@@ -935,7 +1037,7 @@ public class TestZosmfZosDatasetImpl {
         zosDatasetSpy.memberSaveToResultsArchive(MEMBER_NAME, RAS_PATH);
         Assert.assertEquals("memberSaveToTestArchive() should log specified message", expectedMessage, logMessage);
 
-        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(), Mockito.any());
+        PowerMockito.doThrow(new ZosManagerException(EXCEPTION)).when(zosManagerMock).storeArtifact(Mockito.any(), Mockito.any(InputStream.class), Mockito.any());
         logMessage = null;
         expectedMessage = "Unable to save data set member to archive";
         zosDatasetSpy.memberSaveToResultsArchive(MEMBER_NAME, RAS_PATH);
@@ -1345,20 +1447,22 @@ public class TestZosmfZosDatasetImpl {
     @Test
     public void testInternalRetrieve() throws ZosDatasetException, ZosmfException {
         PowerMockito.doReturn(true).when(zosDatasetSpy).exists();
-        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMock);
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET_STREAM), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMock);
         Mockito.when(zosmfResponseMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
-        Mockito.when(zosmfResponseMock.getContent()).thenReturn(CONTENT);
+        Mockito.when(zosmfResponseMock.getTextContent()).thenReturn(CONTENT);
+        Mockito.when(zosmfResponseMock.getContentAsStream()).thenReturn(new ByteArrayInputStream(CONTENT.getBytes()));
         
         Assert.assertEquals("retrieve() should return the supplied value", CONTENT, zosDatasetSpy.retrieve(null));
 
         zosDatasetSpy.setDataType(DatasetDataType.BINARY);
-        Assert.assertEquals("retrieve() should return the supplied value", CONTENT, zosDatasetSpy.retrieve(null));
+        Assert.assertArrayEquals("retrieve() should return the supplied value", CONTENT.getBytes(), (byte[]) zosDatasetSpy.retrieve(null));
+        Mockito.verify(zosmfResponseMock, Mockito.times(2)).close();
     }
     
     @Test
     public void testInternalRetrieveZosmfException() throws ZosDatasetException, ZosmfException {
         PowerMockito.doReturn(true).when(zosDatasetSpy).exists();
-        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenThrow(new ZosmfException(EXCEPTION));
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET_STREAM), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenThrow(new ZosmfException(EXCEPTION));
 
         ZosDatasetException expectedException = Assert.assertThrows("expected exception should be thrown", ZosDatasetException.class, ()->{
         	zosDatasetSpy.retrieve(null);
@@ -1369,7 +1473,7 @@ public class TestZosmfZosDatasetImpl {
     @Test
     public void testInternalRetrieveBadHttpResponseException() throws ZosDatasetException, ZosmfException {
         PowerMockito.doReturn(true).when(zosDatasetSpy).exists();
-        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMock);
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET_STREAM), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMock);
         Mockito.when(zosmfResponseMock.getStatusCode()).thenReturn(HttpStatus.SC_NOT_FOUND);
         Mockito.when(zosmfResponseMock.getJsonContent()).thenReturn(getJsonObject());
         PowerMockito.doReturn(ERROR).when(zosDatasetSpy).buildErrorString(Mockito.anyString(), Mockito.any());
@@ -1383,7 +1487,7 @@ public class TestZosmfZosDatasetImpl {
     @Test
     public void testInternalRetrieveBadHttpResponseException1() throws ZosDatasetException, ZosmfException {
         PowerMockito.doReturn(true).when(zosDatasetSpy).exists();
-        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMock);
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET_STREAM), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMock);
         Mockito.when(zosmfResponseMock.getStatusCode()).thenReturn(HttpStatus.SC_NOT_FOUND);
         Mockito.when(zosmfResponseMock.getJsonContent()).thenThrow(new ZosmfException(EXCEPTION));
 
@@ -1397,8 +1501,8 @@ public class TestZosmfZosDatasetImpl {
     @Test
     public void testInternalRetrieveZosmfResponseException() throws ZosDatasetException, ZosmfException {
         PowerMockito.doReturn(true).when(zosDatasetSpy).exists();
-        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMock);
-        Mockito.when(zosmfResponseMock.getContent()).thenThrow(new ZosmfException(EXCEPTION));
+        Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.GET_STREAM), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMock);
+        Mockito.when(zosmfResponseMock.getTextContent()).thenThrow(new ZosmfException(EXCEPTION));
         
         Mockito.when(zosmfApiProcessorMock.sendRequest(Mockito.eq(ZosmfRequestType.PUT_JSON), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMock);
         Mockito.when(zosmfResponseMock.getJsonContent()).thenReturn(getJsonObject());
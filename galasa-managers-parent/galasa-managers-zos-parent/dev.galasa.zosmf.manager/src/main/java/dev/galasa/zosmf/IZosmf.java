@@ -6,6 +6,7 @@
 package dev.galasa.zosmf;
 
 import java.util.List;
+import java.util.Map;
 
 import javax.validation.constraints.NotNull;
 
@@ -18,6 +19,10 @@ import dev.galasa.zos.IZosImage;
 /**
  * 
  * Represents a zOSMF server
+ * <p>
+ * A zOSMF server can be used by many threads at once. Threads sharing a server should pass the headers
+ * of each request on the request itself, rather than set them with {@link #setHeader(String, String)}.
+ * </p>
  */
 public interface IZosmf {
     
@@ -26,6 +31,7 @@ public interface IZosmf {
      * <li>{@link #POST}</li>
      * <li>{@link #POST_JSON}</li>
      * <li>{@link #GET}</li>
+     * <li>{@link #GET_STREAM}</li>
      * <li>{@link #PUT}</li>
      * <li>{@link #PUT_TEXT}</li>
      * <li>{@link #PUT_JSON}</li>
@@ -44,6 +50,10 @@ public interface IZosmf {
          * GET method with no request body
          */
         GET,
+        /**
+         * GET method with no request body, the response content is streamed
+         */
+        GET_STREAM,
         /**
          * PUT method with no request body
          */
@@ -132,7 +142,8 @@ public interface IZosmf {
     }
     
     /**
-     * Set an HTTP Header for the pending zOSMF request
+     * Set an HTTP Header for the pending zOSMF requests. Requests that are passed their headers do not use
+     * the headers set by this method
      * 
      * @param name header name
      * @param value header value 
@@ -156,6 +167,32 @@ public interface IZosmf {
      */
     public @NotNull IZosmfResponse get(String path, List<Integer> validStatusCodes, boolean convert) throws ZosmfException;
 
+    /**
+     * Issue an HTTP GET request to the zOSMF server with no request body and the supplied HTTP headers
+     * 
+     * @param path identifies the zOSMF REST API
+     * @param headers the HTTP headers for this request only, or null
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus.HttpStatus.SC_OK} when null
+     * @param convert is a data conversion required. If true, data will be converted betwen EBCDIC to ISO8859-1. If false, no data conversion will take place.
+     * @return the zOSMF server response
+     * @throws ZosmfException
+     */
+    public @NotNull IZosmfResponse get(String path, Map<String, String> headers, List<Integer> validStatusCodes, boolean convert) throws ZosmfException;
+    
+    /**
+     * Issue an HTTP GET request to the zOSMF server with no request body, returning before the response content 
+     * is read. The content is read with {@link IZosmfResponse#getContentAsStream()}, {@link IZosmfResponse#getContentAsReader()}
+     * or {@link IZosmfResponse#getContentAsRecords()}, and the response must be closed
+     * 
+     * @param path identifies the zOSMF REST API
+     * @param headers the HTTP headers for this request only, or null
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus.HttpStatus.SC_OK} when null
+     * @param convert is a data conversion required. If true, data will be converted betwen EBCDIC to ISO8859-1. If false, no data conversion will take place.
+     * @return the zOSMF server response
+     * @throws ZosmfException
+     */
+    public @NotNull IZosmfResponse getStream(String path, Map<String, String> headers, List<Integer> validStatusCodes, boolean convert) throws ZosmfException;
+
     /**
      * Issue an HTTP POST request to the zOSMF server with a request body of content type of {@code application/json}
      * 
@@ -167,6 +204,18 @@ public interface IZosmf {
      */
     public @NotNull IZosmfResponse postJson(String path, JsonObject requestBody, List<Integer> validStatusCodes) throws ZosmfException;
 
+    /**
+     * Issue an HTTP POST request to the zOSMF server with a request body of content type of {@code application/json} and the supplied HTTP headers
+     * 
+     * @param path identifies the zOSMF REST API
+     * @param requestBody the request body
+     * @param headers the HTTP headers for this request only, or null
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus.HttpStatus.SC_OK} when null
+     * @return the zOSMF server response
+     * @throws ZosmfException
+     */
+    public @NotNull IZosmfResponse postJson(String path, JsonObject requestBody, Map<String, String> headers, List<Integer> validStatusCodes) throws ZosmfException;
+
     /**
      * Issue an HTTP PUT request to the zOSMF server with a request body of content type of {@code text/plain}
      * 
@@ -178,6 +227,18 @@ public interface IZosmf {
      */
     public @NotNull IZosmfResponse putText(String path, String requestBody, List<Integer> validStatusCodes) throws ZosmfException;
 
+    /**
+     * Issue an HTTP PUT request to the zOSMF server with a request body of content type of {@code text/plain} and the supplied HTTP headers
+     * 
+     * @param path identifies the zOSMF REST API
+     * @param requestBody the request body
+     * @param headers the HTTP headers for this request only, or null
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus.SC_OK} when null
+     * @return the zOSMF server response
+     * @throws ZosmfException
+     */
+    public @NotNull IZosmfResponse putText(String path, String requestBody, Map<String, String> headers, List<Integer> validStatusCodes) throws ZosmfException;
+
     /**
      * Issue an HTTP PUT request to the zOSMF server with a request body of content type of {@code application/json}
      * 
@@ -189,6 +250,18 @@ public interface IZosmf {
      */
     public @NotNull IZosmfResponse putJson(String path, JsonObject body, List<Integer> validStatusCodes) throws ZosmfException;
 
+    /**
+     * Issue an HTTP PUT request to the zOSMF server with a request body of content type of {@code application/json} and the supplied HTTP headers
+     * 
+     * @param path identifies the zOSMF REST API
+     * @param body the request body
+     * @param headers the HTTP headers for this request only, or null
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus.HttpStatus.SC_OK} when null
+     * @return the zOSMF server response
+     * @throws ZosmfException
+     */
+    public @NotNull IZosmfResponse putJson(String path, JsonObject body, Map<String, String> headers, List<Integer> validStatusCodes) throws ZosmfException;
+
      /**
      * Issue an HTTP PUT request to the zOSMF server with a request body of content type of {@code text/plain}
      * 
@@ -200,6 +273,18 @@ public interface IZosmf {
      */
     public @NotNull IZosmfResponse putBinary(String path, byte[] body, List<Integer> validStatusCodes) throws ZosmfException;
 
+    /**
+     * Issue an HTTP PUT request to the zOSMF server with a binary request body and the supplied HTTP headers
+     * 
+     * @param path identifies the zOSMF REST API
+     * @param body the request body
+     * @param headers the HTTP headers for this request only, or null
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus.HttpStatus.SC_OK} when null
+     * @return the zOSMF server response
+     * @throws ZosmfException
+     */
+    public @NotNull IZosmfResponse putBinary(String path, byte[] body, Map<String, String> headers, List<Integer> validStatusCodes) throws ZosmfException;
+
     /**
      * Issue an HTTP DELETE request to the zOSMF server with no request body
      * 
@@ -209,6 +294,17 @@ public interface IZosmf {
      * @throws ZosmfException
      */
     public @NotNull IZosmfResponse delete(String path, List<Integer> validStatusCodes) throws ZosmfException;
+
+    /**
+     * Issue an HTTP DELETE request to the zOSMF server with no request body and the supplied HTTP headers
+     * 
+     * @param path identifies the zOSMF REST API
+     * @param headers the HTTP headers for this request only, or null
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus.HttpStatus.SC_OK} when null
+     * @return the zOSMF server response
+     * @throws ZosmfException
+     */
+    public @NotNull IZosmfResponse delete(String path, Map<String, String> headers, List<Integer> validStatusCodes) throws ZosmfException;
     
     /**
      * Return the JSON response from the zOSMF Server Information request
@@ -223,4 +319,10 @@ public interface IZosmf {
      * @return the zOS image
      */
     public IZosImage getImage();
+    
+    /**
+     * Get the response time, error rate and circuit breaker state of the zOSMF server
+     * @return the server statistics
+     */
+    public IZosmfServerStatistics getStatistics();
 }
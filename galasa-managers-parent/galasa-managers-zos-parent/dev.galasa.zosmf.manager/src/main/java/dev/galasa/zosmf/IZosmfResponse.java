@@ -5,16 +5,23 @@
  */
 package dev.galasa.zosmf;
 
+import java.io.InputStream;
+import java.io.Reader;
 import java.net.URL;
+import java.util.stream.Stream;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
 /**
  * Represents the response from a zOSMF server request
+ * <p>
+ * The content of a {@link IZosmf.ZosmfRequestType#GET_STREAM} request is not read until asked for, and the
+ * response must be closed to release the connection to the zOSMF server
+ * </p>
  *
  */
-public interface IZosmfResponse {
+public interface IZosmfResponse extends AutoCloseable {
 
     /**
      * Return the text content from the zOSMF request as text
@@ -47,6 +54,29 @@ public interface IZosmfResponse {
      */
     public Object getContent() throws ZosmfException;
 
+    /**
+     * Return the content from the zOSMF request as a stream of bytes, without reading it into memory
+     * @return the content
+     * @throws ZosmfException
+     */
+    public InputStream getContentAsStream() throws ZosmfException;
+
+    /**
+     * Return the content from the zOSMF request as a stream of characters, without reading it into memory.
+     * The charset of the response is used, or ISO-8859-1, the HTTP default, if the response does not have one
+     * @return the content
+     * @throws ZosmfException
+     */
+    public Reader getContentAsReader() throws ZosmfException;
+
+    /**
+     * Return the text content from the zOSMF request one record at a time, without reading it into memory.
+     * Closing the returned {@link Stream} closes the response
+     * @return the records
+     * @throws ZosmfException
+     */
+    public Stream<String> getContentAsRecords() throws ZosmfException;
+
     /**
      * Return the HTTP status code from the zOSMF request
      * @return the HTTP code
@@ -64,4 +94,10 @@ public interface IZosmfResponse {
      * @return the request URL
      */
     public URL getRequestUrl();
+
+    /**
+     * Release the connection to the zOSMF server held by a streamed response, any unread content is discarded
+     */
+    @Override
+    public void close();
 }
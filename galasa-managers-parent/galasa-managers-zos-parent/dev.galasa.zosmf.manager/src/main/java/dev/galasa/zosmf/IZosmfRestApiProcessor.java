@@ -28,4 +28,10 @@ public interface IZosmfRestApiProcessor {
      * @throws ZosBatchException
      */
     public @NotNull IZosmfResponse sendRequest(ZosmfRequestType requestType, String path, Map<String, String> headers, Object body, List<Integer> validStatusCodes, boolean convert) throws ZosmfException;
+    
+    /**
+     * Returns the response time, error rate and circuit breaker state of the zOSMF servers used by this processor
+     * @return the statistics by zOSMF server id
+     */
+    public Map<String, IZosmfServerStatistics> getServerStatistics();
 }
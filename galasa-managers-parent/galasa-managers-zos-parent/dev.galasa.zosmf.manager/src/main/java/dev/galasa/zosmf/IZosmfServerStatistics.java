@@ -0,0 +1,59 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosmf;
+
+/**
+ * The health of a zOSMF server, as seen by the requests sent to it.
+ * <p>
+ * The response time and error rate are exponentially weighted moving averages, so recent requests count
+ * for more than old ones. A server that fails repeatedly has its circuit opened, and is not sent requests
+ * until a single probe request succeeds after a backoff period.
+ * </p>
+ */
+public interface IZosmfServerStatistics {
+
+    /**
+     * The state of the circuit breaker of a zOSMF server
+     */
+    public enum CircuitState {
+        /** Requests are sent to the server */
+        CLOSED,
+        /** The server has failed repeatedly, requests are not sent until the backoff period has passed */
+        OPEN,
+        /** The backoff period has passed, a single probe request is sent to test the server */
+        HALF_OPEN;
+    }
+
+    /**
+     * @return the average response time in milliseconds
+     */
+    public double getAverageResponseTime();
+
+    /**
+     * @return the average error rate, between 0 and 1
+     */
+    public double getErrorRate();
+
+    /**
+     * @return the number of requests sent to the server
+     */
+    public long getRequestCount();
+
+    /**
+     * @return the number of requests that failed
+     */
+    public long getFailureCount();
+
+    /**
+     * @return the number of requests waiting for a response
+     */
+    public int getInFlightRequests();
+
+    /**
+     * @return the state of the circuit breaker
+     */
+    public CircuitState getCircuitState();
+}
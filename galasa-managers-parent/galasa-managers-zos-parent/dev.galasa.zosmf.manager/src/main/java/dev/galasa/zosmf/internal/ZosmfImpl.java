@@ -13,7 +13,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.validation.constraints.NotNull;
 
@@ -26,6 +28,7 @@ import com.google.gson.JsonObject;
 import dev.galasa.ICredentials;
 import dev.galasa.ICredentialsUsernamePassword;
 import dev.galasa.framework.spi.creds.CredentialsException;
+import dev.galasa.http.ContentType;
 import dev.galasa.http.HttpClientException;
 import dev.galasa.http.IHttpClient;
 import dev.galasa.zos.IZosImage;
@@ -35,6 +38,7 @@ import dev.galasa.zosmf.IZosmfResponse;
 import dev.galasa.zosmf.ZosmfException;
 import dev.galasa.zosmf.ZosmfManagerException;
 import dev.galasa.zosmf.internal.properties.Https;
+import dev.galasa.zosmf.internal.properties.MaxConnections;
 import dev.galasa.zosmf.internal.properties.RequestRetry;
 import dev.galasa.zosmf.internal.properties.ServerCreds;
 import dev.galasa.zosmf.internal.properties.ServerImage;
@@ -42,6 +46,11 @@ import dev.galasa.zosmf.internal.properties.ServerPort;
 
 /**
  * Implementation of {@link IZosmf}
+ * <p>
+ * The headers of each request are passed on that request only, so one instance
+ * can be used by many threads at once, sharing a pool of kept alive connections
+ * to the zOSMF server.
+ * </p>
  *
  */
 public class ZosmfImpl implements IZosmf {
@@ -57,7 +66,9 @@ public class ZosmfImpl implements IZosmf {
     private String zosmfUrl;
     protected int requestRetry;
 
-    private HashMap<String, String> commonHeaders = new HashMap<>();
+    private final Map<String, String> commonHeaders = new ConcurrentHashMap<>();
+
+    private final ZosmfServerHealth health = new ZosmfServerHealth();
 
 	private static final String PATH_SERVERDETAILS = "/zosmf/info";
 
@@ -87,30 +98,63 @@ public class ZosmfImpl implements IZosmf {
     @Override
     public void clearHeaders() {
         this.commonHeaders.clear();
-        this.httpClient.clearCommonHeaders();
     }
 
     @Override
     public @NotNull IZosmfResponse get(String path, List<Integer> validStatusCodes, boolean convert) throws ZosmfException {
+        return get(path, this.commonHeaders, validStatusCodes, convert);
+    }
+
+    @Override
+    public @NotNull IZosmfResponse get(String path, Map<String, String> headers, List<Integer> validStatusCodes, boolean convert) throws ZosmfException {
         String method = ZosmfRequestType.GET.name();
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         ZosmfResponseImpl zosmfResponse;
         try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
+            Map<String, String> requestHeaders = requestHeaders(method, headers);
             zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
             logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
             if (convert) {
-                zosmfResponse.setHttpClientresponse(this.httpClient.getText(validPath(path)));
+                zosmfResponse.setHttpClientresponse(this.httpClient.getText(validPath(path), requestHeaders));
             } else {
-                zosmfResponse.setHttpClientresponse(this.httpClient.getFile(validPath(path)));
+                zosmfResponse.setHttpClientresponse(this.httpClient.getFile(validPath(path), requestHeaders, ContentType.APPLICATION_OCTET_STREAM, ContentType.APPLICATION_X_TAR));
             }
             
             logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
             if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
-                throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
+                throw new ZosmfStatusCodeException(logBadStatusCode(zosmfResponse.getStatusCode()), zosmfResponse.getStatusCode());
+            }
+        } catch (MalformedURLException | HttpClientException  e) {
+            logger.error(e);
+            throw new ZosmfException(logBadRequest(method), e);
+        }
+        
+        return zosmfResponse;
+    }
+
+    @Override
+    public @NotNull IZosmfResponse getStream(String path, Map<String, String> headers, List<Integer> validStatusCodes, boolean convert) throws ZosmfException {
+        String method = ZosmfRequestType.GET.name();
+        if (validStatusCodes == null) {
+            validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
+        }
+        ZosmfResponseImpl zosmfResponse;
+        try {
+            Map<String, String> requestHeaders = requestHeaders(method, headers);
+            zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
+            logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
+            if (convert) {
+                zosmfResponse.setHttpClientresponse(this.httpClient.getFile(validPath(path), requestHeaders, ContentType.TEXT_PLAIN, ContentType.APPLICATION_JSON));
+            } else {
+                zosmfResponse.setHttpClientresponse(this.httpClient.getFile(validPath(path), requestHeaders, ContentType.APPLICATION_OCTET_STREAM, ContentType.APPLICATION_X_TAR, ContentType.APPLICATION_JSON));
+            }
+            
+            logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
+            if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
+                zosmfResponse.close();
+                throw new ZosmfStatusCodeException(logBadStatusCode(zosmfResponse.getStatusCode()), zosmfResponse.getStatusCode());
             }
         } catch (MalformedURLException | HttpClientException  e) {
             logger.error(e);
@@ -122,21 +166,25 @@ public class ZosmfImpl implements IZosmf {
 
     @Override
     public @NotNull IZosmfResponse postJson(String path, JsonObject requestBody, List<Integer> validStatusCodes) throws ZosmfException {
+        return postJson(path, requestBody, this.commonHeaders, validStatusCodes);
+    }
+
+    @Override
+    public @NotNull IZosmfResponse postJson(String path, JsonObject requestBody, Map<String, String> headers, List<Integer> validStatusCodes) throws ZosmfException {
         String method = ZosmfRequestType.POST.name();
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         ZosmfResponseImpl zosmfResponse;
         try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
+            Map<String, String> requestHeaders = requestHeaders(method, headers);
             zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
             logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
             logger.trace(LOG_BODY + requestBody);
-            zosmfResponse.setHttpClientresponse(this.httpClient.postJson(validPath(path), requestBody));
+            zosmfResponse.setHttpClientresponse(this.httpClient.postJson(validPath(path), requestBody, requestHeaders));
             logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
             if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
-                throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
+                throw new ZosmfStatusCodeException(logBadStatusCode(zosmfResponse.getStatusCode()), zosmfResponse.getStatusCode());
             }
         } catch (MalformedURLException | HttpClientException  e) {
             logger.error(e);
@@ -148,21 +196,25 @@ public class ZosmfImpl implements IZosmf {
 
     @Override
     public @NotNull IZosmfResponse putText(String path, String requestBody, List<Integer> validStatusCodes) throws ZosmfException {
+        return putText(path, requestBody, this.commonHeaders, validStatusCodes);
+    }
+
+    @Override
+    public @NotNull IZosmfResponse putText(String path, String requestBody, Map<String, String> headers, List<Integer> validStatusCodes) throws ZosmfException {
         String method = ZosmfRequestType.PUT.name();
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         ZosmfResponseImpl zosmfResponse;
         try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
+            Map<String, String> requestHeaders = requestHeaders(method, headers);
             zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
             logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
             logger.trace(LOG_BODY + requestBody);
-            zosmfResponse.setHttpClientresponse(this.httpClient.putText(validPath(path), requestBody));
+            zosmfResponse.setHttpClientresponse(this.httpClient.putText(validPath(path), requestBody, requestHeaders));
             logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
             if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
-                throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
+                throw new ZosmfStatusCodeException(logBadStatusCode(zosmfResponse.getStatusCode()), zosmfResponse.getStatusCode());
             }
         } catch (MalformedURLException | HttpClientException  e) {
             logger.error(e);
@@ -174,21 +226,25 @@ public class ZosmfImpl implements IZosmf {
 
     @Override
     public @NotNull IZosmfResponse putJson(String path, JsonObject requestBody, List<Integer> validStatusCodes) throws ZosmfException {
+        return putJson(path, requestBody, this.commonHeaders, validStatusCodes);
+    }
+
+    @Override
+    public @NotNull IZosmfResponse putJson(String path, JsonObject requestBody, Map<String, String> headers, List<Integer> validStatusCodes) throws ZosmfException {
         String method = ZosmfRequestType.PUT.name();
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         ZosmfResponseImpl zosmfResponse;
         try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
+            Map<String, String> requestHeaders = requestHeaders(method, headers);
             zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
             logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
             logger.trace(LOG_BODY + requestBody);
-            zosmfResponse.setHttpClientresponse(this.httpClient.putJson(validPath(path), requestBody));
+            zosmfResponse.setHttpClientresponse(this.httpClient.putJson(validPath(path), requestBody, requestHeaders));
             logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
             if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
-                throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
+                throw new ZosmfStatusCodeException(logBadStatusCode(zosmfResponse.getStatusCode()), zosmfResponse.getStatusCode());
             }
         } catch (MalformedURLException | HttpClientException  e) {
             logger.error(e);
@@ -200,6 +256,11 @@ public class ZosmfImpl implements IZosmf {
 
     @Override
     public @NotNull IZosmfResponse putBinary(String path, byte[] requestBody, List<Integer> validStatusCodes) throws ZosmfException  {
+        return putBinary(path, requestBody, this.commonHeaders, validStatusCodes);
+    }
+
+    @Override
+    public @NotNull IZosmfResponse putBinary(String path, byte[] requestBody, Map<String, String> headers, List<Integer> validStatusCodes) throws ZosmfException {
         String method = ZosmfRequestType.PUT.name();
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
@@ -207,15 +268,14 @@ public class ZosmfImpl implements IZosmf {
         ZosmfResponseImpl zosmfResponse;
 
         try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
+            Map<String, String> requestHeaders = requestHeaders(method, headers);
             zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
             logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
             logger.trace(LOG_BODY + requestBody);
-            zosmfResponse.setHttpClientresponse(this.httpClient.putBinary(path, requestBody));
+            zosmfResponse.setHttpClientresponse(this.httpClient.putBinary(path, requestBody, requestHeaders));
             logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
             if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
-                throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
+                throw new ZosmfStatusCodeException(logBadStatusCode(zosmfResponse.getStatusCode()), zosmfResponse.getStatusCode());
             }
         } catch (MalformedURLException | HttpClientException  e) {
             logger.error(e);
@@ -227,20 +287,24 @@ public class ZosmfImpl implements IZosmf {
 
     @Override
     public @NotNull IZosmfResponse delete(String path, List<Integer> validStatusCodes) throws ZosmfException {
+        return delete(path, this.commonHeaders, validStatusCodes);
+    }
+
+    @Override
+    public @NotNull IZosmfResponse delete(String path, Map<String, String> headers, List<Integer> validStatusCodes) throws ZosmfException {
         String method = ZosmfRequestType.DELETE.name();
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         ZosmfResponseImpl zosmfResponse;
         try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
+            Map<String, String> requestHeaders = requestHeaders(method, headers);
             zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
             logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
-            zosmfResponse.setHttpClientresponse(this.httpClient.deleteJson(validPath(path)));
+            zosmfResponse.setHttpClientresponse(this.httpClient.deleteJson(validPath(path), requestHeaders));
             logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
             if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
-                throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
+                throw new ZosmfStatusCodeException(logBadStatusCode(zosmfResponse.getStatusCode()), zosmfResponse.getStatusCode());
             }
         } catch (MalformedURLException | HttpClientException  e) {
             throw new ZosmfException(logBadRequest(method), e);
@@ -259,6 +323,11 @@ public class ZosmfImpl implements IZosmf {
         return this.image;
     }
 
+    @Override
+    public ZosmfServerHealth getStatistics() {
+        return this.health;
+    }
+
     @Override
     public String toString() {
         return this.image.getImageID() + " " + this.zosmfUrl;
@@ -293,6 +362,13 @@ public class ZosmfImpl implements IZosmf {
         
         this.zosmfUrl = scheme + "://" + zosmfHostname + ":" + zosmfPort;
 
+        int maxConnections;
+        try {
+            maxConnections = MaxConnections.get(image.getImageID());
+        } catch (ZosmfManagerException e) {
+            throw new ZosmfException(e);
+        }
+
         this.httpClient = this.zosmfManager.getHttpManager().newHttpClient();
         
         try {
@@ -311,6 +387,7 @@ public class ZosmfImpl implements IZosmf {
             }
 
             this.httpClient.setURI(new URI(this.zosmfUrl));
+            this.httpClient.setMaxConnections(maxConnections);
             if (creds instanceof ICredentialsUsernamePassword) {
                 this.httpClient.setAuthorisation(((ICredentialsUsernamePassword) creds).getUsername(), ((ICredentialsUsernamePassword) creds).getPassword());
             }
@@ -329,12 +406,16 @@ public class ZosmfImpl implements IZosmf {
         }
     }
 
-    protected void addCommonHeaders() {
-        for (Entry<String, String> entry : this.commonHeaders.entrySet()) {
+    protected Map<String, String> requestHeaders(String method, Map<String, String> headers) {
+        HashMap<String, String> requestHeaders = new HashMap<>();
+        if (headers != null) {
+            requestHeaders.putAll(headers);
+        }
+        requestHeaders.put(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
+        for (Entry<String, String> entry : requestHeaders.entrySet()) {
             logger.trace("Adding HTTP header: " + entry.getKey() + ": " + entry.getValue());
-            this.httpClient.addCommonHeader(entry.getKey(), entry.getValue());
         }
-        
+        return requestHeaders;
     }
 
     protected String logRequest(String method, URL requestUrl) {
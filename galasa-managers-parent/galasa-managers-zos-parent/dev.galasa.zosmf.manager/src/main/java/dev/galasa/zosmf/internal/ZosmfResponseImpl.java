@@ -1,21 +1,33 @@
 /*
  * Licensed Materials - Property of IBM
- * 
- * (c) Copyright IBM Corp. 2019.
+ *
+ * (c) Copyright IBM Corp. 2019,2020.
  */
 package dev.galasa.zosmf.internal;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.ContentType;
 
 import dev.galasa.http.HttpClientResponse;
 import dev.galasa.zosmf.IZosmfResponse;
@@ -23,13 +35,17 @@ import dev.galasa.zosmf.ZosmfException;
 
 public class ZosmfResponseImpl implements IZosmfResponse {
 
+    private static final Log logger = LogFactory.getLog(ZosmfResponseImpl.class);
+
     private URL requestUrl;
     private Object content;
     private int statusCode;
     private String statusLine;
+    private CloseableHttpResponse httpResponse;
+    private Charset charset = StandardCharsets.ISO_8859_1;
 
     public ZosmfResponseImpl(String url, String path) throws MalformedURLException {
-        this.requestUrl = new URL(url + path); 
+        this.requestUrl = new URL(url + path);
     }
 
     @Override
@@ -39,11 +55,15 @@ public class ZosmfResponseImpl implements IZosmfResponse {
         } else if (this.content instanceof byte[]) {
             return new JsonParser().parse(new String((byte[]) this.content)).getAsJsonObject();
         } else if (this.content instanceof InputStream) {
-            return new JsonParser().parse(new InputStreamReader((InputStream) this.content)).getAsJsonObject();
+            try {
+                return new JsonParser().parse(new InputStreamReader((InputStream) this.content, this.charset)).getAsJsonObject();
+            } finally {
+                close();
+            }
         } else if (content instanceof JsonObject) {
             return (JsonObject) this.content;
         }
-        
+
         throw new ZosmfException("Content not a JsonObject - " + content.getClass().getName());
     }
 
@@ -54,20 +74,73 @@ public class ZosmfResponseImpl implements IZosmfResponse {
         } else if (this.content instanceof byte[]) {
             return new JsonParser().parse(new String((byte[]) this.content)).getAsJsonArray();
         } else if (this.content instanceof InputStream) {
-            return new JsonParser().parse(new InputStreamReader((InputStream) this.content)).getAsJsonArray();
+            try {
+                return new JsonParser().parse(new InputStreamReader((InputStream) this.content, this.charset)).getAsJsonArray();
+            } finally {
+                close();
+            }
         }
-        
+
         throw new ZosmfException("Content not a JsonArray Object - " + content.getClass().getName());
     }
 
     @Override
     public String getTextContent() throws ZosmfException {
+        if (this.content instanceof InputStream) {
+            // *** Read a streamed response once, keeping the text for later calls
+            StringBuilder text = new StringBuilder();
+            char[] buffer = new char[8192];
+            try (Reader reader = getContentAsReader()) {
+                int count;
+                while ((count = reader.read(buffer)) != -1) {
+                    text.append(buffer, 0, count);
+                }
+            } catch (IOException e) {
+                throw new ZosmfException("Could not read response", e);
+            }
+            this.content = text.toString();
+        }
         if (!(this.content instanceof String)) {
             throw new ZosmfException("Content not a String Object - " + content.getClass().getName());
         }
         return (String) content;
     }
 
+    @Override
+    public InputStream getContentAsStream() throws ZosmfException {
+        if (this.content instanceof InputStream) {
+            return (InputStream) this.content;
+        } else if (this.content instanceof byte[]) {
+            return new ByteArrayInputStream((byte[]) this.content);
+        } else if (this.content instanceof String) {
+            return new ByteArrayInputStream(((String) this.content).getBytes(this.charset));
+        }
+
+        throw new ZosmfException("Content not a stream - " + content.getClass().getName());
+    }
+
+    @Override
+    public Reader getContentAsReader() throws ZosmfException {
+        if (this.content instanceof String) {
+            return new StringReader((String) this.content);
+        }
+        return new InputStreamReader(getContentAsStream(), this.charset);
+    }
+
+    @Override
+    public Stream<String> getContentAsRecords() throws ZosmfException {
+        BufferedReader reader = new BufferedReader(getContentAsReader());
+        return reader.lines().onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                close();
+            }
+        });
+    }
+
     @Override
     public Object getContent() throws ZosmfException {
         return this.content;
@@ -88,6 +161,19 @@ public class ZosmfResponseImpl implements IZosmfResponse {
         return this.requestUrl;
     }
 
+    @Override
+    public void close() {
+        if (this.httpResponse == null) {
+            return;
+        }
+        try {
+            this.httpResponse.close();
+        } catch (IOException e) {
+            logger.trace("Problem closing zOSMF response", e);
+        }
+        this.httpResponse = null;
+    }
+
     protected void setHttpClientresponse(HttpClientResponse<?> httpClientResponse) {
         this.content = httpClientResponse.getContent();
         this.statusCode = httpClientResponse.getStatusCode();
@@ -96,12 +182,30 @@ public class ZosmfResponseImpl implements IZosmfResponse {
 
     protected void setHttpClientresponse(CloseableHttpResponse httpClientResponse) throws ZosmfException{
         try{
-            this.content = httpClientResponse.getEntity().getContent();
+            HttpEntity entity = httpClientResponse.getEntity();
+            this.content = entity != null ? entity.getContent() : new ByteArrayInputStream(new byte[0]);
             this.statusCode = httpClientResponse.getStatusLine().getStatusCode();
             this.statusLine = httpClientResponse.getStatusLine().getReasonPhrase();
+            this.httpResponse = httpClientResponse;
+            setCharset(entity);
         } catch (IOException e) {
             throw new ZosmfException("Could not retrieve response", e);
         }
     }
 
+    private void setCharset(HttpEntity entity) {
+        if (entity == null) {
+            return;
+        }
+        try {
+            ContentType contentType = ContentType.get(entity);
+            if (contentType != null && contentType.getCharset() != null) {
+                this.charset = contentType.getCharset();
+            }
+        } catch (RuntimeException e) {
+            // *** An unknown charset leaves the default in place
+            logger.trace("Unable to determine response charset", e);
+        }
+    }
+
 }
@@ -1,18 +1,22 @@
 /*
  * Licensed Materials - Property of IBM
- * 
- * (c) Copyright IBM Corp. 2019.
+ *
+ * (c) Copyright IBM Corp. 2019,2020.
  */
 package dev.galasa.zosmf.internal;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.validation.constraints.NotNull;
 
@@ -22,30 +26,54 @@ import org.apache.http.HttpStatus;
 
 import com.google.gson.JsonObject;
 
+import dev.galasa.http.HttpClientException;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
+import dev.galasa.zos.spi.ZosMetricsRecorder.Metric;
 import dev.galasa.zosbatch.ZosBatchException;
 import dev.galasa.zosmf.IZosmf;
 import dev.galasa.zosmf.IZosmf.ZosmfRequestType;
 import dev.galasa.zosmf.IZosmfResponse;
 import dev.galasa.zosmf.IZosmfRestApiProcessor;
+import dev.galasa.zosmf.IZosmfServerStatistics;
+import dev.galasa.zosmf.IZosmfServerStatistics.CircuitState;
 import dev.galasa.zosmf.ZosmfException;
 import dev.galasa.zosmf.ZosmfManagerException;
 
+/**
+ * Sends each request to the healthiest zOSMF server, see {@link ZosmfServerHealth}.
+ * <p>
+ * A failed request is retried on the next best server not yet tried, and only once every server has been
+ * tried does the processor wait before starting again. Servers with an open circuit are skipped unless every
+ * server has an open circuit.
+ * </p>
+ */
 public class ZosmfRestApiProcessor implements IZosmfRestApiProcessor {
-    
-    private IZosmf currentZosmf;
-    private String currentZosmfImageId;
-    
+
+    private static final long RETRY_DELAY = 100;
+    private static final long MAX_RETRY_DELAY = 2000;
+
+    private static final String METRICS_API = "zosmf";
+    private static final String ZOSMF_PATH = "/zosmf/";
+
+    private volatile IZosmf currentZosmf;
+    private volatile String currentZosmfImageId;
+
     private final HashMap<String, IZosmf> zosmfs = new LinkedHashMap<>();
-    
+
+    private final Map<IZosmf, ZosmfServerHealth> localHealth = new ConcurrentHashMap<>();
+
+    private final ZosMetricsRecorder metricsRecorder;
+
     private static final Log logger = LogFactory.getLog(ZosmfRestApiProcessor.class);
-    
-    public ZosmfRestApiProcessor(Map<String, IZosmf> zosmfs) {
+
+    public ZosmfRestApiProcessor(Map<String, IZosmf> zosmfs, ZosMetricsRecorder metricsRecorder) {
         this.zosmfs.putAll(zosmfs);
+        this.metricsRecorder = metricsRecorder;
         this.currentZosmfImageId = this.zosmfs.entrySet().iterator().next().getKey();
         this.currentZosmf = this.zosmfs.get(this.currentZosmfImageId);
     }
-    
-    
+
+
     /**
      * Send zOSMF request
      * @param requestType
@@ -60,77 +88,189 @@ public class ZosmfRestApiProcessor implements IZosmfRestApiProcessor {
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
-        IZosmfResponse response = null;
-        for (int i = 0; i <= ((ZosmfImpl) currentZosmf).getRequestRetry(); i++) {
+        int requestRetry = ((ZosmfImpl) currentZosmf).getRequestRetry();
+        Set<String> tried = new HashSet<>();
+        long retryDelay = RETRY_DELAY;
+        String endpoint = ZosMetricsRecorder.endpoint(path, ZOSMF_PATH, 2);
+        for (int i = 0; i <= requestRetry; i++) {
+            if (tried.size() >= this.zosmfs.size()) {
+                // *** Every server has failed this request, wait before trying them again
+                tried.clear();
+                waitToRetry(retryDelay);
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+            }
+            Entry<String, IZosmf> selected = selectZosmf(tried);
+            tried.add(selected.getKey());
+            IZosmf zosmfServer = selected.getValue();
+            ZosmfServerHealth health = getHealth(zosmfServer);
+            long start = System.nanoTime();
             try {
-                IZosmf zosmfServer = getCurrentZosmfServer();
-                if (headers != null) {
-                    for (Entry<String, String> entry : headers.entrySet()) {
-                        zosmfServer.setHeader(entry.getKey(), entry.getValue());
-                    }
-                }
+                IZosmfResponse response;
                 switch (requestType) {
                 case GET:
-                    response = zosmfServer.get(path, validStatusCodes, convert);
+                    response = zosmfServer.get(path, headers, validStatusCodes, convert);
+                    break;
+                case GET_STREAM:
+                    response = zosmfServer.getStream(path, headers, validStatusCodes, convert);
                     break;
                 case POST_JSON:
-                    response = zosmfServer.postJson(path, (JsonObject) body, validStatusCodes);
+                    response = zosmfServer.postJson(path, (JsonObject) body, headers, validStatusCodes);
                     break;
                 case PUT_TEXT:
-                    response = zosmfServer.putText(path, (String) body, validStatusCodes);
+                    response = zosmfServer.putText(path, (String) body, headers, validStatusCodes);
                     break;
                 case PUT_JSON:
-                    response = zosmfServer.putJson(path, (JsonObject) body, validStatusCodes);
+                    response = zosmfServer.putJson(path, (JsonObject) body, headers, validStatusCodes);
                     break;
                 case PUT_BINARY:
-                    response = zosmfServer.putBinary(path, (byte[]) body, validStatusCodes);
+                    response = zosmfServer.putBinary(path, (byte[]) body, headers, validStatusCodes);
                     break;
                 case DELETE:
-                    response = zosmfServer.delete(path, validStatusCodes);
+                    response = zosmfServer.delete(path, headers, validStatusCodes);
                     break;
                 default:
                     throw new ZosmfException("Invalid request type");
                 }
-    
+
                 if (validStatusCodes.contains(response.getStatusCode())) {
+                    long elapsed = System.nanoTime() - start;
+                    health.recordSuccess(elapsed);
+                    this.metricsRecorder.observe(Metric.API_REQUEST, elapsed, selected.getKey(), METRICS_API, endpoint);
                     return response;
                 } else {
                     logger.error("Expected HTTP status codes: " + validStatusCodes);
-                    getNextZosmf();
+                    response.close();
+                    recordError(selected.getKey(), endpoint, health, start, isServerFailure(response.getStatusCode()));
                 }
+            } catch (ZosmfStatusCodeException e) {
+                logger.error("Problem with zOSMF request", e);
+                recordError(selected.getKey(), endpoint, health, start, isServerFailure(e.getStatusCode()));
             } catch (ZosmfManagerException e) {
                 logger.error("Problem with zOSMF request", e);
-                getNextZosmf();
+                recordError(selected.getKey(), endpoint, health, start, isTransportFailure(e));
+            } catch (RuntimeException e) {
+                recordError(selected.getKey(), endpoint, health, start, false);
+                throw e;
             }
         }
         throw new ZosmfException("Unable to get valid response from zOS/MF server");
     }
-    
+
+    @Override
+    public Map<String, IZosmfServerStatistics> getServerStatistics() {
+        LinkedHashMap<String, IZosmfServerStatistics> statistics = new LinkedHashMap<>();
+        for (Entry<String, IZosmf> entry : this.zosmfs.entrySet()) {
+            statistics.put(entry.getKey(), getHealth(entry.getValue()));
+        }
+        return statistics;
+    }
+
     protected IZosmf getCurrentZosmfServer() {
-        logger.trace("Using zOSMF on " + this.currentZosmf);
-        this.currentZosmf.clearHeaders();
-        return this.currentZosmf;
+        IZosmf zosmf = this.currentZosmf;
+        logger.trace("Using zOSMF on " + zosmf);
+        return zosmf;
     }
 
-    protected void getNextZosmf() {
-        if (this.zosmfs.size() == 1) {
-            logger.debug("Only one zOSMF server available");
-            return;
+    /**
+     * Select the server with the lowest score, preferring servers not yet tried for this request. The request
+     * is counted against the server selected
+     * @param tried the server ids already tried
+     * @return the selected server
+     */
+    protected Entry<String, IZosmf> selectZosmf(Set<String> tried) {
+        // *** Take the scores once, they change while sorting as other threads finish their requests
+        List<ScoredZosmf> scored = new ArrayList<>(this.zosmfs.size());
+        for (Entry<String, IZosmf> entry : this.zosmfs.entrySet()) {
+            ZosmfServerHealth health = getHealth(entry.getValue());
+            scored.add(new ScoredZosmf(entry, health, tried.contains(entry.getKey()), health.getScore()));
         }
-        Iterator<Entry<String, IZosmf>> zosmfsIterator = this.zosmfs.entrySet().iterator();
-        while (zosmfsIterator.hasNext()) {
-            if (zosmfsIterator.next().getKey().equals(this.currentZosmfImageId)) {
-                Entry<String, IZosmf> entry;
-                if (zosmfsIterator.hasNext()) {
-                    entry = zosmfsIterator.next();
-                } else {
-                    entry = this.zosmfs.entrySet().iterator().next();
+        scored.sort(Comparator.comparing((ScoredZosmf s) -> s.tried).thenComparingDouble(s -> s.score));
+
+        ScoredZosmf selected = null;
+        for (ScoredZosmf candidate : scored) {
+            if (candidate.health.tryAcquire()) {
+                selected = candidate;
+                break;
+            }
+        }
+        if (selected == null) {
+            // *** Every circuit is open, probe the server that would be probed soonest rather than fail without trying
+            selected = scored.get(0);
+            for (ScoredZosmf candidate : scored) {
+                if (candidate.health.getTimeUntilProbe() < selected.health.getTimeUntilProbe()) {
+                    selected = candidate;
                 }
-                this.currentZosmfImageId = entry.getKey();
-                this.currentZosmf = this.zosmfs.get(this.currentZosmfImageId);
-                return;
             }
+            logger.debug("All zOSMF servers have an open circuit, probing " + selected.entry.getKey());
+            selected.health.forceAcquire();
+        }
+
+        this.currentZosmfImageId = selected.entry.getKey();
+        this.currentZosmf = selected.entry.getValue();
+        logger.trace("Using zOSMF on " + this.currentZosmf + " " + selected.health);
+        return selected.entry;
+    }
+
+    protected ZosmfServerHealth getHealth(IZosmf zosmf) {
+        IZosmfServerStatistics statistics = zosmf.getStatistics();
+        if (statistics instanceof ZosmfServerHealth) {
+            return (ZosmfServerHealth) statistics;
+        }
+        return this.localHealth.computeIfAbsent(zosmf, k -> new ZosmfServerHealth());
+    }
+
+    /**
+     * Record a request that did not return a valid response. Only a failure of the server itself counts
+     * against its circuit, the server has answered a request it rejected with a 4xx status code
+     * @param serverFailure the server or the connection to it failed
+     */
+    private void recordError(String serverId, String endpoint, ZosmfServerHealth health, long start, boolean serverFailure) {
+        long elapsed = System.nanoTime() - start;
+        if (serverFailure) {
+            health.recordFailure(elapsed);
+        } else {
+            health.recordSuccess(elapsed);
+        }
+        this.metricsRecorder.observe(Metric.API_REQUEST, elapsed, serverId, METRICS_API, endpoint);
+        this.metricsRecorder.increment(Metric.API_ERRORS, 1, serverId, METRICS_API, endpoint);
+        if (serverFailure && health.getCircuitState() == CircuitState.OPEN) {
+            logger.warn("zOSMF server " + serverId + " is failing, circuit opened for " + (health.getTimeUntilProbe() / 1_000_000) + "ms " + health);
+        }
+    }
+
+    protected static boolean isServerFailure(int statusCode) {
+        return statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR || statusCode == HttpStatus.SC_REQUEST_TIMEOUT;
+    }
+
+    protected static boolean isTransportFailure(Throwable e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpClientException || cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void waitToRetry(long delay) throws ZosmfException {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ZosmfException("Interrupted waiting to retry zOSMF request", e);
+        }
+    }
+
+    private static class ScoredZosmf {
+        private final Entry<String, IZosmf> entry;
+        private final ZosmfServerHealth health;
+        private final boolean tried;
+        private final double score;
+
+        private ScoredZosmf(Entry<String, IZosmf> entry, ZosmfServerHealth health, boolean tried, double score) {
+            this.entry = entry;
+            this.health = health;
+            this.tried = tried;
+            this.score = score;
         }
-        logger.debug("No alternate zOSMF server available");
     }
 }
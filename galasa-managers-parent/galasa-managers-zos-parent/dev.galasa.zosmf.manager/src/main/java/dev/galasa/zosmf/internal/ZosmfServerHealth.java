@@ -0,0 +1,200 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosmf.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import dev.galasa.zosmf.IZosmfServerStatistics;
+
+/**
+ * Tracks the response time and error rate of a zOSMF server and its circuit breaker.
+ * <p>
+ * One instance is held by each {@link ZosmfImpl}, so every {@link ZosmfRestApiProcessor} using the server
+ * shares the same view of its health.
+ * </p>
+ */
+public class ZosmfServerHealth implements IZosmfServerStatistics {
+
+    /** Weight of the latest request in the moving averages */
+    protected static final double EWMA_WEIGHT = 0.2;
+
+    /** Consecutive failures that open the circuit */
+    protected static final int FAILURE_THRESHOLD = 3;
+
+    protected static final long INITIAL_BACKOFF = TimeUnit.SECONDS.toNanos(5);
+    protected static final long MAX_BACKOFF = TimeUnit.MINUTES.toNanos(5);
+
+    private final LongSupplier clock;
+
+    private double averageResponseTime;
+    private double errorRate;
+    private long requestCount;
+    private long failureCount;
+    private int inFlightRequests;
+    private int consecutiveFailures;
+
+    private CircuitState circuitState = CircuitState.CLOSED;
+    private long backoff = INITIAL_BACKOFF;
+    private long openUntil;
+    private boolean probeInFlight;
+
+    public ZosmfServerHealth() {
+        this(System::nanoTime);
+    }
+
+    protected ZosmfServerHealth(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Ask to send a request to the server, moving an open circuit to half open once its backoff has passed.
+     * Every request allowed must be followed by {@link #recordSuccess(long)} or {@link #recordFailure(long)}
+     *
+     * @return true if the request can be sent
+     */
+    public synchronized boolean tryAcquire() {
+        switch (this.circuitState) {
+            case OPEN:
+                if (this.clock.getAsLong() - this.openUntil < 0) {
+                    return false;
+                }
+                this.circuitState = CircuitState.HALF_OPEN;
+                this.probeInFlight = true;
+                break;
+            case HALF_OPEN:
+                if (this.probeInFlight) {
+                    return false;
+                }
+                this.probeInFlight = true;
+                break;
+            default:
+                break;
+        }
+        this.inFlightRequests++;
+        return true;
+    }
+
+    /**
+     * Send a request to the server whatever the state of the circuit, used when every server has its circuit open
+     */
+    public synchronized void forceAcquire() {
+        if (this.circuitState != CircuitState.CLOSED) {
+            this.circuitState = CircuitState.HALF_OPEN;
+            this.probeInFlight = true;
+        }
+        this.inFlightRequests++;
+    }
+
+    /**
+     * Record a successful request, closing the circuit
+     *
+     * @param responseTime the response time in nanoseconds
+     */
+    public synchronized void recordSuccess(long responseTime) {
+        record(responseTime, 0.0);
+        this.consecutiveFailures = 0;
+        this.circuitState = CircuitState.CLOSED;
+        this.backoff = INITIAL_BACKOFF;
+        this.probeInFlight = false;
+    }
+
+    /**
+     * Record a failed request, opening the circuit if the server has failed too often or a probe has failed
+     *
+     * @param responseTime the response time in nanoseconds
+     */
+    public synchronized void recordFailure(long responseTime) {
+        record(responseTime, 1.0);
+        this.failureCount++;
+        this.consecutiveFailures++;
+        if (this.circuitState == CircuitState.HALF_OPEN) {
+            // *** Reopened for the current backoff, the next failed probe waits twice as long
+            open();
+            this.backoff = Math.min(this.backoff * 2, MAX_BACKOFF);
+        } else if (this.circuitState == CircuitState.CLOSED && this.consecutiveFailures >= FAILURE_THRESHOLD) {
+            open();
+        }
+    }
+
+    private void record(long responseTime, double error) {
+        double responseTimeMillis = responseTime / 1_000_000.0;
+        if (this.requestCount == 0) {
+            this.averageResponseTime = responseTimeMillis;
+            this.errorRate = error;
+        } else {
+            this.averageResponseTime += EWMA_WEIGHT * (responseTimeMillis - this.averageResponseTime);
+            this.errorRate += EWMA_WEIGHT * (error - this.errorRate);
+        }
+        this.requestCount++;
+        if (this.inFlightRequests > 0) {
+            this.inFlightRequests--;
+        }
+    }
+
+    private void open() {
+        this.circuitState = CircuitState.OPEN;
+        this.openUntil = this.clock.getAsLong() + this.backoff;
+        this.probeInFlight = false;
+    }
+
+    /**
+     * The cost of sending the next request to this server, lower is better. The average response time is
+     * scaled up by the requests already waiting and by the error rate, so servers not yet used are tried first
+     *
+     * @return the cost
+     */
+    public synchronized double getScore() {
+        double errorPenalty = 1.0 / Math.max(1.0 - this.errorRate, 0.05);
+        return (this.averageResponseTime + 1) * (1 + this.inFlightRequests) * errorPenalty;
+    }
+
+    /**
+     * @return nanoseconds until an open circuit allows a probe, 0 if it is not open
+     */
+    public synchronized long getTimeUntilProbe() {
+        if (this.circuitState != CircuitState.OPEN) {
+            return 0;
+        }
+        return Math.max(0, this.openUntil - this.clock.getAsLong());
+    }
+
+    @Override
+    public synchronized double getAverageResponseTime() {
+        return this.averageResponseTime;
+    }
+
+    @Override
+    public synchronized double getErrorRate() {
+        return this.errorRate;
+    }
+
+    @Override
+    public synchronized long getRequestCount() {
+        return this.requestCount;
+    }
+
+    @Override
+    public synchronized long getFailureCount() {
+        return this.failureCount;
+    }
+
+    @Override
+    public synchronized int getInFlightRequests() {
+        return this.inFlightRequests;
+    }
+
+    @Override
+    public synchronized CircuitState getCircuitState() {
+        return this.circuitState;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("circuit=%s requests=%d failures=%d inflight=%d response=%.1fms errors=%.2f",
+                this.circuitState, this.requestCount, this.failureCount, this.inFlightRequests, this.averageResponseTime, this.errorRate);
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosmf.internal;
+
+import dev.galasa.zosmf.ZosmfException;
+
+/**
+ * Thrown when the zOSMF server returns an HTTP status code the request did not expect
+ */
+class ZosmfStatusCodeException extends ZosmfException {
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    ZosmfStatusCodeException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    int getStatusCode() {
+        return this.statusCode;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosmf.internal.properties;
+
+import javax.validation.constraints.NotNull;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zosmf.ZosmfManagerException;
+
+/**
+ * zOSMF maximum connections per image
+ *
+ * @galasa.cps.property
+ *
+ * @galasa.name zosmf.image.[imageid].max.connections
+ *
+ * @galasa.description The maximum number of connections kept open to the zOSMF server of a z/OS image.
+ * Connections are reused between requests, requests issued in parallel wait for a free connection when they are all in use
+ *
+ * @galasa.required No
+ *
+ * @galasa.default 10
+ *
+ * @galasa.valid_values numerical value > 0
+ *
+ * @galasa.examples
+ * <code>zosmf.image.max.connections=10</code><br>
+ * <code>zosmf.image.MV2C.max.connections=20</code>
+ *
+ */
+public class MaxConnections extends CpsProperties {
+
+    private static final String DEFAULT_MAX_CONNECTIONS = "10";
+
+    public static int get(@NotNull String imageId) throws ZosmfManagerException {
+        String maxConnectionsString = getStringWithDefault(ZosmfPropertiesSingleton.cps(), DEFAULT_MAX_CONNECTIONS, "image", "max.connections", imageId);
+        try {
+            int maxConnections = Integer.parseInt(maxConnectionsString);
+            if (maxConnections <= 0) {
+                throw new ZosmfManagerException("Invalid value given for zosmf.image.*.max.connections '" + maxConnectionsString + "', must be greater than 0");
+            }
+            return maxConnections;
+        } catch(NumberFormatException e) {
+            throw new ZosmfManagerException("Invalid value given for zosmf.image.*.max.connections '" + maxConnectionsString + "'", e);
+        }
+    }
+
+}
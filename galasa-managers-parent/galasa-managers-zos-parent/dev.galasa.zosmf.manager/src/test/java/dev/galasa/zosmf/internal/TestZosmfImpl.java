@@ -9,7 +9,8 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Map;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpStatus;
@@ -47,6 +48,7 @@ import dev.galasa.zosmf.IZosmfRestApiProcessor;
 import dev.galasa.zosmf.ZosmfException;
 import dev.galasa.zosmf.ZosmfManagerException;
 import dev.galasa.zosmf.internal.properties.Https;
+import dev.galasa.zosmf.internal.properties.MaxConnections;
 import dev.galasa.zosmf.internal.properties.RequestRetry;
 import dev.galasa.zosmf.internal.properties.ServerCreds;
 import dev.galasa.zosmf.internal.properties.ServerImage;
@@ -54,7 +56,7 @@ import dev.galasa.zosmf.internal.properties.ServerPort;
 import dev.galasa.zosmf.internal.properties.SysplexServers;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({SysplexServers.class, ServerImage.class, ServerCreds.class, ServerPort.class, Https.class, RequestRetry.class})
+@PrepareForTest({SysplexServers.class, ServerImage.class, ServerCreds.class, ServerPort.class, Https.class, RequestRetry.class, MaxConnections.class})
 public class TestZosmfImpl {
     
     private ZosmfImpl zosmf;
@@ -141,6 +143,8 @@ public class TestZosmfImpl {
     private static final String EXCEPTION = "exception";
 
     private static final int REQUEST_RETRY = 5;
+
+    private static final int MAX_CONNECTIONS = 10;
     
     @Before
     public void setup() throws Exception {
@@ -160,6 +164,9 @@ public class TestZosmfImpl {
         PowerMockito.mockStatic(RequestRetry.class);
         Mockito.when(RequestRetry.get(Mockito.any())).thenReturn(REQUEST_RETRY);
         
+        PowerMockito.mockStatic(MaxConnections.class);
+        Mockito.when(MaxConnections.get(Mockito.any())).thenReturn(MAX_CONNECTIONS);
+        
         PowerMockito.mockStatic(ServerImage.class);
         Mockito.when(ServerImage.get(Mockito.any())).thenReturn(IMAGE);
         
@@ -206,15 +213,18 @@ public class TestZosmfImpl {
     @Test
     public void testSetHeader() {
         zosmfSpy.setHeader(KEY, VALUE);
-        HashMap<String, String> commonHeaders = Whitebox.getInternalState(zosmfSpy, "commonHeaders");
+        Map<String, String> commonHeaders = Whitebox.getInternalState(zosmfSpy, "commonHeaders");
         
         Assert.assertEquals("setHeader() should set the supplied value", VALUE, commonHeaders.get(KEY));
+        Assert.assertEquals("requestHeaders() should include the supplied value", VALUE, zosmfSpy.requestHeaders("GET", Collections.singletonMap(KEY, VALUE)).get(KEY));
+        Assert.assertNull("requestHeaders() should only include the supplied headers", zosmfSpy.requestHeaders("GET", null).get(KEY));
     }
     
     @Test
     public void testClearHeaders() {
+        zosmfSpy.setHeader(KEY, VALUE);
         zosmfSpy.clearHeaders();
-        HashMap<String, String> commonHeaders = Whitebox.getInternalState(zosmfSpy, "commonHeaders");
+        Map<String, String> commonHeaders = Whitebox.getInternalState(zosmfSpy, "commonHeaders");
         
         Assert.assertTrue("clearHeaders() should set the supplied value", commonHeaders.isEmpty());
     }
@@ -243,7 +253,7 @@ public class TestZosmfImpl {
     @Test
     public void testGetHttpException() throws ZosmfException, HttpClientException {
         setupGet();
-        Mockito.when(httpClientMock.getText(Mockito.any())).thenThrow(new HttpClientException(EXCEPTION));
+        Mockito.when(httpClientMock.getText(Mockito.any(), Mockito.any())).thenThrow(new HttpClientException(EXCEPTION));
         String expectedMessage =  "Problem with GET to zOSMF server";
         ZosmfException expectedException = Assert.assertThrows("expected exception should be thrown", ZosmfException.class, ()->{
         	zosmfSpy.get(PATH, null, true);
@@ -253,12 +263,12 @@ public class TestZosmfImpl {
     
     private void setupGet() {
         try {
-            Mockito.when(httpClientMock.getText(Mockito.anyString())).thenReturn(httpClientResponseStringMock); 
+            Mockito.when(httpClientMock.getText(Mockito.anyString(), Mockito.any())).thenReturn(httpClientResponseStringMock); 
             Mockito.when(httpClientResponseStringMock.getContent()).thenReturn(CONTENT);
             Mockito.when(httpClientResponseStringMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
             Mockito.when(httpClientResponseStringMock.getStatusLine()).thenReturn(STATUS_LINE);
             
-            Mockito.when(httpClientMock.getFile(Mockito.anyString())).thenReturn(closeableHttpResponseMock);       
+            Mockito.when(httpClientMock.getFile(Mockito.anyString(), Mockito.any(), Mockito.any())).thenReturn(closeableHttpResponseMock);       
             Mockito.when(closeableHttpResponseMock.getEntity()).thenReturn(httpEntity);
             Mockito.when(httpEntity.getContent()).thenReturn(new ByteArrayInputStream(CONTENT.getBytes()));
             Mockito.when(closeableHttpResponseMock.getStatusLine()).thenReturn(statusLineMock);
@@ -293,7 +303,7 @@ public class TestZosmfImpl {
     @Test
     public void testPostJsonHttpException() throws ZosmfException, HttpClientException {
         setupPostJson();
-        Mockito.when(httpClientMock.postJson(Mockito.any(), Mockito.any())).thenThrow(new HttpClientException(EXCEPTION));
+        Mockito.when(httpClientMock.postJson(Mockito.any(), Mockito.any(), Mockito.any())).thenThrow(new HttpClientException(EXCEPTION));
         String expectedMessage =  "Problem with POST to zOSMF server";
         ZosmfException expectedException = Assert.assertThrows("expected exception should be thrown", ZosmfException.class, ()->{
         	zosmfSpy.postJson(PATH, new JsonObject(), null);
@@ -303,7 +313,7 @@ public class TestZosmfImpl {
 
     private void setupPostJson() {
         try {
-            Mockito.when(httpClientMock.postJson(Mockito.anyString(), Mockito.any())).thenReturn(httpClientResponseJsonMock); 
+            Mockito.when(httpClientMock.postJson(Mockito.anyString(), Mockito.any(), Mockito.any())).thenReturn(httpClientResponseJsonMock); 
             Mockito.when(httpClientResponseJsonMock.getContent()).thenReturn(new JsonObject());
             Mockito.when(httpClientResponseJsonMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
             Mockito.when(httpClientResponseJsonMock.getStatusLine()).thenReturn(STATUS_LINE);
@@ -336,7 +346,7 @@ public class TestZosmfImpl {
     @Test
     public void testPutTextHttpException() throws ZosmfException, HttpClientException {
         setupPutText();
-        Mockito.when(httpClientMock.putText(Mockito.any(), Mockito.any())).thenThrow(new HttpClientException(EXCEPTION));
+        Mockito.when(httpClientMock.putText(Mockito.any(), Mockito.any(), Mockito.any())).thenThrow(new HttpClientException(EXCEPTION));
         String expectedMessage =  "Problem with PUT to zOSMF server";
         ZosmfException expectedException = Assert.assertThrows("expected exception should be thrown", ZosmfException.class, ()->{
         	zosmfSpy.putText(PATH, "", null);
@@ -346,7 +356,7 @@ public class TestZosmfImpl {
 
     private void setupPutText() {
         try {
-            Mockito.when(httpClientMock.putText(Mockito.anyString(), Mockito.anyString())).thenReturn(httpClientResponseStringMock); 
+            Mockito.when(httpClientMock.putText(Mockito.anyString(), Mockito.anyString(), Mockito.any())).thenReturn(httpClientResponseStringMock); 
             Mockito.when(httpClientResponseStringMock.getContent()).thenReturn(CONTENT);
             Mockito.when(httpClientResponseStringMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
             Mockito.when(httpClientResponseStringMock.getStatusLine()).thenReturn(STATUS_LINE);
@@ -379,7 +389,7 @@ public class TestZosmfImpl {
     @Test
     public void testPutJsonHttpException() throws ZosmfException, HttpClientException {
         setupPutJson();
-        Mockito.when(httpClientMock.putJson(Mockito.any(), Mockito.any())).thenThrow(new HttpClientException(EXCEPTION));
+        Mockito.when(httpClientMock.putJson(Mockito.any(), Mockito.any(), Mockito.any())).thenThrow(new HttpClientException(EXCEPTION));
         String expectedMessage =  "Problem with PUT to zOSMF server";
         ZosmfException expectedException = Assert.assertThrows("expected exception should be thrown", ZosmfException.class, ()->{
         	zosmfSpy.putJson(PATH, new JsonObject(), null);
@@ -389,7 +399,7 @@ public class TestZosmfImpl {
 
     private void setupPutJson() {
         try {
-            Mockito.when(httpClientMock.putJson(Mockito.anyString(), Mockito.any())).thenReturn(httpClientResponseJsonMock); 
+            Mockito.when(httpClientMock.putJson(Mockito.anyString(), Mockito.any(), Mockito.any())).thenReturn(httpClientResponseJsonMock); 
             Mockito.when(httpClientResponseJsonMock.getContent()).thenReturn(new JsonObject());
             Mockito.when(httpClientResponseJsonMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
             Mockito.when(httpClientResponseJsonMock.getStatusLine()).thenReturn(STATUS_LINE);
@@ -422,7 +432,7 @@ public class TestZosmfImpl {
     @Test
     public void testPutBinaryHttpException() throws ZosmfException, HttpClientException {
         setupPutBinary();
-        Mockito.when(httpClientMock.putBinary(Mockito.any(), Mockito.any())).thenThrow(new HttpClientException(EXCEPTION));
+        Mockito.when(httpClientMock.putBinary(Mockito.any(), Mockito.any(), Mockito.any())).thenThrow(new HttpClientException(EXCEPTION));
         String expectedMessage = "Problem with PUT to zOSMF server";
         ZosmfException expectedException = Assert.assertThrows("expected exception should be thrown", ZosmfException.class, ()->{
         	zosmfSpy.putBinary(PATH, "".getBytes(), null);
@@ -432,7 +442,7 @@ public class TestZosmfImpl {
 
     private void setupPutBinary() {
         try {
-            Mockito.when(httpClientMock.putBinary(Mockito.anyString(), Mockito.any())).thenReturn(httpClientResponseByteMock); 
+            Mockito.when(httpClientMock.putBinary(Mockito.anyString(), Mockito.any(), Mockito.any())).thenReturn(httpClientResponseByteMock); 
             Mockito.when(httpClientResponseByteMock.getContent()).thenReturn(CONTENT.getBytes());
             Mockito.when(httpClientResponseByteMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
             Mockito.when(httpClientResponseByteMock.getStatusLine()).thenReturn(STATUS_LINE);
@@ -465,7 +475,7 @@ public class TestZosmfImpl {
     @Test
     public void testDeleteHttpException() throws ZosmfException, HttpClientException {
         setupDelete();
-        Mockito.when(httpClientMock.deleteJson(Mockito.any())).thenThrow(new HttpClientException(EXCEPTION));
+        Mockito.when(httpClientMock.deleteJson(Mockito.any(), Mockito.any())).thenThrow(new HttpClientException(EXCEPTION));
         String expectedMessage =  "Problem with DELETE to zOSMF server";
         ZosmfException expectedException = Assert.assertThrows("expected exception should be thrown", ZosmfException.class, ()->{
         	zosmfSpy.delete(PATH, null);
@@ -475,7 +485,7 @@ public class TestZosmfImpl {
 
     private void setupDelete() {
         try {
-            Mockito.when(httpClientMock.deleteJson(Mockito.anyString())).thenReturn(httpClientResponseJsonMock); 
+            Mockito.when(httpClientMock.deleteJson(Mockito.anyString(), Mockito.any())).thenReturn(httpClientResponseJsonMock); 
             Mockito.when(httpClientResponseJsonMock.getContent()).thenReturn(new JsonObject());
             Mockito.when(httpClientResponseJsonMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
             Mockito.when(httpClientResponseJsonMock.getStatusLine()).thenReturn(STATUS_LINE);
@@ -11,6 +11,9 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
@@ -179,6 +182,36 @@ public class TestZosmfResponseImpl {
     	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
     }
     
+    @Test
+    public void testStreamedContent() throws IOException, ZosmfException {
+        Mockito.when(closeableHttpResponseMock.getEntity()).thenReturn(httpEntity);
+        Mockito.when(httpEntity.getContent()).thenReturn(new ByteArrayInputStream("record1\nrecord2\n".getBytes()));
+        Mockito.when(closeableHttpResponseMock.getStatusLine()).thenReturn(statusLineMock);
+        Mockito.when(statusLineMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
+        
+        zosmfResponseSpy.setHttpClientresponse(closeableHttpResponseMock);
+        try (Stream<String> records = zosmfResponseSpy.getContentAsRecords()) {
+            Assert.assertEquals("getContentAsRecords() should return the expected value", Arrays.asList("record1", "record2"), records.collect(Collectors.toList()));
+        }
+        Mockito.verify(closeableHttpResponseMock).close();
+        
+        Mockito.when(httpEntity.getContent()).thenReturn(new ByteArrayInputStream(CONTENT_STRING.getBytes()));
+        zosmfResponseSpy.setHttpClientresponse(closeableHttpResponseMock);
+        Assert.assertEquals("getTextContent() should return the expected value", CONTENT_STRING, zosmfResponseSpy.getTextContent());
+        Assert.assertEquals("getTextContent() should return the expected value", CONTENT_STRING, zosmfResponseSpy.getTextContent());
+        Mockito.verify(closeableHttpResponseMock, Mockito.times(2)).close();
+        
+        Whitebox.setInternalState(zosmfResponseSpy, "content", CONTENT_STRING.getBytes());
+        Assert.assertEquals("getContentAsStream() should return the expected value", CONTENT_STRING, IOUtils.toString(zosmfResponseSpy.getContentAsStream(), StandardCharsets.UTF_8));
+        
+        Whitebox.setInternalState(zosmfResponseSpy, "content", new Integer(0));
+        String expectedMessage = "Content not a stream - " + Integer.class.getName();
+        ZosmfException expectedException = Assert.assertThrows("expected exception should be thrown", ZosmfException.class, ()->{
+            zosmfResponseSpy.getContentAsStream();
+        });
+        Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
+    }
+    
     @Test
     public void testGetRequestUrl() throws ZosmfException, MalformedURLException {
         Assert.assertTrue("getRequestUrl() should return the expected value", new URL(URL + PATH).equals(zosmfResponseSpy.getRequestUrl()));
@@ -8,7 +8,10 @@ package dev.galasa.zosmf.internal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.http.HttpStatus;
 import org.junit.Assert;
@@ -21,10 +24,14 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.powermock.reflect.Whitebox;
 
+import dev.galasa.http.HttpClientException;
 import dev.galasa.zos.IZosImage;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
 import dev.galasa.zosmf.IZosmf;
 import dev.galasa.zosmf.IZosmf.ZosmfRequestType;
 import dev.galasa.zosmf.IZosmfResponse;
+import dev.galasa.zosmf.IZosmfServerStatistics;
+import dev.galasa.zosmf.IZosmfServerStatistics.CircuitState;
 import dev.galasa.zosmf.ZosmfException;
 
 @RunWith(PowerMockRunner.class)
@@ -57,10 +64,10 @@ public class TestZosmfRestApiProcessor {
     @Test
     public void testSendRequest() throws ZosmfException {
         zosmfs.put("image1", zosmfMock1);
-        zosmfRestApiProcessor = new ZosmfRestApiProcessor(zosmfs);
+        zosmfRestApiProcessor = new ZosmfRestApiProcessor(zosmfs, new ZosMetricsRecorder());
         zosmfRestApiProcessorSpy = PowerMockito.spy(zosmfRestApiProcessor);
         Mockito.when(zosmfResponseMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
-        Mockito.when(zosmfMock1.get(Mockito.anyString(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMock);
+        Mockito.when(zosmfMock1.get(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfResponseMock);
         Mockito.when(zosmfMock1.getRequestRetry()).thenReturn(1);
         HashMap<String, String> headers = new HashMap<>();
         headers.put("key", "value");
@@ -73,34 +80,34 @@ public class TestZosmfRestApiProcessor {
         
         zosmfs.put("image1", zosmfMock1);
         zosmfs.put("image2", zosmfMock1);
-        zosmfRestApiProcessor = new ZosmfRestApiProcessor(zosmfs);
+        zosmfRestApiProcessor = new ZosmfRestApiProcessor(zosmfs, new ZosMetricsRecorder());
         zosmfRestApiProcessorSpy = PowerMockito.spy(zosmfRestApiProcessor);
         Mockito.when(zosmfResponseMock.getStatusCode()).thenReturn(HttpStatus.SC_NOT_FOUND).thenReturn(HttpStatus.SC_OK);
         response = zosmfRestApiProcessorSpy.sendRequest(ZosmfRequestType.GET, PATH, null, null, null, false);
         Assert.assertEquals("sendRequest() should return the expected value", HttpStatus.SC_OK, response.getStatusCode());
 
         Mockito.when(zosmfResponseMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
-        Mockito.when(zosmfMock1.postJson(Mockito.anyString(), Mockito.any(), Mockito.any())).thenReturn(zosmfResponseMock);
+        Mockito.when(zosmfMock1.postJson(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(zosmfResponseMock);
         response = zosmfRestApiProcessorSpy.sendRequest(ZosmfRequestType.POST_JSON, PATH, null, null, null, false);
         Assert.assertEquals("sendRequest() should return the expected value", HttpStatus.SC_OK, response.getStatusCode());
 
         Mockito.when(zosmfResponseMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
-        Mockito.when(zosmfMock1.putText(Mockito.anyString(), Mockito.any(), Mockito.any())).thenReturn(zosmfResponseMock);
+        Mockito.when(zosmfMock1.putText(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(zosmfResponseMock);
         response = zosmfRestApiProcessorSpy.sendRequest(ZosmfRequestType.PUT_TEXT, PATH, null, null, null, false);
         Assert.assertEquals("sendRequest() should return the expected value", HttpStatus.SC_OK, response.getStatusCode());
 
         Mockito.when(zosmfResponseMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
-        Mockito.when(zosmfMock1.putJson(Mockito.anyString(), Mockito.any(), Mockito.any())).thenReturn(zosmfResponseMock);
+        Mockito.when(zosmfMock1.putJson(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(zosmfResponseMock);
         response = zosmfRestApiProcessorSpy.sendRequest(ZosmfRequestType.PUT_JSON, PATH, null, null, null, false);
         Assert.assertEquals("sendRequest() should return the expected value", HttpStatus.SC_OK, response.getStatusCode());
 
         Mockito.when(zosmfResponseMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
-        Mockito.when(zosmfMock1.putBinary(Mockito.anyString(), Mockito.any(), Mockito.any())).thenReturn(zosmfResponseMock);
+        Mockito.when(zosmfMock1.putBinary(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(zosmfResponseMock);
         response = zosmfRestApiProcessorSpy.sendRequest(ZosmfRequestType.PUT_BINARY, PATH, null, null, null, false);
         Assert.assertEquals("sendRequest() should return the expected value", HttpStatus.SC_OK, response.getStatusCode());
 
         Mockito.when(zosmfResponseMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
-        Mockito.when(zosmfMock1.delete(Mockito.anyString(), Mockito.any())).thenReturn(zosmfResponseMock);
+        Mockito.when(zosmfMock1.delete(Mockito.anyString(), Mockito.any(), Mockito.any())).thenReturn(zosmfResponseMock);
         response = zosmfRestApiProcessorSpy.sendRequest(ZosmfRequestType.DELETE, PATH, null, null, null, false);
         Assert.assertEquals("sendRequest() should return the expected value", HttpStatus.SC_OK, response.getStatusCode());
 
@@ -113,40 +120,83 @@ public class TestZosmfRestApiProcessor {
     }
     
     @Test
-    public void testGetCurrentZosmfServer() throws ZosmfException {
+    public void testSendRequestFailures() throws ZosmfException {
         zosmfs.put("image1", zosmfMock1);
-        zosmfRestApiProcessor = new ZosmfRestApiProcessor(zosmfs);
+        zosmfRestApiProcessor = new ZosmfRestApiProcessor(zosmfs, new ZosMetricsRecorder());
         zosmfRestApiProcessorSpy = PowerMockito.spy(zosmfRestApiProcessor);
+        Mockito.when(zosmfMock1.getRequestRetry()).thenReturn(0);
+        ZosmfServerHealth health = zosmfRestApiProcessorSpy.getHealth(zosmfMock1);
+        
+        Mockito.when(zosmfMock1.get(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenThrow(new ZosmfStatusCodeException("exception", HttpStatus.SC_NOT_FOUND));
+        Assert.assertThrows("expected exception should be thrown", ZosmfException.class, ()->{
+            zosmfRestApiProcessorSpy.sendRequest(ZosmfRequestType.GET, PATH, null, null, null, false);
+        });
+        Assert.assertEquals("a 4xx response should not count as a failure", 0, health.getFailureCount());
+        
+        Mockito.when(zosmfMock1.get(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenThrow(new ZosmfException("exception"));
+        Assert.assertThrows("expected exception should be thrown", ZosmfException.class, ()->{
+            zosmfRestApiProcessorSpy.sendRequest(ZosmfRequestType.GET, PATH, null, null, null, false);
+        });
+        Assert.assertEquals("an application error should not count as a failure", 0, health.getFailureCount());
+        
+        Mockito.when(zosmfMock1.get(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenThrow(new ZosmfStatusCodeException("exception", HttpStatus.SC_SERVICE_UNAVAILABLE));
+        Assert.assertThrows("expected exception should be thrown", ZosmfException.class, ()->{
+            zosmfRestApiProcessorSpy.sendRequest(ZosmfRequestType.GET, PATH, null, null, null, false);
+        });
+        Assert.assertEquals("a 5xx response should count as a failure", 1, health.getFailureCount());
         
-        Assert.assertEquals("getNextZosmf() should set the expected value", zosmfMock1, zosmfRestApiProcessorSpy.getCurrentZosmfServer());
+        Mockito.when(zosmfMock1.get(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenThrow(new ZosmfException("exception", new HttpClientException("exception")));
+        Assert.assertThrows("expected exception should be thrown", ZosmfException.class, ()->{
+            zosmfRestApiProcessorSpy.sendRequest(ZosmfRequestType.GET, PATH, null, null, null, false);
+        });
+        Assert.assertEquals("a transport error should count as a failure", 2, health.getFailureCount());
+        Assert.assertEquals("circuit should be closed", CircuitState.CLOSED, health.getCircuitState());
     }
     
     @Test
-    public void testGetNextZosmf() throws ZosmfException {
+    public void testGetCurrentZosmfServer() throws ZosmfException {
         zosmfs.put("image1", zosmfMock1);
-        zosmfRestApiProcessor = new ZosmfRestApiProcessor(zosmfs);
+        zosmfRestApiProcessor = new ZosmfRestApiProcessor(zosmfs, new ZosMetricsRecorder());
         zosmfRestApiProcessorSpy = PowerMockito.spy(zosmfRestApiProcessor);
         
-        zosmfRestApiProcessorSpy.getNextZosmf();
-        Assert.assertEquals("getNextZosmf() should set the expected value", zosmfMock1, Whitebox.getInternalState(zosmfRestApiProcessorSpy, "currentZosmf"));
-        
+        Assert.assertEquals("getCurrentZosmfServer() should return the expected value", zosmfMock1, zosmfRestApiProcessorSpy.getCurrentZosmfServer());
+    }
+    
+    @Test
+    public void testSelectZosmf() throws ZosmfException {
         zosmfs.put("image1", zosmfMock1);
         zosmfs.put("image2", zosmfMock2);
         zosmfs.put("image3", zosmfMock3);
-        zosmfRestApiProcessor = new ZosmfRestApiProcessor(zosmfs);
+        zosmfRestApiProcessor = new ZosmfRestApiProcessor(zosmfs, new ZosMetricsRecorder());
         zosmfRestApiProcessorSpy = PowerMockito.spy(zosmfRestApiProcessor);
         
-        zosmfRestApiProcessorSpy.getNextZosmf();
-        Assert.assertEquals("getNextZosmf() should set the expected value", zosmfMock2, Whitebox.getInternalState(zosmfRestApiProcessorSpy, "currentZosmf"));
+        ZosmfServerHealth health1 = zosmfRestApiProcessorSpy.getHealth(zosmfMock1);
+        ZosmfServerHealth health2 = zosmfRestApiProcessorSpy.getHealth(zosmfMock2);
+        ZosmfServerHealth health3 = zosmfRestApiProcessorSpy.getHealth(zosmfMock3);
+        health1.tryAcquire();
+        health1.recordSuccess(TimeUnit.MILLISECONDS.toNanos(500));
+        health2.tryAcquire();
+        health2.recordSuccess(TimeUnit.MILLISECONDS.toNanos(50));
+        health3.tryAcquire();
+        health3.recordSuccess(TimeUnit.MILLISECONDS.toNanos(100));
+        
+        Assert.assertEquals("selectZosmf() should select the fastest server", zosmfMock2, zosmfRestApiProcessorSpy.selectZosmf(new HashSet<>()).getValue());
+        Assert.assertEquals("selectZosmf() should set the expected value", zosmfMock2, Whitebox.getInternalState(zosmfRestApiProcessorSpy, "currentZosmf"));
+        health2.recordSuccess(TimeUnit.MILLISECONDS.toNanos(50));
         
-        zosmfRestApiProcessorSpy.getNextZosmf();
-        Assert.assertEquals("getNextZosmf() should set the expected value", zosmfMock3, Whitebox.getInternalState(zosmfRestApiProcessorSpy, "currentZosmf"));
+        Assert.assertEquals("selectZosmf() should select the fastest server not tried", zosmfMock3, zosmfRestApiProcessorSpy.selectZosmf(new HashSet<>(Arrays.asList("image2"))).getValue());
+        health3.recordSuccess(TimeUnit.MILLISECONDS.toNanos(100));
         
-        zosmfRestApiProcessorSpy.getNextZosmf();
-        Assert.assertEquals("getNextZosmf() should set the expected value", zosmfMock1, Whitebox.getInternalState(zosmfRestApiProcessorSpy, "currentZosmf"));
+        for (int i = 0; i < 3; i++) {
+            health2.tryAcquire();
+            health2.recordFailure(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        Assert.assertEquals("circuit should be open", CircuitState.OPEN, health2.getCircuitState());
+        Assert.assertEquals("selectZosmf() should skip a server with an open circuit", zosmfMock3, zosmfRestApiProcessorSpy.selectZosmf(new HashSet<>()).getValue());
+        health3.recordSuccess(TimeUnit.MILLISECONDS.toNanos(100));
         
-        Whitebox.setInternalState(zosmfRestApiProcessorSpy, "zosmfs", zosmfs = new LinkedHashMap<>());
-        zosmfRestApiProcessorSpy.getNextZosmf();
-        Assert.assertEquals("getNextZosmf() should set the expected value", zosmfMock1, Whitebox.getInternalState(zosmfRestApiProcessorSpy, "currentZosmf"));
+        Map<String, IZosmfServerStatistics> statistics = zosmfRestApiProcessorSpy.getServerStatistics();
+        Assert.assertEquals("getServerStatistics() should return the expected value", 3, statistics.size());
+        Assert.assertEquals("getServerStatistics() should return the expected value", 3, statistics.get("image2").getFailureCount());
     }
 }
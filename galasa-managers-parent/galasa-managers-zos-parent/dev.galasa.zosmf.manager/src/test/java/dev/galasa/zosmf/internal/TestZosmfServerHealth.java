@@ -0,0 +1,109 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosmf.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import dev.galasa.zosmf.IZosmfServerStatistics.CircuitState;
+
+public class TestZosmfServerHealth {
+
+    private AtomicLong clock;
+
+    private ZosmfServerHealth health;
+
+    @Before
+    public void setup() {
+        clock = new AtomicLong(1000);
+        health = new ZosmfServerHealth(clock::get);
+    }
+
+    @Test
+    public void testMovingAverages() {
+        Assert.assertTrue("tryAcquire() should allow requests", health.tryAcquire());
+        Assert.assertEquals("getInFlightRequests() should return the expected value", 1, health.getInFlightRequests());
+        health.recordSuccess(TimeUnit.MILLISECONDS.toNanos(100));
+        Assert.assertEquals("getAverageResponseTime() should return the first response time", 100.0, health.getAverageResponseTime(), 0.001);
+        Assert.assertEquals("getInFlightRequests() should return the expected value", 0, health.getInFlightRequests());
+
+        health.tryAcquire();
+        health.recordSuccess(TimeUnit.MILLISECONDS.toNanos(200));
+        Assert.assertEquals("getAverageResponseTime() should return the expected value", 120.0, health.getAverageResponseTime(), 0.001);
+        Assert.assertEquals("getErrorRate() should return the expected value", 0.0, health.getErrorRate(), 0.001);
+
+        health.tryAcquire();
+        health.recordFailure(TimeUnit.MILLISECONDS.toNanos(120));
+        Assert.assertEquals("getErrorRate() should return the expected value", 0.2, health.getErrorRate(), 0.001);
+        Assert.assertEquals("getRequestCount() should return the expected value", 3, health.getRequestCount());
+        Assert.assertEquals("getFailureCount() should return the expected value", 1, health.getFailureCount());
+        Assert.assertEquals("circuit should stay closed", CircuitState.CLOSED, health.getCircuitState());
+    }
+
+    @Test
+    public void testScore() {
+        ZosmfServerHealth slow = new ZosmfServerHealth(clock::get);
+        slow.tryAcquire();
+        slow.recordSuccess(TimeUnit.MILLISECONDS.toNanos(500));
+        health.tryAcquire();
+        health.recordSuccess(TimeUnit.MILLISECONDS.toNanos(50));
+        Assert.assertTrue("faster server should score lower", health.getScore() < slow.getScore());
+
+        health.tryAcquire();
+        health.recordFailure(TimeUnit.MILLISECONDS.toNanos(50));
+        double scoreWithErrors = health.getScore();
+        health.tryAcquire();
+        Assert.assertTrue("requests in flight should raise the score", health.getScore() > scoreWithErrors);
+    }
+
+    @Test
+    public void testCircuitBreaker() {
+        for (int i = 0; i < ZosmfServerHealth.FAILURE_THRESHOLD; i++) {
+            Assert.assertTrue("tryAcquire() should allow requests", health.tryAcquire());
+            health.recordFailure(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        Assert.assertEquals("circuit should be open", CircuitState.OPEN, health.getCircuitState());
+        Assert.assertFalse("tryAcquire() should refuse requests", health.tryAcquire());
+        Assert.assertEquals("getTimeUntilProbe() should return the expected value", ZosmfServerHealth.INITIAL_BACKOFF, health.getTimeUntilProbe());
+
+        clock.addAndGet(ZosmfServerHealth.INITIAL_BACKOFF);
+        Assert.assertTrue("tryAcquire() should allow a probe", health.tryAcquire());
+        Assert.assertEquals("circuit should be half open", CircuitState.HALF_OPEN, health.getCircuitState());
+        Assert.assertFalse("tryAcquire() should allow only one probe", health.tryAcquire());
+
+        health.recordFailure(TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertEquals("circuit should be open", CircuitState.OPEN, health.getCircuitState());
+        Assert.assertEquals("first reopen should use the initial backoff", ZosmfServerHealth.INITIAL_BACKOFF, health.getTimeUntilProbe());
+
+        clock.addAndGet(ZosmfServerHealth.INITIAL_BACKOFF);
+        Assert.assertTrue("tryAcquire() should allow a probe", health.tryAcquire());
+        health.recordFailure(TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertEquals("backoff should double", ZosmfServerHealth.INITIAL_BACKOFF * 2, health.getTimeUntilProbe());
+
+        clock.addAndGet(ZosmfServerHealth.INITIAL_BACKOFF * 2);
+        Assert.assertTrue("tryAcquire() should allow a probe", health.tryAcquire());
+        health.recordSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertEquals("circuit should be closed", CircuitState.CLOSED, health.getCircuitState());
+        Assert.assertTrue("tryAcquire() should allow requests", health.tryAcquire());
+    }
+
+    @Test
+    public void testForceAcquire() {
+        for (int i = 0; i < ZosmfServerHealth.FAILURE_THRESHOLD; i++) {
+            health.tryAcquire();
+            health.recordFailure(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        health.forceAcquire();
+        Assert.assertEquals("circuit should be half open", CircuitState.HALF_OPEN, health.getCircuitState());
+        Assert.assertEquals("getInFlightRequests() should return the expected value", 1, health.getInFlightRequests());
+        health.recordSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertEquals("circuit should be closed", CircuitState.CLOSED, health.getCircuitState());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2020.
+ */
+package dev.galasa.zosmf.internal.properties;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zosmf.ZosmfManagerException;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ZosmfPropertiesSingleton.class, CpsProperties.class})
+public class TestMaxConnections {
+    
+    private ZosmfPropertiesSingleton properties;
+    
+    @Mock
+    private IConfigurationPropertyStoreService configurationPropertyStoreServiceMock;
+    
+    private static final String IMAGEID = "IMAGE";
+    
+    private static final String MAX_CONNECTIONS = "20";
+    
+    @Test
+    public void testConstructor() {
+        MaxConnections maxConnections = new MaxConnections();
+        Assert.assertNotNull("Object was not created", maxConnections);
+    }
+    
+    @Before
+    public void setup() throws ConfigurationPropertyStoreException, ZosmfManagerException {
+        Mockito.when(configurationPropertyStoreServiceMock.getProperty("image", "max.connections", IMAGEID)).thenReturn(MAX_CONNECTIONS);
+        properties = new ZosmfPropertiesSingleton();
+        properties.activate();
+        ZosmfPropertiesSingleton.setCps(configurationPropertyStoreServiceMock);       
+    }
+    
+    @Test
+    public void testValid() throws Exception {
+        Assert.assertEquals("Unexpected value returned from MaxConnections.get()", Integer.parseInt(MAX_CONNECTIONS), MaxConnections.get(IMAGEID));
+    }
+    
+    @Test
+    public void testDefault() throws Exception {
+        Mockito.when(configurationPropertyStoreServiceMock.getProperty("image", "max.connections", IMAGEID)).thenReturn(null);
+        
+        Assert.assertEquals("Unexpected value returned from MaxConnections.get()", 10, MaxConnections.get(IMAGEID));
+    }
+    
+    @Test
+    public void testInvalid() throws Exception {
+        String invalidValue = "BOB";
+        String expectedMessage = "Invalid value given for zosmf.image.*.max.connections '" + invalidValue + "'";
+        
+        Mockito.when(configurationPropertyStoreServiceMock.getProperty("image", "max.connections", IMAGEID)).thenReturn(invalidValue);
+
+        ZosmfManagerException expectedException = Assert.assertThrows("expected exception should be thrown", ZosmfManagerException.class, ()->{
+        	MaxConnections.get(IMAGEID);
+        });
+    	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
+    }
+    
+    @Test
+    public void testInvalidZero() throws Exception {
+        String invalidValue = "0";
+        String expectedMessage = "Invalid value given for zosmf.image.*.max.connections '" + invalidValue + "', must be greater than 0";
+        
+        Mockito.when(configurationPropertyStoreServiceMock.getProperty("image", "max.connections", IMAGEID)).thenReturn(invalidValue);
+
+        ZosmfManagerException expectedException = Assert.assertThrows("expected exception should be thrown", ZosmfManagerException.class, ()->{
+        	MaxConnections.get(IMAGEID);
+        });
+    	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
+    }
+    
+}
@@ -130,7 +130,7 @@ public class RseapiManagerImpl extends AbstractManager implements IRseapiManager
     public void provisionGenerate() throws ManagerException, ResourceUnavailableException {
         generateAnnotatedFields(RseapiManagerField.class);
     }
-    
+
     @GenerateAnnotatedField(annotation=Rseapi.class)
     public IRseapi generateRseapi(Field field, List<Annotation> annotations) throws RseapiManagerException {
         Rseapi annotationRseapi = field.getAnnotation(Rseapi.class);
@@ -211,11 +211,11 @@ public class RseapiManagerImpl extends AbstractManager implements IRseapiManager
             Map<String, IRseapi> rseapiMap = getRseapis(image);
             for(IRseapi rseapi : rseapiMap.values()) {
                 if (rseapi.getImage().getImageID().equals(image.getImageID())) {
-                    return new RseapiRestApiProcessor(rseapiMap);
+                    return new RseapiRestApiProcessor(rseapiMap, getZosManager().getMetricsRecorder());
                 }
             }
             throw new RseapiManagerException("No RSE API server configured on " + image.getImageID());
         }
-        return new RseapiRestApiProcessor(getRseapis(image));
+        return new RseapiRestApiProcessor(getRseapis(image), getZosManager().getMetricsRecorder());
     }
 }
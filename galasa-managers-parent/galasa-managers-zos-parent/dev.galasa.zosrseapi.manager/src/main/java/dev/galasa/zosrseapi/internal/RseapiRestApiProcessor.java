@@ -22,6 +22,8 @@ import org.apache.http.HttpStatus;
 
 import com.google.gson.JsonObject;
 
+import dev.galasa.zos.spi.ZosMetricsRecorder;
+import dev.galasa.zos.spi.ZosMetricsRecorder.Metric;
 import dev.galasa.zosbatch.ZosBatchException;
 import dev.galasa.zosrseapi.IRseapi;
 import dev.galasa.zosrseapi.IRseapiResponse;
@@ -37,10 +39,16 @@ public class RseapiRestApiProcessor implements IRseapiRestApiProcessor {
     
     private final HashMap<String, IRseapi> rseapis = new LinkedHashMap<>();
     
+    private static final String METRICS_API = "rseapi";
+    private static final String RSEAPI_PATH = "/rseapi/api/v1/";
+    
+    private final ZosMetricsRecorder metricsRecorder;
+
     private static final Log logger = LogFactory.getLog(RseapiRestApiProcessor.class);
     
-    public RseapiRestApiProcessor(Map<String, IRseapi> rseapis) {
+    public RseapiRestApiProcessor(Map<String, IRseapi> rseapis, ZosMetricsRecorder metricsRecorder) {
         this.rseapis.putAll(rseapis);
+        this.metricsRecorder = metricsRecorder;
         this.currentRseapiImageId = this.rseapis.entrySet().iterator().next().getKey();
         this.currentRseapi = this.rseapis.get(this.currentRseapiImageId);
     }
@@ -61,7 +69,10 @@ public class RseapiRestApiProcessor implements IRseapiRestApiProcessor {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         IRseapiResponse response = null;
+        String endpoint = ZosMetricsRecorder.endpoint(path, RSEAPI_PATH, 1);
         for (int i = 0; i <= ((RseapiImpl) currentRseapi).getRequestRetry(); i++) {
+            String serverId = this.currentRseapiImageId;
+            long start = System.nanoTime();
             try {
                 IRseapi rseapiServer = getCurrentRseapiServer();
                 if (headers != null) {
@@ -91,19 +102,27 @@ public class RseapiRestApiProcessor implements IRseapiRestApiProcessor {
                 }
     
                 if (validStatusCodes.contains(response.getStatusCode())) {
+                    this.metricsRecorder.observe(Metric.API_REQUEST, System.nanoTime() - start, serverId, METRICS_API, endpoint);
                     return response;
                 } else {
                     logger.error("Expected HTTP status codes: " + validStatusCodes);
+                    recordFailure(serverId, endpoint, start);
                     getNextRseapi();
                 }
             } catch (RseapiManagerException e) {
                 logger.error("Problem with RSE API request", e);
+                recordFailure(serverId, endpoint, start);
                 getNextRseapi();
             }
         }
         throw new RseapiException("Unable to get valid response from RSE API server");
     }
     
+    private void recordFailure(String serverId, String endpoint, long start) {
+        this.metricsRecorder.observe(Metric.API_REQUEST, System.nanoTime() - start, serverId, METRICS_API, endpoint);
+        this.metricsRecorder.increment(Metric.API_ERRORS, 1, serverId, METRICS_API, endpoint);
+    }
+    
     protected IRseapi getCurrentRseapiServer() {
         logger.debug("Using RSE API server on " + this.currentRseapi);
         this.currentRseapi.clearHeaders();
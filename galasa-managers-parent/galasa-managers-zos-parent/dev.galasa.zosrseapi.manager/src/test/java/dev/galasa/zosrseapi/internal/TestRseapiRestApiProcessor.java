@@ -25,6 +25,7 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import org.powermock.reflect.Whitebox;
 
 import dev.galasa.zos.IZosImage;
+import dev.galasa.zos.spi.ZosMetricsRecorder;
 import dev.galasa.zosrseapi.IRseapi;
 import dev.galasa.zosrseapi.IRseapi.RseapiRequestType;
 import dev.galasa.zosrseapi.IRseapiResponse;
@@ -75,7 +76,7 @@ public class TestRseapiRestApiProcessor {
     @Test
     public void testSendRequest() throws RseapiException {
         rseapis.put("image1", rseapiMock1);
-        rseapiRestApiProcessor = new RseapiRestApiProcessor(rseapis);
+        rseapiRestApiProcessor = new RseapiRestApiProcessor(rseapis, new ZosMetricsRecorder());
         rseapiRestApiProcessorSpy = PowerMockito.spy(rseapiRestApiProcessor);
         Mockito.when(rseapiResponseMock.getStatusCode()).thenReturn(HttpStatus.SC_OK);
         Mockito.when(rseapiMock1.get(Mockito.anyString(), Mockito.any(), Mockito.anyBoolean())).thenReturn(rseapiResponseMock);
@@ -91,7 +92,7 @@ public class TestRseapiRestApiProcessor {
         
         rseapis.put("image1", rseapiMock1);
         rseapis.put("image2", rseapiMock1);
-        rseapiRestApiProcessor = new RseapiRestApiProcessor(rseapis);
+        rseapiRestApiProcessor = new RseapiRestApiProcessor(rseapis, new ZosMetricsRecorder());
         rseapiRestApiProcessorSpy = PowerMockito.spy(rseapiRestApiProcessor);
         Mockito.when(rseapiResponseMock.getStatusCode()).thenReturn(HttpStatus.SC_NOT_FOUND).thenReturn(HttpStatus.SC_OK);
         response = rseapiRestApiProcessorSpy.sendRequest(RseapiRequestType.GET, PATH, null, null, null, false);
@@ -134,7 +135,7 @@ public class TestRseapiRestApiProcessor {
     @Test
     public void testGetCurrentRseapiServer() throws RseapiException {
         rseapis.put("image1", rseapiMock1);
-        rseapiRestApiProcessor = new RseapiRestApiProcessor(rseapis);
+        rseapiRestApiProcessor = new RseapiRestApiProcessor(rseapis, new ZosMetricsRecorder());
         rseapiRestApiProcessorSpy = PowerMockito.spy(rseapiRestApiProcessor);
         
         Assert.assertEquals("getNextRseapi() should set the expected value", rseapiMock1, rseapiRestApiProcessorSpy.getCurrentRseapiServer());
@@ -143,7 +144,7 @@ public class TestRseapiRestApiProcessor {
     @Test
     public void testGetNextRseapi() throws RseapiException {
         rseapis.put("image1", rseapiMock1);
-        rseapiRestApiProcessor = new RseapiRestApiProcessor(rseapis);
+        rseapiRestApiProcessor = new RseapiRestApiProcessor(rseapis, new ZosMetricsRecorder());
         rseapiRestApiProcessorSpy = PowerMockito.spy(rseapiRestApiProcessor);
         
         rseapiRestApiProcessorSpy.getNextRseapi();
@@ -152,7 +153,7 @@ public class TestRseapiRestApiProcessor {
         rseapis.put("image1", rseapiMock1);
         rseapis.put("image2", rseapiMock2);
         rseapis.put("image3", rseapiMock3);
-        rseapiRestApiProcessor = new RseapiRestApiProcessor(rseapis);
+        rseapiRestApiProcessor = new RseapiRestApiProcessor(rseapis, new ZosMetricsRecorder());
         rseapiRestApiProcessorSpy = PowerMockito.spy(rseapiRestApiProcessor);
         
         rseapiRestApiProcessorSpy.getNextRseapi();
@@ -5,6 +5,8 @@
  */
 package dev.galasa.zostsocommand.ssh.manager.internal;
 
+import java.util.concurrent.CompletableFuture;
+
 import javax.validation.constraints.NotNull;
 
 import dev.galasa.zostsocommand.IZosTSOCommand;
@@ -18,6 +20,8 @@ import dev.galasa.zosunixcommand.ZosUNIXCommandException;
  */
 public class ZosTSOCommandImpl implements IZosTSOCommand {
 
+    private static final String UNABLE_TO_ISSUE_ZOS_TSO_COMMAND = "Unable to issue zOS TSO Command";
+
     private IZosUNIXCommand zosUnixCommand;
 	private String tsocmdPath;
     
@@ -32,7 +36,7 @@ public class ZosTSOCommandImpl implements IZosTSOCommand {
         try {
             commandResponse = this.zosUnixCommand.issueCommand(buildCommand(command));
         } catch (ZosUNIXCommandException e) {
-            throw new ZosTSOCommandException("Unable to issue zOS TSO Command", e);
+            throw new ZosTSOCommandException(UNABLE_TO_ISSUE_ZOS_TSO_COMMAND, e);
         }
         return commandResponse;
     }
@@ -43,11 +47,30 @@ public class ZosTSOCommandImpl implements IZosTSOCommand {
         try {
             commandResponse = this.zosUnixCommand.issueCommand(buildCommand(command), timeout);
         } catch (ZosUNIXCommandException e) {
-            throw new ZosTSOCommandException("Unable to issue zOS TSO Command", e);
+            throw new ZosTSOCommandException(UNABLE_TO_ISSUE_ZOS_TSO_COMMAND, e);
         }
         return commandResponse;
     }
 
+    @Override
+    public CompletableFuture<String> issueCommandAsync(@NotNull String command) throws ZosTSOCommandException {
+        CompletableFuture<String> unixResponse;
+        try {
+            unixResponse = this.zosUnixCommand.issueCommandAsync(buildCommand(command));
+        } catch (ZosUNIXCommandException e) {
+            throw new ZosTSOCommandException(UNABLE_TO_ISSUE_ZOS_TSO_COMMAND, e);
+        }
+        CompletableFuture<String> response = new CompletableFuture<>();
+        unixResponse.whenComplete((commandResponse, e) -> {
+            if (e == null) {
+                response.complete(commandResponse);
+            } else {
+                response.completeExceptionally(new ZosTSOCommandException(UNABLE_TO_ISSUE_ZOS_TSO_COMMAND, e));
+            }
+        });
+        return response;
+    }
+
     protected String buildCommand(String command) {
         StringBuilder builtCommand = new StringBuilder();
         builtCommand.append(tsocmdPath);
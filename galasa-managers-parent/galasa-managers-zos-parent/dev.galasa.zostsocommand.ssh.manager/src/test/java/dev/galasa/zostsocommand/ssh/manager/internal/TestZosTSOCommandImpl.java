@@ -5,6 +5,9 @@
  */
 package dev.galasa.zostsocommand.ssh.manager.internal;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -85,4 +88,27 @@ public class TestZosTSOCommandImpl {
         });
     	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
     }
+    
+    @Test
+    public void testIssueCommandAsync() throws ZosTSOCommandException, ZosUNIXCommandException {
+        Mockito.when(zosUNIXCommandMock.issueCommandAsync(Mockito.any())).thenReturn(CompletableFuture.completedFuture(FIXED_COMMAND));
+        Assert.assertEquals("Error in issueCommandAsync() method", FIXED_COMMAND, zosTSOCommandSpy.issueCommandAsync(FIXED_COMMAND).join());
+        Mockito.verify(zosUNIXCommandMock).issueCommandAsync(TSOCMD_PATH + " '" + FIXED_COMMAND + "'");
+
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new ZosUNIXCommandException());
+        Mockito.when(zosUNIXCommandMock.issueCommandAsync(Mockito.any())).thenReturn(failed);
+        String expectedMessage = "Unable to issue zOS TSO Command";
+        ExecutionException expectedException = Assert.assertThrows("expected exception should be thrown", ExecutionException.class, ()->{
+        	zosTSOCommandSpy.issueCommandAsync(FIXED_COMMAND).get();
+        });
+    	Assert.assertTrue("exception cause should be a ZosTSOCommandException", expectedException.getCause() instanceof ZosTSOCommandException);
+    	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getCause().getMessage());
+
+        Mockito.when(zosUNIXCommandMock.issueCommandAsync(Mockito.any())).thenThrow(new ZosUNIXCommandException());
+        ZosTSOCommandException expectedTSOException = Assert.assertThrows("expected exception should be thrown", ZosTSOCommandException.class, ()->{
+        	zosTSOCommandSpy.issueCommandAsync(FIXED_COMMAND);
+        });
+    	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedTSOException.getMessage());
+    }
 }
\ No newline at end of file
@@ -5,6 +5,8 @@
  */
 package dev.galasa.zosunixcommand.ssh.manager.internal;
 
+import java.util.concurrent.CompletableFuture;
+
 import javax.validation.constraints.NotNull;
 
 import org.apache.commons.logging.Log;
@@ -80,6 +82,39 @@ public class ZosUNIXCommandImpl implements IZosUNIXCommand {
 	    return commandResponse;
 	}
 
+	@Override
+	public CompletableFuture<String> issueCommandAsync(@NotNull String command) throws ZosUNIXCommandException {
+	    logger.debug("About to issue command :" + command);
+	    try {
+	        return response(getCommandShell(getDefaultCredentials()).issueCommandAsync(command));
+	    } catch (IpNetworkManagerException e) {
+	        throw new ZosUNIXCommandException(UNABLE_TO_ISSUE_ZOS_UNIX_COMMAND, e);
+	    }
+	}
+
+	@Override
+	public CompletableFuture<String> issueCommandAsync(@NotNull String command, long timeout, ICredentials credentials) throws ZosUNIXCommandException {
+	    logger.debug("About to issue command :" + command);
+	    try {
+	        return response(getCommandShell(credentials).issueCommandAsync(command, timeout));
+	    } catch (IpNetworkManagerException e) {
+	        throw new ZosUNIXCommandException(UNABLE_TO_ISSUE_ZOS_UNIX_COMMAND, e);
+	    }
+	}
+
+	protected CompletableFuture<String> response(CompletableFuture<String> shellResponse) {
+	    CompletableFuture<String> response = new CompletableFuture<>();
+	    shellResponse.whenComplete((commandResponse, e) -> {
+	        if (e == null) {
+	            logger.debug("response :" + commandResponse);
+	            response.complete(commandResponse);
+	        } else {
+	            response.completeExceptionally(new ZosUNIXCommandException(UNABLE_TO_ISSUE_ZOS_UNIX_COMMAND, e));
+	        }
+	    });
+	    return response;
+	}
+
 	protected ICredentials getDefaultCredentials() throws ZosUNIXCommandException {
 		if (this.defaultCredentials == null) {
 	        try {
@@ -5,6 +5,9 @@
  */
 package dev.galasa.zosunixcommand.ssh.manager.internal;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -89,6 +92,30 @@ public class TestZosUNIXCommandImpl {
     	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getMessage());
     }
     
+    @Test
+    public void testIssueCommandAsync() throws ZosUNIXCommandException, IpNetworkManagerException, InterruptedException {
+        Mockito.doReturn(credentialsMock).when(zosUNIXCommandSpy).getDefaultCredentials();
+        Mockito.doReturn(commandShellMock).when(zosUNIXCommandSpy).getCommandShell(Mockito.any());
+        Mockito.doReturn(CompletableFuture.completedFuture(FIXED_COMMAND)).when(commandShellMock).issueCommandAsync(Mockito.any());
+        Assert.assertEquals("Error in issueCommandAsync() method", FIXED_COMMAND, zosUNIXCommandSpy.issueCommandAsync(FIXED_COMMAND).join());
+        
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IpNetworkManagerException());
+        Mockito.doReturn(failed).when(commandShellMock).issueCommandAsync(Mockito.any(), Mockito.anyLong());
+        String expectedMessage = "Unable to issue zOS UNIX Command";
+        ExecutionException expectedException = Assert.assertThrows("expected exception should be thrown", ExecutionException.class, ()->{
+        	zosUNIXCommandSpy.issueCommandAsync(FIXED_COMMAND, 1L, credentialsMock).get();
+        });
+        Assert.assertTrue("future should complete with a ZosUNIXCommandException", expectedException.getCause() instanceof ZosUNIXCommandException);
+    	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getCause().getMessage());
+        
+        Mockito.when(commandShellMock.issueCommandAsync(Mockito.any())).thenThrow(new IpNetworkManagerException());
+        ZosUNIXCommandException expectedException1 = Assert.assertThrows("expected exception should be thrown", ZosUNIXCommandException.class, ()->{
+        	zosUNIXCommandSpy.issueCommandAsync(FIXED_COMMAND);
+        });
+    	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException1.getMessage());
+    }
+    
     @Test
 	public void testGetDefaultCredentials() throws ZosManagerException {
 		Whitebox.setInternalState(zosUNIXCommandSpy, "defaultCredentials", (ICredentials) null);